@@ -23,7 +23,11 @@ import android.support.test.espresso.intent.rule.IntentsTestRule;
 import com.karumi.screenshot.di.MainComponent;
 import com.karumi.screenshot.di.MainModule;
 import com.karumi.screenshot.model.SuperHero;
+import com.karumi.screenshot.model.SuperHeroSummary;
+import com.karumi.screenshot.model.SuperHeroesPage;
+import com.karumi.screenshot.model.SuperHeroesObserver;
 import com.karumi.screenshot.model.SuperHeroesRepository;
+import com.karumi.screenshot.model.SuperHeroesSubscription;
 import com.karumi.screenshot.ui.view.MainActivity;
 import com.karumi.screenshot.ui.view.SuperHeroDetailActivity;
 import it.cosenonjaviste.daggermock.DaggerMockRule;
@@ -40,6 +44,9 @@ import static android.support.test.espresso.intent.Intents.intended;
 import static android.support.test.espresso.intent.matcher.IntentMatchers.hasComponent;
 import static android.support.test.espresso.intent.matcher.IntentMatchers.hasExtra;
 import static android.support.test.espresso.matcher.ViewMatchers.withId;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.when;
 
 public class MainActivityTest extends ScreenshotTest {
@@ -47,7 +54,8 @@ public class MainActivityTest extends ScreenshotTest {
   private static final int ANY_NUMBER_OF_SUPER_HEROES = 10;
 
   @Rule public DaggerMockRule<MainComponent> daggerRule =
-      new DaggerMockRule<>(MainComponent.class, new MainModule()).set(
+      new DaggerMockRule<>(MainComponent.class,
+          new MainModule(InstrumentationRegistry.getTargetContext())).set(
           new DaggerMockRule.ComponentSetter<MainComponent>() {
             @Override public void setComponent(MainComponent component) {
               SuperHeroesApplication app =
@@ -130,6 +138,7 @@ public class MainActivityTest extends ScreenshotTest {
 
   private List<SuperHero> givenThereAreSomeSuperHeroes(int numberOfSuperHeroes, boolean avengers) {
     List<SuperHero> superHeroes = new LinkedList<>();
+    List<SuperHeroSummary> summaries = new LinkedList<>();
     for (int i = 0; i < numberOfSuperHeroes; i++) {
       String superHeroName = "SuperHero - " + i;
       String superHeroDescription = "Description Super Hero - " + i;
@@ -137,14 +146,27 @@ public class MainActivityTest extends ScreenshotTest {
           new SuperHero(superHeroName, null, avengers,
               superHeroDescription);
       superHeroes.add(superHero);
+      summaries.add(superHero.toSummary());
       when(repository.getByName(superHeroName)).thenReturn(superHero);
     }
-    when(repository.getAll()).thenReturn(superHeroes);
+    when(repository.getSummariesPage(anyString(), anyInt())).thenReturn(
+        new SuperHeroesPage(summaries, null));
+    givenTheSuperHeroesDoNotChange();
     return superHeroes;
   }
 
   private void givenThereAreNoSuperHeroes() {
-    when(repository.getAll()).thenReturn(Collections.<SuperHero>emptyList());
+    when(repository.getSummariesPage(anyString(), anyInt())).thenReturn(
+        new SuperHeroesPage(Collections.<SuperHeroSummary>emptyList(), null));
+    givenTheSuperHeroesDoNotChange();
+  }
+
+  private void givenTheSuperHeroesDoNotChange() {
+    when(repository.subscribe(any(SuperHeroesObserver.class))).thenReturn(
+        new SuperHeroesSubscription() {
+          @Override public void unsubscribe() {
+          }
+        });
   }
 
   private MainActivity startActivity() {
@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot;
+
+import android.content.Context;
+import android.os.Environment;
+import android.support.test.InstrumentationRegistry;
+import android.util.Log;
+import com.karumi.screenshot.di.MainComponent;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import org.junit.rules.TestWatcher;
+import org.junit.runner.Description;
+
+/**
+ * Exports the metrics recorded while a test ran next to its screenshots, one JSON file per
+ * test, so the timings of every screenshot run can be pulled from the device and compared.
+ */
+public class MetricsDumpRule extends TestWatcher {
+
+  private static final String LOG_TAG = "MetricsDumpRule";
+
+  @Override protected void finished(Description description) {
+    Context context = InstrumentationRegistry.getTargetContext();
+    SuperHeroesApplication application =
+        (SuperHeroesApplication) context.getApplicationContext();
+    MainComponent component = application.getMainComponent();
+    if (component == null) {
+      return;
+    }
+    File directory = new File(Environment.getExternalStorageDirectory(),
+        "screenshots/" + context.getPackageName() + "/metrics");
+    String name = description.getClassName() + "_" + description.getMethodName() + ".json";
+    try {
+      if (!directory.isDirectory() && !directory.mkdirs()) {
+        throw new IOException("Could not create " + directory);
+      }
+      Writer writer = new FileWriter(new File(directory, name));
+      try {
+        component.getMetricsRegistry().export(writer);
+      } finally {
+        writer.close();
+      }
+    } catch (IOException e) {
+      Log.w(LOG_TAG, "Could not export the metrics of " + description.getDisplayName(), e);
+    }
+  }
+}
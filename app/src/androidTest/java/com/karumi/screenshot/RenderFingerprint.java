@@ -0,0 +1,208 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.Typeface;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.ColorDrawable;
+import android.graphics.drawable.Drawable;
+import android.text.TextPaint;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+import android.widget.TextView;
+import java.util.Arrays;
+
+/**
+ * 64-bit FNV-1a hash of everything in a laid out view hierarchy that changes what it draws:
+ * classes, bounds, padding, visibility, alpha, drawable state, texts with their typeface and
+ * compound drawables, image matrices and drawables. Bitmaps are hashed by their pixels and any
+ * other drawable, like vectors, nine-patches or shapes, is drawn into a bitmap and hashed the
+ * same way. Typefaces can not be compared across runs, so they are hashed by their style and the
+ * metrics they give to the text paint.
+ */
+final class RenderFingerprint {
+
+  private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+  private static final String TYPEFACE_PROBE = "Hamburgefonstiv 0123456789";
+
+  private long hash = FNV_OFFSET_BASIS;
+
+  private RenderFingerprint() {
+  }
+
+  static long of(View view) {
+    RenderFingerprint fingerprint = new RenderFingerprint();
+    fingerprint.add(view);
+    return fingerprint.hash;
+  }
+
+  private void add(View view) {
+    add(view.getClass().getName());
+    add(view.getLeft());
+    add(view.getTop());
+    add(view.getWidth());
+    add(view.getHeight());
+    add(view.getScrollX());
+    add(view.getScrollY());
+    add(view.getPaddingLeft());
+    add(view.getPaddingTop());
+    add(view.getPaddingRight());
+    add(view.getPaddingBottom());
+    add(view.getVisibility());
+    add(Float.floatToIntBits(view.getAlpha()));
+    add(Arrays.hashCode(view.getDrawableState()));
+    add(view.getBackground());
+    if (view instanceof TextView) {
+      TextView textView = (TextView) view;
+      add(String.valueOf(textView.getText()));
+      add(textView.getCurrentTextColor());
+      add(Float.floatToIntBits(textView.getTextSize()));
+      add(textView.getGravity());
+      add(textView.getLineCount());
+      add(textView.getPaint());
+      add(textView.getCompoundDrawablePadding());
+      for (Drawable compoundDrawable : textView.getCompoundDrawables()) {
+        add(compoundDrawable);
+      }
+    }
+    if (view instanceof ImageView) {
+      ImageView imageView = (ImageView) view;
+      add(imageView.getScaleType().ordinal());
+      add(imageView.getImageMatrix());
+      add(imageView.getDrawable());
+    }
+    if (view instanceof ViewGroup) {
+      ViewGroup viewGroup = (ViewGroup) view;
+      add(viewGroup.getChildCount());
+      for (int i = 0; i < viewGroup.getChildCount(); i++) {
+        add(viewGroup.getChildAt(i));
+      }
+    }
+  }
+
+  private void add(Drawable drawable) {
+    if (drawable == null) {
+      add(0);
+      return;
+    }
+    add(drawable.getClass().getName());
+    Rect bounds = drawable.getBounds();
+    add(bounds.left);
+    add(bounds.top);
+    add(bounds.right);
+    add(bounds.bottom);
+    add(drawable.getLevel());
+    add(Arrays.hashCode(drawable.getState()));
+    Drawable current = drawable.getCurrent();
+    if (drawable instanceof ColorDrawable) {
+      add(((ColorDrawable) drawable).getColor());
+    } else if (drawable instanceof BitmapDrawable) {
+      BitmapDrawable bitmapDrawable = (BitmapDrawable) drawable;
+      add(bitmapDrawable.getPaint().getAlpha());
+      add(bitmapDrawable.getBitmap());
+    } else if (current == drawable) {
+      addRendered(drawable);
+    }
+    if (current != drawable) {
+      add(current);
+    }
+  }
+
+  private void addRendered(Drawable drawable) {
+    Rect bounds = drawable.getBounds();
+    int width = bounds.isEmpty() ? drawable.getIntrinsicWidth() : bounds.width();
+    int height = bounds.isEmpty() ? drawable.getIntrinsicHeight() : bounds.height();
+    if (width <= 0 || height <= 0) {
+      add(0);
+      return;
+    }
+    Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+    Canvas canvas = new Canvas(bitmap);
+    if (bounds.isEmpty()) {
+      Rect previousBounds = new Rect(bounds);
+      drawable.setBounds(0, 0, width, height);
+      drawable.draw(canvas);
+      drawable.setBounds(previousBounds);
+    } else {
+      canvas.translate(-bounds.left, -bounds.top);
+      drawable.draw(canvas);
+    }
+    add(bitmap);
+    bitmap.recycle();
+  }
+
+  private void add(TextPaint paint) {
+    Typeface typeface = paint.getTypeface();
+    add(typeface == null ? Typeface.NORMAL : typeface.getStyle());
+    add(paint.getFlags());
+    add(Float.floatToIntBits(paint.getTextScaleX()));
+    add(Float.floatToIntBits(paint.getTextSkewX()));
+    Paint.FontMetrics fontMetrics = paint.getFontMetrics();
+    add(Float.floatToIntBits(fontMetrics.top));
+    add(Float.floatToIntBits(fontMetrics.ascent));
+    add(Float.floatToIntBits(fontMetrics.descent));
+    add(Float.floatToIntBits(fontMetrics.bottom));
+    add(Float.floatToIntBits(paint.measureText(TYPEFACE_PROBE)));
+  }
+
+  private void add(Matrix matrix) {
+    float[] values = new float[9];
+    matrix.getValues(values);
+    for (float value : values) {
+      add(Float.floatToIntBits(value));
+    }
+  }
+
+  private void add(Bitmap bitmap) {
+    if (bitmap == null) {
+      add(0);
+      return;
+    }
+    int width = bitmap.getWidth();
+    int height = bitmap.getHeight();
+    add(width);
+    add(height);
+    int[] row = new int[width];
+    for (int y = 0; y < height; y++) {
+      bitmap.getPixels(row, 0, width, 0, y, width, 1);
+      for (int pixel : row) {
+        add(pixel);
+      }
+    }
+  }
+
+  private void add(String value) {
+    add(value.length());
+    for (int i = 0; i < value.length(); i++) {
+      add(value.charAt(i));
+    }
+  }
+
+  private void add(int value) {
+    for (int shift = 0; shift < 32; shift += 8) {
+      hash ^= (value >>> shift) & 0xff;
+      hash *= FNV_PRIME;
+    }
+  }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Bundle;
+import android.os.Environment;
+import android.util.Log;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Render fingerprints of the screenshots recorded by previous runs. They are kept on the
+ * external storage next to the screenshots so they survive the reinstall of the test APK.
+ *
+ * Captures are only skipped when the runner gets {@code -e skipUnchangedScreenshots true}. While
+ * skipping is enabled every capture also keeps a PNG of the screenshot next to its fingerprint,
+ * and a skipped capture records that PNG again so the screenshot is still part of the run.
+ */
+final class RenderFingerprints {
+
+  private static final String LOG_TAG = "RenderFingerprints";
+  private static final String SKIP_UNCHANGED_ARGUMENT = "skipUnchangedScreenshots";
+  private static final String DIRECTORY_ARGUMENT = "renderFingerprintsDirectory";
+  private static final String SCREENSHOT_EXTENSION = ".png";
+
+  private static final AtomicInteger capturedScreenshots = new AtomicInteger();
+  private static final AtomicInteger skippedScreenshots = new AtomicInteger();
+  private static volatile boolean skipUnchanged;
+  private static volatile File directory;
+
+  private RenderFingerprints() {
+  }
+
+  static void configure(Context context, Bundle args) {
+    skipUnchanged = Boolean.parseBoolean(args.getString(SKIP_UNCHANGED_ARGUMENT));
+    String directoryPath = args.getString(DIRECTORY_ARGUMENT);
+    directory = directoryPath != null ? new File(directoryPath)
+        : new File(Environment.getExternalStorageDirectory(),
+            "screenshots/" + context.getPackageName() + "/render-fingerprints");
+  }
+
+  /**
+   * Returns the screenshot kept by the last capture, and counts it as skipped, if skipping is
+   * enabled and that capture had the same fingerprint. Returns null if the screenshot has to be
+   * captured.
+   */
+  static Bitmap getUnchangedScreenshot(String name, long fingerprint) {
+    if (!skipUnchanged || !Long.toHexString(fingerprint).equals(read(name))) {
+      return null;
+    }
+    File file = getFile(name + SCREENSHOT_EXTENSION);
+    Bitmap screenshot = file.exists() ? BitmapFactory.decodeFile(file.getPath()) : null;
+    if (screenshot != null) {
+      skippedScreenshots.incrementAndGet();
+    }
+    return screenshot;
+  }
+
+  static boolean isKeepingScreenshots() {
+    return skipUnchanged;
+  }
+
+  /**
+   * Stores the fingerprint of a capture. The screenshot is kept only if skipping is enabled and
+   * may be null otherwise, in which case the one kept by an older capture is deleted so it is
+   * never paired with the new fingerprint.
+   */
+  static void onCaptured(String name, long fingerprint, Bitmap screenshot) {
+    capturedScreenshots.incrementAndGet();
+    if (skipUnchanged) {
+      if (!writeScreenshot(name, screenshot)) {
+        return;
+      }
+    } else {
+      File file = getFile(name + SCREENSHOT_EXTENSION);
+      if (file != null) {
+        file.delete();
+      }
+    }
+    write(name, Long.toHexString(fingerprint));
+  }
+
+  static int getCapturedScreenshots() {
+    return capturedScreenshots.get();
+  }
+
+  static int getSkippedScreenshots() {
+    return skippedScreenshots.get();
+  }
+
+  private static String read(String name) {
+    File file = getFile(name);
+    if (file == null || !file.exists()) {
+      return null;
+    }
+    try {
+      BufferedReader reader = new BufferedReader(new FileReader(file));
+      try {
+        return reader.readLine();
+      } finally {
+        reader.close();
+      }
+    } catch (IOException e) {
+      Log.w(LOG_TAG, "Could not read the render fingerprint of " + name, e);
+      return null;
+    }
+  }
+
+  private static void write(String name, String fingerprint) {
+    File file = getFile(name);
+    if (file == null) {
+      return;
+    }
+    try {
+      if (!directory.isDirectory() && !directory.mkdirs()) {
+        throw new IOException("Could not create " + directory);
+      }
+      Writer writer = new FileWriter(file);
+      try {
+        writer.write(fingerprint);
+      } finally {
+        writer.close();
+      }
+    } catch (IOException e) {
+      Log.w(LOG_TAG, "Could not write the render fingerprint of " + name, e);
+    }
+  }
+
+  private static boolean writeScreenshot(String name, Bitmap screenshot) {
+    File file = getFile(name + SCREENSHOT_EXTENSION);
+    if (file == null) {
+      return false;
+    }
+    try {
+      if (!directory.isDirectory() && !directory.mkdirs()) {
+        throw new IOException("Could not create " + directory);
+      }
+      OutputStream output = new BufferedOutputStream(new FileOutputStream(file));
+      try {
+        screenshot.compress(Bitmap.CompressFormat.PNG, 100, output);
+      } finally {
+        output.close();
+      }
+      return true;
+    } catch (IOException e) {
+      Log.w(LOG_TAG, "Could not write the screenshot of " + name, e);
+      return false;
+    }
+  }
+
+  private static File getFile(String name) {
+    return directory == null ? null : new File(directory, name);
+  }
+}
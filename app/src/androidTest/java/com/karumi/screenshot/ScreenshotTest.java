@@ -18,18 +18,26 @@ package com.karumi.screenshot;
 
 import android.app.Activity;
 import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
 import android.support.v7.widget.RecyclerView;
 import android.test.suitebuilder.annotation.LargeTest;
 import android.util.DisplayMetrics;
 import android.view.View;
 import android.view.WindowManager;
+import android.widget.ImageView;
 import com.facebook.testing.screenshot.Screenshot;
 import com.facebook.testing.screenshot.ViewHelpers;
+import org.junit.Rule;
+import org.junit.rules.TestName;
 
 import static android.support.test.InstrumentationRegistry.getInstrumentation;
 
 @LargeTest public class ScreenshotTest {
 
+  @Rule public MetricsDumpRule metricsRule = new MetricsDumpRule();
+  @Rule public TestName testName = new TestName();
+
   protected void compareScreenshot(Activity activity) {
     Screenshot.snapActivity(activity).record();
   }
@@ -47,6 +55,37 @@ import static android.support.test.InstrumentationRegistry.getInstrumentation;
         .setExactHeightPx(context.getResources().getDimensionPixelSize(height))
         .setExactWidthPx(metrics.widthPixels)
         .layout();
-    Screenshot.snap(view).record();
+    String name = getClass().getName() + "_" + testName.getMethodName();
+    long fingerprint = RenderFingerprint.of(view);
+    Bitmap unchangedScreenshot = RenderFingerprints.getUnchangedScreenshot(name, fingerprint);
+    if (unchangedScreenshot != null) {
+      recordAgain(context, unchangedScreenshot, name);
+      return;
+    }
+    Screenshot.snap(view).setName(name).record();
+    RenderFingerprints.onCaptured(name, fingerprint,
+        RenderFingerprints.isKeepingScreenshots() ? draw(view) : null);
+  }
+
+  /**
+   * Records the screenshot kept by the last capture under the same name, so the run still has
+   * it without drawing the view hierarchy again.
+   */
+  private static void recordAgain(Context context, Bitmap screenshot, String name) {
+    ImageView imageView = new ImageView(context);
+    imageView.setScaleType(ImageView.ScaleType.FIT_XY);
+    imageView.setImageBitmap(screenshot);
+    ViewHelpers.setupView(imageView)
+        .setExactWidthPx(screenshot.getWidth())
+        .setExactHeightPx(screenshot.getHeight())
+        .layout();
+    Screenshot.snap(imageView).setName(name).record();
+  }
+
+  private static Bitmap draw(View view) {
+    Bitmap bitmap =
+        Bitmap.createBitmap(view.getWidth(), view.getHeight(), Bitmap.Config.ARGB_8888);
+    view.draw(new Canvas(bitmap));
+    return bitmap;
   }
 }
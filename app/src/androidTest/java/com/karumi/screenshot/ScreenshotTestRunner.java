@@ -18,17 +18,29 @@ package com.karumi.screenshot;
 
 import android.os.Bundle;
 import android.support.test.runner.AndroidJUnitRunner;
+import android.util.Log;
 import com.facebook.testing.screenshot.ScreenshotRunner;
 
 public class ScreenshotTestRunner extends AndroidJUnitRunner {
 
+  private static final String LOG_TAG = "ScreenshotTestRunner";
+
   @Override public void onCreate(Bundle args) {
     ScreenshotRunner.onCreate(this, args);
+    RenderFingerprints.configure(getTargetContext(), args);
     super.onCreate(args);
   }
 
   @Override public void finish(int resultCode, Bundle results) {
     ScreenshotRunner.onDestroy();
+    int capturedScreenshots = RenderFingerprints.getCapturedScreenshots();
+    int skippedScreenshots = RenderFingerprints.getSkippedScreenshots();
+    Log.i(LOG_TAG, capturedScreenshots + " screenshots captured, " + skippedScreenshots
+        + " skipped because their render tree did not change");
+    if (results != null) {
+      results.putInt("capturedScreenshots", capturedScreenshots);
+      results.putInt("skippedScreenshots", skippedScreenshots);
+    }
     super.finish(resultCode, results);
   }
 }
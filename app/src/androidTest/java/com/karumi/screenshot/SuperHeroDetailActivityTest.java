@@ -35,7 +35,8 @@ import static org.mockito.Mockito.when;
 public class SuperHeroDetailActivityTest extends ScreenshotTest {
 
   @Rule public DaggerMockRule<MainComponent> daggerRule =
-      new DaggerMockRule<>(MainComponent.class, new MainModule()).set(
+      new DaggerMockRule<>(MainComponent.class,
+          new MainModule(InstrumentationRegistry.getTargetContext())).set(
           new DaggerMockRule.ComponentSetter<MainComponent>() {
             @Override public void setComponent(MainComponent component) {
               SuperHeroesApplication app =
@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.ui.view;
+
+import android.content.Context;
+import android.os.Debug;
+import android.support.v7.widget.RecyclerView;
+import android.widget.FrameLayout;
+import android.widget.ImageView;
+import com.karumi.screenshot.executor.AndroidScheduler;
+import com.karumi.screenshot.model.SuperHeroSummary;
+import com.karumi.screenshot.ui.presenter.SuperHeroesPresenter;
+import com.squareup.picasso.Picasso;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import org.junit.Test;
+
+import static android.support.test.InstrumentationRegistry.getInstrumentation;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class SuperHeroBindAllocationTest {
+
+  private static final int PAGE_SIZE = 20;
+  private static final int NUMBER_OF_BINDS = 10000;
+  private static final int WARM_UP_BINDS = 100;
+  private static final float MAX_ALLOCATIONS_PER_BIND = 4f;
+  private static final String[] PHOTOS = {
+      "https://i.annihil.us/u/prod/marvel/i/mg/9/c0/527bb7b37ff55.jpg",
+      "https://i.annihil.us/u/prod/marvel/i/mg/5/a0/538615ca33ab0.jpg",
+      "https://i.annihil.us/u/prod/marvel/i/mg/d/d0/5269657a74350.jpg"
+  };
+
+  /**
+   * Every row has a different photo than the previous one, so every bind goes through Picasso.
+   * The allocations of Picasso's own request are measured on a plain ImageView and taken out of
+   * the budget, which only covers the work of the adapter and the view holder.
+   */
+  @Test public void bindsSuperHeroesWithinTheAllocationBudget() {
+    final SuperHeroesAdapter adapter = givenAnAdapterWithSuperHeroes(NUMBER_OF_BINDS);
+    final float[] allocationsPerBind = new float[2];
+
+    getInstrumentation().runOnMainSync(new Runnable() {
+      @Override public void run() {
+        Context context = getInstrumentation().getTargetContext();
+        RecyclerView.ViewHolder holder = adapter.onCreateViewHolder(new FrameLayout(context), 0);
+        ImageView imageView = new ImageView(context);
+        for (int position = 0; position < WARM_UP_BINDS; position++) {
+          adapter.onBindViewHolder(holder, position);
+          loadPhoto(imageView, position);
+        }
+        allocationsPerBind[0] = countAllocationsPerBind(adapter, holder);
+        allocationsPerBind[1] = countAllocationsPerPhotoLoad(imageView);
+      }
+    });
+
+    float ownAllocationsPerBind = allocationsPerBind[0] - allocationsPerBind[1];
+    assertTrue("Binding allocated " + ownAllocationsPerBind + " objects per row on top of the "
+            + allocationsPerBind[1] + " of the photo request",
+        ownAllocationsPerBind <= MAX_ALLOCATIONS_PER_BIND);
+  }
+
+  @SuppressWarnings("deprecation")
+  private static float countAllocationsPerBind(SuperHeroesAdapter adapter,
+      RecyclerView.ViewHolder holder) {
+    Debug.startAllocCounting();
+    Debug.resetThreadAllocCount();
+    for (int position = 0; position < NUMBER_OF_BINDS; position++) {
+      adapter.onBindViewHolder(holder, position);
+    }
+    int allocations = Debug.getThreadAllocCount();
+    Debug.stopAllocCounting();
+    return (float) allocations / NUMBER_OF_BINDS;
+  }
+
+  @SuppressWarnings("deprecation")
+  private static float countAllocationsPerPhotoLoad(ImageView imageView) {
+    Debug.startAllocCounting();
+    Debug.resetThreadAllocCount();
+    for (int position = 0; position < NUMBER_OF_BINDS; position++) {
+      loadPhoto(imageView, position);
+    }
+    int allocations = Debug.getThreadAllocCount();
+    Debug.stopAllocCounting();
+    return (float) allocations / NUMBER_OF_BINDS;
+  }
+
+  private static void loadPhoto(ImageView imageView, int position) {
+    Picasso.with(imageView.getContext())
+        .load(PHOTOS[position % PHOTOS.length])
+        .fit()
+        .centerCrop()
+        .into(imageView);
+  }
+
+  private SuperHeroesAdapter givenAnAdapterWithSuperHeroes(final int numberOfSuperHeroes) {
+    final SuperHeroesAdapter adapter =
+        new SuperHeroesAdapter(mock(SuperHeroesPresenter.class), PAGE_SIZE,
+            new AndroidScheduler(new Executor() {
+              @Override public void execute(Runnable command) {
+                command.run();
+              }
+            }));
+    getInstrumentation().runOnMainSync(new Runnable() {
+      @Override public void run() {
+        for (int pageIndex = 0; pageIndex * PAGE_SIZE < numberOfSuperHeroes; pageIndex++) {
+          List<SuperHeroSummary> page = new ArrayList<>();
+          for (int i = 0; i < PAGE_SIZE; i++) {
+            int index = pageIndex * PAGE_SIZE + i;
+            page.add(new SuperHeroSummary("SuperHero - " + index, PHOTOS[index % PHOTOS.length],
+                index % 2 == 0));
+          }
+          adapter.showPage(pageIndex, page);
+        }
+      }
+    });
+    return adapter;
+  }
+}
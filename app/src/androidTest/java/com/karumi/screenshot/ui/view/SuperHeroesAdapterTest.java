@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.ui.view;
+
+import android.content.Context;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import com.facebook.testing.screenshot.ViewHelpers;
+import com.karumi.screenshot.executor.AndroidScheduler;
+import com.karumi.screenshot.model.SuperHeroSummary;
+import com.karumi.screenshot.ui.presenter.SuperHeroesPresenter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import org.junit.Test;
+
+import static android.support.test.InstrumentationRegistry.getInstrumentation;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+
+public class SuperHeroesAdapterTest {
+
+  private static final int PAGE_SIZE = 20;
+  private static final int RECYCLER_VIEW_WIDTH = 1080;
+  private static final int RECYCLER_VIEW_HEIGHT = 1920;
+
+  private RecyclerView recyclerView;
+  private CountingSuperHeroesAdapter adapter;
+
+  @Test public void doesNotRebindSuperHeroesThatDidNotChangeOnReload() {
+    List<SuperHeroSummary> superHeroes = givenSomeSuperHeroes(PAGE_SIZE);
+    givenARecyclerViewShowing(superHeroes);
+
+    List<SuperHeroSummary> reloadedSuperHeroes = new ArrayList<>(superHeroes);
+    reloadedSuperHeroes.set(0, new SuperHeroSummary("SuperHero - 0", null, true));
+    reload(reloadedSuperHeroes);
+
+    assertEquals(1, adapter.bindCount);
+  }
+
+  @Test public void doesNotRebindAnySuperHeroIfNothingChangedOnReload() {
+    List<SuperHeroSummary> superHeroes = givenSomeSuperHeroes(PAGE_SIZE);
+    givenARecyclerViewShowing(superHeroes);
+
+    reload(new ArrayList<>(superHeroes));
+
+    assertEquals(0, adapter.bindCount);
+  }
+
+  private void givenARecyclerViewShowing(final List<SuperHeroSummary> superHeroes) {
+    getInstrumentation().runOnMainSync(new Runnable() {
+      @Override public void run() {
+        Context context = getInstrumentation().getTargetContext();
+        adapter = new CountingSuperHeroesAdapter();
+        recyclerView = new RecyclerView(context);
+        recyclerView.setItemAnimator(null);
+        recyclerView.setLayoutManager(new LinearLayoutManager(context));
+        recyclerView.setAdapter(adapter);
+        adapter.showPage(0, superHeroes);
+        layout();
+        adapter.bindCount = 0;
+      }
+    });
+  }
+
+  private void reload(final List<SuperHeroSummary> superHeroes) {
+    getInstrumentation().runOnMainSync(new Runnable() {
+      @Override public void run() {
+        adapter.showPage(0, superHeroes);
+      }
+    });
+    getInstrumentation().waitForIdleSync();
+    getInstrumentation().runOnMainSync(new Runnable() {
+      @Override public void run() {
+        layout();
+      }
+    });
+  }
+
+  private void layout() {
+    ViewHelpers.setupView(recyclerView)
+        .setExactWidthPx(RECYCLER_VIEW_WIDTH)
+        .setExactHeightPx(RECYCLER_VIEW_HEIGHT)
+        .layout();
+  }
+
+  private List<SuperHeroSummary> givenSomeSuperHeroes(int numberOfSuperHeroes) {
+    List<SuperHeroSummary> superHeroes = new ArrayList<>();
+    for (int i = 0; i < numberOfSuperHeroes; i++) {
+      superHeroes.add(new SuperHeroSummary("SuperHero - " + i, null, false));
+    }
+    return superHeroes;
+  }
+
+  private static class CountingSuperHeroesAdapter extends SuperHeroesAdapter {
+
+    int bindCount;
+
+    CountingSuperHeroesAdapter() {
+      super(mock(SuperHeroesPresenter.class), PAGE_SIZE, new AndroidScheduler(new Executor() {
+        @Override public void execute(Runnable command) {
+          command.run();
+        }
+      }));
+    }
+
+    @Override public void onBindViewHolder(RecyclerView.ViewHolder holder, int position) {
+      bindCount++;
+      super.onBindViewHolder(holder, position);
+    }
+  }
+}
@@ -17,23 +17,46 @@
 package com.karumi.screenshot;
 
 import android.app.Application;
+import android.graphics.Bitmap;
 import android.support.annotation.VisibleForTesting;
 import com.karumi.screenshot.di.DaggerMainComponent;
 import com.karumi.screenshot.di.MainComponent;
+import com.karumi.screenshot.di.MainModule;
+import com.karumi.screenshot.ui.image.SuperHeroPhotoCache;
+import com.squareup.picasso.Picasso;
 
 public class SuperHeroesApplication extends Application {
 
   private MainComponent mainComponent;
+  private SuperHeroPhotoCache photoCache;
 
   @Override public void onCreate() {
     super.onCreate();
-    mainComponent = DaggerMainComponent.create();
+    mainComponent = DaggerMainComponent.builder().mainModule(new MainModule(this)).build();
+    initializePicasso();
+  }
+
+  @Override public void onTrimMemory(int level) {
+    super.onTrimMemory(level);
+    if (level >= TRIM_MEMORY_MODERATE) {
+      photoCache.clear();
+    } else if (level >= TRIM_MEMORY_BACKGROUND) {
+      photoCache.trimToSize(photoCache.maxSize() / 2);
+    }
   }
 
   public MainComponent getMainComponent() {
     return mainComponent;
   }
 
+  private void initializePicasso() {
+    photoCache = SuperHeroPhotoCache.create(this);
+    Picasso picasso = new Picasso.Builder(this).memoryCache(photoCache)
+        .defaultBitmapConfig(Bitmap.Config.RGB_565)
+        .build();
+    Picasso.setSingletonInstance(picasso);
+  }
+
   @VisibleForTesting public void setComponent(MainComponent mainComponent) {
     this.mainComponent = mainComponent;
   }
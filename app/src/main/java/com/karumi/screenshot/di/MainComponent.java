@@ -16,6 +16,7 @@
 
 package com.karumi.screenshot.di;
 
+import com.karumi.screenshot.metrics.MetricsRegistry;
 import com.karumi.screenshot.ui.view.MainActivity;
 import com.karumi.screenshot.ui.view.SuperHeroDetailActivity;
 import dagger.Component;
@@ -26,4 +27,6 @@ import javax.inject.Singleton;
   void inject(MainActivity activity);
 
   void inject(SuperHeroDetailActivity activity);
+
+  MetricsRegistry getMetricsRegistry();
 }
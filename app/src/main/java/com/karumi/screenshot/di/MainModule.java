@@ -16,14 +16,148 @@
 
 package com.karumi.screenshot.di;
 
+import android.content.Context;
+import com.karumi.screenshot.BuildConfig;
+import com.karumi.screenshot.executor.AndroidScheduler;
+import com.karumi.screenshot.executor.Scheduler;
+import com.karumi.screenshot.executor.ThreadExecutor;
+import com.karumi.screenshot.metrics.MetricsRegistry;
+import com.karumi.screenshot.model.CachedSuperHeroesRepository;
+import com.karumi.screenshot.model.FakeSuperHeroes;
+import com.karumi.screenshot.model.InMemorySuperHeroesCatalogue;
+import com.karumi.screenshot.model.InMemorySuperHeroesRepository;
+import com.karumi.screenshot.model.InstrumentedSuperHeroesRepository;
+import com.karumi.screenshot.model.SnapshotSuperHeroesCatalogue;
+import com.karumi.screenshot.model.SuperHeroesCatalogue;
+import com.karumi.screenshot.model.SuperHeroesChangeFeed;
+import com.karumi.screenshot.model.SuperHeroesDiskCache;
 import com.karumi.screenshot.model.SuperHeroesRepository;
+import com.karumi.screenshot.model.SuperHeroesSnapshotWriter;
+import com.karumi.screenshot.model.network.FixedLatencyModel;
+import com.karumi.screenshot.model.network.LatencyModel;
+import com.karumi.screenshot.model.network.SimulatedNetwork;
 import dagger.Module;
 import dagger.Provides;
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import javax.inject.Singleton;
 
 @Module public class MainModule {
 
-  @Provides @Singleton public SuperHeroesRepository provideSuperHeroesRepository() {
-    return new SuperHeroesRepository();
+  private static final String SUPER_HEROES_CACHE_DIRECTORY = "super_heroes";
+  private static final String SUPER_HEROES_SNAPSHOT_PREFIX = "super_heroes";
+  private static final String SUPER_HEROES_SNAPSHOT_EXTENSION = ".snapshot";
+  private static final long NETWORK_DELAY_MILLIS = 1500;
+  private static final float NETWORK_ERROR_RATE = 0f;
+  private static final float NETWORK_TIMEOUT_RATE = 0f;
+  private static final long NETWORK_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+  private final Context context;
+
+  public MainModule(Context context) {
+    this.context = context.getApplicationContext();
+  }
+
+  @Provides @Singleton public SuperHeroesRepository provideSuperHeroesRepository(
+      CachedSuperHeroesRepository repository, MetricsRegistry metrics) {
+    return new InstrumentedSuperHeroesRepository(repository, metrics);
+  }
+
+  @Provides @Singleton public CachedSuperHeroesRepository provideCachedSuperHeroesRepository(
+      SuperHeroesCatalogue catalogue, SimulatedNetwork network, SuperHeroesChangeFeed changeFeed,
+      Executor executor) {
+    File cacheDirectory = new File(context.getCacheDir(), SUPER_HEROES_CACHE_DIRECTORY);
+    return new CachedSuperHeroesRepository(
+        new InMemorySuperHeroesRepository(catalogue, network, changeFeed),
+        new SuperHeroesDiskCache(cacheDirectory), executor);
+  }
+
+  @Provides @Singleton public SuperHeroesChangeFeed provideSuperHeroesChangeFeed() {
+    return new SuperHeroesChangeFeed();
+  }
+
+  @Provides @Singleton public SimulatedNetwork provideSimulatedNetwork(LatencyModel latencyModel) {
+    return new SimulatedNetwork(latencyModel, NETWORK_ERROR_RATE, NETWORK_TIMEOUT_RATE,
+        NETWORK_TIMEOUT_MILLIS, new Random());
+  }
+
+  @Provides @Singleton public LatencyModel provideLatencyModel() {
+    return new FixedLatencyModel(NETWORK_DELAY_MILLIS);
+  }
+
+  /**
+   * Snapshots are named after the snapshot format and the version code of the build, so a build
+   * that ships different super heroes or a new format writes a new file instead of reading a stale
+   * one. Opening an existing snapshot does not depend on the number of super heroes. Its checksum
+   * is verified in the background and a corrupt snapshot is deleted, so the next start writes it
+   * again.
+   */
+  @Provides @Singleton public SuperHeroesCatalogue provideSuperHeroesCatalogue(
+      Executor executor) {
+    File snapshot = new File(context.getFilesDir(), SUPER_HEROES_SNAPSHOT_PREFIX + "-v"
+        + SnapshotSuperHeroesCatalogue.FORMAT_VERSION + "-" + BuildConfig.VERSION_CODE
+        + SUPER_HEROES_SNAPSHOT_EXTENSION);
+    deleteSnapshotsOtherThan(snapshot);
+    try {
+      if (!snapshot.exists()) {
+        new SuperHeroesSnapshotWriter().write(FakeSuperHeroes.create(), snapshot);
+      }
+      SnapshotSuperHeroesCatalogue catalogue = SnapshotSuperHeroesCatalogue.open(snapshot);
+      verifyInTheBackground(catalogue, snapshot, executor);
+      return catalogue;
+    } catch (IOException e) {
+      snapshot.delete();
+      return new InMemorySuperHeroesCatalogue(FakeSuperHeroes.create());
+    }
+  }
+
+  @Provides @Singleton public MetricsRegistry provideMetricsRegistry() {
+    return new MetricsRegistry();
+  }
+
+  @Provides @Singleton public Executor provideExecutor() {
+    return new ThreadExecutor();
+  }
+
+  @Provides @Singleton public Scheduler provideScheduler(Executor executor) {
+    return new AndroidScheduler(executor);
+  }
+
+  private static void verifyInTheBackground(final SnapshotSuperHeroesCatalogue catalogue,
+      final File snapshot, Executor executor) {
+    try {
+      executor.execute(new Runnable() {
+        @Override public void run() {
+          try {
+            catalogue.verify();
+          } catch (IOException e) {
+            snapshot.delete();
+          }
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      // The snapshot is verified on the next start.
+    }
+  }
+
+  private static void deleteSnapshotsOtherThan(final File snapshot) {
+    File[] staleSnapshots = snapshot.getParentFile().listFiles(new FilenameFilter() {
+      @Override public boolean accept(File directory, String name) {
+        return name.startsWith(SUPER_HEROES_SNAPSHOT_PREFIX)
+            && name.endsWith(SUPER_HEROES_SNAPSHOT_EXTENSION)
+            && !name.equals(snapshot.getName());
+      }
+    });
+    if (staleSnapshots == null) {
+      return;
+    }
+    for (File staleSnapshot : staleSnapshots) {
+      staleSnapshot.delete();
+    }
   }
 }
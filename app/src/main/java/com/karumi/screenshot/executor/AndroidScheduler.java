@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.executor;
+
+import android.os.Handler;
+import android.os.Looper;
+import java.util.concurrent.Executor;
+
+public class AndroidScheduler implements Scheduler {
+
+  private final Executor backgroundExecutor;
+  private final Handler mainThreadHandler;
+
+  public AndroidScheduler(Executor backgroundExecutor) {
+    this.backgroundExecutor = backgroundExecutor;
+    this.mainThreadHandler = new Handler(Looper.getMainLooper());
+  }
+
+  @Override public void execute(Runnable task) {
+    backgroundExecutor.execute(task);
+  }
+
+  @Override public void post(Runnable task) {
+    mainThreadHandler.post(task);
+  }
+
+  @Override public void postDelayed(Runnable task, long delayMillis) {
+    mainThreadHandler.postDelayed(task, delayMillis);
+  }
+
+  @Override public void removeCallbacks(Runnable task) {
+    mainThreadHandler.removeCallbacks(task);
+  }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.executor;
+
+/**
+ * Where the use cases do their work and deliver their results: background threads for the work
+ * and the main thread for the callbacks.
+ */
+public interface Scheduler {
+
+  void execute(Runnable task);
+
+  void post(Runnable task);
+
+  void postDelayed(Runnable task, long delayMillis);
+
+  /**
+   * Removes a task posted to the main thread that has not run yet.
+   */
+  void removeCallbacks(Runnable task);
+}
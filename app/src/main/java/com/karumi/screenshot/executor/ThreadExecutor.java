@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.executor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded pool for the use cases. Once every thread is busy and the queue is full new tasks are
+ * rejected with a {@link java.util.concurrent.RejectedExecutionException}, so the caller can
+ * report the failure instead of waiting for a task that was silently dropped.
+ */
+public class ThreadExecutor implements Executor {
+
+  private static final int POOL_SIZE = Math.max(2, Runtime.getRuntime().availableProcessors());
+  private static final int MAX_QUEUED_TASKS = 64;
+  private static final long KEEP_ALIVE_SECONDS = 30;
+
+  private final ThreadPoolExecutor threadPoolExecutor;
+
+  public ThreadExecutor() {
+    this(POOL_SIZE, MAX_QUEUED_TASKS, new ThreadPoolExecutor.AbortPolicy());
+  }
+
+  public ThreadExecutor(int poolSize, int maxQueuedTasks,
+      RejectedExecutionHandler rejectedExecutionHandler) {
+    this.threadPoolExecutor =
+        new ThreadPoolExecutor(poolSize, poolSize, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(maxQueuedTasks), new BackgroundThreadFactory(),
+            rejectedExecutionHandler);
+    this.threadPoolExecutor.allowCoreThreadTimeOut(true);
+  }
+
+  @Override public void execute(Runnable command) {
+    threadPoolExecutor.execute(command);
+  }
+
+  private static class BackgroundThreadFactory implements ThreadFactory {
+
+    private final AtomicInteger threadCount = new AtomicInteger();
+
+    @Override public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, "super-heroes-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
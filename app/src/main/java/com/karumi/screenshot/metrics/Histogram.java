@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of non-negative values with log-linear buckets, like HdrHistogram.
+ * Values below 128 are counted exactly and larger ones in buckets whose width is at most 1/64
+ * of their value, so every percentile is within 1.6% of the recorded value. Values are tracked
+ * up to 2^36, about 68 seconds in nanoseconds; larger ones are counted in the last bucket.
+ */
+public class Histogram {
+
+  static final long MAX_TRACKABLE_VALUE = (1L << 36) - 1;
+
+  private static final int SUB_BUCKET_BITS = 6;
+  private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+  private final AtomicLongArray counts;
+  private final AtomicLong totalCount;
+  private final AtomicLong sum;
+  private final AtomicLong max;
+
+  public Histogram() {
+    this.counts = new AtomicLongArray(getIndex(MAX_TRACKABLE_VALUE) + 1);
+    this.totalCount = new AtomicLong();
+    this.sum = new AtomicLong();
+    this.max = new AtomicLong();
+  }
+
+  public void record(long value) {
+    long clampedValue = Math.max(0, value);
+    counts.incrementAndGet(getIndex(Math.min(clampedValue, MAX_TRACKABLE_VALUE)));
+    totalCount.incrementAndGet();
+    sum.addAndGet(clampedValue);
+    long currentMax = max.get();
+    while (clampedValue > currentMax && !max.compareAndSet(currentMax, clampedValue)) {
+      currentMax = max.get();
+    }
+  }
+
+  /**
+   * Records the time elapsed since {@code startNanos}, a value returned by
+   * {@link System#nanoTime()}.
+   */
+  public void recordSince(long startNanos) {
+    record(System.nanoTime() - startNanos);
+  }
+
+  public long getCount() {
+    return totalCount.get();
+  }
+
+  /**
+   * Copies the current counts. Values recorded while the copy is taken may or may not be part
+   * of it.
+   */
+  public HistogramSnapshot snapshot() {
+    long[] bucketCounts = new long[counts.length()];
+    long count = 0;
+    for (int i = 0; i < bucketCounts.length; i++) {
+      bucketCounts[i] = counts.get(i);
+      count += bucketCounts[i];
+    }
+    return new HistogramSnapshot(bucketCounts, count, sum.get(), max.get());
+  }
+
+  static int getIndex(long value) {
+    int shift = Math.max(0, 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+    return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+  }
+
+  static long getHighestValue(int index) {
+    if (index < 2 * SUB_BUCKET_COUNT) {
+      return index;
+    }
+    int shift = (index >>> SUB_BUCKET_BITS) - 1;
+    long subBucket = index - ((long) shift << SUB_BUCKET_BITS);
+    return ((subBucket + 1) << shift) - 1;
+  }
+}
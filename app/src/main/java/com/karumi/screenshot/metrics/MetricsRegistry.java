@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Named histograms and counters shared by the whole app. Timings are recorded in nanoseconds.
+ */
+public class MetricsRegistry {
+
+  private final ConcurrentMap<String, Histogram> histograms = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+  public Histogram histogram(String name) {
+    Histogram histogram = histograms.get(name);
+    if (histogram == null) {
+      Histogram newHistogram = new Histogram();
+      histogram = histograms.putIfAbsent(name, newHistogram);
+      if (histogram == null) {
+        histogram = newHistogram;
+      }
+    }
+    return histogram;
+  }
+
+  public Counter counter(String name) {
+    Counter counter = counters.get(name);
+    if (counter == null) {
+      Counter newCounter = new Counter();
+      counter = counters.putIfAbsent(name, newCounter);
+      if (counter == null) {
+        counter = newCounter;
+      }
+    }
+    return counter;
+  }
+
+  /**
+   * Writes every metric as a JSON object sorted by name, with the count, mean, p50, p99, p999
+   * and max of each histogram and the value of each counter.
+   */
+  public void export(Writer writer) throws IOException {
+    writer.write("{\"histograms\":{");
+    boolean first = true;
+    for (Map.Entry<String, Histogram> entry : new TreeMap<>(histograms).entrySet()) {
+      HistogramSnapshot snapshot = entry.getValue().snapshot();
+      if (!first) {
+        writer.write(',');
+      }
+      first = false;
+      writeName(writer, entry.getKey());
+      writer.write("{\"count\":" + snapshot.getCount()
+          + ",\"mean\":" + Math.round(snapshot.getMean())
+          + ",\"p50\":" + snapshot.getValueAtPercentile(50)
+          + ",\"p99\":" + snapshot.getValueAtPercentile(99)
+          + ",\"p999\":" + snapshot.getValueAtPercentile(99.9)
+          + ",\"max\":" + snapshot.getMax() + "}");
+    }
+    writer.write("},\"counters\":{");
+    first = true;
+    for (Map.Entry<String, Counter> entry : new TreeMap<>(counters).entrySet()) {
+      if (!first) {
+        writer.write(',');
+      }
+      first = false;
+      writeName(writer, entry.getKey());
+      writer.write(String.valueOf(entry.getValue().get()));
+    }
+    writer.write("}}");
+    writer.flush();
+  }
+
+  private static void writeName(Writer writer, String name) throws IOException {
+    writer.write('"');
+    for (int i = 0; i < name.length(); i++) {
+      char c = name.charAt(i);
+      if (c == '"' || c == '\\') {
+        writer.write('\\');
+      }
+      writer.write(c);
+    }
+    writer.write("\":");
+  }
+}
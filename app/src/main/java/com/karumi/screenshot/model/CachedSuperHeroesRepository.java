@@ -0,0 +1,524 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class CachedSuperHeroesRepository implements SuperHeroesRepository {
+
+  private static final int DEFAULT_MAX_CACHED_SUPER_HEROES = 2000;
+  private static final long DEFAULT_ALL_TIME_TO_LIVE_MILLIS = TimeUnit.MINUTES.toMillis(1);
+  private static final long DEFAULT_BY_NAME_TIME_TO_LIVE_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+  private static final String SUMMARIES_KEY = "summaries";
+  private static final String BY_NAME_KEY_PREFIX = "name:";
+  private static final String BY_NAME_IGNORING_CASE_KEY_PREFIX = "name-ignoring-case:";
+  private static final String SUMMARIES_PAGE_KEY_PREFIX = "summaries-page:";
+  private static final String FILTERED_SUMMARIES_PAGE_KEY_PREFIX = "filtered-summaries-page:";
+
+  private final SuperHeroesRepository repository;
+  private final SuperHeroesDiskCache diskCache;
+  private final Executor executor;
+  private final int maxCachedSuperHeroes;
+  private final long allTimeToLiveMillis;
+  private final long byNameTimeToLiveMillis;
+
+  private final LinkedHashMap<String, SuperHeroesCacheEntry> memoryCache;
+  private final Set<String> keysBeingRevalidated;
+  private final Map<String, SuperHeroesCacheEntry> staleDiskEntries;
+  private final Set<String> diskKeys;
+  private final Object diskWritesLock = new Object();
+  private int cachedSuperHeroes;
+  private long changeCount;
+
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+  private final AtomicLong diskHitCount = new AtomicLong();
+  private final AtomicLong staleHitCount = new AtomicLong();
+  private final AtomicLong evictionCount = new AtomicLong();
+
+  public CachedSuperHeroesRepository(SuperHeroesRepository repository,
+      SuperHeroesDiskCache diskCache, Executor executor) {
+    this(repository, diskCache, executor, DEFAULT_MAX_CACHED_SUPER_HEROES,
+        DEFAULT_ALL_TIME_TO_LIVE_MILLIS, DEFAULT_BY_NAME_TIME_TO_LIVE_MILLIS);
+  }
+
+  public CachedSuperHeroesRepository(SuperHeroesRepository repository,
+      SuperHeroesDiskCache diskCache, Executor executor, int maxCachedSuperHeroes,
+      long allTimeToLiveMillis, long byNameTimeToLiveMillis) {
+    this.repository = repository;
+    this.diskCache = diskCache;
+    this.executor = executor;
+    this.maxCachedSuperHeroes = maxCachedSuperHeroes;
+    this.allTimeToLiveMillis = allTimeToLiveMillis;
+    this.byNameTimeToLiveMillis = byNameTimeToLiveMillis;
+    this.memoryCache = new LinkedHashMap<>(16, 0.75f, true);
+    this.keysBeingRevalidated = new HashSet<>();
+    this.staleDiskEntries = new HashMap<>();
+    this.diskKeys = new HashSet<>();
+    repository.subscribe(new SuperHeroesObserver() {
+      @Override public void onSuperHeroesChanged(List<SuperHeroChange> changes) {
+        applyChanges(changes);
+      }
+    });
+  }
+
+  @Override public List<SuperHeroSummary> getSummaries() {
+    return get(SUMMARIES_KEY, allTimeToLiveMillis, new Loader() {
+      @Override public SuperHeroesCacheEntry load(long expiresAtMillis) {
+        return new SuperHeroesCacheEntry(new SuperHeroesPage(repository.getSummaries(), null),
+            expiresAtMillis);
+      }
+    }).getPage().getSuperHeroes();
+  }
+
+  @Override public SuperHeroesPage getSummariesPage(final String cursor, final int limit) {
+    String key = SUMMARIES_PAGE_KEY_PREFIX + cursor + ":" + limit;
+    return get(key, allTimeToLiveMillis, new Loader() {
+      @Override public SuperHeroesCacheEntry load(long expiresAtMillis) {
+        return new SuperHeroesCacheEntry(repository.getSummariesPage(cursor, limit),
+            expiresAtMillis);
+      }
+    }).getPage();
+  }
+
+  /**
+   * Forwards the chunks read from the repository on a miss, and reads the cached page in chunks
+   * on a hit. Both are cached under the same key as {@link #getSummariesPage(String, int)}.
+   */
+  @Override public SuperHeroesPage readSummariesPage(final String cursor, final int limit,
+      final int chunkSize, SuperHeroesChunkReader reader) {
+    String key = SUMMARIES_PAGE_KEY_PREFIX + cursor + ":" + limit;
+    final ForwardingChunkReader forwardingReader = new ForwardingChunkReader(reader);
+    SuperHeroesPage page = get(key, allTimeToLiveMillis, new Loader() {
+      @Override public SuperHeroesCacheEntry load(long expiresAtMillis) {
+        return new SuperHeroesCacheEntry(
+            repository.readSummariesPage(cursor, limit, chunkSize, forwardingReader),
+            expiresAtMillis);
+      }
+    }).getPage();
+    if (!forwardingReader.close()) {
+      page.readInChunks(chunkSize, reader);
+    }
+    return page;
+  }
+
+  @Override public SuperHeroesPage getSummariesPage(final SuperHeroesFilter filter,
+      final String cursor, final int limit) {
+    String key = FILTERED_SUMMARIES_PAGE_KEY_PREFIX + filter + ":" + cursor + ":" + limit;
+    return get(key, allTimeToLiveMillis, new Loader() {
+      @Override public SuperHeroesCacheEntry load(long expiresAtMillis) {
+        return new SuperHeroesCacheEntry(repository.getSummariesPage(filter, cursor, limit),
+            expiresAtMillis);
+      }
+    }).getPage();
+  }
+
+  @Override public SuperHero getByName(final String name) {
+    return get(BY_NAME_KEY_PREFIX + name, byNameTimeToLiveMillis, new Loader() {
+      @Override public SuperHeroesCacheEntry load(long expiresAtMillis) {
+        return new SuperHeroesCacheEntry(repository.getByName(name), expiresAtMillis);
+      }
+    }).getSuperHero();
+  }
+
+  @Override public SuperHero getByNameIgnoringCase(final String name) {
+    String lowerCaseName = name == null ? null : name.toLowerCase(Locale.US);
+    String key = BY_NAME_IGNORING_CASE_KEY_PREFIX + lowerCaseName;
+    return get(key, byNameTimeToLiveMillis, new Loader() {
+      @Override public SuperHeroesCacheEntry load(long expiresAtMillis) {
+        return new SuperHeroesCacheEntry(repository.getByNameIgnoringCase(name),
+            expiresAtMillis);
+      }
+    }).getSuperHero();
+  }
+
+  @Override public SuperHeroesSubscription subscribe(SuperHeroesObserver observer) {
+    return repository.subscribe(observer);
+  }
+
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+  public long getDiskHitCount() {
+    return diskHitCount.get();
+  }
+
+  public long getStaleHitCount() {
+    return staleHitCount.get();
+  }
+
+  public long getEvictionCount() {
+    return evictionCount.get();
+  }
+
+  public void clear() {
+    synchronized (memoryCache) {
+      memoryCache.clear();
+      cachedSuperHeroes = 0;
+      staleDiskEntries.clear();
+      diskKeys.clear();
+    }
+    diskCache.clear();
+  }
+
+  private SuperHeroesCacheEntry get(String key, long timeToLiveMillis, Loader loader) {
+    SuperHeroesCacheEntry entry = getFromMemory(key);
+    if (entry == null) {
+      entry = getFromDisk(key);
+    }
+    if (entry == null) {
+      missCount.incrementAndGet();
+      return load(key, timeToLiveMillis, loader);
+    }
+    hitCount.incrementAndGet();
+    if (entry.isExpired(System.currentTimeMillis())) {
+      staleHitCount.incrementAndGet();
+      revalidate(key, timeToLiveMillis, loader);
+    }
+    return entry;
+  }
+
+  private SuperHeroesCacheEntry getFromDisk(String key) {
+    long changesBeforeRead;
+    synchronized (memoryCache) {
+      SuperHeroesCacheEntry pending = staleDiskEntries.get(key);
+      if (pending != null) {
+        // The patched entry was evicted from memory before being written to disk.
+        diskHitCount.incrementAndGet();
+        putInMemory(key, pending);
+        return pending;
+      }
+      if (!canReadFromDisk(key)) {
+        return null;
+      }
+      changesBeforeRead = changeCount;
+    }
+    SuperHeroesCacheEntry entry = diskCache.get(key);
+    if (entry == null) {
+      return null;
+    }
+    synchronized (memoryCache) {
+      if (changeCount != changesBeforeRead) {
+        // The entry was read while a change was being applied and may not include it.
+        return null;
+      }
+      diskKeys.add(key);
+      diskHitCount.incrementAndGet();
+      putInMemory(key, entry);
+    }
+    return entry;
+  }
+
+  /**
+   * Disk entries changed since they were written are ignored until they are written again. Once
+   * a change has been received only the entries this cache has read or written can be trusted,
+   * the rest may have been written by a previous run before the change.
+   */
+  private boolean canReadFromDisk(String key) {
+    return !staleDiskEntries.containsKey(key) && (changeCount == 0 || diskKeys.contains(key));
+  }
+
+  private SuperHeroesCacheEntry load(String key, long timeToLiveMillis, Loader loader) {
+    long changesBeforeLoad;
+    synchronized (memoryCache) {
+      changesBeforeLoad = changeCount;
+    }
+    SuperHeroesCacheEntry entry = loader.load(System.currentTimeMillis() + timeToLiveMillis);
+    synchronized (memoryCache) {
+      if (changeCount != changesBeforeLoad) {
+        // The entry may have been loaded before the change. It is served but not cached.
+        return entry;
+      }
+      putInMemory(key, entry);
+    }
+    diskCache.put(key, entry);
+    synchronized (memoryCache) {
+      if (changeCount == changesBeforeLoad) {
+        diskKeys.add(key);
+        staleDiskEntries.remove(key);
+        return entry;
+      }
+      // A change was applied to the entry in memory while the original one was being written.
+      staleDiskEntries.put(key, null);
+    }
+    writeStaleEntriesToDisk();
+    return entry;
+  }
+
+  private void revalidate(final String key, final long timeToLiveMillis, final Loader loader) {
+    synchronized (keysBeingRevalidated) {
+      if (!keysBeingRevalidated.add(key)) {
+        return;
+      }
+    }
+    try {
+      executor.execute(new Runnable() {
+        @Override public void run() {
+          try {
+            load(key, timeToLiveMillis, loader);
+          } catch (SuperHeroesRepositoryException e) {
+            // Keep serving the stale entry, the next hit revalidates it again.
+          } finally {
+            finishRevalidation(key);
+          }
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      // The executor is saturated. Keep serving the stale entry, the next hit retries.
+      finishRevalidation(key);
+    }
+  }
+
+  private void finishRevalidation(String key) {
+    synchronized (keysBeingRevalidated) {
+      keysBeingRevalidated.remove(key);
+    }
+  }
+
+  private SuperHeroesCacheEntry getFromMemory(String key) {
+    synchronized (memoryCache) {
+      return memoryCache.get(key);
+    }
+  }
+
+  private void putInMemory(String key, SuperHeroesCacheEntry entry) {
+    synchronized (memoryCache) {
+      SuperHeroesCacheEntry previous = memoryCache.remove(key);
+      if (previous != null) {
+        cachedSuperHeroes -= previous.size();
+      }
+      if (entry.size() > maxCachedSuperHeroes) {
+        // Making room for it would evict every other entry and then the entry itself. It is
+        // served from the disk cache instead.
+        return;
+      }
+      memoryCache.put(key, entry);
+      cachedSuperHeroes += entry.size();
+      trimToSize();
+    }
+  }
+
+  /**
+   * Patches the cached entries with the changes pushed by the repository, so an entry loaded
+   * before a change is not served after it. Lists of every super hero and super heroes looked up
+   * by name are patched in place, filtered pages are dropped because a change can move a super
+   * hero in or out of them. The disk copies are rewritten in the background.
+   */
+  private void applyChanges(List<SuperHeroChange> changes) {
+    synchronized (memoryCache) {
+      changeCount++;
+      Iterator<Map.Entry<String, SuperHeroesCacheEntry>> iterator =
+          memoryCache.entrySet().iterator();
+      while (iterator.hasNext()) {
+        Map.Entry<String, SuperHeroesCacheEntry> cached = iterator.next();
+        SuperHeroesCacheEntry entry = cached.getValue();
+        SuperHeroesCacheEntry patched = patch(cached.getKey(), entry, changes);
+        if (patched == entry) {
+          continue;
+        }
+        staleDiskEntries.put(cached.getKey(), patched);
+        cachedSuperHeroes -= entry.size();
+        if (patched == null || patched.size() > maxCachedSuperHeroes) {
+          iterator.remove();
+        } else {
+          cached.setValue(patched);
+          cachedSuperHeroes += patched.size();
+        }
+      }
+      for (String key : diskKeys) {
+        if (!memoryCache.containsKey(key) && isAffected(key, changes)) {
+          staleDiskEntries.put(key, null);
+        }
+      }
+      trimToSize();
+    }
+    writeStaleEntriesToDisk();
+  }
+
+  private void writeStaleEntriesToDisk() {
+    try {
+      executor.execute(new Runnable() {
+        @Override public void run() {
+          synchronized (diskWritesLock) {
+            writeStaleEntries();
+          }
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      // The stale disk entries keep being ignored, the next change writes them.
+    }
+  }
+
+  private void writeStaleEntries() {
+    Map<String, SuperHeroesCacheEntry> entries;
+    synchronized (memoryCache) {
+      entries = new HashMap<>(staleDiskEntries);
+    }
+    for (Map.Entry<String, SuperHeroesCacheEntry> stale : entries.entrySet()) {
+      String key = stale.getKey();
+      SuperHeroesCacheEntry entry = stale.getValue();
+      if (entry == null) {
+        diskCache.remove(key);
+      } else {
+        diskCache.put(key, entry);
+      }
+      synchronized (memoryCache) {
+        if (staleDiskEntries.containsKey(key) && staleDiskEntries.get(key) == entry) {
+          staleDiskEntries.remove(key);
+        }
+      }
+    }
+  }
+
+  private static SuperHeroesCacheEntry patch(String key, SuperHeroesCacheEntry entry,
+      List<SuperHeroChange> changes) {
+    if (key.startsWith(FILTERED_SUMMARIES_PAGE_KEY_PREFIX)) {
+      return null;
+    }
+    if (entry.isPage()) {
+      return patchPage(entry, changes);
+    }
+    SuperHeroesCacheEntry patched = entry;
+    for (SuperHeroChange change : changes) {
+      if (isByNameKey(key, change.getName())) {
+        SuperHero superHero =
+            change.getType() == SuperHeroChange.Type.REMOVED ? null : change.getSuperHero();
+        patched = new SuperHeroesCacheEntry(superHero, entry.getExpiresAtMillis());
+      }
+    }
+    return patched;
+  }
+
+  /**
+   * Updates and removes the changed super heroes found in the page. Added super heroes are
+   * appended to the last page only.
+   */
+  private static SuperHeroesCacheEntry patchPage(SuperHeroesCacheEntry entry,
+      List<SuperHeroChange> changes) {
+    SuperHeroesPage page = entry.getPage();
+    List<SuperHeroSummary> superHeroes = null;
+    for (SuperHeroChange change : changes) {
+      List<SuperHeroSummary> current = superHeroes == null ? page.getSuperHeroes() : superHeroes;
+      int position = indexOf(current, change.getName());
+      boolean appended = change.getType() == SuperHeroChange.Type.ADDED && !page.hasNextPage();
+      if (position == -1 && !appended) {
+        continue;
+      }
+      if (superHeroes == null) {
+        superHeroes = new ArrayList<>(page.getSuperHeroes());
+      }
+      if (position == -1) {
+        superHeroes.add(change.getSuperHero().toSummary());
+      } else if (change.getType() == SuperHeroChange.Type.REMOVED) {
+        superHeroes.remove(position);
+      } else {
+        superHeroes.set(position, change.getSuperHero().toSummary());
+      }
+    }
+    if (superHeroes == null) {
+      return entry;
+    }
+    return new SuperHeroesCacheEntry(new SuperHeroesPage(superHeroes, page.getNextCursor()),
+        entry.getExpiresAtMillis());
+  }
+
+  private static int indexOf(List<SuperHeroSummary> superHeroes, String name) {
+    for (int i = 0; i < superHeroes.size(); i++) {
+      if (superHeroes.get(i).getName().equals(name)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static boolean isAffected(String key, List<SuperHeroChange> changes) {
+    if (!key.startsWith(BY_NAME_KEY_PREFIX) && !key.startsWith(BY_NAME_IGNORING_CASE_KEY_PREFIX)) {
+      return true;
+    }
+    for (SuperHeroChange change : changes) {
+      if (isByNameKey(key, change.getName())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean isByNameKey(String key, String name) {
+    return key.equals(BY_NAME_KEY_PREFIX + name)
+        || key.equals(BY_NAME_IGNORING_CASE_KEY_PREFIX + name.toLowerCase(Locale.US));
+  }
+
+  private void trimToSize() {
+    Iterator<Map.Entry<String, SuperHeroesCacheEntry>> iterator = memoryCache.entrySet().iterator();
+    while (cachedSuperHeroes > maxCachedSuperHeroes && iterator.hasNext()) {
+      SuperHeroesCacheEntry eldest = iterator.next().getValue();
+      iterator.remove();
+      cachedSuperHeroes -= eldest.size();
+      evictionCount.incrementAndGet();
+    }
+  }
+
+  private interface Loader {
+
+    SuperHeroesCacheEntry load(long expiresAtMillis);
+  }
+
+  /**
+   * Stops forwarding once closed, so a revalidation started by the read does not hand its chunks
+   * to a reader that is done.
+   */
+  private static class ForwardingChunkReader implements SuperHeroesChunkReader {
+
+    private final SuperHeroesChunkReader reader;
+    private boolean forwarded;
+    private boolean closed;
+
+    ForwardingChunkReader(SuperHeroesChunkReader reader) {
+      this.reader = reader;
+    }
+
+    @Override public synchronized void onChunkRead(List<SuperHeroSummary> superHeroes) {
+      if (!closed) {
+        forwarded = true;
+        reader.onChunkRead(superHeroes);
+      }
+    }
+
+    synchronized boolean close() {
+      closed = true;
+      return forwarded;
+    }
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+public class InMemorySuperHeroesCatalogue implements SuperHeroesCatalogue {
+
+  private final List<SuperHero> superHeroes;
+  private final List<SuperHeroSummary> summaries;
+  private final Map<String, SuperHero> superHeroesByName;
+  private final Map<String, SuperHero> superHeroesByLowerCaseName;
+
+  public InMemorySuperHeroesCatalogue(List<SuperHero> superHeroes) {
+    this.superHeroes = new ArrayList<>(superHeroes.size());
+    this.summaries = new ArrayList<>(superHeroes.size());
+    this.superHeroesByName = new HashMap<>();
+    this.superHeroesByLowerCaseName = new HashMap<>();
+    for (SuperHero superHero : superHeroes) {
+      add(superHero);
+    }
+  }
+
+  @Override public int size() {
+    return superHeroes.size();
+  }
+
+  @Override public SuperHero get(int index) {
+    return superHeroes.get(index);
+  }
+
+  @Override public SuperHeroSummary getSummary(int index) {
+    return summaries.get(index);
+  }
+
+  @Override public SuperHero findByName(String name) {
+    return superHeroesByName.get(name);
+  }
+
+  @Override public SuperHero findByNameIgnoringCase(String name) {
+    return superHeroesByLowerCaseName.get(toLowerCaseKey(name));
+  }
+
+  @Override public List<SuperHeroSummary> getSummaries() {
+    return Collections.unmodifiableList(summaries);
+  }
+
+  private void add(SuperHero superHero) {
+    superHeroes.add(superHero);
+    summaries.add(superHero.toSummary());
+    superHeroesByName.put(superHero.getName(), superHero);
+    String lowerCaseName = toLowerCaseKey(superHero.getName());
+    if (!superHeroesByLowerCaseName.containsKey(lowerCaseName)) {
+      superHeroesByLowerCaseName.put(lowerCaseName, superHero);
+    }
+  }
+
+  static String toLowerCaseKey(String name) {
+    return name == null ? null : name.toLowerCase(Locale.US);
+  }
+}
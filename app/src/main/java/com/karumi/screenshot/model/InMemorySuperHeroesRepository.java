@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.model;
+
+import com.karumi.screenshot.model.network.FixedLatencyModel;
+import com.karumi.screenshot.model.network.SimulatedNetwork;
+import com.karumi.screenshot.search.RoaringBitmap;
+import java.util.ArrayList;
+import java.util.List;
+
+public class InMemorySuperHeroesRepository implements SuperHeroesRepository {
+
+  private static final long DEFAULT_DELAY_MILLIS = 1500;
+
+  private final SuperHeroesCatalogue catalogue;
+  private final SimulatedNetwork network;
+  private final SuperHeroesChangeFeed changeFeed;
+  private SuperHeroesAttributeIndex attributeIndex;
+
+  public InMemorySuperHeroesRepository() {
+    this(new InMemorySuperHeroesCatalogue(FakeSuperHeroes.create()));
+  }
+
+  public InMemorySuperHeroesRepository(SuperHeroesCatalogue catalogue) {
+    this(catalogue, new SimulatedNetwork(new FixedLatencyModel(DEFAULT_DELAY_MILLIS)));
+  }
+
+  public InMemorySuperHeroesRepository(SuperHeroesCatalogue catalogue, SimulatedNetwork network) {
+    this(catalogue, network, new SuperHeroesChangeFeed());
+  }
+
+  public InMemorySuperHeroesRepository(SuperHeroesCatalogue catalogue, SimulatedNetwork network,
+      SuperHeroesChangeFeed changeFeed) {
+    this.catalogue = catalogue;
+    this.network = network;
+    this.changeFeed = changeFeed;
+  }
+
+  @Override public List<SuperHeroSummary> getSummaries() {
+    waitABit();
+
+    return catalogue.getSummaries();
+  }
+
+  @Override public SuperHero getByName(String name) {
+    SuperHero superHero = catalogue.findByName(name);
+    if (superHero == null) {
+      return null;
+    }
+
+    waitABit();
+
+    return superHero;
+  }
+
+  @Override public SuperHero getByNameIgnoringCase(String name) {
+    SuperHero superHero = catalogue.findByNameIgnoringCase(name);
+    if (superHero == null) {
+      return null;
+    }
+
+    waitABit();
+
+    return superHero;
+  }
+
+  @Override public SuperHeroesPage getSummariesPage(String cursor, int limit) {
+    int from = cursor == null ? 0 : Integer.parseInt(cursor);
+
+    waitABit();
+
+    int size = catalogue.size();
+    int to = Math.min(size, from + limit);
+    List<SuperHeroSummary> page = new ArrayList<>(Math.max(0, to - from));
+    for (int i = Math.min(from, to); i < to; i++) {
+      page.add(catalogue.getSummary(i));
+    }
+    String nextCursor = to < size ? String.valueOf(to) : null;
+    return new SuperHeroesPage(page, nextCursor);
+  }
+
+  @Override public SuperHeroesPage readSummariesPage(String cursor, int limit, int chunkSize,
+      SuperHeroesChunkReader reader) {
+    int from = cursor == null ? 0 : Integer.parseInt(cursor);
+
+    waitABit();
+
+    int size = catalogue.size();
+    int to = Math.min(size, from + limit);
+    List<SuperHeroSummary> page = new ArrayList<>(Math.max(0, to - from));
+    for (int chunkFrom = Math.min(from, to); chunkFrom < to; chunkFrom += chunkSize) {
+      int chunkTo = Math.min(to, chunkFrom + chunkSize);
+      List<SuperHeroSummary> chunk = new ArrayList<>(chunkTo - chunkFrom);
+      for (int i = chunkFrom; i < chunkTo; i++) {
+        chunk.add(catalogue.getSummary(i));
+      }
+      page.addAll(chunk);
+      reader.onChunkRead(chunk);
+    }
+    String nextCursor = to < size ? String.valueOf(to) : null;
+    return new SuperHeroesPage(page, nextCursor);
+  }
+
+  @Override public SuperHeroesPage getSummariesPage(SuperHeroesFilter filter, String cursor,
+      int limit) {
+    int from = cursor == null ? 0 : Integer.parseInt(cursor);
+
+    waitABit();
+
+    RoaringBitmap matches = filter.evaluate(getAttributeIndex());
+    List<SuperHeroSummary> page = new ArrayList<>();
+    int index = matches.nextValue(from);
+    while (index >= 0 && page.size() < limit) {
+      page.add(catalogue.getSummary(index));
+      index = matches.nextValue(index + 1);
+    }
+    String nextCursor = index >= 0 ? String.valueOf(index) : null;
+    return new SuperHeroesPage(page, nextCursor);
+  }
+
+  @Override public SuperHeroesSubscription subscribe(SuperHeroesObserver observer) {
+    return changeFeed.subscribe(observer);
+  }
+
+  private synchronized SuperHeroesAttributeIndex getAttributeIndex() {
+    if (attributeIndex == null) {
+      attributeIndex = new SuperHeroesAttributeIndex(catalogue);
+    }
+    return attributeIndex;
+  }
+
+  private void waitABit() {
+    network.simulateRequest();
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.model;
+
+import com.karumi.screenshot.metrics.Counter;
+import com.karumi.screenshot.metrics.Histogram;
+import com.karumi.screenshot.metrics.MetricsRegistry;
+import java.util.List;
+
+/**
+ * Records how long every call to the decorated repository takes and how many of them fail.
+ */
+public class InstrumentedSuperHeroesRepository implements SuperHeroesRepository {
+
+  private static final String METRICS_PREFIX = "repository.";
+
+  private final SuperHeroesRepository repository;
+  private final Histogram getSummariesTimes;
+  private final Histogram getSummariesPageTimes;
+  private final Histogram readSummariesPageTimes;
+  private final Histogram getFilteredSummariesPageTimes;
+  private final Histogram getByNameTimes;
+  private final Histogram getByNameIgnoringCaseTimes;
+  private final Counter errors;
+
+  public InstrumentedSuperHeroesRepository(SuperHeroesRepository repository,
+      MetricsRegistry metrics) {
+    this.repository = repository;
+    this.getSummariesTimes = metrics.histogram(METRICS_PREFIX + "get-summaries");
+    this.getSummariesPageTimes = metrics.histogram(METRICS_PREFIX + "get-summaries-page");
+    this.readSummariesPageTimes = metrics.histogram(METRICS_PREFIX + "read-summaries-page");
+    this.getFilteredSummariesPageTimes =
+        metrics.histogram(METRICS_PREFIX + "get-filtered-summaries-page");
+    this.getByNameTimes = metrics.histogram(METRICS_PREFIX + "get-by-name");
+    this.getByNameIgnoringCaseTimes =
+        metrics.histogram(METRICS_PREFIX + "get-by-name-ignoring-case");
+    this.errors = metrics.counter(METRICS_PREFIX + "errors");
+  }
+
+  @Override public List<SuperHeroSummary> getSummaries() {
+    long startNanos = System.nanoTime();
+    try {
+      return repository.getSummaries();
+    } catch (SuperHeroesRepositoryException e) {
+      errors.increment();
+      throw e;
+    } finally {
+      getSummariesTimes.recordSince(startNanos);
+    }
+  }
+
+  @Override public SuperHeroesPage getSummariesPage(String cursor, int limit) {
+    long startNanos = System.nanoTime();
+    try {
+      return repository.getSummariesPage(cursor, limit);
+    } catch (SuperHeroesRepositoryException e) {
+      errors.increment();
+      throw e;
+    } finally {
+      getSummariesPageTimes.recordSince(startNanos);
+    }
+  }
+
+  @Override public SuperHeroesPage readSummariesPage(String cursor, int limit, int chunkSize,
+      SuperHeroesChunkReader reader) {
+    long startNanos = System.nanoTime();
+    try {
+      return repository.readSummariesPage(cursor, limit, chunkSize, reader);
+    } catch (SuperHeroesRepositoryException e) {
+      errors.increment();
+      throw e;
+    } finally {
+      readSummariesPageTimes.recordSince(startNanos);
+    }
+  }
+
+  @Override public SuperHeroesPage getSummariesPage(SuperHeroesFilter filter, String cursor,
+      int limit) {
+    long startNanos = System.nanoTime();
+    try {
+      return repository.getSummariesPage(filter, cursor, limit);
+    } catch (SuperHeroesRepositoryException e) {
+      errors.increment();
+      throw e;
+    } finally {
+      getFilteredSummariesPageTimes.recordSince(startNanos);
+    }
+  }
+
+  @Override public SuperHero getByName(String name) {
+    long startNanos = System.nanoTime();
+    try {
+      return repository.getByName(name);
+    } catch (SuperHeroesRepositoryException e) {
+      errors.increment();
+      throw e;
+    } finally {
+      getByNameTimes.recordSince(startNanos);
+    }
+  }
+
+  @Override public SuperHero getByNameIgnoringCase(String name) {
+    long startNanos = System.nanoTime();
+    try {
+      return repository.getByNameIgnoringCase(name);
+    } catch (SuperHeroesRepositoryException e) {
+      errors.increment();
+      throw e;
+    } finally {
+      getByNameIgnoringCaseTimes.recordSince(startNanos);
+    }
+  }
+
+  @Override public SuperHeroesSubscription subscribe(SuperHeroesObserver observer) {
+    return repository.subscribe(observer);
+  }
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.zip.CRC32;
+
+/**
+ * Catalogue backed by a memory-mapped snapshot. Opening it only validates the header, so it takes
+ * the same time whatever the number of super heroes. Super heroes are decoded from the mapped
+ * file when they are accessed, and the bounds of every record and index entry are checked then.
+ * A corrupt one throws an {@link IllegalStateException}. Summaries never decode the description.
+ * {@link #verify()} checks the whole file against its stored checksum.
+ *
+ * The file starts with a header (magic, format version, super heroes count, file length and the
+ * CRC32 of everything after the header) followed by three int tables: the record offsets in
+ * catalogue order, the record indexes sorted by name and the record indexes sorted by lower-case
+ * name. Each record is a flags byte and the name, photo and description as length-prefixed UTF-8
+ * strings, where a length of -1 means null.
+ */
+public class SnapshotSuperHeroesCatalogue implements SuperHeroesCatalogue {
+
+  static final int MAGIC = 0x53485350;
+  public static final int FORMAT_VERSION = 2;
+  static final int FLAG_AVENGER = 1;
+  static final Charset UTF_8 = Charset.forName("UTF-8");
+  static final int LENGTH_POSITION = 12;
+  static final int CHECKSUM_POSITION = 16;
+  private static final int HEADER_SIZE = 20;
+
+  private static final int OFFSETS_TABLE = 0;
+  private static final int NAME_INDEX_TABLE = 1;
+  private static final int LOWER_CASE_NAME_INDEX_TABLE = 2;
+  private static final int TABLES_COUNT = 3;
+
+  private final ByteBuffer buffer;
+  private final int size;
+  private final List<SuperHeroSummary> summaries;
+
+  public static SnapshotSuperHeroesCatalogue open(File file) throws IOException {
+    RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+    try {
+      FileChannel channel = randomAccessFile.getChannel();
+      return new SnapshotSuperHeroesCatalogue(
+          channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    } finally {
+      randomAccessFile.close();
+    }
+  }
+
+  SnapshotSuperHeroesCatalogue(ByteBuffer buffer) throws IOException {
+    if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+      throw new IOException("Not a super heroes snapshot");
+    }
+    if (buffer.getInt(4) != FORMAT_VERSION) {
+      throw new IOException("Unsupported snapshot version " + buffer.getInt(4));
+    }
+    int size = buffer.getInt(8);
+    if (size < 0 || size > (buffer.limit() - HEADER_SIZE) / (TABLES_COUNT * 4)
+        || buffer.getInt(LENGTH_POSITION) != buffer.limit()) {
+      throw new IOException("Truncated super heroes snapshot");
+    }
+    this.buffer = buffer;
+    this.size = size;
+    this.summaries = new SummariesList();
+  }
+
+  static int getRecordsOffset(int size) {
+    return HEADER_SIZE + TABLES_COUNT * size * 4;
+  }
+
+  @Override public int size() {
+    return size;
+  }
+
+  @Override public SuperHero get(int index) {
+    ByteBuffer record = getRecord(index);
+    boolean isAvenger = (record.get() & FLAG_AVENGER) != 0;
+    String name = readString(record);
+    String photo = readString(record);
+    String description = readString(record);
+    return new SuperHero(name, photo, isAvenger, description);
+  }
+
+  @Override public SuperHeroSummary getSummary(int index) {
+    ByteBuffer record = getRecord(index);
+    boolean isAvenger = (record.get() & FLAG_AVENGER) != 0;
+    String name = readString(record);
+    String photo = readString(record);
+    return new SuperHeroSummary(name, photo, isAvenger);
+  }
+
+  @Override public SuperHero findByName(String name) {
+    int index = search(NAME_INDEX_TABLE, name, false);
+    return index < 0 ? null : get(index);
+  }
+
+  @Override public SuperHero findByNameIgnoringCase(String name) {
+    int index = search(LOWER_CASE_NAME_INDEX_TABLE,
+        InMemorySuperHeroesCatalogue.toLowerCaseKey(name), true);
+    return index < 0 ? null : get(index);
+  }
+
+  @Override public List<SuperHeroSummary> getSummaries() {
+    return summaries;
+  }
+
+  /**
+   * Checks every byte after the header against the stored checksum. It reads the whole file, so
+   * call it from a background thread.
+   */
+  public void verify() throws IOException {
+    ByteBuffer data = buffer.duplicate();
+    data.position(HEADER_SIZE);
+    CRC32 checksum = new CRC32();
+    byte[] chunk = new byte[8192];
+    while (data.hasRemaining()) {
+      int length = Math.min(chunk.length, data.remaining());
+      data.get(chunk, 0, length);
+      checksum.update(chunk, 0, length);
+    }
+    if ((int) checksum.getValue() != buffer.getInt(CHECKSUM_POSITION)) {
+      throw new IOException("Corrupt super heroes snapshot");
+    }
+  }
+
+  /**
+   * Returns the record positioned at its flags byte once its strings are checked to end where
+   * the next record starts.
+   */
+  private ByteBuffer getRecord(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    int recordOffset = getRecordOffset(index);
+    int recordEnd = index + 1 < size ? getRecordOffset(index + 1) : buffer.limit();
+    if (recordOffset < getRecordsOffset(size)
+        || skipString(skipString(skipString(recordOffset + 1))) != recordEnd) {
+      throw new IllegalStateException("Corrupt record for super hero " + index);
+    }
+    ByteBuffer record = buffer.duplicate();
+    record.position(recordOffset);
+    return record;
+  }
+
+  private int search(int table, String key, boolean ignoringCase) {
+    if (key == null) {
+      return -1;
+    }
+    int low = 0;
+    int high = size;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (getName(getIndexedRecord(table, middle), ignoringCase).compareTo(key) < 0) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    if (low == size) {
+      return -1;
+    }
+    int index = getIndexedRecord(table, low);
+    return getName(index, ignoringCase).equals(key) ? index : -1;
+  }
+
+  private String getName(int index, boolean ignoringCase) {
+    ByteBuffer record = getRecord(index);
+    record.get();
+    String name = readString(record);
+    return ignoringCase ? InMemorySuperHeroesCatalogue.toLowerCaseKey(name) : name;
+  }
+
+  private int getRecordOffset(int index) {
+    return getIndexEntry(OFFSETS_TABLE, index);
+  }
+
+  private int getIndexEntry(int table, int position) {
+    return buffer.getInt(HEADER_SIZE + (table * size + position) * 4);
+  }
+
+  private int getIndexedRecord(int table, int position) {
+    int index = getIndexEntry(table, position);
+    if (index < 0 || index >= size) {
+      throw new IllegalStateException("Corrupt index entry " + index + " at " + position);
+    }
+    return index;
+  }
+
+  /**
+   * Returns where the string starting at {@code offset} ends, or -1 if it does not fit in the
+   * buffer.
+   */
+  private int skipString(int offset) {
+    if (offset < 0 || offset > buffer.limit() - 4) {
+      return -1;
+    }
+    int length = buffer.getInt(offset);
+    if (length < -1 || length > buffer.limit() - offset - 4) {
+      return -1;
+    }
+    return offset + 4 + Math.max(length, 0);
+  }
+
+  private static String readString(ByteBuffer record) {
+    int length = record.getInt();
+    if (length < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    record.get(bytes);
+    return new String(bytes, UTF_8);
+  }
+
+  private class SummariesList extends AbstractList<SuperHeroSummary> implements RandomAccess {
+
+    @Override public SuperHeroSummary get(int index) {
+      return getSummary(index);
+    }
+
+    @Override public int size() {
+      return size;
+    }
+  }
+}
@@ -16,33 +16,28 @@
 
 package com.karumi.screenshot.model;
 
-public class SuperHero {
+public class SuperHero extends SuperHeroSummary {
 
-  private final String name;
-  private final String photo;
-  private final boolean isAvenger;
   private final String description;
 
   public SuperHero(String name, String photo, boolean isAvenger, String description) {
-    this.name = name;
-    this.photo = photo;
-    this.isAvenger = isAvenger;
+    super(name, photo, isAvenger);
     this.description = description;
   }
 
-  public String getName() {
-    return name;
+  public String getDescription() {
+    return description;
   }
 
-  public String getPhoto() {
-    return photo;
+  public SuperHeroSummary toSummary() {
+    return new SuperHeroSummary(getName(), getPhoto(), isAvenger());
   }
 
-  public boolean isAvenger() {
-    return isAvenger;
+  @Override public boolean equals(Object o) {
+    return super.equals(o) && areEqual(description, ((SuperHero) o).description);
   }
 
-  public String getDescription() {
-    return description;
+  @Override public int hashCode() {
+    return 31 * super.hashCode() + (description != null ? description.hashCode() : 0);
   }
 }
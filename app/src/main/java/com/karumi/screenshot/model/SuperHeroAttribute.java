@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.model;
+
+/**
+ * Boolean attributes the catalogue keeps a bitmap for. Adding a constant here is enough to make
+ * it available to {@link SuperHeroesFilter}.
+ */
+public enum SuperHeroAttribute {
+  AVENGER("avenger") {
+    @Override boolean matches(SuperHeroSummary superHero) {
+      return superHero.isAvenger();
+    }
+  },
+  HAS_PHOTO("has-photo") {
+    @Override boolean matches(SuperHeroSummary superHero) {
+      return superHero.getPhoto() != null;
+    }
+  };
+
+  private final String key;
+
+  SuperHeroAttribute(String key) {
+    this.key = key;
+  }
+
+  public String getKey() {
+    return key;
+  }
+
+  abstract boolean matches(SuperHeroSummary superHero);
+}
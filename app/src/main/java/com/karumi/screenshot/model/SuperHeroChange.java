@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.model;
+
+/**
+ * A super hero added, updated or removed after it was read from a repository. Removals only
+ * carry the name of the super hero.
+ */
+public class SuperHeroChange {
+
+  public enum Type {
+    ADDED, UPDATED, REMOVED
+  }
+
+  private final Type type;
+  private final String name;
+  private final SuperHero superHero;
+
+  private SuperHeroChange(Type type, String name, SuperHero superHero) {
+    this.type = type;
+    this.name = name;
+    this.superHero = superHero;
+  }
+
+  public static SuperHeroChange added(SuperHero superHero) {
+    return new SuperHeroChange(Type.ADDED, superHero.getName(), superHero);
+  }
+
+  public static SuperHeroChange updated(SuperHero superHero) {
+    return new SuperHeroChange(Type.UPDATED, superHero.getName(), superHero);
+  }
+
+  public static SuperHeroChange removed(String name) {
+    return new SuperHeroChange(Type.REMOVED, name, null);
+  }
+
+  /**
+   * Coalesces two consecutive changes of the same super hero into a single one. The result has
+   * the same effect whether or not the reader already got the super hero from the repository, so
+   * an addition followed by a removal is still a removal and an update of an added super hero is
+   * still an addition.
+   */
+  public static SuperHeroChange merge(SuperHeroChange previous, SuperHeroChange next) {
+    if (previous.type == Type.ADDED && next.type == Type.UPDATED) {
+      return added(next.superHero);
+    }
+    return next;
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public SuperHero getSuperHero() {
+    return superHero;
+  }
+
+  @Override public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    SuperHeroChange change = (SuperHeroChange) o;
+    return type == change.type
+        && name.equals(change.name)
+        && (superHero == null ? change.superHero == null : superHero.equals(change.superHero));
+  }
+
+  @Override public int hashCode() {
+    int result = type.hashCode();
+    result = 31 * result + name.hashCode();
+    result = 31 * result + (superHero != null ? superHero.hashCode() : 0);
+    return result;
+  }
+
+  @Override public String toString() {
+    return type + " " + name;
+  }
+}
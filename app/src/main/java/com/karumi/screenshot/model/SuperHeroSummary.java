@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.model;
+
+/**
+ * List projection of a super hero. It carries just what a row shows, the description is only
+ * loaded with the {@link SuperHero} detail.
+ */
+public class SuperHeroSummary {
+
+  private final String name;
+  private final String photo;
+  private final boolean isAvenger;
+
+  public SuperHeroSummary(String name, String photo, boolean isAvenger) {
+    this.name = name;
+    this.photo = photo;
+    this.isAvenger = isAvenger;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String getPhoto() {
+    return photo;
+  }
+
+  public boolean isAvenger() {
+    return isAvenger;
+  }
+
+  @Override public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    SuperHeroSummary superHero = (SuperHeroSummary) o;
+    return isAvenger == superHero.isAvenger
+        && areEqual(name, superHero.name)
+        && areEqual(photo, superHero.photo);
+  }
+
+  @Override public int hashCode() {
+    int result = name != null ? name.hashCode() : 0;
+    result = 31 * result + (photo != null ? photo.hashCode() : 0);
+    result = 31 * result + (isAvenger ? 1 : 0);
+    return result;
+  }
+
+  static boolean areEqual(String a, String b) {
+    return a == null ? b == null : a.equals(b);
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.model;
+
+import com.karumi.screenshot.search.RoaringBitmap;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * One compressed bitmap per {@link SuperHeroAttribute}, holding the catalogue positions of the
+ * super heroes that have it. Returned bitmaps are shared and must not be modified.
+ */
+public class SuperHeroesAttributeIndex {
+
+  private final int size;
+  private final Map<SuperHeroAttribute, RoaringBitmap> bitmaps;
+
+  public SuperHeroesAttributeIndex(SuperHeroesCatalogue catalogue) {
+    this.size = catalogue.size();
+    this.bitmaps = new EnumMap<>(SuperHeroAttribute.class);
+    for (SuperHeroAttribute attribute : SuperHeroAttribute.values()) {
+      bitmaps.put(attribute, new RoaringBitmap());
+    }
+    for (int i = 0; i < size; i++) {
+      SuperHeroSummary superHero = catalogue.getSummary(i);
+      for (Map.Entry<SuperHeroAttribute, RoaringBitmap> bitmap : bitmaps.entrySet()) {
+        if (bitmap.getKey().matches(superHero)) {
+          bitmap.getValue().add(i);
+        }
+      }
+    }
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public RoaringBitmap get(SuperHeroAttribute attribute) {
+    return bitmaps.get(attribute);
+  }
+
+  public RoaringBitmap getAll() {
+    return RoaringBitmap.range(0, size);
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.model;
+
+public class SuperHeroesCacheEntry {
+
+  private final SuperHeroesPage page;
+  private final SuperHero superHero;
+  private final long expiresAtMillis;
+
+  public SuperHeroesCacheEntry(SuperHeroesPage page, long expiresAtMillis) {
+    this.page = page;
+    this.superHero = null;
+    this.expiresAtMillis = expiresAtMillis;
+  }
+
+  public SuperHeroesCacheEntry(SuperHero superHero, long expiresAtMillis) {
+    this.page = null;
+    this.superHero = superHero;
+    this.expiresAtMillis = expiresAtMillis;
+  }
+
+  public boolean isPage() {
+    return page != null;
+  }
+
+  public SuperHeroesPage getPage() {
+    return page;
+  }
+
+  public SuperHero getSuperHero() {
+    return superHero;
+  }
+
+  public long getExpiresAtMillis() {
+    return expiresAtMillis;
+  }
+
+  public boolean isExpired(long nowMillis) {
+    return nowMillis >= expiresAtMillis;
+  }
+
+  public int size() {
+    return isPage() ? page.size() : 1;
+  }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.model;
+
+import java.util.List;
+
+/**
+ * Random access storage behind the repository. Lookups return null when the super hero is not
+ * part of the catalogue.
+ */
+public interface SuperHeroesCatalogue {
+
+  int size();
+
+  SuperHero get(int index);
+
+  SuperHeroSummary getSummary(int index);
+
+  SuperHero findByName(String name);
+
+  SuperHero findByNameIgnoringCase(String name);
+
+  List<SuperHeroSummary> getSummaries();
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Pushes the changes of the super heroes to the observers subscribed to a repository. Whatever
+ * learns about a change, a push message or a sync, publishes it here. Observers are called on
+ * the publishing thread and must not block it.
+ */
+public class SuperHeroesChangeFeed {
+
+  private final List<SuperHeroesObserver> observers = new CopyOnWriteArrayList<>();
+
+  public SuperHeroesSubscription subscribe(final SuperHeroesObserver observer) {
+    observers.add(observer);
+    return new SuperHeroesSubscription() {
+      @Override public void unsubscribe() {
+        observers.remove(observer);
+      }
+    };
+  }
+
+  public void publish(SuperHeroChange change) {
+    publish(Collections.singletonList(change));
+  }
+
+  public void publish(List<SuperHeroChange> changes) {
+    if (changes.isEmpty()) {
+      return;
+    }
+    List<SuperHeroChange> publishedChanges =
+        Collections.unmodifiableList(new ArrayList<>(changes));
+    for (SuperHeroesObserver observer : observers) {
+      observer.onSuperHeroesChanged(publishedChanges);
+    }
+  }
+}
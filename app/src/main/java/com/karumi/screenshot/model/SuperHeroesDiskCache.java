@@ -0,0 +1,291 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One file per cache entry, bounded by the bytes held by its files. Once the bound is exceeded
+ * the least recently used files are deleted. Recency survives restarts through the last modified
+ * time of every file, which is updated on each hit.
+ */
+public class SuperHeroesDiskCache {
+
+  private static final long DEFAULT_MAX_SIZE_IN_BYTES = 4 * 1024 * 1024;
+  private static final int FORMAT_VERSION = 3;
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+  private static final String FILE_EXTENSION = ".entry";
+  private static final String TEMPORARY_FILE_EXTENSION = ".tmp";
+
+  private final File directory;
+  private final long maxSizeInBytes;
+  private LinkedHashMap<String, Long> fileSizes;
+  private long size;
+
+  public SuperHeroesDiskCache(File directory) {
+    this(directory, DEFAULT_MAX_SIZE_IN_BYTES);
+  }
+
+  public SuperHeroesDiskCache(File directory, long maxSizeInBytes) {
+    this.directory = directory;
+    this.maxSizeInBytes = maxSizeInBytes;
+  }
+
+  public synchronized SuperHeroesCacheEntry get(String key) {
+    File file = getFile(key);
+    if (getFileSizes().get(file.getName()) == null || !file.exists()) {
+      return null;
+    }
+    file.setLastModified(System.currentTimeMillis());
+    DataInputStream input = null;
+    try {
+      input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+      if (input.readInt() != FORMAT_VERSION || !key.equals(readString(input))) {
+        return null;
+      }
+      long expiresAtMillis = input.readLong();
+      if (!input.readBoolean()) {
+        SuperHero superHero = input.readBoolean() ? readSuperHero(input) : null;
+        return new SuperHeroesCacheEntry(superHero, expiresAtMillis);
+      }
+      String nextCursor = readString(input);
+      int numberOfSuperHeroes = input.readInt();
+      List<SuperHeroSummary> superHeroes = new ArrayList<>(numberOfSuperHeroes);
+      for (int i = 0; i < numberOfSuperHeroes; i++) {
+        superHeroes.add(readSummary(input));
+      }
+      SuperHeroesPage page = new SuperHeroesPage(superHeroes, nextCursor);
+      return new SuperHeroesCacheEntry(page, expiresAtMillis);
+    } catch (IOException e) {
+      delete(file);
+      return null;
+    } finally {
+      closeQuietly(input);
+    }
+  }
+
+  public synchronized void put(String key, SuperHeroesCacheEntry entry) {
+    getFileSizes();
+    if (!directory.exists() && !directory.mkdirs()) {
+      return;
+    }
+    File file = getFile(key);
+    File temporaryFile = new File(directory, file.getName() + TEMPORARY_FILE_EXTENSION);
+    DataOutputStream output = null;
+    try {
+      output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporaryFile)));
+      output.writeInt(FORMAT_VERSION);
+      writeString(output, key);
+      output.writeLong(entry.getExpiresAtMillis());
+      output.writeBoolean(entry.isPage());
+      if (entry.isPage()) {
+        writePage(output, entry.getPage());
+      } else {
+        output.writeBoolean(entry.getSuperHero() != null);
+        if (entry.getSuperHero() != null) {
+          writeSuperHero(output, entry.getSuperHero());
+        }
+      }
+      output.close();
+      output = null;
+      if (!temporaryFile.renameTo(file)) {
+        temporaryFile.delete();
+        return;
+      }
+      Long previousSize = fileSizes.put(file.getName(), file.length());
+      size += file.length() - (previousSize == null ? 0 : previousSize);
+      trimToSize();
+    } catch (IOException e) {
+      temporaryFile.delete();
+    } finally {
+      closeQuietly(output);
+    }
+  }
+
+  public synchronized void remove(String key) {
+    delete(getFile(key));
+  }
+
+  public synchronized void clear() {
+    File[] files = directory.listFiles();
+    if (files == null) {
+      return;
+    }
+    for (File file : files) {
+      file.delete();
+    }
+    fileSizes = null;
+    size = 0;
+  }
+
+  public synchronized long size() {
+    getFileSizes();
+    return size;
+  }
+
+  public long maxSize() {
+    return maxSizeInBytes;
+  }
+
+  private File getFile(String key) {
+    return new File(directory, hash(key) + FILE_EXTENSION);
+  }
+
+  private LinkedHashMap<String, Long> getFileSizes() {
+    if (fileSizes != null) {
+      return fileSizes;
+    }
+    fileSizes = new LinkedHashMap<>(16, 0.75f, true);
+    size = 0;
+    File[] files = directory.listFiles();
+    if (files == null) {
+      return fileSizes;
+    }
+    Arrays.sort(files, new Comparator<File>() {
+      @Override public int compare(File file, File otherFile) {
+        long lastModified = file.lastModified();
+        long otherLastModified = otherFile.lastModified();
+        return lastModified < otherLastModified ? -1 : (lastModified == otherLastModified ? 0 : 1);
+      }
+    });
+    for (File file : files) {
+      if (file.getName().endsWith(FILE_EXTENSION)) {
+        fileSizes.put(file.getName(), file.length());
+        size += file.length();
+      } else {
+        file.delete();
+      }
+    }
+    trimToSize();
+    return fileSizes;
+  }
+
+  private void trimToSize() {
+    Iterator<Map.Entry<String, Long>> iterator = fileSizes.entrySet().iterator();
+    while (size > maxSizeInBytes && iterator.hasNext()) {
+      Map.Entry<String, Long> eldest = iterator.next();
+      iterator.remove();
+      size -= eldest.getValue();
+      new File(directory, eldest.getKey()).delete();
+    }
+  }
+
+  private void delete(File file) {
+    Long fileSize = getFileSizes().remove(file.getName());
+    if (fileSize != null) {
+      size -= fileSize;
+    }
+    file.delete();
+  }
+
+  private static SuperHeroSummary readSummary(DataInputStream input) throws IOException {
+    String name = readString(input);
+    String photo = readString(input);
+    boolean isAvenger = input.readBoolean();
+    return new SuperHeroSummary(name, photo, isAvenger);
+  }
+
+  private static void writePage(DataOutputStream output, SuperHeroesPage page)
+      throws IOException {
+    writeString(output, page.getNextCursor());
+    output.writeInt(page.size());
+    for (SuperHeroSummary superHero : page.getSuperHeroes()) {
+      writeString(output, superHero.getName());
+      writeString(output, superHero.getPhoto());
+      output.writeBoolean(superHero.isAvenger());
+    }
+  }
+
+  private static SuperHero readSuperHero(DataInputStream input) throws IOException {
+    String name = readString(input);
+    String photo = readString(input);
+    boolean isAvenger = input.readBoolean();
+    String description = readString(input);
+    return new SuperHero(name, photo, isAvenger, description);
+  }
+
+  private static void writeSuperHero(DataOutputStream output, SuperHero superHero)
+      throws IOException {
+    writeString(output, superHero.getName());
+    writeString(output, superHero.getPhoto());
+    output.writeBoolean(superHero.isAvenger());
+    writeString(output, superHero.getDescription());
+  }
+
+  private static String readString(DataInputStream input) throws IOException {
+    int length = input.readInt();
+    if (length < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    input.readFully(bytes);
+    return new String(bytes, UTF_8);
+  }
+
+  private static void writeString(DataOutputStream output, String value) throws IOException {
+    if (value == null) {
+      output.writeInt(-1);
+      return;
+    }
+    byte[] bytes = value.getBytes(UTF_8);
+    output.writeInt(bytes.length);
+    output.write(bytes);
+  }
+
+  private static String hash(String key) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("MD5");
+      byte[] hash = digest.digest(key.getBytes(UTF_8));
+      StringBuilder builder = new StringBuilder(hash.length * 2);
+      for (byte b : hash) {
+        builder.append(Character.forDigit((b >> 4) & 0xf, 16));
+        builder.append(Character.forDigit(b & 0xf, 16));
+      }
+      return builder.toString();
+    } catch (NoSuchAlgorithmException e) {
+      return Integer.toHexString(key.hashCode());
+    }
+  }
+
+  private static void closeQuietly(Closeable closeable) {
+    if (closeable == null) {
+      return;
+    }
+    try {
+      closeable.close();
+    } catch (IOException ignored) {
+    }
+  }
+}
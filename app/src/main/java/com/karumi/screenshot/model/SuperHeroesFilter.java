@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.model;
+
+import com.karumi.screenshot.search.RoaringBitmap;
+
+/**
+ * Boolean combination of {@link SuperHeroAttribute}s, for example
+ * {@code is(AVENGER).and(not(is(HAS_PHOTO)))}. Filters are evaluated against the attribute
+ * bitmaps, so no super hero is read to find out whether it matches. Super heroes that are not in
+ * the index, like the ones pushed by live changes, are checked with {@link #matches}.
+ * {@link #toString()} is a stable description of the filter and can be used as a key.
+ */
+public abstract class SuperHeroesFilter {
+
+  public static SuperHeroesFilter is(SuperHeroAttribute attribute) {
+    return new AttributeFilter(attribute);
+  }
+
+  public static SuperHeroesFilter avengersOnly() {
+    return is(SuperHeroAttribute.AVENGER);
+  }
+
+  public static SuperHeroesFilter not(SuperHeroesFilter filter) {
+    return new NotFilter(filter);
+  }
+
+  public SuperHeroesFilter and(SuperHeroesFilter other) {
+    return new AndFilter(this, other);
+  }
+
+  public SuperHeroesFilter or(SuperHeroesFilter other) {
+    return new OrFilter(this, other);
+  }
+
+  public abstract RoaringBitmap evaluate(SuperHeroesAttributeIndex index);
+
+  public abstract boolean matches(SuperHeroSummary superHero);
+
+  @Override public boolean equals(Object o) {
+    return o instanceof SuperHeroesFilter && toString().equals(o.toString());
+  }
+
+  @Override public int hashCode() {
+    return toString().hashCode();
+  }
+
+  private static class AttributeFilter extends SuperHeroesFilter {
+
+    private final SuperHeroAttribute attribute;
+
+    AttributeFilter(SuperHeroAttribute attribute) {
+      this.attribute = attribute;
+    }
+
+    @Override public RoaringBitmap evaluate(SuperHeroesAttributeIndex index) {
+      return index.get(attribute);
+    }
+
+    @Override public boolean matches(SuperHeroSummary superHero) {
+      return attribute.matches(superHero);
+    }
+
+    @Override public String toString() {
+      return attribute.getKey();
+    }
+  }
+
+  private static class NotFilter extends SuperHeroesFilter {
+
+    private final SuperHeroesFilter filter;
+
+    NotFilter(SuperHeroesFilter filter) {
+      this.filter = filter;
+    }
+
+    @Override public RoaringBitmap evaluate(SuperHeroesAttributeIndex index) {
+      return index.getAll().andNot(filter.evaluate(index));
+    }
+
+    @Override public boolean matches(SuperHeroSummary superHero) {
+      return !filter.matches(superHero);
+    }
+
+    @Override public String toString() {
+      return "not " + filter;
+    }
+  }
+
+  private static class AndFilter extends SuperHeroesFilter {
+
+    private final SuperHeroesFilter left;
+    private final SuperHeroesFilter right;
+
+    AndFilter(SuperHeroesFilter left, SuperHeroesFilter right) {
+      this.left = left;
+      this.right = right;
+    }
+
+    @Override public RoaringBitmap evaluate(SuperHeroesAttributeIndex index) {
+      if (right instanceof NotFilter) {
+        return left.evaluate(index).andNot(((NotFilter) right).filter.evaluate(index));
+      }
+      return left.evaluate(index).and(right.evaluate(index));
+    }
+
+    @Override public boolean matches(SuperHeroSummary superHero) {
+      return left.matches(superHero) && right.matches(superHero);
+    }
+
+    @Override public String toString() {
+      return "(" + left + " and " + right + ")";
+    }
+  }
+
+  private static class OrFilter extends SuperHeroesFilter {
+
+    private final SuperHeroesFilter left;
+    private final SuperHeroesFilter right;
+
+    OrFilter(SuperHeroesFilter left, SuperHeroesFilter right) {
+      this.left = left;
+      this.right = right;
+    }
+
+    @Override public RoaringBitmap evaluate(SuperHeroesAttributeIndex index) {
+      return left.evaluate(index).or(right.evaluate(index));
+    }
+
+    @Override public boolean matches(SuperHeroSummary superHero) {
+      return left.matches(superHero) || right.matches(superHero);
+    }
+
+    @Override public String toString() {
+      return "(" + left + " or " + right + ")";
+    }
+  }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.model;
+
+import java.util.List;
+
+public class SuperHeroesPage {
+
+  private final List<SuperHeroSummary> superHeroes;
+  private final String nextCursor;
+
+  public SuperHeroesPage(List<SuperHeroSummary> superHeroes, String nextCursor) {
+    this.superHeroes = superHeroes;
+    this.nextCursor = nextCursor;
+  }
+
+  public List<SuperHeroSummary> getSuperHeroes() {
+    return superHeroes;
+  }
+
+  public String getNextCursor() {
+    return nextCursor;
+  }
+
+  public boolean hasNextPage() {
+    return nextCursor != null;
+  }
+
+  public boolean isEmpty() {
+    return superHeroes.isEmpty();
+  }
+
+  public int size() {
+    return superHeroes.size();
+  }
+
+  public void readInChunks(int chunkSize, SuperHeroesChunkReader reader) {
+    for (int from = 0; from < superHeroes.size(); from += chunkSize) {
+      reader.onChunkRead(superHeroes.subList(from, Math.min(superHeroes.size(), from + chunkSize)));
+    }
+  }
+}
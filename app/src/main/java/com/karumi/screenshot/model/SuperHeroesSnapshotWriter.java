@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.model;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Writes the catalogue in the format read by {@link SnapshotSuperHeroesCatalogue}. The file is
+ * written next to the target and renamed into place, so readers never map a partial snapshot.
+ * The length and checksum in the header are filled in once the rest of the file is written.
+ */
+public class SuperHeroesSnapshotWriter {
+
+  private static final String TEMPORARY_FILE_EXTENSION = ".tmp";
+
+  public void write(List<SuperHero> superHeroes, File file) throws IOException {
+    File temporaryFile = new File(file.getPath() + TEMPORARY_FILE_EXTENSION);
+    DataOutputStream output = null;
+    try {
+      output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporaryFile)));
+      writeHeader(output, superHeroes.size());
+      CheckedOutputStream checkedOutput = new CheckedOutputStream(output, new CRC32());
+      writeTablesAndRecords(new DataOutputStream(checkedOutput), superHeroes);
+      int length = output.size();
+      int checksum = (int) checkedOutput.getChecksum().getValue();
+      output.close();
+      output = null;
+      writeLengthAndChecksum(temporaryFile, length, checksum);
+      if (!temporaryFile.renameTo(file)) {
+        throw new IOException("Could not move the snapshot to " + file);
+      }
+    } finally {
+      closeQuietly(output);
+      temporaryFile.delete();
+    }
+  }
+
+  private static void writeTablesAndRecords(DataOutputStream output, List<SuperHero> superHeroes)
+      throws IOException {
+    writeOffsets(output, superHeroes);
+    writeIndex(output, sortByName(superHeroes, false));
+    writeIndex(output, sortByName(superHeroes, true));
+    for (SuperHero superHero : superHeroes) {
+      writeRecord(output, superHero);
+    }
+    output.flush();
+  }
+
+  private static void writeHeader(DataOutputStream output, int size) throws IOException {
+    output.writeInt(SnapshotSuperHeroesCatalogue.MAGIC);
+    output.writeInt(SnapshotSuperHeroesCatalogue.FORMAT_VERSION);
+    output.writeInt(size);
+    output.writeInt(0);
+    output.writeInt(0);
+  }
+
+  private static void writeLengthAndChecksum(File file, int length, int checksum)
+      throws IOException {
+    RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+    try {
+      randomAccessFile.seek(SnapshotSuperHeroesCatalogue.LENGTH_POSITION);
+      randomAccessFile.writeInt(length);
+      randomAccessFile.seek(SnapshotSuperHeroesCatalogue.CHECKSUM_POSITION);
+      randomAccessFile.writeInt(checksum);
+    } finally {
+      randomAccessFile.close();
+    }
+  }
+
+  private static void writeOffsets(DataOutputStream output, List<SuperHero> superHeroes)
+      throws IOException {
+    int offset = SnapshotSuperHeroesCatalogue.getRecordsOffset(superHeroes.size());
+    for (SuperHero superHero : superHeroes) {
+      output.writeInt(offset);
+      offset += getRecordLength(superHero);
+    }
+  }
+
+  private static void writeIndex(DataOutputStream output, Integer[] index) throws IOException {
+    for (Integer position : index) {
+      output.writeInt(position);
+    }
+  }
+
+  private static void writeRecord(DataOutputStream output, SuperHero superHero)
+      throws IOException {
+    output.writeByte(superHero.isAvenger() ? SnapshotSuperHeroesCatalogue.FLAG_AVENGER : 0);
+    writeString(output, superHero.getName());
+    writeString(output, superHero.getPhoto());
+    writeString(output, superHero.getDescription());
+  }
+
+  private static Integer[] sortByName(List<SuperHero> superHeroes, boolean ignoringCase) {
+    final String[] names = new String[superHeroes.size()];
+    Integer[] index = new Integer[superHeroes.size()];
+    for (int i = 0; i < index.length; i++) {
+      String name = superHeroes.get(i).getName();
+      names[i] = ignoringCase ? InMemorySuperHeroesCatalogue.toLowerCaseKey(name) : name;
+      index[i] = i;
+    }
+    Arrays.sort(index, new Comparator<Integer>() {
+      @Override public int compare(Integer lhs, Integer rhs) {
+        return names[lhs].compareTo(names[rhs]);
+      }
+    });
+    return index;
+  }
+
+  private static int getRecordLength(SuperHero superHero) {
+    return 1 + getStringLength(superHero.getName()) + getStringLength(superHero.getPhoto())
+        + getStringLength(superHero.getDescription());
+  }
+
+  private static int getStringLength(String value) {
+    int length = 4;
+    if (value != null) {
+      length += value.getBytes(SnapshotSuperHeroesCatalogue.UTF_8).length;
+    }
+    return length;
+  }
+
+  private static void writeString(DataOutputStream output, String value) throws IOException {
+    if (value == null) {
+      output.writeInt(-1);
+      return;
+    }
+    byte[] bytes = value.getBytes(SnapshotSuperHeroesCatalogue.UTF_8);
+    output.writeInt(bytes.length);
+    output.write(bytes);
+  }
+
+  private static void closeQuietly(Closeable closeable) {
+    if (closeable == null) {
+      return;
+    }
+    try {
+      closeable.close();
+    } catch (IOException ignored) {
+    }
+  }
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.model.network;
+
+public class FixedLatencyModel implements LatencyModel {
+
+  private final long delayMillis;
+
+  public FixedLatencyModel(long delayMillis) {
+    if (delayMillis < 0) {
+      throw new IllegalArgumentException("Negative delay " + delayMillis);
+    }
+    this.delayMillis = delayMillis;
+  }
+
+  @Override public long nextDelayMillis() {
+    return delayMillis;
+  }
+}
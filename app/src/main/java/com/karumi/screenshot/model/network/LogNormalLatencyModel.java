@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.model.network;
+
+import java.util.Random;
+
+/**
+ * Log-normal latencies, the usual shape of network response times: most requests take close to
+ * the median and a long tail takes much longer. {@code sigma} controls the tail, with 0.5 the
+ * 99th percentile is around 3.2 times the median.
+ */
+public class LogNormalLatencyModel implements LatencyModel {
+
+  private final double mu;
+  private final double sigma;
+  private final Random random;
+
+  public LogNormalLatencyModel(long medianDelayMillis, double sigma) {
+    this(medianDelayMillis, sigma, new Random());
+  }
+
+  public LogNormalLatencyModel(long medianDelayMillis, double sigma, Random random) {
+    if (medianDelayMillis <= 0 || sigma < 0) {
+      throw new IllegalArgumentException(
+          "Invalid log-normal parameters median=" + medianDelayMillis + " sigma=" + sigma);
+    }
+    this.mu = Math.log(medianDelayMillis);
+    this.sigma = sigma;
+    this.random = random;
+  }
+
+  @Override public long nextDelayMillis() {
+    return Math.round(Math.exp(mu + sigma * random.nextGaussian()));
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.model.network;
+
+import com.karumi.screenshot.model.SuperHeroesRepositoryException;
+import com.karumi.screenshot.model.SuperHeroesTimeoutException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simulates the network round trip of a repository request. Every request waits for a delay
+ * taken from the {@link LatencyModel}; a share of them fail after that delay and another share
+ * time out. Requests slower than the timeout time out as well.
+ */
+public class SimulatedNetwork {
+
+  private static final long DEFAULT_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+  private final LatencyModel latencyModel;
+  private final float errorRate;
+  private final float timeoutRate;
+  private final long timeoutMillis;
+  private final Random random;
+
+  public SimulatedNetwork(LatencyModel latencyModel) {
+    this(latencyModel, 0f, 0f, DEFAULT_TIMEOUT_MILLIS, new Random());
+  }
+
+  public SimulatedNetwork(LatencyModel latencyModel, float errorRate, float timeoutRate,
+      long timeoutMillis, Random random) {
+    if (errorRate < 0f || timeoutRate < 0f || errorRate + timeoutRate > 1f) {
+      throw new IllegalArgumentException(
+          "Invalid rates error=" + errorRate + " timeout=" + timeoutRate);
+    }
+    this.latencyModel = latencyModel;
+    this.errorRate = errorRate;
+    this.timeoutRate = timeoutRate;
+    this.timeoutMillis = timeoutMillis;
+    this.random = random;
+  }
+
+  /**
+   * Blocks the calling thread for the simulated round trip. An interrupted request returns
+   * straight away with the interrupt flag set.
+   */
+  public void simulateRequest() {
+    float outcome = random.nextFloat();
+    long delayMillis = latencyModel.nextDelayMillis();
+    if (outcome < timeoutRate || delayMillis >= timeoutMillis) {
+      if (sleep(timeoutMillis)) {
+        throw new SuperHeroesTimeoutException(timeoutMillis);
+      }
+      return;
+    }
+    if (sleep(delayMillis) && outcome < timeoutRate + errorRate) {
+      throw new SuperHeroesRepositoryException("Simulated request failure");
+    }
+  }
+
+  private static boolean sleep(long millis) {
+    if (millis <= 0) {
+      return true;
+    }
+    try {
+      Thread.sleep(millis);
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.model.network;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Replays recorded latencies in order, starting over once the trace is exhausted.
+ */
+public class TraceLatencyModel implements LatencyModel {
+
+  private static final String COMMENT_PREFIX = "#";
+
+  private final long[] delaysMillis;
+  private final AtomicInteger nextDelay;
+
+  public TraceLatencyModel(long[] delaysMillis) {
+    if (delaysMillis.length == 0) {
+      throw new IllegalArgumentException("Empty latency trace");
+    }
+    this.delaysMillis = delaysMillis.clone();
+    this.nextDelay = new AtomicInteger();
+  }
+
+  /**
+   * Reads a trace with one latency in milliseconds per line. Blank lines and lines starting with
+   * {@code #} are ignored.
+   */
+  public static TraceLatencyModel read(Reader reader) throws IOException {
+    BufferedReader lines = new BufferedReader(reader);
+    List<Long> delaysMillis = new ArrayList<>();
+    String line;
+    while ((line = lines.readLine()) != null) {
+      line = line.trim();
+      if (line.isEmpty() || line.startsWith(COMMENT_PREFIX)) {
+        continue;
+      }
+      try {
+        delaysMillis.add(Long.parseLong(line));
+      } catch (NumberFormatException e) {
+        throw new IOException("Invalid latency \"" + line + "\"", e);
+      }
+    }
+    long[] trace = new long[delaysMillis.size()];
+    for (int i = 0; i < trace.length; i++) {
+      trace[i] = delaysMillis.get(i);
+    }
+    return new TraceLatencyModel(trace);
+  }
+
+  @Override public long nextDelayMillis() {
+    int index = nextDelay.getAndIncrement() % delaysMillis.length;
+    return delaysMillis[index < 0 ? index + delaysMillis.length : index];
+  }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.model.network;
+
+import java.util.Random;
+
+public class UniformLatencyModel implements LatencyModel {
+
+  private final long minDelayMillis;
+  private final long maxDelayMillis;
+  private final Random random;
+
+  public UniformLatencyModel(long minDelayMillis, long maxDelayMillis) {
+    this(minDelayMillis, maxDelayMillis, new Random());
+  }
+
+  public UniformLatencyModel(long minDelayMillis, long maxDelayMillis, Random random) {
+    if (minDelayMillis < 0 || maxDelayMillis < minDelayMillis) {
+      throw new IllegalArgumentException(
+          "Invalid delay range [" + minDelayMillis + ", " + maxDelayMillis + "]");
+    }
+    this.minDelayMillis = minDelayMillis;
+    this.maxDelayMillis = maxDelayMillis;
+    this.random = random;
+  }
+
+  @Override public long nextDelayMillis() {
+    return minDelayMillis + (long) (random.nextDouble() * (maxDelayMillis - minDelayMillis + 1));
+  }
+}
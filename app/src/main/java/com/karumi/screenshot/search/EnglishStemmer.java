@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.search;
+
+/**
+ * Light English suffix stripper. It does not try to produce dictionary words, it only has to
+ * map the forms used in indexed text and in queries to the same term.
+ */
+class EnglishStemmer {
+
+  private static final int MIN_STEM_LENGTH = 3;
+
+  String stem(String term) {
+    if (term.length() <= MIN_STEM_LENGTH) {
+      return term;
+    }
+    String stem = stripPlural(term);
+    stem = stripSuffix(stem, "ing");
+    stem = stripSuffix(stem, "ed");
+    stem = stripSuffix(stem, "ly");
+    return stripFinalE(stem);
+  }
+
+  private static String stripPlural(String term) {
+    if (term.endsWith("ies") && !term.endsWith("eies") && !term.endsWith("aies")) {
+      return term.substring(0, term.length() - 3) + "y";
+    }
+    if (term.endsWith("sses") || term.endsWith("oes") || term.endsWith("xes")
+        || term.endsWith("ches") || term.endsWith("shes") || term.endsWith("zes")) {
+      return term.substring(0, term.length() - 2);
+    }
+    if (term.endsWith("s") && !term.endsWith("ss") && !term.endsWith("us")
+        && !term.endsWith("is")) {
+      return term.substring(0, term.length() - 1);
+    }
+    return term;
+  }
+
+  private static String stripSuffix(String term, String suffix) {
+    int stemLength = term.length() - suffix.length();
+    if (stemLength < MIN_STEM_LENGTH || !term.endsWith(suffix) || !hasVowel(term, stemLength)) {
+      return term;
+    }
+    if (stemLength > MIN_STEM_LENGTH && isDoubleConsonant(term, stemLength)) {
+      stemLength--;
+    }
+    return term.substring(0, stemLength);
+  }
+
+  private static String stripFinalE(String term) {
+    if (term.length() > MIN_STEM_LENGTH && term.endsWith("e")) {
+      return term.substring(0, term.length() - 1);
+    }
+    return term;
+  }
+
+  private static boolean hasVowel(String term, int length) {
+    for (int i = 0; i < length; i++) {
+      char c = term.charAt(i);
+      if (isVowel(c) || (c == 'y' && i > 0)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean isDoubleConsonant(String term, int length) {
+    char last = term.charAt(length - 1);
+    return last == term.charAt(length - 2) && !isVowel(last)
+        && last != 'l' && last != 's' && last != 'z';
+  }
+
+  private static boolean isVowel(char c) {
+    return c == 'a' || c == 'e' || c == 'i' || c == 'o' || c == 'u';
+  }
+}
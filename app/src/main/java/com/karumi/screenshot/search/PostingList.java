@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.search;
+
+import java.util.Arrays;
+
+/**
+ * Documents containing a term, stored as variable-length encoded deltas between ascending
+ * document ids, each one followed by the term frequency. Documents have to be added in
+ * ascending id order.
+ */
+class PostingList {
+
+  private static final int INITIAL_CAPACITY = 8;
+
+  private byte[] data;
+  private int length;
+  private int documentFrequency;
+  private int lastDocumentId;
+
+  PostingList() {
+    this.data = new byte[INITIAL_CAPACITY];
+    this.lastDocumentId = -1;
+  }
+
+  void add(int documentId, int termFrequency) {
+    if (documentId <= lastDocumentId) {
+      throw new IllegalArgumentException(
+          "Document " + documentId + " added after " + lastDocumentId);
+    }
+    writeVarInt(documentId - lastDocumentId);
+    writeVarInt(termFrequency);
+    lastDocumentId = documentId;
+    documentFrequency++;
+  }
+
+  int getDocumentFrequency() {
+    return documentFrequency;
+  }
+
+  int getSizeInBytes() {
+    return data.length;
+  }
+
+  void trimToSize() {
+    if (data.length != length) {
+      data = Arrays.copyOf(data, length);
+    }
+  }
+
+  Cursor cursor() {
+    return new Cursor();
+  }
+
+  private void writeVarInt(int value) {
+    ensureCapacity(length + 5);
+    while ((value & ~0x7f) != 0) {
+      data[length++] = (byte) ((value & 0x7f) | 0x80);
+      value >>>= 7;
+    }
+    data[length++] = (byte) value;
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity > data.length) {
+      data = Arrays.copyOf(data, Math.max(capacity, data.length * 2));
+    }
+  }
+
+  class Cursor {
+
+    private int position;
+    private int documentId = -1;
+    private int termFrequency;
+
+    boolean next() {
+      if (position >= length) {
+        return false;
+      }
+      documentId += readVarInt();
+      termFrequency = readVarInt();
+      return true;
+    }
+
+    int getDocumentId() {
+      return documentId;
+    }
+
+    int getTermFrequency() {
+      return termFrequency;
+    }
+
+    private int readVarInt() {
+      int value = 0;
+      int shift = 0;
+      byte b;
+      do {
+        b = data[position++];
+        value |= (b & 0x7f) << shift;
+        shift += 7;
+      } while ((b & 0x80) != 0);
+      return value;
+    }
+  }
+}
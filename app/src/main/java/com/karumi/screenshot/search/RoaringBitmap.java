@@ -0,0 +1,461 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.search;
+
+import java.util.Arrays;
+
+/**
+ * Compressed set of non-negative ints. Values are grouped by their 16 high bits and every group
+ * is stored either as a sorted array, while it holds up to {@link #MAX_ARRAY_CONTAINER_SIZE}
+ * values, or as a 65536 bit bitmap. Set operations return new bitmaps and never modify their
+ * operands.
+ */
+public class RoaringBitmap {
+
+  private static final int MAX_ARRAY_CONTAINER_SIZE = 4096;
+  private static final int CONTAINER_BITS = 1 << 16;
+  private static final int BITMAP_CONTAINER_WORDS = CONTAINER_BITS / 64;
+
+  private char[] keys;
+  private Container[] containers;
+  private int size;
+
+  public RoaringBitmap() {
+    this(4);
+  }
+
+  private RoaringBitmap(int capacity) {
+    this.keys = new char[capacity];
+    this.containers = new Container[capacity];
+  }
+
+  public static RoaringBitmap range(int from, int to) {
+    RoaringBitmap bitmap = new RoaringBitmap();
+    while (from < to) {
+      int key = from >>> 16;
+      int containerEnd = Math.min(to, (key + 1) << 16);
+      BitmapContainer container = new BitmapContainer();
+      container.setRange(from & 0xffff, containerEnd - (key << 16));
+      bitmap.append((char) key, container.optimize());
+      from = containerEnd;
+    }
+    return bitmap;
+  }
+
+  public void add(int value) {
+    checkValue(value);
+    char key = (char) (value >>> 16);
+    int index = Arrays.binarySearch(keys, 0, size, key);
+    if (index < 0) {
+      index = -index - 1;
+      insert(index, key, new ArrayContainer());
+    }
+    containers[index] = containers[index].add((char) value);
+  }
+
+  public boolean contains(int value) {
+    if (value < 0) {
+      return false;
+    }
+    int index = Arrays.binarySearch(keys, 0, size, (char) (value >>> 16));
+    return index >= 0 && containers[index].contains((char) value);
+  }
+
+  public int getCardinality() {
+    int cardinality = 0;
+    for (int i = 0; i < size; i++) {
+      cardinality += containers[i].getCardinality();
+    }
+    return cardinality;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Returns the smallest value in the bitmap greater than or equal to {@code from}, or -1 if
+   * there is none.
+   */
+  public int nextValue(int from) {
+    from = Math.max(0, from);
+    char key = (char) (from >>> 16);
+    int index = Arrays.binarySearch(keys, 0, size, key);
+    if (index >= 0) {
+      int low = containers[index].nextValue(from & 0xffff);
+      if (low >= 0) {
+        return (key << 16) | low;
+      }
+      index++;
+    } else {
+      index = -index - 1;
+    }
+    if (index >= size) {
+      return -1;
+    }
+    return (keys[index] << 16) | containers[index].nextValue(0);
+  }
+
+  public RoaringBitmap and(RoaringBitmap other) {
+    RoaringBitmap result = new RoaringBitmap(Math.min(size, other.size) + 1);
+    int i = 0;
+    int j = 0;
+    while (i < size && j < other.size) {
+      if (keys[i] < other.keys[j]) {
+        i++;
+      } else if (keys[i] > other.keys[j]) {
+        j++;
+      } else {
+        result.append(keys[i], containers[i].and(other.containers[j]));
+        i++;
+        j++;
+      }
+    }
+    return result;
+  }
+
+  public RoaringBitmap or(RoaringBitmap other) {
+    RoaringBitmap result = new RoaringBitmap(size + other.size + 1);
+    int i = 0;
+    int j = 0;
+    while (i < size || j < other.size) {
+      if (j == other.size || (i < size && keys[i] < other.keys[j])) {
+        result.append(keys[i], containers[i].copy());
+        i++;
+      } else if (i == size || keys[i] > other.keys[j]) {
+        result.append(other.keys[j], other.containers[j].copy());
+        j++;
+      } else {
+        result.append(keys[i], containers[i].or(other.containers[j]));
+        i++;
+        j++;
+      }
+    }
+    return result;
+  }
+
+  public RoaringBitmap andNot(RoaringBitmap other) {
+    RoaringBitmap result = new RoaringBitmap(size + 1);
+    int j = 0;
+    for (int i = 0; i < size; i++) {
+      while (j < other.size && other.keys[j] < keys[i]) {
+        j++;
+      }
+      if (j < other.size && other.keys[j] == keys[i]) {
+        result.append(keys[i], containers[i].andNot(other.containers[j]));
+      } else {
+        result.append(keys[i], containers[i].copy());
+      }
+    }
+    return result;
+  }
+
+  public long getSizeInBytes() {
+    long sizeInBytes = 2L * keys.length + 4L * containers.length;
+    for (int i = 0; i < size; i++) {
+      sizeInBytes += containers[i].getSizeInBytes();
+    }
+    return sizeInBytes;
+  }
+
+  private void append(char key, Container container) {
+    if (container.getCardinality() > 0) {
+      insert(size, key, container);
+    }
+  }
+
+  private void insert(int index, char key, Container container) {
+    if (size == keys.length) {
+      keys = Arrays.copyOf(keys, Math.max(4, size * 2));
+      containers = Arrays.copyOf(containers, keys.length);
+    }
+    System.arraycopy(keys, index, keys, index + 1, size - index);
+    System.arraycopy(containers, index, containers, index + 1, size - index);
+    keys[index] = key;
+    containers[index] = container;
+    size++;
+  }
+
+  private static void checkValue(int value) {
+    if (value < 0) {
+      throw new IllegalArgumentException("Negative value " + value);
+    }
+  }
+
+  private abstract static class Container {
+
+    abstract Container add(char value);
+
+    abstract boolean contains(char value);
+
+    abstract int getCardinality();
+
+    abstract int nextValue(int from);
+
+    abstract Container and(Container other);
+
+    abstract Container or(Container other);
+
+    abstract Container andNot(Container other);
+
+    abstract Container copy();
+
+    abstract Container optimize();
+
+    abstract long getSizeInBytes();
+  }
+
+  private static class ArrayContainer extends Container {
+
+    private char[] values;
+    private int cardinality;
+
+    ArrayContainer() {
+      this(new char[4], 0);
+    }
+
+    ArrayContainer(char[] values, int cardinality) {
+      this.values = values;
+      this.cardinality = cardinality;
+    }
+
+    @Override Container add(char value) {
+      int index = Arrays.binarySearch(values, 0, cardinality, value);
+      if (index >= 0) {
+        return this;
+      }
+      if (cardinality == MAX_ARRAY_CONTAINER_SIZE) {
+        return toBitmapContainer().add(value);
+      }
+      index = -index - 1;
+      if (cardinality == values.length) {
+        values = Arrays.copyOf(values, Math.min(MAX_ARRAY_CONTAINER_SIZE, cardinality * 2));
+      }
+      System.arraycopy(values, index, values, index + 1, cardinality - index);
+      values[index] = value;
+      cardinality++;
+      return this;
+    }
+
+    @Override boolean contains(char value) {
+      return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+    }
+
+    @Override int getCardinality() {
+      return cardinality;
+    }
+
+    @Override int nextValue(int from) {
+      int index = Arrays.binarySearch(values, 0, cardinality, (char) from);
+      if (index < 0) {
+        index = -index - 1;
+      }
+      return index < cardinality ? values[index] : -1;
+    }
+
+    @Override Container and(Container other) {
+      char[] result = new char[cardinality];
+      int resultCardinality = 0;
+      for (int i = 0; i < cardinality; i++) {
+        if (other.contains(values[i])) {
+          result[resultCardinality++] = values[i];
+        }
+      }
+      return new ArrayContainer(result, resultCardinality);
+    }
+
+    @Override Container or(Container other) {
+      if (other instanceof BitmapContainer) {
+        return other.or(this);
+      }
+      ArrayContainer array = (ArrayContainer) other;
+      char[] result = new char[cardinality + array.cardinality];
+      int resultCardinality = 0;
+      int i = 0;
+      int j = 0;
+      while (i < cardinality || j < array.cardinality) {
+        if (j == array.cardinality || (i < cardinality && values[i] < array.values[j])) {
+          result[resultCardinality++] = values[i++];
+        } else if (i == cardinality || values[i] > array.values[j]) {
+          result[resultCardinality++] = array.values[j++];
+        } else {
+          result[resultCardinality++] = values[i++];
+          j++;
+        }
+      }
+      ArrayContainer union = new ArrayContainer(result, resultCardinality);
+      return resultCardinality > MAX_ARRAY_CONTAINER_SIZE ? union.toBitmapContainer() : union;
+    }
+
+    @Override Container andNot(Container other) {
+      char[] result = new char[cardinality];
+      int resultCardinality = 0;
+      for (int i = 0; i < cardinality; i++) {
+        if (!other.contains(values[i])) {
+          result[resultCardinality++] = values[i];
+        }
+      }
+      return new ArrayContainer(result, resultCardinality);
+    }
+
+    @Override Container copy() {
+      return new ArrayContainer(Arrays.copyOf(values, cardinality), cardinality);
+    }
+
+    @Override Container optimize() {
+      return this;
+    }
+
+    @Override long getSizeInBytes() {
+      return 2L * values.length;
+    }
+
+    BitmapContainer toBitmapContainer() {
+      BitmapContainer bitmap = new BitmapContainer();
+      for (int i = 0; i < cardinality; i++) {
+        bitmap.add(values[i]);
+      }
+      return bitmap;
+    }
+  }
+
+  private static class BitmapContainer extends Container {
+
+    private final long[] words;
+    private int cardinality;
+
+    BitmapContainer() {
+      this(new long[BITMAP_CONTAINER_WORDS], 0);
+    }
+
+    BitmapContainer(long[] words, int cardinality) {
+      this.words = words;
+      this.cardinality = cardinality;
+    }
+
+    void setRange(int from, int to) {
+      for (int value = from; value < to; value++) {
+        add((char) value);
+      }
+    }
+
+    @Override Container add(char value) {
+      long bit = 1L << value;
+      int index = value >>> 6;
+      if ((words[index] & bit) == 0) {
+        words[index] |= bit;
+        cardinality++;
+      }
+      return this;
+    }
+
+    @Override boolean contains(char value) {
+      return (words[value >>> 6] & (1L << value)) != 0;
+    }
+
+    @Override int getCardinality() {
+      return cardinality;
+    }
+
+    @Override int nextValue(int from) {
+      int index = from >>> 6;
+      long word = words[index] & (-1L << from);
+      while (word == 0) {
+        if (++index == BITMAP_CONTAINER_WORDS) {
+          return -1;
+        }
+        word = words[index];
+      }
+      return (index << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    @Override Container and(Container other) {
+      if (other instanceof ArrayContainer) {
+        return other.and(this);
+      }
+      long[] otherWords = ((BitmapContainer) other).words;
+      long[] result = new long[BITMAP_CONTAINER_WORDS];
+      for (int i = 0; i < BITMAP_CONTAINER_WORDS; i++) {
+        result[i] = words[i] & otherWords[i];
+      }
+      return fromWords(result).optimize();
+    }
+
+    @Override Container or(Container other) {
+      long[] result = Arrays.copyOf(words, BITMAP_CONTAINER_WORDS);
+      if (other instanceof ArrayContainer) {
+        BitmapContainer union = new BitmapContainer(result, cardinality);
+        ArrayContainer array = (ArrayContainer) other;
+        for (int i = 0; i < array.cardinality; i++) {
+          union.add(array.values[i]);
+        }
+        return union;
+      }
+      long[] otherWords = ((BitmapContainer) other).words;
+      for (int i = 0; i < BITMAP_CONTAINER_WORDS; i++) {
+        result[i] |= otherWords[i];
+      }
+      return fromWords(result);
+    }
+
+    @Override Container andNot(Container other) {
+      long[] result = Arrays.copyOf(words, BITMAP_CONTAINER_WORDS);
+      if (other instanceof ArrayContainer) {
+        ArrayContainer array = (ArrayContainer) other;
+        for (int i = 0; i < array.cardinality; i++) {
+          char value = array.values[i];
+          result[value >>> 6] &= ~(1L << value);
+        }
+      } else {
+        long[] otherWords = ((BitmapContainer) other).words;
+        for (int i = 0; i < BITMAP_CONTAINER_WORDS; i++) {
+          result[i] &= ~otherWords[i];
+        }
+      }
+      return fromWords(result).optimize();
+    }
+
+    @Override Container copy() {
+      return new BitmapContainer(Arrays.copyOf(words, BITMAP_CONTAINER_WORDS), cardinality);
+    }
+
+    @Override Container optimize() {
+      if (cardinality > MAX_ARRAY_CONTAINER_SIZE) {
+        return this;
+      }
+      char[] values = new char[cardinality];
+      int index = 0;
+      for (int value = nextValue(0); value >= 0 && index < cardinality;
+          value = value + 1 < CONTAINER_BITS ? nextValue(value + 1) : -1) {
+        values[index++] = (char) value;
+      }
+      return new ArrayContainer(values, cardinality);
+    }
+
+    @Override long getSizeInBytes() {
+      return 8L * BITMAP_CONTAINER_WORDS;
+    }
+
+    private static BitmapContainer fromWords(long[] words) {
+      int cardinality = 0;
+      for (long word : words) {
+        cardinality += Long.bitCount(word);
+      }
+      return new BitmapContainer(words, cardinality);
+    }
+  }
+}
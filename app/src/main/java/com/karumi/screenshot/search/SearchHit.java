@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.search;
+
+public class SearchHit {
+
+  private final int documentId;
+  private final float score;
+
+  public SearchHit(int documentId, float score) {
+    this.documentId = documentId;
+    this.score = score;
+  }
+
+  public int getDocumentId() {
+    return documentId;
+  }
+
+  public float getScore() {
+    return score;
+  }
+}
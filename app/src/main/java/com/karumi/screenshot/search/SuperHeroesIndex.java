@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Inverted index over super hero names and descriptions ranked with BM25. Documents are added
+ * one by one in ascending id order, so the index can be searched while it is still being built.
+ * Terms found in the name count {@link #NAME_WEIGHT} times.
+ */
+public class SuperHeroesIndex {
+
+  private static final float K1 = 1.2f;
+  private static final float B = 0.75f;
+  private static final int NAME_WEIGHT = 3;
+  private static final int ESTIMATED_TERM_OVERHEAD_IN_BYTES = 96;
+
+  private static final Comparator<SearchHit> BY_SCORE = new Comparator<SearchHit>() {
+    @Override public int compare(SearchHit lhs, SearchHit rhs) {
+      int byScore = Float.compare(lhs.getScore(), rhs.getScore());
+      return byScore != 0 ? byScore : rhs.getDocumentId() - lhs.getDocumentId();
+    }
+  };
+
+  private final Tokenizer tokenizer;
+  private final Map<String, PostingList> postingLists;
+  private int[] documentLengths;
+  private int documentCount;
+  private long totalDocumentLength;
+  private float[] scores;
+  private int[] scoredDocuments;
+
+  public SuperHeroesIndex() {
+    this.tokenizer = new Tokenizer();
+    this.postingLists = new HashMap<>();
+    this.documentLengths = new int[16];
+    this.scores = new float[16];
+    this.scoredDocuments = new int[16];
+  }
+
+  public synchronized void add(int documentId, String name, String description) {
+    if (documentId < documentCount) {
+      throw new IllegalArgumentException(
+          "Document " + documentId + " added after " + (documentCount - 1));
+    }
+    Map<String, Integer> termFrequencies = new HashMap<>();
+    int documentLength = countTerms(termFrequencies, name, NAME_WEIGHT);
+    documentLength += countTerms(termFrequencies, description, 1);
+    for (Map.Entry<String, Integer> termFrequency : termFrequencies.entrySet()) {
+      getPostingList(termFrequency.getKey()).add(documentId, termFrequency.getValue());
+    }
+    if (documentId >= documentLengths.length) {
+      documentLengths = Arrays.copyOf(documentLengths,
+          Math.max(documentId + 1, documentLengths.length * 2));
+    }
+    documentLengths[documentId] = documentLength;
+    documentCount = documentId + 1;
+    totalDocumentLength += documentLength;
+  }
+
+  public synchronized List<SearchHit> search(String query, int limit) {
+    if (documentCount == 0 || limit <= 0) {
+      return Collections.emptyList();
+    }
+    ensureScoresCapacity();
+    int numberOfScoredDocuments = 0;
+    float averageDocumentLength = (float) totalDocumentLength / documentCount;
+    Set<String> terms = new LinkedHashSet<>(tokenizer.tokenize(query));
+    for (String term : terms) {
+      PostingList postingList = postingLists.get(term);
+      if (postingList == null) {
+        continue;
+      }
+      float idf = getInverseDocumentFrequency(postingList.getDocumentFrequency());
+      PostingList.Cursor cursor = postingList.cursor();
+      while (cursor.next()) {
+        int documentId = cursor.getDocumentId();
+        if (scores[documentId] == 0f) {
+          scoredDocuments[numberOfScoredDocuments++] = documentId;
+        }
+        float termFrequency = cursor.getTermFrequency();
+        float lengthNormalization =
+            1 - B + B * documentLengths[documentId] / averageDocumentLength;
+        scores[documentId] +=
+            idf * termFrequency * (K1 + 1) / (termFrequency + K1 * lengthNormalization);
+      }
+    }
+    return collectTopHits(numberOfScoredDocuments, limit);
+  }
+
+  public synchronized int size() {
+    return documentCount;
+  }
+
+  public synchronized int getNumberOfTerms() {
+    return postingLists.size();
+  }
+
+  public synchronized long estimateSizeInBytes() {
+    long size = 4L * (documentLengths.length + scores.length + scoredDocuments.length);
+    for (Map.Entry<String, PostingList> entry : postingLists.entrySet()) {
+      size += ESTIMATED_TERM_OVERHEAD_IN_BYTES + 2L * entry.getKey().length();
+      size += entry.getValue().getSizeInBytes();
+    }
+    return size;
+  }
+
+  public synchronized void trimToSize() {
+    for (PostingList postingList : postingLists.values()) {
+      postingList.trimToSize();
+    }
+    documentLengths = Arrays.copyOf(documentLengths, documentCount);
+  }
+
+  private int countTerms(Map<String, Integer> termFrequencies, String text, int weight) {
+    List<String> terms = tokenizer.tokenize(text);
+    for (String term : terms) {
+      Integer termFrequency = termFrequencies.get(term);
+      termFrequencies.put(term, termFrequency == null ? weight : termFrequency + weight);
+    }
+    return terms.size() * weight;
+  }
+
+  private PostingList getPostingList(String term) {
+    PostingList postingList = postingLists.get(term);
+    if (postingList == null) {
+      postingList = new PostingList();
+      postingLists.put(term, postingList);
+    }
+    return postingList;
+  }
+
+  private float getInverseDocumentFrequency(int documentFrequency) {
+    return (float) Math.log(1 + (documentCount - documentFrequency + 0.5)
+        / (documentFrequency + 0.5));
+  }
+
+  private void ensureScoresCapacity() {
+    if (scores.length < documentCount) {
+      scores = new float[documentCount];
+      scoredDocuments = new int[documentCount];
+    }
+  }
+
+  private List<SearchHit> collectTopHits(int numberOfScoredDocuments, int limit) {
+    PriorityQueue<SearchHit> topHits = new PriorityQueue<>(limit, BY_SCORE);
+    for (int i = 0; i < numberOfScoredDocuments; i++) {
+      int documentId = scoredDocuments[i];
+      float score = scores[documentId];
+      scores[documentId] = 0f;
+      if (topHits.size() < limit) {
+        topHits.add(new SearchHit(documentId, score));
+      } else if (score > topHits.peek().getScore()) {
+        topHits.poll();
+        topHits.add(new SearchHit(documentId, score));
+      }
+    }
+    List<SearchHit> hits = new ArrayList<>(topHits);
+    Collections.sort(hits, Collections.reverseOrder(BY_SCORE));
+    return hits;
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Splits text into lower-case, stemmed terms. Anything that is not a letter or a digit is a
+ * separator and stop words are dropped.
+ */
+class Tokenizer {
+
+  private static final int MIN_TERM_LENGTH = 2;
+  private static final Set<String> STOP_WORDS = new HashSet<>(Arrays.asList("a", "an", "and",
+      "are", "as", "at", "be", "by", "for", "from", "has", "he", "her", "his", "in", "is", "it",
+      "its", "of", "on", "or", "she", "that", "the", "their", "them", "they", "this", "to",
+      "was", "were", "with"));
+
+  private final EnglishStemmer stemmer;
+  private final StringBuilder term;
+
+  Tokenizer() {
+    this.stemmer = new EnglishStemmer();
+    this.term = new StringBuilder();
+  }
+
+  List<String> tokenize(String text) {
+    List<String> terms = new ArrayList<>();
+    if (text == null) {
+      return terms;
+    }
+    for (int i = 0; i <= text.length(); i++) {
+      char c = i < text.length() ? text.charAt(i) : ' ';
+      if (Character.isLetterOrDigit(c)) {
+        term.append(Character.toLowerCase(c));
+      } else if (term.length() > 0) {
+        addTerm(terms);
+      }
+    }
+    return terms;
+  }
+
+  private void addTerm(List<String> terms) {
+    String value = term.toString();
+    term.setLength(0);
+    if (value.length() >= MIN_TERM_LENGTH && !STOP_WORDS.contains(value)) {
+      terms.add(stemmer.stem(value));
+    }
+  }
+}
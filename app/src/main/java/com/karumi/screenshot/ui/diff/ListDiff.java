@@ -0,0 +1,198 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.ui.diff;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Computes the minimal list of insertions, removals, moves and changes needed to transform one
+ * list into another. Items are matched by identity, which must be unique inside each list. The
+ * items that keep their relative order are the longest increasing subsequence of their new
+ * positions, which for unique identities is the same longest common subsequence Myers' algorithm
+ * finds, in O(n log n). Matched items outside of it are reported as moves.
+ */
+public final class ListDiff {
+
+  static final int FLAG_NOT_CHANGED = 1;
+  static final int FLAG_CHANGED = 2;
+  static final int FLAG_MOVED_CHANGED = 4;
+  static final int FLAG_MOVED_NOT_CHANGED = 8;
+  static final int FLAG_IGNORE = 16;
+  static final int FLAG_OFFSET = 5;
+  static final int FLAG_MASK = (1 << FLAG_OFFSET) - 1;
+
+  private ListDiff() {
+  }
+
+  public static <T> ListDiffResult calculate(List<T> oldList, List<T> newList,
+      ItemCallback<T> callback) {
+    int oldSize = oldList.size();
+    int newSize = newList.size();
+    int[] oldToNew = new int[oldSize];
+    int[] newToOld = new int[newSize];
+    matchItemsByIdentity(oldList, newList, callback, oldToNew, newToOld);
+
+    boolean[] anchored = findAnchoredItems(oldToNew);
+    List<Snake> snakes = findSnakes(oldToNew, anchored, oldSize, newSize);
+
+    int[] oldStatuses = new int[oldSize];
+    int[] newStatuses = new int[newSize];
+    for (Snake snake : snakes) {
+      for (int i = 0; i < snake.size; i++) {
+        int oldPosition = snake.x + i;
+        int newPosition = snake.y + i;
+        boolean sameContent =
+            callback.haveSameContent(oldList.get(oldPosition), newList.get(newPosition));
+        int flag = sameContent ? FLAG_NOT_CHANGED : FLAG_CHANGED;
+        oldStatuses[oldPosition] = flag;
+        newStatuses[newPosition] = flag;
+      }
+    }
+
+    int[] oldGaps = new int[oldSize];
+    int[] newGaps = new int[newSize];
+    for (int s = 1; s < snakes.size(); s++) {
+      Snake previous = snakes.get(s - 1);
+      Snake snake = snakes.get(s);
+      for (int x = previous.x + previous.size; x < snake.x; x++) {
+        oldGaps[x] = s;
+      }
+      for (int y = previous.y + previous.size; y < snake.y; y++) {
+        newGaps[y] = s;
+      }
+    }
+    for (int x = 0; x < oldSize; x++) {
+      int y = oldToNew[x];
+      if (y < 0 || anchored[x]) {
+        continue;
+      }
+      boolean sameContent = callback.haveSameContent(oldList.get(x), newList.get(y));
+      int movedFlag = sameContent ? FLAG_MOVED_NOT_CHANGED : FLAG_MOVED_CHANGED;
+      if (oldGaps[x] >= newGaps[y]) {
+        oldStatuses[x] = (y << FLAG_OFFSET) | FLAG_IGNORE;
+        newStatuses[y] = (x << FLAG_OFFSET) | movedFlag;
+      } else {
+        oldStatuses[x] = (y << FLAG_OFFSET) | movedFlag;
+        newStatuses[y] = (x << FLAG_OFFSET) | FLAG_IGNORE;
+      }
+    }
+    return new ListDiffResult(snakes, oldStatuses, newStatuses, oldSize, newSize);
+  }
+
+  private static <T> void matchItemsByIdentity(List<T> oldList, List<T> newList,
+      ItemCallback<T> callback, int[] oldToNew, int[] newToOld) {
+    Map<Object, Integer> newPositions = new HashMap<>(newList.size() * 2);
+    int newPosition = 0;
+    for (T item : newList) {
+      newToOld[newPosition] = -1;
+      Object identity = callback.getIdentity(item);
+      if (!newPositions.containsKey(identity)) {
+        newPositions.put(identity, newPosition);
+      }
+      newPosition++;
+    }
+    int oldPosition = 0;
+    for (T item : oldList) {
+      oldToNew[oldPosition] = -1;
+      Integer match = newPositions.get(callback.getIdentity(item));
+      if (match != null && newToOld[match] == -1) {
+        oldToNew[oldPosition] = match;
+        newToOld[match] = oldPosition;
+      }
+      oldPosition++;
+    }
+  }
+
+  private static boolean[] findAnchoredItems(int[] oldToNew) {
+    int size = oldToNew.length;
+    int[] tails = new int[size];
+    int[] predecessors = new int[size];
+    int length = 0;
+    for (int x = 0; x < size; x++) {
+      int y = oldToNew[x];
+      if (y < 0) {
+        continue;
+      }
+      int low = 0;
+      int high = length;
+      while (low < high) {
+        int middle = (low + high) >>> 1;
+        if (oldToNew[tails[middle]] < y) {
+          low = middle + 1;
+        } else {
+          high = middle;
+        }
+      }
+      predecessors[x] = low > 0 ? tails[low - 1] : -1;
+      tails[low] = x;
+      if (low == length) {
+        length++;
+      }
+    }
+    boolean[] anchored = new boolean[size];
+    for (int x = length > 0 ? tails[length - 1] : -1; x >= 0; x = predecessors[x]) {
+      anchored[x] = true;
+    }
+    return anchored;
+  }
+
+  private static List<Snake> findSnakes(int[] oldToNew, boolean[] anchored, int oldSize,
+      int newSize) {
+    List<Snake> snakes = new ArrayList<>();
+    Snake current = null;
+    for (int x = 0; x < oldSize; x++) {
+      if (!anchored[x]) {
+        continue;
+      }
+      int y = oldToNew[x];
+      if (current != null && current.x + current.size == x && current.y + current.size == y) {
+        current.size++;
+      } else {
+        current = new Snake(x, y);
+        current.size = 1;
+        snakes.add(current);
+      }
+    }
+    if (snakes.isEmpty() || snakes.get(0).x != 0 || snakes.get(0).y != 0) {
+      snakes.add(0, new Snake(0, 0));
+    }
+    snakes.add(new Snake(oldSize, newSize));
+    return snakes;
+  }
+
+  public interface ItemCallback<T> {
+
+    Object getIdentity(T item);
+
+    boolean haveSameContent(T oldItem, T newItem);
+  }
+
+  static class Snake {
+
+    final int x;
+    final int y;
+    int size;
+
+    Snake(int x, int y) {
+      this.x = x;
+      this.y = y;
+    }
+  }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.ui.diff;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.karumi.screenshot.ui.diff.ListDiff.FLAG_CHANGED;
+import static com.karumi.screenshot.ui.diff.ListDiff.FLAG_IGNORE;
+import static com.karumi.screenshot.ui.diff.ListDiff.FLAG_MASK;
+import static com.karumi.screenshot.ui.diff.ListDiff.FLAG_MOVED_CHANGED;
+import static com.karumi.screenshot.ui.diff.ListDiff.FLAG_OFFSET;
+
+public class ListDiffResult {
+
+  private final List<ListDiff.Snake> snakes;
+  private final int[] oldStatuses;
+  private final int[] newStatuses;
+  private final int oldSize;
+  private final int newSize;
+
+  ListDiffResult(List<ListDiff.Snake> snakes, int[] oldStatuses, int[] newStatuses, int oldSize,
+      int newSize) {
+    this.snakes = snakes;
+    this.oldStatuses = oldStatuses;
+    this.newStatuses = newStatuses;
+    this.oldSize = oldSize;
+    this.newSize = newSize;
+  }
+
+  public void dispatchUpdatesTo(ListUpdateCallback callback) {
+    List<PostponedUpdate> postponedUpdates = new ArrayList<>();
+    int oldPosition = oldSize;
+    int newPosition = newSize;
+    for (int s = snakes.size() - 1; s >= 0; s--) {
+      ListDiff.Snake snake = snakes.get(s);
+      int endX = snake.x + snake.size;
+      int endY = snake.y + snake.size;
+      if (endX < oldPosition) {
+        dispatchRemovals(postponedUpdates, callback, endX, oldPosition - endX, endX);
+      }
+      if (endY < newPosition) {
+        dispatchAdditions(postponedUpdates, callback, endX, newPosition - endY, endY);
+      }
+      for (int i = snake.size - 1; i >= 0; i--) {
+        if ((oldStatuses[snake.x + i] & FLAG_MASK) == FLAG_CHANGED) {
+          callback.onChanged(snake.x + i, 1);
+        }
+      }
+      oldPosition = snake.x;
+      newPosition = snake.y;
+    }
+  }
+
+  private void dispatchAdditions(List<PostponedUpdate> postponedUpdates,
+      ListUpdateCallback callback, int start, int count, int globalIndex) {
+    for (int i = count - 1; i >= 0; i--) {
+      int status = newStatuses[globalIndex + i];
+      int flag = status & FLAG_MASK;
+      if (flag == 0) {
+        callback.onInserted(start, 1);
+        for (PostponedUpdate update : postponedUpdates) {
+          update.currentPosition += 1;
+        }
+      } else if (flag == FLAG_IGNORE) {
+        postponedUpdates.add(new PostponedUpdate(globalIndex + i, start, false));
+      } else {
+        int oldPosition = status >> FLAG_OFFSET;
+        PostponedUpdate update = removePostponedUpdate(postponedUpdates, oldPosition, true);
+        callback.onMoved(update.currentPosition, start);
+        if (flag == FLAG_MOVED_CHANGED) {
+          callback.onChanged(start, 1);
+        }
+      }
+    }
+  }
+
+  private void dispatchRemovals(List<PostponedUpdate> postponedUpdates,
+      ListUpdateCallback callback, int start, int count, int globalIndex) {
+    for (int i = count - 1; i >= 0; i--) {
+      int status = oldStatuses[globalIndex + i];
+      int flag = status & FLAG_MASK;
+      if (flag == 0) {
+        callback.onRemoved(start + i, 1);
+        for (PostponedUpdate update : postponedUpdates) {
+          update.currentPosition -= 1;
+        }
+      } else if (flag == FLAG_IGNORE) {
+        postponedUpdates.add(new PostponedUpdate(globalIndex + i, start + i, true));
+      } else {
+        int newPosition = status >> FLAG_OFFSET;
+        PostponedUpdate update = removePostponedUpdate(postponedUpdates, newPosition, false);
+        callback.onMoved(start + i, update.currentPosition - 1);
+        if (flag == FLAG_MOVED_CHANGED) {
+          callback.onChanged(update.currentPosition - 1, 1);
+        }
+      }
+    }
+  }
+
+  private static PostponedUpdate removePostponedUpdate(List<PostponedUpdate> postponedUpdates,
+      int positionInOwnerList, boolean removal) {
+    for (int i = postponedUpdates.size() - 1; i >= 0; i--) {
+      PostponedUpdate update = postponedUpdates.get(i);
+      if (update.positionInOwnerList == positionInOwnerList && update.removal == removal) {
+        postponedUpdates.remove(i);
+        for (int j = i; j < postponedUpdates.size(); j++) {
+          postponedUpdates.get(j).currentPosition += removal ? 1 : -1;
+        }
+        return update;
+      }
+    }
+    throw new IllegalStateException("No postponed update for position " + positionInOwnerList);
+  }
+
+  private static class PostponedUpdate {
+
+    final int positionInOwnerList;
+    final boolean removal;
+    int currentPosition;
+
+    PostponedUpdate(int positionInOwnerList, int currentPosition, boolean removal) {
+      this.positionInOwnerList = positionInOwnerList;
+      this.currentPosition = currentPosition;
+      this.removal = removal;
+    }
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.ui.image;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.graphics.Bitmap;
+import com.squareup.picasso.Cache;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Picasso memory cache bounded by the number of bytes held by its bitmaps. Picasso keys already
+ * contain the photo url and the exact target size, so each photo is stored once per size it is
+ * displayed at and scrolling back over cached rows never decodes a new bitmap.
+ */
+public class SuperHeroPhotoCache implements Cache {
+
+  private static final int BYTES_PER_MEGABYTE = 1024 * 1024;
+  private static final int MEMORY_CLASS_FRACTION = 6;
+  private static final char KEY_SEPARATOR = '\n';
+
+  private final LinkedHashMap<String, Bitmap> bitmaps;
+  private final int maxSize;
+  private int size;
+  private int hitCount;
+  private int missCount;
+  private int evictionCount;
+
+  public SuperHeroPhotoCache(int maxSizeInBytes) {
+    this.bitmaps = new LinkedHashMap<>(16, 0.75f, true);
+    this.maxSize = maxSizeInBytes;
+  }
+
+  public static SuperHeroPhotoCache create(Context context) {
+    ActivityManager activityManager =
+        (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+    int memoryClass = activityManager.getMemoryClass();
+    return new SuperHeroPhotoCache(memoryClass * BYTES_PER_MEGABYTE / MEMORY_CLASS_FRACTION);
+  }
+
+  @Override public synchronized Bitmap get(String key) {
+    Bitmap bitmap = bitmaps.get(key);
+    if (bitmap == null) {
+      missCount++;
+    } else {
+      hitCount++;
+    }
+    return bitmap;
+  }
+
+  @Override public synchronized void set(String key, Bitmap bitmap) {
+    Bitmap previous = bitmaps.remove(key);
+    if (previous != null) {
+      size -= previous.getByteCount();
+    }
+    int bitmapSize = bitmap.getByteCount();
+    if (bitmapSize > maxSize) {
+      return;
+    }
+    bitmaps.put(key, bitmap);
+    size += bitmapSize;
+    trimToSize(maxSize);
+  }
+
+  @Override public synchronized int size() {
+    return size;
+  }
+
+  @Override public int maxSize() {
+    return maxSize;
+  }
+
+  @Override public synchronized void clear() {
+    bitmaps.clear();
+    size = 0;
+  }
+
+  @Override public synchronized void clearKeyUri(String uri) {
+    int uriLength = uri.length();
+    Iterator<Map.Entry<String, Bitmap>> iterator = bitmaps.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<String, Bitmap> entry = iterator.next();
+      String key = entry.getKey();
+      boolean sameUri =
+          key.startsWith(uri) && key.length() > uriLength && key.charAt(uriLength) == KEY_SEPARATOR;
+      if (sameUri) {
+        size -= entry.getValue().getByteCount();
+        iterator.remove();
+      }
+    }
+  }
+
+  public synchronized void trimToSize(int maxSizeInBytes) {
+    Iterator<Map.Entry<String, Bitmap>> iterator = bitmaps.entrySet().iterator();
+    while (size > maxSizeInBytes && iterator.hasNext()) {
+      Bitmap eldest = iterator.next().getValue();
+      iterator.remove();
+      size -= eldest.getByteCount();
+      evictionCount++;
+    }
+  }
+
+  public synchronized int getHitCount() {
+    return hitCount;
+  }
+
+  public synchronized int getMissCount() {
+    return missCount;
+  }
+
+  public synchronized int getEvictionCount() {
+    return evictionCount;
+  }
+}
@@ -16,8 +16,14 @@
 
 package com.karumi.screenshot.ui.presenter;
 
+import com.karumi.screenshot.usecase.Cancellable;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
 public class Presenter<T extends Presenter.View> {
 
+  private final List<Cancellable> tasks = new LinkedList<>();
   private T view;
 
   public void setView(T view) {
@@ -36,11 +42,37 @@ public class Presenter<T extends Presenter.View> {
 
   }
 
+  public void onRetryClicked() {
+
+  }
+
+  public void destroy() {
+    for (Cancellable task : tasks) {
+      task.cancel();
+    }
+    tasks.clear();
+    view = null;
+  }
+
+  protected void track(Cancellable task) {
+    Iterator<Cancellable> iterator = tasks.iterator();
+    while (iterator.hasNext()) {
+      if (iterator.next().isFinished()) {
+        iterator.remove();
+      }
+    }
+    tasks.add(task);
+  }
+
   public interface View {
 
     void showLoading();
 
     void hideLoading();
 
+    void showError();
+
+    void hideError();
+
   }
 }
@@ -16,37 +16,87 @@
 
 package com.karumi.screenshot.ui.presenter;
 
+import com.karumi.screenshot.metrics.Histogram;
+import com.karumi.screenshot.metrics.MetricsRegistry;
 import com.karumi.screenshot.model.SuperHero;
+import com.karumi.screenshot.model.SuperHeroSummary;
+import com.karumi.screenshot.model.SuperHeroesRepositoryException;
 import com.karumi.screenshot.usecase.GetSuperHeroByName;
 import javax.inject.Inject;
 
 public class SuperHeroDetailPresenter extends Presenter<SuperHeroDetailPresenter.View> {
 
+  private static final String METRICS_PREFIX = "super-hero-detail-presenter.";
+
   private final GetSuperHeroByName getSuperHeroByName;
+  private final Histogram detailTimes;
 
   private String name;
+  private SuperHeroSummary handedOffSuperHero;
+  private boolean errorShown;
 
-  @Inject public SuperHeroDetailPresenter(GetSuperHeroByName getSuperHeroByName) {
+  @Inject public SuperHeroDetailPresenter(GetSuperHeroByName getSuperHeroByName,
+      MetricsRegistry metrics) {
     this.getSuperHeroByName = getSuperHeroByName;
+    this.detailTimes = metrics.histogram(METRICS_PREFIX + "detail");
   }
 
   public void setName(String name) {
     this.name = name;
   }
 
+  /**
+   * Summary the previous screen already had, shown while the full super hero loads.
+   */
+  public void setHandedOffSuperHero(SuperHeroSummary superHero) {
+    this.handedOffSuperHero = superHero;
+  }
+
   @Override public void initialize() {
     super.initialize();
-    getSuperHeroByName.get(name, new GetSuperHeroByName.Callback() {
+    long initializedAtNanos = System.nanoTime();
+    errorShown = false;
+    if (handedOffSuperHero != null) {
+      View view = getView();
+      view.hideLoading();
+      view.showSuperHeroSummary(handedOffSuperHero);
+    }
+    loadSuperHero(initializedAtNanos);
+  }
+
+  @Override public void onRetryClicked() {
+    if (!errorShown) {
+      return;
+    }
+    errorShown = false;
+    View view = getView();
+    view.hideError();
+    view.showLoading();
+    loadSuperHero(System.nanoTime());
+  }
+
+  private void loadSuperHero(final long startNanos) {
+    track(getSuperHeroByName.get(name, new GetSuperHeroByName.Callback() {
       @Override public void onSuperHeroLoaded(SuperHero superHero) {
         View view = getView();
         view.hideLoading();
         view.showSuperHero(superHero);
+        detailTimes.recordSince(startNanos);
+      }
+
+      @Override public void onError(SuperHeroesRepositoryException exception) {
+        View view = getView();
+        view.hideLoading();
+        errorShown = true;
+        view.showError();
       }
-    });
+    }));
   }
 
   public interface View extends Presenter.View {
 
+    void showSuperHeroSummary(SuperHeroSummary superHero);
+
     void showSuperHero(SuperHero superHero);
   }
 }
@@ -16,36 +16,535 @@
 
 package com.karumi.screenshot.ui.presenter;
 
-import com.karumi.screenshot.model.SuperHero;
+import com.karumi.screenshot.metrics.Histogram;
+import com.karumi.screenshot.metrics.MetricsRegistry;
+import com.karumi.screenshot.model.SuperHeroChange;
+import com.karumi.screenshot.model.SuperHeroSummary;
+import com.karumi.screenshot.model.SuperHeroesFilter;
+import com.karumi.screenshot.model.SuperHeroesPage;
+import com.karumi.screenshot.model.SuperHeroesRepositoryException;
+import com.karumi.screenshot.usecase.Cancellable;
+import com.karumi.screenshot.usecase.GetFilteredSuperHeroesPage;
 import com.karumi.screenshot.usecase.GetSuperHeroes;
+import com.karumi.screenshot.usecase.GetSuperHeroesPage;
+import com.karumi.screenshot.usecase.ObserveSuperHeroes;
+import com.karumi.screenshot.usecase.SearchSuperHeroes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 import javax.inject.Inject;
 
+/**
+ * Shows the super heroes page by page and keeps the loaded pages up to date with live changes.
+ * Every change is folded into the loaded pages as it arrives, so it never needs a reload, and is
+ * then forgotten. Changes received while a page is loading are kept until no page is loading,
+ * because the repository could have read that page before the change.
+ *
+ * While searching the list is replaced by the best matches of the query, in a single page.
+ */
 public class SuperHeroesPresenter extends Presenter<SuperHeroesPresenter.View> {
 
+  private static final int PAGE_SIZE = 20;
+  private static final int FIRST_PAGE_CHUNK_SIZE = 4;
+  private static final int PREFETCHED_PAGES = 1;
+  private static final int RETAINED_PAGES = 2;
+  private static final String METRICS_PREFIX = "super-heroes-presenter.";
+
   private final GetSuperHeroes getSuperHeroes;
+  private final GetSuperHeroesPage getSuperHeroesPage;
+  private final GetFilteredSuperHeroesPage getFilteredSuperHeroesPage;
+  private final ObserveSuperHeroes observeSuperHeroes;
+  private final SearchSuperHeroes searchSuperHeroes;
+  private final List<String> pageCursors;
+  private final Map<Integer, List<SuperHeroSummary>> loadedPages;
+  private final Set<Integer> loadingPages;
+  private final Map<String, SuperHeroChange> pendingLiveChanges;
+  private final List<Cancellable> pageLoads;
+  private final Histogram firstContentTimes;
+  private final Histogram pageLoadTimes;
+  private boolean initialized;
+  private long initializedAtNanos;
+  private boolean firstContentShown;
+  private boolean emptyCaseShown;
+  private boolean errorShown;
+  private int lastPageIndex;
+  private Cancellable liveChangesObservation;
+  private int firstVisiblePosition;
+  private int lastVisiblePosition;
+  private SuperHeroesFilter filter;
+  private String query;
 
-  @Inject public SuperHeroesPresenter(GetSuperHeroes getSuperHeroes) {
+  @Inject public SuperHeroesPresenter(GetSuperHeroes getSuperHeroes,
+      GetSuperHeroesPage getSuperHeroesPage,
+      GetFilteredSuperHeroesPage getFilteredSuperHeroesPage,
+      ObserveSuperHeroes observeSuperHeroes, SearchSuperHeroes searchSuperHeroes,
+      MetricsRegistry metrics) {
     this.getSuperHeroes = getSuperHeroes;
+    this.getSuperHeroesPage = getSuperHeroesPage;
+    this.getFilteredSuperHeroesPage = getFilteredSuperHeroesPage;
+    this.observeSuperHeroes = observeSuperHeroes;
+    this.searchSuperHeroes = searchSuperHeroes;
+    this.pageCursors = new ArrayList<>();
+    this.loadedPages = new HashMap<>();
+    this.loadingPages = new HashSet<>();
+    this.pendingLiveChanges = new LinkedHashMap<>();
+    this.pageLoads = new ArrayList<>();
+    this.firstContentTimes = metrics.histogram(METRICS_PREFIX + "first-content");
+    this.pageLoadTimes = metrics.histogram(METRICS_PREFIX + "page-load");
   }
 
   @Override public void initialize() {
     super.initialize();
-    getSuperHeroes.getAll(new GetSuperHeroes.Callback() {
-      @Override public void onSuperHeroesLoaded(List<SuperHero> superHeroes) {
-        View view = getView();
-        view.hideLoading();
-        if (superHeroes.isEmpty()) {
-          view.showEmptyCase();
-        } else {
-          view.showSuperHeroes(superHeroes);
+    initialized = true;
+    initializedAtNanos = System.nanoTime();
+    firstContentShown = false;
+    emptyCaseShown = false;
+    errorShown = false;
+    resetPages();
+    observeLiveChanges();
+    loadFirstPage();
+  }
+
+  /**
+   * Loads the first page again after it failed. The rest of the pages are requested again once
+   * they become visible.
+   */
+  @Override public void onRetryClicked() {
+    if (!errorShown) {
+      return;
+    }
+    errorShown = false;
+    View view = getView();
+    view.hideError();
+    view.showLoading();
+    loadFirstPage();
+  }
+
+  /**
+   * Lists only the super heroes matching the filter, or every super hero if it is null. The
+   * cursors of a filtered list are not valid for any other list, so once initialized a new filter
+   * drops every page and loads the list again from its first page.
+   */
+  public void setFilter(SuperHeroesFilter filter) {
+    if (filter == null ? this.filter == null : filter.equals(this.filter)) {
+      return;
+    }
+    this.filter = filter;
+    if (initialized) {
+      reload();
+    }
+  }
+
+  public SuperHeroesFilter getFilter() {
+    return filter;
+  }
+
+  /**
+   * Replaces the list by the super heroes whose name or description match the query that also
+   * match the filter, or shows the whole list again if the query is empty.
+   */
+  public void search(String query) {
+    String trimmedQuery = query == null ? "" : query.trim();
+    String newQuery = trimmedQuery.isEmpty() ? null : trimmedQuery;
+    if (newQuery == null ? this.query == null : newQuery.equals(this.query)) {
+      return;
+    }
+    this.query = newQuery;
+    if (initialized) {
+      reload();
+    }
+  }
+
+  public int getPageSize() {
+    return PAGE_SIZE;
+  }
+
+  public void onSuperHeroesScrolled(int firstVisiblePosition, int lastVisiblePosition) {
+    this.firstVisiblePosition = firstVisiblePosition;
+    this.lastVisiblePosition = lastVisiblePosition;
+    removeDistantPages();
+    loadVisiblePages();
+  }
+
+  public void onSuperHeroClicked(SuperHeroSummary superHero) {
+    getView().openSuperHeroScreen(superHero);
+  }
+
+  private void reload() {
+    for (Cancellable pageLoad : pageLoads) {
+      pageLoad.cancel();
+    }
+    resetPages();
+    View view = getView();
+    view.clearSuperHeroes();
+    if (emptyCaseShown) {
+      emptyCaseShown = false;
+      view.hideEmptyCase();
+    }
+    if (errorShown) {
+      errorShown = false;
+      view.hideError();
+    }
+    view.showLoading();
+    loadFirstPage();
+  }
+
+  private void resetPages() {
+    pageLoads.clear();
+    lastPageIndex = -1;
+    firstVisiblePosition = 0;
+    lastVisiblePosition = 0;
+    pageCursors.clear();
+    pageCursors.add(null);
+    loadedPages.clear();
+    loadingPages.clear();
+    pendingLiveChanges.clear();
+  }
+
+  /**
+   * Tracks a load of the current list, so it can be cancelled if the list is loaded again.
+   */
+  private void trackPageLoad(Cancellable pageLoad) {
+    Iterator<Cancellable> iterator = pageLoads.iterator();
+    while (iterator.hasNext()) {
+      if (iterator.next().isFinished()) {
+        iterator.remove();
+      }
+    }
+    pageLoads.add(pageLoad);
+    track(pageLoad);
+  }
+
+  private void loadFirstPage() {
+    if (query != null) {
+      loadingPages.add(0);
+      searchFirstPage();
+    } else if (filter == null) {
+      loadingPages.add(0);
+      streamFirstPage();
+    } else {
+      loadPage(0);
+    }
+  }
+
+  private void loadVisiblePages() {
+    int firstPage = Math.max(0, getPageIndex(firstVisiblePosition) - PREFETCHED_PAGES);
+    int lastPage = getPageIndex(lastVisiblePosition) + PREFETCHED_PAGES;
+    for (int pageIndex = firstPage; pageIndex <= lastPage && pageIndex < pageCursors.size();
+        pageIndex++) {
+      loadPage(pageIndex);
+    }
+  }
+
+  private void removeDistantPages() {
+    Iterator<Integer> iterator = loadedPages.keySet().iterator();
+    while (iterator.hasNext()) {
+      int pageIndex = iterator.next();
+      if (!isRetained(pageIndex)) {
+        iterator.remove();
+        getView().removeSuperHeroesPage(pageIndex);
+      }
+    }
+  }
+
+  private void loadPage(final int pageIndex) {
+    if (loadedPages.containsKey(pageIndex) || !loadingPages.add(pageIndex)) {
+      return;
+    }
+    String cursor = pageCursors.get(pageIndex);
+    final long startNanos = System.nanoTime();
+    if (filter != null) {
+      trackPageLoad(getFilteredSuperHeroesPage.getPage(filter, cursor, PAGE_SIZE,
+          new GetFilteredSuperHeroesPage.Callback() {
+            @Override public void onFilteredSuperHeroesPageLoaded(SuperHeroesPage page) {
+              pageLoadTimes.recordSince(startNanos);
+              onPageLoaded(pageIndex, page);
+            }
+
+            @Override public void onError(SuperHeroesRepositoryException exception) {
+              onPageFailed(pageIndex);
+            }
+          }));
+      return;
+    }
+    trackPageLoad(getSuperHeroesPage.getPage(cursor, PAGE_SIZE, new GetSuperHeroesPage.Callback() {
+      @Override public void onSuperHeroesPageLoaded(SuperHeroesPage page) {
+        pageLoadTimes.recordSince(startNanos);
+        onPageLoaded(pageIndex, page);
+      }
+
+      @Override public void onError(SuperHeroesRepositoryException exception) {
+        onPageFailed(pageIndex);
+      }
+    }));
+  }
+
+  private void streamFirstPage() {
+    final List<SuperHeroSummary> superHeroes = new ArrayList<>();
+    trackPageLoad(getSuperHeroes.stream(null, PAGE_SIZE, FIRST_PAGE_CHUNK_SIZE,
+        new GetSuperHeroes.StreamCallback() {
+          @Override public void onSuperHeroesChunkLoaded(List<SuperHeroSummary> chunk) {
+            View view = getView();
+            if (superHeroes.isEmpty()) {
+              hideLoading();
+            }
+            superHeroes.addAll(chunk);
+            applyLiveChanges(superHeroes, pendingLiveChanges.values());
+            view.showSuperHeroesPage(0, new ArrayList<>(superHeroes));
+          }
+
+          @Override public void onSuperHeroesStreamCompleted(String nextCursor) {
+            onFirstPageStreamed(superHeroes, nextCursor);
+          }
+
+          @Override public void onError(SuperHeroesRepositoryException exception) {
+            if (superHeroes.isEmpty()) {
+              onPageFailed(0);
+            } else {
+              loadingPages.remove(0);
+              forgetLiveChangesIfIdle();
+            }
+          }
+        }));
+  }
+
+  private void searchFirstPage() {
+    trackPageLoad(searchSuperHeroes.search(query, new SearchSuperHeroes.Callback() {
+      @Override public void onSuperHeroesFound(String query, List<SuperHeroSummary> superHeroes) {
+        List<SuperHeroSummary> matches = new ArrayList<>(superHeroes.size());
+        for (SuperHeroSummary superHero : superHeroes) {
+          if (matchesFilter(superHero)) {
+            matches.add(superHero);
+          }
         }
+        onPageLoaded(0, new SuperHeroesPage(matches, null));
+      }
+
+      @Override public void onError(SuperHeroesRepositoryException exception) {
+        onPageFailed(0);
+      }
+    }));
+  }
+
+  private void onFirstPageStreamed(List<SuperHeroSummary> superHeroes, String nextCursor) {
+    loadingPages.remove(0);
+    if (superHeroes.isEmpty()) {
+      hideLoading();
+    }
+    registerNextCursor(0, nextCursor);
+    putLoadedPage(0, superHeroes);
+    showLoadedPage(0);
+    loadVisiblePages();
+  }
+
+  private void onPageLoaded(int pageIndex, SuperHeroesPage page) {
+    loadingPages.remove(pageIndex);
+    if (pageIndex == 0) {
+      hideLoading();
+    }
+    registerNextCursor(pageIndex, page.getNextCursor());
+    if (!isRetained(pageIndex)) {
+      forgetLiveChangesIfIdle();
+      return;
+    }
+    putLoadedPage(pageIndex, page.getSuperHeroes());
+    showLoadedPage(pageIndex);
+    loadVisiblePages();
+  }
+
+  /**
+   * Subscribes before loading anything, so no change published while the pages load is missed.
+   */
+  private void observeLiveChanges() {
+    if (liveChangesObservation != null) {
+      liveChangesObservation.cancel();
+    }
+    liveChangesObservation = observeSuperHeroes.observe(new ObserveSuperHeroes.Callback() {
+      @Override public void onSuperHeroesChanged(List<SuperHeroChange> changes) {
+        onLiveChanges(changes);
       }
     });
+    track(liveChangesObservation);
   }
 
-  public void onSuperHeroClicked(SuperHero superHero) {
-    getView().openSuperHeroScreen(superHero);
+  private void onLiveChanges(List<SuperHeroChange> changes) {
+    if (!loadingPages.isEmpty()) {
+      for (SuperHeroChange change : changes) {
+        SuperHeroChange previous = pendingLiveChanges.get(change.getName());
+        pendingLiveChanges.put(change.getName(),
+            previous == null ? change : SuperHeroChange.merge(previous, change));
+      }
+    }
+    Set<Integer> changedPages = new TreeSet<>();
+    for (Map.Entry<Integer, List<SuperHeroSummary>> page : loadedPages.entrySet()) {
+      if (applyLiveChanges(page.getValue(), changes)) {
+        changedPages.add(page.getKey());
+      }
+    }
+    if (appendAddedSuperHeroes(changes)) {
+      changedPages.add(lastPageIndex);
+    }
+    for (int pageIndex : changedPages) {
+      showLoadedPage(pageIndex);
+    }
+  }
+
+  /**
+   * Stores a copy of a loaded page with the changes received while it was loading applied.
+   */
+  private void putLoadedPage(int pageIndex, List<SuperHeroSummary> superHeroes) {
+    List<SuperHeroSummary> page = new ArrayList<>(superHeroes);
+    loadedPages.put(pageIndex, page);
+    applyLiveChanges(page, pendingLiveChanges.values());
+    if (pageIndex == lastPageIndex) {
+      appendAddedSuperHeroes(pendingLiveChanges.values());
+    }
+    forgetLiveChangesIfIdle();
+  }
+
+  private void forgetLiveChangesIfIdle() {
+    if (loadingPages.isEmpty()) {
+      pendingLiveChanges.clear();
+    }
+  }
+
+  private void showLoadedPage(int pageIndex) {
+    List<SuperHeroSummary> superHeroes = loadedPages.get(pageIndex);
+    View view = getView();
+    if (superHeroes.isEmpty() && pageIndex == 0 && lastPageIndex == 0) {
+      showEmptyCase();
+      return;
+    }
+    if (emptyCaseShown) {
+      emptyCaseShown = false;
+      view.hideEmptyCase();
+    }
+    view.showSuperHeroesPage(pageIndex, new ArrayList<>(superHeroes));
+  }
+
+  /**
+   * Updates or removes the super heroes of the page the changes are about. A super hero added
+   * again while it is still listed is updated in place. Returns whether the page changed.
+   */
+  private boolean applyLiveChanges(List<SuperHeroSummary> superHeroes,
+      Collection<SuperHeroChange> changes) {
+    boolean changed = false;
+    for (SuperHeroChange change : changes) {
+      int position = indexOf(superHeroes, change.getName());
+      if (position == -1) {
+        continue;
+      }
+      if (change.getType() == SuperHeroChange.Type.REMOVED
+          || !matchesFilter(change.getSuperHero())) {
+        superHeroes.remove(position);
+      } else {
+        superHeroes.set(position, change.getSuperHero().toSummary());
+      }
+      changed = true;
+    }
+    return changed;
+  }
+
+  /**
+   * Appends the added super heroes not listed in any loaded page to the end of the last page, as
+   * long as the list has been loaded up to it. Search results only change when searching again.
+   * Returns whether the last page changed.
+   */
+  private boolean appendAddedSuperHeroes(Collection<SuperHeroChange> changes) {
+    List<SuperHeroSummary> lastPage = loadedPages.get(lastPageIndex);
+    if (lastPage == null || query != null) {
+      return false;
+    }
+    boolean changed = false;
+    for (SuperHeroChange change : changes) {
+      if (change.getType() == SuperHeroChange.Type.ADDED
+          && matchesFilter(change.getSuperHero())
+          && !isLoaded(change.getName())) {
+        lastPage.add(change.getSuperHero().toSummary());
+        changed = true;
+      }
+    }
+    return changed;
+  }
+
+  private boolean isLoaded(String name) {
+    for (List<SuperHeroSummary> page : loadedPages.values()) {
+      if (indexOf(page, name) != -1) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean matchesFilter(SuperHeroSummary superHero) {
+    return filter == null || filter.matches(superHero);
+  }
+
+  private static int indexOf(List<SuperHeroSummary> superHeroes, String name) {
+    for (int i = 0; i < superHeroes.size(); i++) {
+      if (superHeroes.get(i).getName().equals(name)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Forgets the failed load so the page is requested again the next time it becomes visible.
+   * Without a first page there is nothing to scroll, so that failure shows the error instead.
+   */
+  private void onPageFailed(int pageIndex) {
+    loadingPages.remove(pageIndex);
+    forgetLiveChangesIfIdle();
+    if (pageIndex == 0) {
+      hideLoading();
+      errorShown = true;
+      getView().showError();
+    }
+  }
+
+  private void showEmptyCase() {
+    emptyCaseShown = true;
+    getView().showEmptyCase();
+  }
+
+  private void hideLoading() {
+    if (!firstContentShown) {
+      firstContentShown = true;
+      firstContentTimes.recordSince(initializedAtNanos);
+    }
+    getView().hideLoading();
+  }
+
+  private void registerNextCursor(int pageIndex, String nextCursor) {
+    if (pageCursors.size() != pageIndex + 1) {
+      return;
+    }
+    if (nextCursor == null) {
+      lastPageIndex = pageIndex;
+    } else {
+      pageCursors.add(nextCursor);
+    }
+  }
+
+  private boolean isRetained(int pageIndex) {
+    return pageIndex >= getPageIndex(firstVisiblePosition) - RETAINED_PAGES
+        && pageIndex <= getPageIndex(lastVisiblePosition) + RETAINED_PAGES;
+  }
+
+  /**
+   * Live changes can make pages a few super heroes shorter or longer than {@code PAGE_SIZE}, which
+   * only shifts what is prefetched and retained by as many rows.
+   */
+  private int getPageIndex(int position) {
+    return position / PAGE_SIZE;
   }
 
   public interface View extends Presenter.View {
@@ -54,8 +553,12 @@ public class SuperHeroesPresenter extends Presenter<SuperHeroesPresenter.View> {
 
     void hideEmptyCase();
 
-    void showSuperHeroes(List<SuperHero> superHeroes);
+    void showSuperHeroesPage(int pageIndex, List<SuperHeroSummary> superHeroes);
+
+    void clearSuperHeroes();
+
+    void removeSuperHeroesPage(int pageIndex);
 
-    void openSuperHeroScreen(SuperHero superHero);
+    void openSuperHeroScreen(SuperHeroSummary superHero);
   }
 }
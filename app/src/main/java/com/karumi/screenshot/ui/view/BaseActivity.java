@@ -30,16 +30,29 @@ public abstract class BaseActivity extends AppCompatActivity implements Presente
 
   @Nullable @Bind(R.id.toolbar) Toolbar toolbar;
   @Nullable @Bind(R.id.progress_bar) View loadingView;
+  @Nullable @Bind(R.id.error_view) View errorView;
+  @Nullable @Bind(R.id.bt_retry) View retryButton;
 
   @Override protected void onCreate(Bundle savedInstanceState) {
     super.onCreate(savedInstanceState);
     setContentView(getLayoutId());
     initializeButterKnife();
     initializeToolbar();
+    initializeRetryButton();
+  }
+
+  @Override protected void onDestroy() {
+    Presenter<?> presenter = getPresenter();
+    if (presenter != null) {
+      presenter.destroy();
+    }
+    super.onDestroy();
   }
 
   public abstract int getLayoutId();
 
+  protected abstract Presenter<?> getPresenter();
+
   @Override public void showLoading() {
     if (loadingView != null) {
       loadingView.setVisibility(View.VISIBLE);
@@ -52,6 +65,18 @@ public abstract class BaseActivity extends AppCompatActivity implements Presente
     }
   }
 
+  @Override public void showError() {
+    if (errorView != null) {
+      errorView.setVisibility(View.VISIBLE);
+    }
+  }
+
+  @Override public void hideError() {
+    if (errorView != null) {
+      errorView.setVisibility(View.GONE);
+    }
+  }
+
   private void initializeButterKnife() {
     ButterKnife.bind(this);
   }
@@ -61,4 +86,18 @@ public abstract class BaseActivity extends AppCompatActivity implements Presente
       setSupportActionBar(toolbar);
     }
   }
+
+  private void initializeRetryButton() {
+    if (retryButton == null) {
+      return;
+    }
+    retryButton.setOnClickListener(new View.OnClickListener() {
+      @Override public void onClick(View view) {
+        Presenter<?> presenter = getPresenter();
+        if (presenter != null) {
+          presenter.onRetryClicked();
+        }
+      }
+    });
+  }
 }
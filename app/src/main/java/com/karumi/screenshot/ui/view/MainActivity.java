@@ -17,12 +17,20 @@
 package com.karumi.screenshot.ui.view;
 
 import android.os.Bundle;
+import android.support.v4.view.MenuItemCompat;
 import android.support.v7.widget.LinearLayoutManager;
 import android.support.v7.widget.RecyclerView;
+import android.support.v7.widget.SearchView;
+import android.view.Menu;
+import android.view.MenuItem;
 import android.view.View;
 import com.karumi.screenshot.R;
 import com.karumi.screenshot.SuperHeroesApplication;
-import com.karumi.screenshot.model.SuperHero;
+import com.karumi.screenshot.executor.Scheduler;
+import com.karumi.screenshot.metrics.MetricsRegistry;
+import com.karumi.screenshot.model.SuperHeroSummary;
+import com.karumi.screenshot.model.SuperHeroesFilter;
+import com.karumi.screenshot.ui.presenter.Presenter;
 import com.karumi.screenshot.ui.presenter.SuperHeroesPresenter;
 import java.util.List;
 import javax.inject.Inject;
@@ -31,8 +39,11 @@ import butterknife.Bind;
 public class MainActivity extends BaseActivity implements SuperHeroesPresenter.View {
 
   @Inject SuperHeroesPresenter presenter;
+  @Inject Scheduler scheduler;
+  @Inject MetricsRegistry metrics;
 
   private SuperHeroesAdapter adapter;
+  private SuperHeroPhotoPrefetcher photoPrefetcher;
 
   @Bind(R.id.tv_empty_case) View emptyCaseView;
   @Bind(R.id.recycler_view) RecyclerView recyclerView;
@@ -46,17 +57,45 @@ public class MainActivity extends BaseActivity implements SuperHeroesPresenter.V
     presenter.initialize();
   }
 
+  @Override public boolean onCreateOptionsMenu(Menu menu) {
+    getMenuInflater().inflate(R.menu.main_menu, menu);
+    menu.findItem(R.id.action_avengers_only).setChecked(presenter.getFilter() != null);
+    initializeSearchView(menu.findItem(R.id.action_search));
+    return true;
+  }
+
+  @Override public boolean onOptionsItemSelected(MenuItem item) {
+    if (item.getItemId() != R.id.action_avengers_only) {
+      return super.onOptionsItemSelected(item);
+    }
+    boolean avengersOnly = !item.isChecked();
+    item.setChecked(avengersOnly);
+    presenter.setFilter(avengersOnly ? SuperHeroesFilter.avengersOnly() : null);
+    return true;
+  }
+
   @Override public int getLayoutId() {
     return R.layout.main_activity;
   }
 
-  @Override public void showSuperHeroes(List<SuperHero> superHeroes) {
-    adapter.addAll(superHeroes);
-    adapter.notifyDataSetChanged();
+  @Override protected Presenter<?> getPresenter() {
+    return presenter;
+  }
+
+  @Override public void showSuperHeroesPage(int pageIndex, List<SuperHeroSummary> superHeroes) {
+    adapter.showPage(pageIndex, superHeroes);
   }
 
-  @Override public void openSuperHeroScreen(SuperHero superHero) {
-    SuperHeroDetailActivity.open(this, superHero.getName());
+  @Override public void removeSuperHeroesPage(int pageIndex) {
+    adapter.removePage(pageIndex);
+  }
+
+  @Override public void clearSuperHeroes() {
+    adapter.clear();
+  }
+
+  @Override public void openSuperHeroScreen(SuperHeroSummary superHero) {
+    SuperHeroDetailActivity.open(this, superHero);
   }
 
   @Override public void showEmptyCase() {
@@ -77,12 +116,46 @@ public class MainActivity extends BaseActivity implements SuperHeroesPresenter.V
   }
 
   private void initializeAdapter() {
-    adapter = new SuperHeroesAdapter(presenter);
+    adapter = new SuperHeroesAdapter(presenter, presenter.getPageSize(), scheduler);
+  }
+
+  private void initializeSearchView(MenuItem searchItem) {
+    final SearchView searchView = (SearchView) MenuItemCompat.getActionView(searchItem);
+    searchView.setQueryHint(getString(R.string.search_hint));
+    searchView.setOnQueryTextListener(new SearchView.OnQueryTextListener() {
+      @Override public boolean onQueryTextSubmit(String query) {
+        presenter.search(query);
+        searchView.clearFocus();
+        return true;
+      }
+
+      @Override public boolean onQueryTextChange(String query) {
+        if (query.isEmpty()) {
+          presenter.search(null);
+        }
+        return true;
+      }
+    });
   }
 
   private void initializeRecyclerView() {
-    recyclerView.setLayoutManager(new LinearLayoutManager(this));
+    final LinearLayoutManager layoutManager = new LinearLayoutManager(this);
+    recyclerView.setLayoutManager(layoutManager);
     recyclerView.setHasFixedSize(true);
     recyclerView.setAdapter(adapter);
+    recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+      @Override public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+        int firstVisiblePosition = layoutManager.findFirstVisibleItemPosition();
+        int lastVisiblePosition = layoutManager.findLastVisibleItemPosition();
+        if (firstVisiblePosition == RecyclerView.NO_POSITION) {
+          return;
+        }
+        presenter.onSuperHeroesScrolled(firstVisiblePosition, lastVisiblePosition);
+      }
+    });
+    int rowHeight = getResources().getDimensionPixelSize(R.dimen.super_hero_row_height);
+    photoPrefetcher =
+        new SuperHeroPhotoPrefetcher(recyclerView, layoutManager, adapter, rowHeight, metrics);
+    photoPrefetcher.attach();
   }
 }
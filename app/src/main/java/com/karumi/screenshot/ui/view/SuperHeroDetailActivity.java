@@ -25,6 +25,8 @@ import android.widget.TextView;
 import com.karumi.screenshot.R;
 import com.karumi.screenshot.SuperHeroesApplication;
 import com.karumi.screenshot.model.SuperHero;
+import com.karumi.screenshot.model.SuperHeroSummary;
+import com.karumi.screenshot.ui.presenter.Presenter;
 import com.karumi.screenshot.ui.presenter.SuperHeroDetailPresenter;
 import com.squareup.picasso.Picasso;
 import javax.inject.Inject;
@@ -33,6 +35,7 @@ import butterknife.Bind;
 public class SuperHeroDetailActivity extends BaseActivity implements SuperHeroDetailPresenter.View {
 
   private static final String SUPER_HERO_NAME_KEY = "super_hero_name_key";
+  private static final String SUPER_HERO_KEY = "super_hero_key";
 
   @Inject SuperHeroDetailPresenter presenter;
 
@@ -51,17 +54,26 @@ public class SuperHeroDetailActivity extends BaseActivity implements SuperHeroDe
     return R.layout.super_hero_detail_activity;
   }
 
-  @Override public void showSuperHero(SuperHero superHero) {
+  @Override protected Presenter<?> getPresenter() {
+    return presenter;
+  }
+
+  @Override public void showSuperHeroSummary(SuperHeroSummary superHero) {
     Picasso.with(this).load(superHero.getPhoto()).fit().centerCrop().into(superHeroPhotoImageView);
     superHeroNameTextView.setText(superHero.getName());
-    superHeroDescriptionTextView.setText(superHero.getDescription());
     int avengersBadgeVisibility = superHero.isAvenger() ? View.VISIBLE : View.GONE;
     avengersBadgeView.setVisibility(avengersBadgeVisibility);
   }
 
-  public static void open(Context context, String superHeroName) {
+  @Override public void showSuperHero(SuperHero superHero) {
+    showSuperHeroSummary(superHero);
+    superHeroDescriptionTextView.setText(superHero.getDescription());
+  }
+
+  public static void open(Context context, SuperHeroSummary superHero) {
     Intent intent = new Intent(context, SuperHeroDetailActivity.class);
-    intent.putExtra(SUPER_HERO_NAME_KEY, superHeroName);
+    intent.putExtra(SUPER_HERO_NAME_KEY, superHero.getName());
+    intent.putExtra(SUPER_HERO_KEY, new SuperHeroParcel(superHero));
     context.startActivity(intent);
   }
 
@@ -80,6 +92,10 @@ public class SuperHeroDetailActivity extends BaseActivity implements SuperHeroDe
     presenter.setView(this);
     String name = getSuperHeroName();
     presenter.setName(name);
+    SuperHeroParcel parcel = getIntent().getParcelableExtra(SUPER_HERO_KEY);
+    if (parcel != null && parcel.getSuperHero().getName().equals(name)) {
+      presenter.setHandedOffSuperHero(parcel.getSuperHero());
+    }
     presenter.initialize();
   }
 
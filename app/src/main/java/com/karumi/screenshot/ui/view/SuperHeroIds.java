@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.ui.view;
+
+import com.karumi.screenshot.model.SuperHeroSummary;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Assigns every super hero a 64 bit id derived from its name with FNV-1a. Ids are non negative so
+ * negative values are free for rows without a super hero. Two different names hashing to the same
+ * id are told apart by probing for the next free id.
+ */
+class SuperHeroIds {
+
+  private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+
+  private final Map<String, Long> idsByName = new HashMap<>();
+  private final Map<Long, String> namesById = new HashMap<>();
+
+  long getId(SuperHeroSummary superHero) {
+    String name = superHero.getName();
+    Long id = idsByName.get(name);
+    if (id != null) {
+      return id;
+    }
+    long candidate = hash(name);
+    while (namesById.containsKey(candidate)) {
+      candidate = (candidate + 1) & Long.MAX_VALUE;
+    }
+    idsByName.put(name, candidate);
+    namesById.put(candidate, name);
+    return candidate;
+  }
+
+  void release(SuperHeroSummary superHero) {
+    Long id = idsByName.remove(superHero.getName());
+    if (id != null) {
+      namesById.remove(id);
+    }
+  }
+
+  void clear() {
+    idsByName.clear();
+    namesById.clear();
+  }
+
+  private static long hash(String name) {
+    long hash = FNV_OFFSET_BASIS;
+    for (int i = 0; i < name.length(); i++) {
+      hash ^= name.charAt(i);
+      hash *= FNV_PRIME;
+    }
+    return hash & Long.MAX_VALUE;
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.ui.view;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+import com.karumi.screenshot.model.SuperHeroSummary;
+
+/**
+ * Summary of the tapped super hero sent to the detail screen, so its header is shown while the
+ * description loads.
+ */
+class SuperHeroParcel implements Parcelable {
+
+  public static final Creator<SuperHeroParcel> CREATOR = new Creator<SuperHeroParcel>() {
+    @Override public SuperHeroParcel createFromParcel(Parcel source) {
+      return new SuperHeroParcel(source);
+    }
+
+    @Override public SuperHeroParcel[] newArray(int size) {
+      return new SuperHeroParcel[size];
+    }
+  };
+
+  private final String name;
+  private final String photo;
+  private final boolean isAvenger;
+
+  SuperHeroParcel(SuperHeroSummary superHero) {
+    this.name = superHero.getName();
+    this.photo = superHero.getPhoto();
+    this.isAvenger = superHero.isAvenger();
+  }
+
+  private SuperHeroParcel(Parcel source) {
+    this.name = source.readString();
+    this.photo = source.readString();
+    this.isAvenger = source.readByte() != 0;
+  }
+
+  SuperHeroSummary getSuperHero() {
+    return new SuperHeroSummary(name, photo, isAvenger);
+  }
+
+  @Override public int describeContents() {
+    return 0;
+  }
+
+  @Override public void writeToParcel(Parcel dest, int flags) {
+    dest.writeString(name);
+    dest.writeString(photo);
+    dest.writeByte((byte) (isAvenger ? 1 : 0));
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.ui.view;
+
+import android.os.SystemClock;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+import com.karumi.screenshot.metrics.Counter;
+import com.karumi.screenshot.metrics.MetricsRegistry;
+import com.squareup.picasso.Callback;
+import com.squareup.picasso.Picasso;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Warms Picasso's memory cache with the photos of the rows about to scroll into view. The number
+ * of rows prefetched grows with the scroll velocity and requests are sized exactly like the ones
+ * issued by {@link SuperHeroViewHolder}, fit() plus centerCrop(), so they hit the same cache key.
+ * Every photo shown is counted as a hit when it had been prefetched and as a miss otherwise.
+ */
+class SuperHeroPhotoPrefetcher extends RecyclerView.OnScrollListener
+    implements RecyclerView.OnChildAttachStateChangeListener {
+
+  private static final int MIN_PREFETCHED_ROWS = 2;
+  private static final int MAX_PREFETCHED_ROWS = 12;
+  private static final long LOOKAHEAD_MILLIS = 500;
+  private static final int MAX_REMEMBERED_PHOTOS = 64;
+  private static final String METRICS_PREFIX = "super-hero-photo-prefetcher.";
+
+  private final RecyclerView recyclerView;
+  private final LinearLayoutManager layoutManager;
+  private final SuperHeroesAdapter adapter;
+  private final int rowHeight;
+  private final Picasso picasso;
+  private final Map<Integer, String> inFlightPhotos = new HashMap<>();
+  private final Set<String> prefetchedPhotos = new LinkedHashSet<>();
+  private final Counter hits;
+  private final Counter misses;
+  private long lastScrollMillis;
+
+  SuperHeroPhotoPrefetcher(RecyclerView recyclerView, LinearLayoutManager layoutManager,
+      SuperHeroesAdapter adapter, int rowHeight, MetricsRegistry metrics) {
+    this.recyclerView = recyclerView;
+    this.layoutManager = layoutManager;
+    this.adapter = adapter;
+    this.rowHeight = rowHeight;
+    this.picasso = Picasso.with(recyclerView.getContext());
+    this.hits = metrics.counter(METRICS_PREFIX + "hits");
+    this.misses = metrics.counter(METRICS_PREFIX + "misses");
+  }
+
+  void attach() {
+    recyclerView.addOnScrollListener(this);
+    recyclerView.addOnChildAttachStateChangeListener(this);
+  }
+
+  @Override public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+    long now = SystemClock.uptimeMillis();
+    long elapsedMillis = Math.max(1, now - lastScrollMillis);
+    lastScrollMillis = now;
+    if (dy == 0) {
+      return;
+    }
+    int firstVisiblePosition = layoutManager.findFirstVisibleItemPosition();
+    int lastVisiblePosition = layoutManager.findLastVisibleItemPosition();
+    if (firstVisiblePosition == RecyclerView.NO_POSITION) {
+      return;
+    }
+    float pixelsPerMilli = Math.abs(dy) / (float) elapsedMillis;
+    int rowsAhead = (int) (pixelsPerMilli * LOOKAHEAD_MILLIS / rowHeight);
+    rowsAhead = Math.max(MIN_PREFETCHED_ROWS, Math.min(MAX_PREFETCHED_ROWS, rowsAhead));
+    int from;
+    int to;
+    if (dy > 0) {
+      from = lastVisiblePosition + 1;
+      to = Math.min(adapter.getItemCount() - 1, lastVisiblePosition + rowsAhead);
+    } else {
+      from = Math.max(0, firstVisiblePosition - rowsAhead);
+      to = firstVisiblePosition - 1;
+    }
+    cancelPrefetchesOutside(from, to);
+    for (int position = from; position <= to; position++) {
+      prefetch(position);
+    }
+  }
+
+  @Override public void onChildViewAttachedToWindow(View view) {
+    int position = recyclerView.getChildAdapterPosition(view);
+    String photo = position == RecyclerView.NO_POSITION ? null : adapter.getPhoto(position);
+    if (photo == null) {
+      return;
+    }
+    if (prefetchedPhotos.remove(photo)) {
+      hits.increment();
+    } else {
+      misses.increment();
+    }
+  }
+
+  @Override public void onChildViewDetachedFromWindow(View view) {
+  }
+
+  private void prefetch(final int position) {
+    final String photo = adapter.getPhoto(position);
+    int width = recyclerView.getWidth();
+    if (photo == null || width == 0 || prefetchedPhotos.contains(photo)
+        || inFlightPhotos.containsKey(position)) {
+      return;
+    }
+    inFlightPhotos.put(position, photo);
+    picasso.load(photo)
+        .resize(width, rowHeight)
+        .centerCrop()
+        .priority(Picasso.Priority.LOW)
+        .tag(photo)
+        .fetch(new Callback() {
+          @Override public void onSuccess() {
+            inFlightPhotos.remove(position);
+            rememberPrefetchedPhoto(photo);
+          }
+
+          @Override public void onError() {
+            inFlightPhotos.remove(position);
+          }
+        });
+  }
+
+  private void cancelPrefetchesOutside(int from, int to) {
+    Iterator<Map.Entry<Integer, String>> iterator = inFlightPhotos.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<Integer, String> inFlightPhoto = iterator.next();
+      int position = inFlightPhoto.getKey();
+      if (position < from || position > to) {
+        picasso.cancelTag(inFlightPhoto.getValue());
+        iterator.remove();
+      }
+    }
+  }
+
+  private void rememberPrefetchedPhoto(String photo) {
+    prefetchedPhotos.add(photo);
+    if (prefetchedPhotos.size() > MAX_REMEMBERED_PHOTOS) {
+      Iterator<String> iterator = prefetchedPhotos.iterator();
+      iterator.next();
+      iterator.remove();
+    }
+  }
+}
@@ -23,46 +23,68 @@ import android.widget.TextView;
 import butterknife.Bind;
 import butterknife.ButterKnife;
 import com.karumi.screenshot.R;
-import com.karumi.screenshot.model.SuperHero;
+import com.karumi.screenshot.model.SuperHeroSummary;
 import com.karumi.screenshot.ui.presenter.SuperHeroesPresenter;
 import com.squareup.picasso.Picasso;
 
-public class SuperHeroViewHolder extends RecyclerView.ViewHolder {
+public class SuperHeroViewHolder extends RecyclerView.ViewHolder implements View.OnClickListener {
 
   private final SuperHeroesPresenter presenter;
   @Bind(R.id.iv_super_hero_photo) ImageView photoImageView;
   @Bind(R.id.tv_super_hero_name) TextView nameTextView;
   @Bind(R.id.iv_avengers_badge) View avengersBadgeView;
+  private SuperHeroSummary superHero;
+  private String photo;
 
   public SuperHeroViewHolder(View itemView, SuperHeroesPresenter presenter) {
     super(itemView);
     this.presenter = presenter;
     ButterKnife.bind(this, itemView);
+    itemView.setOnClickListener(this);
   }
 
-  public void render(SuperHero superHero) {
-    hookListeners(superHero);
+  public void render(SuperHeroSummary superHero) {
+    if (superHero.equals(this.superHero)) {
+      return;
+    }
+    this.superHero = superHero;
     renderSuperHeroPhoto(superHero.getPhoto());
     renderSuperHeroName(superHero.getName());
     renderAvengersBadge(superHero.isAvenger());
   }
 
-  private void hookListeners(final SuperHero superHero) {
-    itemView.setOnClickListener(new View.OnClickListener() {
-      @Override public void onClick(View v) {
-        presenter.onSuperHeroClicked(superHero);
-      }
-    });
+  public void renderPlaceholder() {
+    superHero = null;
+    renderSuperHeroPhoto(null);
+    renderSuperHeroName(null);
+    renderAvengersBadge(false);
+  }
+
+  @Override public void onClick(View view) {
+    if (superHero == null || getAdapterPosition() == RecyclerView.NO_POSITION) {
+      return;
+    }
+    presenter.onSuperHeroClicked(superHero);
   }
 
   private void renderSuperHeroPhoto(String photo) {
+    if (photo == null ? this.photo == null : photo.equals(this.photo)) {
+      return;
+    }
+    this.photo = photo;
     if (photo == null) {
+      Picasso.with(getContext()).cancelRequest(photoImageView);
+      photoImageView.setImageDrawable(null);
       return;
     }
     Picasso.with(getContext()).load(photo).fit().centerCrop().into(photoImageView);
   }
 
   private void renderSuperHeroName(String name) {
+    CharSequence currentName = nameTextView.getText();
+    if (name == null ? currentName.length() == 0 : name.contentEquals(currentName)) {
+      return;
+    }
     nameTextView.setText(name);
   }
 
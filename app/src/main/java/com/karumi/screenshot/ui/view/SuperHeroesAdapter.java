@@ -17,28 +17,220 @@
 package com.karumi.screenshot.ui.view;
 
 import android.support.v7.widget.RecyclerView;
+import android.util.SparseArray;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import com.karumi.screenshot.R;
-import com.karumi.screenshot.model.SuperHero;
+import com.karumi.screenshot.executor.Scheduler;
+import com.karumi.screenshot.model.SuperHeroSummary;
+import com.karumi.screenshot.ui.diff.ListDiff;
+import com.karumi.screenshot.ui.diff.ListDiffResult;
+import com.karumi.screenshot.ui.diff.ListUpdateCallback;
 import com.karumi.screenshot.ui.presenter.SuperHeroesPresenter;
-import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
 
+/**
+ * Shows the super heroes page by page. Every page has a slot of rows that keeps its position
+ * while the page is not loaded, showing placeholders. Slots are {@code pageSize} rows long until
+ * their page is shown, then they take the size of the page, which live changes can make shorter
+ * or longer.
+ */
 class SuperHeroesAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
 
+  private static final ListDiff.ItemCallback<SuperHeroSummary> SUPER_HERO_DIFF_CALLBACK =
+      new ListDiff.ItemCallback<SuperHeroSummary>() {
+        @Override public Object getIdentity(SuperHeroSummary superHero) {
+          return superHero.getName();
+        }
+
+        @Override public boolean haveSameContent(SuperHeroSummary oldSuperHero,
+            SuperHeroSummary newSuperHero) {
+          return oldSuperHero.equals(newSuperHero);
+        }
+      };
+
   private final SuperHeroesPresenter presenter;
-  private final List<SuperHero> superHeroes;
+  private final int pageSize;
+  private final Scheduler scheduler;
+  private final SparseArray<List<SuperHeroSummary>> pages;
+  private final SparseArray<List<SuperHeroSummary>> pendingPages;
+  private final SuperHeroIds superHeroIds;
+  private int[] pageStarts;
+  private int pageCount;
+  private int itemCount;
 
-  public SuperHeroesAdapter(SuperHeroesPresenter presenter) {
+  public SuperHeroesAdapter(SuperHeroesPresenter presenter, int pageSize, Scheduler scheduler) {
     this.presenter = presenter;
-    this.superHeroes = new ArrayList<>();
+    this.pageSize = pageSize;
+    this.scheduler = scheduler;
+    this.pages = new SparseArray<>();
+    this.pendingPages = new SparseArray<>();
+    this.superHeroIds = new SuperHeroIds();
+    this.pageStarts = new int[16];
+    setHasStableIds(true);
+  }
+
+  void showPage(final int pageIndex, final List<SuperHeroSummary> superHeroes) {
+    final List<SuperHeroSummary> previousSuperHeroes = pages.get(pageIndex);
+    if (previousSuperHeroes == null) {
+      insertPage(pageIndex, superHeroes);
+      return;
+    }
+    pendingPages.put(pageIndex, superHeroes);
+    try {
+      scheduler.execute(new Runnable() {
+        @Override public void run() {
+          final ListDiffResult diff =
+              ListDiff.calculate(previousSuperHeroes, superHeroes, SUPER_HERO_DIFF_CALLBACK);
+          scheduler.post(new Runnable() {
+            @Override public void run() {
+              applyPageDiff(pageIndex, previousSuperHeroes, superHeroes, diff);
+            }
+          });
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      // Every worker is busy. A page is small enough to diff on the main thread instead.
+      ListDiffResult diff =
+          ListDiff.calculate(previousSuperHeroes, superHeroes, SUPER_HERO_DIFF_CALLBACK);
+      applyPageDiff(pageIndex, previousSuperHeroes, superHeroes, diff);
+    }
+  }
+
+  void removePage(int pageIndex) {
+    pendingPages.remove(pageIndex);
+    List<SuperHeroSummary> superHeroes = pages.get(pageIndex);
+    if (superHeroes == null) {
+      return;
+    }
+    pages.remove(pageIndex);
+    for (SuperHeroSummary superHero : superHeroes) {
+      superHeroIds.release(superHero);
+    }
+    notifyItemRangeChanged(pageStarts[pageIndex], superHeroes.size());
+  }
+
+  void clear() {
+    pages.clear();
+    pendingPages.clear();
+    superHeroIds.clear();
+    pageCount = 0;
+    itemCount = 0;
+    notifyDataSetChanged();
+  }
+
+  private void insertPage(int pageIndex, List<SuperHeroSummary> superHeroes) {
+    pendingPages.remove(pageIndex);
+    pages.put(pageIndex, superHeroes);
+    int previousItemCount = itemCount;
+    while (pageCount < pageIndex) {
+      addPageSlot(pageSize);
+    }
+    if (pageCount == pageIndex) {
+      addPageSlot(superHeroes.size());
+      notifyItemRangeInserted(previousItemCount, itemCount - previousItemCount);
+      return;
+    }
+    int start = pageStarts[pageIndex];
+    int previousSize = getPageSlotSize(pageIndex);
+    int size = superHeroes.size();
+    resizePageSlot(pageIndex, size);
+    notifyItemRangeChanged(start, Math.min(previousSize, size));
+    if (size > previousSize) {
+      notifyItemRangeInserted(start + previousSize, size - previousSize);
+    } else if (size < previousSize) {
+      notifyItemRangeRemoved(start + size, previousSize - size);
+    }
+  }
+
+  private void addPageSlot(int size) {
+    if (pageCount == pageStarts.length) {
+      pageStarts = Arrays.copyOf(pageStarts, pageCount * 2);
+    }
+    pageStarts[pageCount++] = itemCount;
+    itemCount += size;
+  }
+
+  private int getPageSlotSize(int pageIndex) {
+    int end = pageIndex + 1 < pageCount ? pageStarts[pageIndex + 1] : itemCount;
+    return end - pageStarts[pageIndex];
   }
 
-  void addAll(Collection<SuperHero> collection) {
-    superHeroes.addAll(collection);
+  private void resizePageSlot(int pageIndex, int size) {
+    int delta = size - getPageSlotSize(pageIndex);
+    for (int i = pageIndex + 1; i < pageCount; i++) {
+      pageStarts[i] += delta;
+    }
+    itemCount += delta;
+  }
+
+  /**
+   * Returns the last page slot starting at or before the position. Slots left empty by live
+   * changes share their start with the next one, so the last of them is the one holding it.
+   */
+  private int getPageIndex(int position) {
+    int low = 0;
+    int high = pageCount - 1;
+    while (low < high) {
+      int middle = (low + high + 1) >>> 1;
+      if (pageStarts[middle] <= position) {
+        low = middle;
+      } else {
+        high = middle - 1;
+      }
+    }
+    return low;
+  }
+
+  private void applyPageDiff(int pageIndex, List<SuperHeroSummary> previousSuperHeroes,
+      List<SuperHeroSummary> superHeroes, ListDiffResult diff) {
+    if (pendingPages.get(pageIndex) != superHeroes) {
+      return;
+    }
+    if (pages.get(pageIndex) != previousSuperHeroes) {
+      showPage(pageIndex, superHeroes);
+      return;
+    }
+    pendingPages.remove(pageIndex);
+    pages.put(pageIndex, superHeroes);
+    releaseRemovedSuperHeroes(previousSuperHeroes, superHeroes);
+    resizePageSlot(pageIndex, superHeroes.size());
+    final int pageStart = pageStarts[pageIndex];
+    diff.dispatchUpdatesTo(new ListUpdateCallback() {
+      @Override public void onInserted(int position, int count) {
+        notifyItemRangeInserted(pageStart + position, count);
+      }
+
+      @Override public void onRemoved(int position, int count) {
+        notifyItemRangeRemoved(pageStart + position, count);
+      }
+
+      @Override public void onMoved(int fromPosition, int toPosition) {
+        notifyItemMoved(pageStart + fromPosition, pageStart + toPosition);
+      }
+
+      @Override public void onChanged(int position, int count) {
+        notifyItemRangeChanged(pageStart + position, count);
+      }
+    });
+  }
+
+  private void releaseRemovedSuperHeroes(List<SuperHeroSummary> previousSuperHeroes,
+      List<SuperHeroSummary> superHeroes) {
+    Set<String> names = new HashSet<>(superHeroes.size() * 2);
+    for (SuperHeroSummary superHero : superHeroes) {
+      names.add(superHero.getName());
+    }
+    for (SuperHeroSummary superHero : previousSuperHeroes) {
+      if (!names.contains(superHero.getName())) {
+        superHeroIds.release(superHero);
+      }
+    }
   }
 
   @Override public RecyclerView.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
@@ -49,11 +241,37 @@ class SuperHeroesAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
 
   @Override public void onBindViewHolder(RecyclerView.ViewHolder holder, int position) {
     SuperHeroViewHolder superHeroViewHolder = (SuperHeroViewHolder) holder;
-    SuperHero superHero = superHeroes.get(position);
-    superHeroViewHolder.render(superHero);
+    SuperHeroSummary superHero = getSuperHero(position);
+    if (superHero == null) {
+      superHeroViewHolder.renderPlaceholder();
+    } else {
+      superHeroViewHolder.render(superHero);
+    }
+  }
+
+  @Override public long getItemId(int position) {
+    SuperHeroSummary superHero = getSuperHero(position);
+    if (superHero == null) {
+      return -position - 2;
+    }
+    return superHeroIds.getId(superHero);
   }
 
   @Override public int getItemCount() {
-    return superHeroes.size();
+    return itemCount;
+  }
+
+  String getPhoto(int position) {
+    if (position < 0 || position >= itemCount) {
+      return null;
+    }
+    SuperHeroSummary superHero = getSuperHero(position);
+    return superHero == null ? null : superHero.getPhoto();
+  }
+
+  private SuperHeroSummary getSuperHero(int position) {
+    int pageIndex = getPageIndex(position);
+    List<SuperHeroSummary> page = pages.get(pageIndex);
+    return page == null ? null : page.get(position - pageStarts[pageIndex]);
   }
 }
@@ -16,39 +16,93 @@
 
 package com.karumi.screenshot.usecase;
 
-import android.os.Handler;
-import android.os.Looper;
+import com.karumi.screenshot.executor.Scheduler;
+import com.karumi.screenshot.metrics.Counter;
+import com.karumi.screenshot.metrics.Histogram;
+import com.karumi.screenshot.metrics.MetricsRegistry;
 import com.karumi.screenshot.model.SuperHero;
 import com.karumi.screenshot.model.SuperHeroesRepository;
+import com.karumi.screenshot.model.SuperHeroesRepositoryException;
 import javax.inject.Inject;
+import javax.inject.Singleton;
 
-public class GetSuperHeroByName {
+@Singleton public class GetSuperHeroByName {
+
+  private static final String METRICS_PREFIX = "get-super-hero-by-name.";
 
   private final SuperHeroesRepository repository;
+  private final Scheduler scheduler;
+  private final PendingCallbacks<Callback> pendingCallbacks;
+  private final Histogram queueTimes;
+  private final Histogram repositoryTimes;
+  private final Counter errors;
 
-  @Inject public GetSuperHeroByName(SuperHeroesRepository repository) {
+  @Inject public GetSuperHeroByName(SuperHeroesRepository repository, Scheduler scheduler,
+      MetricsRegistry metrics) {
     this.repository = repository;
+    this.scheduler = scheduler;
+    this.pendingCallbacks =
+        new PendingCallbacks<>(scheduler, metrics.histogram(METRICS_PREFIX + "hand-off"));
+    this.queueTimes = metrics.histogram(METRICS_PREFIX + "queue");
+    this.repositoryTimes = metrics.histogram(METRICS_PREFIX + "repository");
+    this.errors = metrics.counter(METRICS_PREFIX + "errors");
   }
 
-  public void get(final String name, final Callback callback) {
-    new Thread(new Runnable() {
-      @Override public void run() {
-        loadSuperHeroByName(name, callback);
+  public Cancellable get(final String name, Callback callback) {
+    final PendingCall<Callback> call = pendingCallbacks.add(name, callback);
+    if (call.isFirst()) {
+      final long queuedAtNanos = System.nanoTime();
+      try {
+        scheduler.execute(new Runnable() {
+          @Override public void run() {
+            queueTimes.recordSince(queuedAtNanos);
+            loadSuperHeroByName(call, name);
+          }
+        });
+      } catch (RuntimeException e) {
+        errors.increment();
+        pendingCallbacks.fail(call, error(PendingCallbacks.asRepositoryException(e)));
       }
-    }).start();
+    }
+    return call;
   }
 
-  private void loadSuperHeroByName(String name, final Callback callback) {
-    final SuperHero superHero = repository.getByName(name);
-    new Handler(Looper.getMainLooper()).post(new Runnable() {
-      @Override public void run() {
+  private void loadSuperHeroByName(PendingCall<Callback> call, String name) {
+    if (!pendingCallbacks.start(call)) {
+      return;
+    }
+    final SuperHero superHero;
+    long startNanos = System.nanoTime();
+    try {
+      superHero = repository.getByName(name);
+    } catch (RuntimeException e) {
+      errors.increment();
+      pendingCallbacks.fail(call, error(PendingCallbacks.asRepositoryException(e)));
+      return;
+    } finally {
+      repositoryTimes.recordSince(startNanos);
+      pendingCallbacks.finish(call);
+    }
+    pendingCallbacks.deliver(call, new PendingCallbacks.Delivery<Callback>() {
+      @Override public void deliver(Callback callback) {
         callback.onSuperHeroLoaded(superHero);
       }
     });
   }
 
+  private static PendingCallbacks.Delivery<Callback> error(
+      final SuperHeroesRepositoryException exception) {
+    return new PendingCallbacks.Delivery<Callback>() {
+      @Override public void deliver(Callback callback) {
+        callback.onError(exception);
+      }
+    };
+  }
+
   public interface Callback {
 
     void onSuperHeroLoaded(SuperHero superHero);
+
+    void onError(SuperHeroesRepositoryException exception);
   }
 }
@@ -16,40 +16,173 @@
 
 package com.karumi.screenshot.usecase;
 
-import android.os.Handler;
-import android.os.Looper;
-import com.karumi.screenshot.model.SuperHero;
+import com.karumi.screenshot.executor.Scheduler;
+import com.karumi.screenshot.metrics.Counter;
+import com.karumi.screenshot.metrics.Histogram;
+import com.karumi.screenshot.metrics.MetricsRegistry;
+import com.karumi.screenshot.model.SuperHeroSummary;
+import com.karumi.screenshot.model.SuperHeroesChunkReader;
+import com.karumi.screenshot.model.SuperHeroesPage;
 import com.karumi.screenshot.model.SuperHeroesRepository;
+import com.karumi.screenshot.model.SuperHeroesRepositoryException;
 import java.util.List;
 import javax.inject.Inject;
+import javax.inject.Singleton;
 
-public class GetSuperHeroes {
+@Singleton public class GetSuperHeroes {
+
+  private static final String ALL_KEY = "all";
+  private static final String METRICS_PREFIX = "get-super-heroes.";
 
   private final SuperHeroesRepository repository;
+  private final Scheduler scheduler;
+  private final PendingCallbacks<Callback> pendingCallbacks;
+  private final PendingCallbacks<StreamCallback> streamCallbacks;
+  private final Histogram queueTimes;
+  private final Histogram repositoryTimes;
+  private final Counter errors;
 
-  @Inject public GetSuperHeroes(SuperHeroesRepository repository) {
+  @Inject public GetSuperHeroes(SuperHeroesRepository repository, Scheduler scheduler,
+      MetricsRegistry metrics) {
     this.repository = repository;
+    this.scheduler = scheduler;
+    Histogram handOffTimes = metrics.histogram(METRICS_PREFIX + "hand-off");
+    this.pendingCallbacks = new PendingCallbacks<>(scheduler, handOffTimes);
+    this.streamCallbacks = new PendingCallbacks<>(scheduler, handOffTimes);
+    this.queueTimes = metrics.histogram(METRICS_PREFIX + "queue");
+    this.repositoryTimes = metrics.histogram(METRICS_PREFIX + "repository");
+    this.errors = metrics.counter(METRICS_PREFIX + "errors");
   }
 
-  public void getAll(final Callback callback) {
-    new Thread(new Runnable() {
-      @Override public void run() {
-        loadSuperHeroes(callback);
+  public Cancellable getAll(Callback callback) {
+    final PendingCall<Callback> call = pendingCallbacks.add(ALL_KEY, callback);
+    if (call.isFirst()) {
+      final long queuedAtNanos = System.nanoTime();
+      try {
+        scheduler.execute(new Runnable() {
+          @Override public void run() {
+            queueTimes.recordSince(queuedAtNanos);
+            loadSuperHeroes(call);
+          }
+        });
+      } catch (RuntimeException e) {
+        errors.increment();
+        pendingCallbacks.fail(call, error(PendingCallbacks.asRepositoryException(e)));
       }
-    }).start();
+    }
+    return call;
+  }
+
+  public Cancellable stream(final String cursor, final int limit, final int chunkSize,
+      StreamCallback callback) {
+    final PendingCall<StreamCallback> call = streamCallbacks.add(null, callback);
+    final long queuedAtNanos = System.nanoTime();
+    try {
+      scheduler.execute(new Runnable() {
+        @Override public void run() {
+          queueTimes.recordSince(queuedAtNanos);
+          streamSuperHeroes(call, cursor, limit, chunkSize);
+        }
+      });
+    } catch (RuntimeException e) {
+      errors.increment();
+      streamCallbacks.fail(call,
+          streamError(PendingCallbacks.asRepositoryException(e)));
+    }
+    return call;
   }
 
-  private void loadSuperHeroes(final Callback callback) {
-    final List<SuperHero> superHeroes = repository.getAll();
-    new Handler(Looper.getMainLooper()).post(new Runnable() {
-      @Override public void run() {
+  private void loadSuperHeroes(PendingCall<Callback> call) {
+    if (!pendingCallbacks.start(call)) {
+      return;
+    }
+    final List<SuperHeroSummary> superHeroes;
+    long startNanos = System.nanoTime();
+    try {
+      superHeroes = repository.getSummaries();
+    } catch (RuntimeException e) {
+      errors.increment();
+      pendingCallbacks.fail(call, error(PendingCallbacks.asRepositoryException(e)));
+      return;
+    } finally {
+      repositoryTimes.recordSince(startNanos);
+      pendingCallbacks.finish(call);
+    }
+    pendingCallbacks.deliver(call, new PendingCallbacks.Delivery<Callback>() {
+      @Override public void deliver(Callback callback) {
         callback.onSuperHeroesLoaded(superHeroes);
       }
     });
   }
 
+  /**
+   * Reads the whole range in one repository call, so streaming costs a single round trip, and
+   * posts every chunk as soon as the repository reads it so the main thread binds the first rows
+   * without waiting for the rest.
+   */
+  private void streamSuperHeroes(final PendingCall<StreamCallback> call, String cursor,
+      int limit, int chunkSize) {
+    if (!streamCallbacks.start(call)) {
+      return;
+    }
+    final SuperHeroesPage page;
+    long startNanos = System.nanoTime();
+    try {
+      page = repository.readSummariesPage(cursor, limit, chunkSize, new SuperHeroesChunkReader() {
+        @Override public void onChunkRead(final List<SuperHeroSummary> chunk) {
+          streamCallbacks.post(call, new PendingCallbacks.Delivery<StreamCallback>() {
+            @Override public void deliver(StreamCallback callback) {
+              callback.onSuperHeroesChunkLoaded(chunk);
+            }
+          }, false);
+        }
+      });
+    } catch (RuntimeException e) {
+      errors.increment();
+      streamCallbacks.fail(call, streamError(PendingCallbacks.asRepositoryException(e)));
+      return;
+    } finally {
+      repositoryTimes.recordSince(startNanos);
+      streamCallbacks.finish(call);
+    }
+    streamCallbacks.deliver(call, new PendingCallbacks.Delivery<StreamCallback>() {
+      @Override public void deliver(StreamCallback callback) {
+        callback.onSuperHeroesStreamCompleted(page.getNextCursor());
+      }
+    });
+  }
+
+  private static PendingCallbacks.Delivery<Callback> error(
+      final SuperHeroesRepositoryException exception) {
+    return new PendingCallbacks.Delivery<Callback>() {
+      @Override public void deliver(Callback callback) {
+        callback.onError(exception);
+      }
+    };
+  }
+
+  private static PendingCallbacks.Delivery<StreamCallback> streamError(
+      final SuperHeroesRepositoryException exception) {
+    return new PendingCallbacks.Delivery<StreamCallback>() {
+      @Override public void deliver(StreamCallback callback) {
+        callback.onError(exception);
+      }
+    };
+  }
+
   public interface Callback {
 
-    void onSuperHeroesLoaded(List<SuperHero> superHeroes);
+    void onSuperHeroesLoaded(List<SuperHeroSummary> superHeroes);
+
+    void onError(SuperHeroesRepositoryException exception);
+  }
+
+  public interface StreamCallback {
+
+    void onSuperHeroesChunkLoaded(List<SuperHeroSummary> superHeroes);
+
+    void onSuperHeroesStreamCompleted(String nextCursor);
+
+    void onError(SuperHeroesRepositoryException exception);
   }
 }
@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.usecase;
+
+import com.karumi.screenshot.executor.Scheduler;
+import com.karumi.screenshot.model.SuperHeroesPage;
+import com.karumi.screenshot.model.SuperHeroesRepository;
+import com.karumi.screenshot.model.SuperHeroesRepositoryException;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+@Singleton public class GetSuperHeroesPage {
+
+  private final SuperHeroesRepository repository;
+  private final Scheduler scheduler;
+  private final PendingCallbacks<Callback> pendingCallbacks;
+
+  @Inject public GetSuperHeroesPage(SuperHeroesRepository repository, Scheduler scheduler) {
+    this.repository = repository;
+    this.scheduler = scheduler;
+    this.pendingCallbacks = new PendingCallbacks<>(scheduler);
+  }
+
+  public Cancellable getPage(final String cursor, final int limit, Callback callback) {
+    final PendingCall<Callback> call = pendingCallbacks.add(getKey(cursor, limit), callback);
+    if (call.isFirst()) {
+      try {
+        scheduler.execute(new Runnable() {
+          @Override public void run() {
+            loadPage(call, cursor, limit);
+          }
+        });
+      } catch (RuntimeException e) {
+        pendingCallbacks.fail(call, error(PendingCallbacks.asRepositoryException(e)));
+      }
+    }
+    return call;
+  }
+
+  private void loadPage(PendingCall<Callback> call, String cursor, int limit) {
+    if (!pendingCallbacks.start(call)) {
+      return;
+    }
+    final SuperHeroesPage page;
+    try {
+      page = repository.getSummariesPage(cursor, limit);
+    } catch (RuntimeException e) {
+      pendingCallbacks.fail(call, error(PendingCallbacks.asRepositoryException(e)));
+      return;
+    } finally {
+      pendingCallbacks.finish(call);
+    }
+    pendingCallbacks.deliver(call, new PendingCallbacks.Delivery<Callback>() {
+      @Override public void deliver(Callback callback) {
+        callback.onSuperHeroesPageLoaded(page);
+      }
+    });
+  }
+
+  private static String getKey(String cursor, int limit) {
+    return cursor + ":" + limit;
+  }
+
+  private static PendingCallbacks.Delivery<Callback> error(
+      final SuperHeroesRepositoryException exception) {
+    return new PendingCallbacks.Delivery<Callback>() {
+      @Override public void deliver(Callback callback) {
+        callback.onError(exception);
+      }
+    };
+  }
+
+  public interface Callback {
+
+    void onSuperHeroesPageLoaded(SuperHeroesPage page);
+
+    void onError(SuperHeroesRepositoryException exception);
+  }
+}
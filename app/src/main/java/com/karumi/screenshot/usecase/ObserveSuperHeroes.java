@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.usecase;
+
+import com.karumi.screenshot.executor.Scheduler;
+import com.karumi.screenshot.metrics.Counter;
+import com.karumi.screenshot.metrics.MetricsRegistry;
+import com.karumi.screenshot.model.SuperHeroChange;
+import com.karumi.screenshot.model.SuperHeroesObserver;
+import com.karumi.screenshot.model.SuperHeroesRepository;
+import com.karumi.screenshot.model.SuperHeroesSubscription;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Delivers the changes of the super heroes on the main thread. The first change of a burst opens
+ * a short window and every change published until it closes is coalesced with the pending ones
+ * of the same super hero. However fast changes are published, an observer has at most one batch
+ * waiting for the main thread and that batch holds at most one change per super hero.
+ */
+@Singleton public class ObserveSuperHeroes {
+
+  static final long COALESCING_WINDOW_MILLIS = 100;
+
+  private static final String METRICS_PREFIX = "observe-super-heroes.";
+
+  private final SuperHeroesRepository repository;
+  private final Scheduler scheduler;
+  private final Counter publishedChanges;
+  private final Counter deliveredChanges;
+
+  @Inject public ObserveSuperHeroes(SuperHeroesRepository repository, Scheduler scheduler,
+      MetricsRegistry metrics) {
+    this.repository = repository;
+    this.scheduler = scheduler;
+    this.publishedChanges = metrics.counter(METRICS_PREFIX + "published");
+    this.deliveredChanges = metrics.counter(METRICS_PREFIX + "delivered");
+  }
+
+  public Cancellable observe(Callback callback) {
+    Observation observation = new Observation(callback);
+    observation.subscription = repository.subscribe(observation);
+    return observation;
+  }
+
+  public interface Callback {
+
+    void onSuperHeroesChanged(List<SuperHeroChange> changes);
+  }
+
+  private class Observation implements SuperHeroesObserver, Cancellable, Runnable {
+
+    private final Map<String, SuperHeroChange> pendingChanges = new LinkedHashMap<>();
+    private Callback callback;
+    private SuperHeroesSubscription subscription;
+    private boolean deliveryScheduled;
+
+    Observation(Callback callback) {
+      this.callback = callback;
+    }
+
+    @Override public void onSuperHeroesChanged(List<SuperHeroChange> changes) {
+      publishedChanges.add(changes.size());
+      synchronized (this) {
+        if (callback == null) {
+          return;
+        }
+        for (SuperHeroChange change : changes) {
+          SuperHeroChange previous = pendingChanges.get(change.getName());
+          pendingChanges.put(change.getName(),
+              previous == null ? change : SuperHeroChange.merge(previous, change));
+        }
+        if (deliveryScheduled || pendingChanges.isEmpty()) {
+          return;
+        }
+        deliveryScheduled = true;
+      }
+      scheduler.postDelayed(this, COALESCING_WINDOW_MILLIS);
+    }
+
+    @Override public void run() {
+      Callback callback;
+      List<SuperHeroChange> changes;
+      synchronized (this) {
+        deliveryScheduled = false;
+        callback = this.callback;
+        changes = new ArrayList<>(pendingChanges.values());
+        pendingChanges.clear();
+      }
+      if (callback == null || changes.isEmpty()) {
+        return;
+      }
+      deliveredChanges.add(changes.size());
+      callback.onSuperHeroesChanged(changes);
+    }
+
+    @Override public void cancel() {
+      synchronized (this) {
+        if (callback == null) {
+          return;
+        }
+        callback = null;
+        pendingChanges.clear();
+      }
+      if (subscription != null) {
+        subscription.unsubscribe();
+      }
+      scheduler.removeCallbacks(this);
+    }
+
+    @Override public synchronized boolean isFinished() {
+      return callback == null;
+    }
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.usecase;
+
+class PendingCall<T> implements Cancellable {
+
+  private final PendingCallbacks<T> pendingCallbacks;
+  private final PendingCallbacks.Flight<T> flight;
+  private final boolean first;
+  private volatile T callback;
+  private volatile boolean cancelled;
+  private volatile boolean finished;
+
+  PendingCall(PendingCallbacks<T> pendingCallbacks, PendingCallbacks.Flight<T> flight,
+      T callback, boolean first) {
+    this.pendingCallbacks = pendingCallbacks;
+    this.flight = flight;
+    this.callback = callback;
+    this.first = first;
+  }
+
+  @Override public void cancel() {
+    pendingCallbacks.cancel(this);
+  }
+
+  @Override public boolean isFinished() {
+    return finished || cancelled;
+  }
+
+  boolean isFirst() {
+    return first;
+  }
+
+  boolean isCancelled() {
+    return cancelled;
+  }
+
+  PendingCallbacks.Flight<T> getFlight() {
+    return flight;
+  }
+
+  T getCallback() {
+    return callback;
+  }
+
+  boolean markCancelled() {
+    if (isFinished()) {
+      return false;
+    }
+    cancelled = true;
+    callback = null;
+    return true;
+  }
+
+  void markFinished() {
+    finished = true;
+    callback = null;
+  }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.usecase;
+
+import com.karumi.screenshot.executor.Scheduler;
+import com.karumi.screenshot.metrics.Histogram;
+import com.karumi.screenshot.model.SuperHeroesRepositoryException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Coalesces executions with the same key into a single flight and tracks its cancellation.
+ * Once every call of a flight is cancelled the worker thread running it is interrupted and the
+ * results already posted to the main thread are removed from its queue.
+ */
+class PendingCallbacks<T> {
+
+  private final Map<String, Flight<T>> flights = new HashMap<>();
+  private final Scheduler scheduler;
+  private final Histogram handOffTimes;
+
+  PendingCallbacks(Scheduler scheduler) {
+    this(scheduler, null);
+  }
+
+  /**
+   * Records in {@code handOffTimes} how long every post waits in the main thread queue.
+   */
+  PendingCallbacks(Scheduler scheduler, Histogram handOffTimes) {
+    this.scheduler = scheduler;
+    this.handOffTimes = handOffTimes;
+  }
+
+  /**
+   * Registers a callback. Calls with a null key never share their flight. The caller has to
+   * start the work only if the returned call is the first one of its flight.
+   */
+  synchronized PendingCall<T> add(String key, T callback) {
+    Flight<T> flight = key == null ? null : flights.get(key);
+    boolean first = flight == null;
+    if (first) {
+      flight = new Flight<>(key);
+      if (key != null) {
+        flights.put(key, flight);
+      }
+    }
+    PendingCall<T> call = new PendingCall<>(this, flight, callback, first);
+    flight.calls.add(call);
+    flight.liveCalls++;
+    return call;
+  }
+
+  /**
+   * Marks the current thread as the worker of the call's flight. Returns false if the flight
+   * was cancelled before it started, in which case no work should be done.
+   */
+  synchronized boolean start(PendingCall<T> call) {
+    Flight<T> flight = call.getFlight();
+    if (flight.liveCalls == 0) {
+      return false;
+    }
+    flight.worker = Thread.currentThread();
+    return true;
+  }
+
+  /**
+   * Detaches the worker from the call's flight. Calls added from now on with the same key start
+   * a new flight.
+   */
+  synchronized void finish(PendingCall<T> call) {
+    Flight<T> flight = call.getFlight();
+    if (flight.worker == Thread.currentThread()) {
+      flight.worker = null;
+      Thread.interrupted();
+    }
+    if (flight.key != null && flights.get(flight.key) == flight) {
+      flights.remove(flight.key);
+    }
+  }
+
+  /**
+   * Drops the call's flight when its work could not be submitted or failed, so calls added from
+   * now on with the same key start a new flight, and only then delivers {@code delivery} to the
+   * calls waiting for it.
+   */
+  void fail(PendingCall<T> call, Delivery<T> delivery) {
+    finish(call);
+    deliver(call, delivery);
+  }
+
+  void deliver(PendingCall<T> call, Delivery<T> delivery) {
+    post(call, delivery, true);
+  }
+
+  void post(PendingCall<T> call, final Delivery<T> delivery, final boolean last) {
+    final Flight<T> flight = call.getFlight();
+    final long postedAtNanos = System.nanoTime();
+    Runnable post = new Runnable() {
+      @Override public void run() {
+        if (handOffTimes != null) {
+          handOffTimes.recordSince(postedAtNanos);
+        }
+        List<PendingCall<T>> calls;
+        synchronized (PendingCallbacks.this) {
+          flight.posts.remove(this);
+          calls = new ArrayList<>(flight.calls);
+        }
+        for (PendingCall<T> call : calls) {
+          T callback = call.getCallback();
+          if (last) {
+            call.markFinished();
+          }
+          if (callback != null) {
+            delivery.deliver(callback);
+          }
+        }
+      }
+    };
+    synchronized (this) {
+      if (flight.liveCalls == 0) {
+        return;
+      }
+      flight.posts.add(post);
+    }
+    scheduler.post(post);
+  }
+
+  /**
+   * Returns any failure of a flight, from submitting it to running it, as the exception its
+   * callbacks receive.
+   */
+  static SuperHeroesRepositoryException asRepositoryException(RuntimeException exception) {
+    if (exception instanceof SuperHeroesRepositoryException) {
+      return (SuperHeroesRepositoryException) exception;
+    }
+    if (exception instanceof RejectedExecutionException) {
+      return new SuperHeroesRepositoryException("Too many loads are pending", exception);
+    }
+    return new SuperHeroesRepositoryException("Unexpected failure: " + exception, exception);
+  }
+
+  synchronized void cancel(PendingCall<T> call) {
+    if (!call.markCancelled()) {
+      return;
+    }
+    Flight<T> flight = call.getFlight();
+    flight.liveCalls--;
+    if (flight.liveCalls > 0) {
+      return;
+    }
+    if (flight.key != null && flights.get(flight.key) == flight) {
+      flights.remove(flight.key);
+    }
+    if (flight.worker != null) {
+      flight.worker.interrupt();
+    }
+    for (Runnable post : flight.posts) {
+      scheduler.removeCallbacks(post);
+    }
+    flight.posts.clear();
+  }
+
+  interface Delivery<T> {
+
+    void deliver(T callback);
+  }
+
+  static class Flight<T> {
+
+    private final String key;
+    private final List<PendingCall<T>> calls = new LinkedList<>();
+    private final List<Runnable> posts = new LinkedList<>();
+    private int liveCalls;
+    private Thread worker;
+
+    Flight(String key) {
+      this.key = key;
+    }
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.usecase;
+
+import com.karumi.screenshot.executor.Scheduler;
+import com.karumi.screenshot.model.SuperHero;
+import com.karumi.screenshot.model.SuperHeroSummary;
+import com.karumi.screenshot.model.SuperHeroesCatalogue;
+import com.karumi.screenshot.model.SuperHeroesRepositoryException;
+import com.karumi.screenshot.search.SearchHit;
+import com.karumi.screenshot.search.SuperHeroesIndex;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Searches names and descriptions. The index is built in the background the first time a search
+ * is requested, searches issued while it is being built only see the super heroes indexed so
+ * far.
+ */
+@Singleton public class SearchSuperHeroes {
+
+  private static final int MAX_RESULTS = 50;
+
+  private final SuperHeroesCatalogue catalogue;
+  private final Scheduler scheduler;
+  private final AtomicBoolean indexStarted;
+  private final PendingCallbacks<Callback> pendingCallbacks;
+  private volatile SuperHeroesIndex index;
+  private volatile boolean indexCompleted;
+
+  @Inject public SearchSuperHeroes(SuperHeroesCatalogue catalogue, Scheduler scheduler) {
+    this.catalogue = catalogue;
+    this.scheduler = scheduler;
+    this.index = new SuperHeroesIndex();
+    this.indexStarted = new AtomicBoolean();
+    this.pendingCallbacks = new PendingCallbacks<>(scheduler);
+  }
+
+  public Cancellable search(final String query, Callback callback) {
+    startIndexing();
+    final PendingCall<Callback> call = pendingCallbacks.add(null, callback);
+    try {
+      scheduler.execute(new Runnable() {
+        @Override public void run() {
+          searchSuperHeroes(call, query);
+        }
+      });
+    } catch (RuntimeException e) {
+      pendingCallbacks.fail(call, error(PendingCallbacks.asRepositoryException(e)));
+    }
+    return call;
+  }
+
+  public boolean isIndexCompleted() {
+    return indexCompleted;
+  }
+
+  private void startIndexing() {
+    if (!indexStarted.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      scheduler.execute(new Runnable() {
+        @Override public void run() {
+          buildIndex();
+        }
+      });
+    } catch (RuntimeException e) {
+      indexStarted.set(false);
+    }
+  }
+
+  /**
+   * Builds the index from scratch again on the next search if this build fails, so a failure
+   * does not leave search broken for the rest of the process.
+   */
+  private void buildIndex() {
+    SuperHeroesIndex index = this.index;
+    try {
+      int size = catalogue.size();
+      for (int i = 0; i < size; i++) {
+        SuperHero superHero = catalogue.get(i);
+        index.add(i, superHero.getName(), superHero.getDescription());
+      }
+      index.trimToSize();
+      indexCompleted = true;
+    } catch (RuntimeException e) {
+      this.index = new SuperHeroesIndex();
+      indexStarted.set(false);
+    }
+  }
+
+  private void searchSuperHeroes(PendingCall<Callback> call, final String query) {
+    if (!pendingCallbacks.start(call)) {
+      return;
+    }
+    final List<SuperHeroSummary> superHeroes;
+    try {
+      List<SearchHit> hits = index.search(query, MAX_RESULTS);
+      superHeroes = new ArrayList<>(hits.size());
+      for (SearchHit hit : hits) {
+        superHeroes.add(catalogue.getSummary(hit.getDocumentId()));
+      }
+    } catch (RuntimeException e) {
+      pendingCallbacks.fail(call, error(PendingCallbacks.asRepositoryException(e)));
+      return;
+    } finally {
+      pendingCallbacks.finish(call);
+    }
+    pendingCallbacks.deliver(call, new PendingCallbacks.Delivery<Callback>() {
+      @Override public void deliver(Callback callback) {
+        callback.onSuperHeroesFound(query, superHeroes);
+      }
+    });
+  }
+
+  private static PendingCallbacks.Delivery<Callback> error(
+      final SuperHeroesRepositoryException exception) {
+    return new PendingCallbacks.Delivery<Callback>() {
+      @Override public void deliver(Callback callback) {
+        callback.onError(exception);
+      }
+    };
+  }
+
+  public interface Callback {
+
+    void onSuperHeroesFound(String query, List<SuperHeroSummary> superHeroes);
+
+    void onError(SuperHeroesRepositoryException exception);
+  }
+}
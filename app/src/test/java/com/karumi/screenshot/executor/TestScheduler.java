@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.executor;
+
+import java.util.Iterator;
+import java.util.PriorityQueue;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Scheduler that runs every task on the test thread in virtual time. Nothing runs until the test
+ * triggers it, then tasks run in the order they are due and, for the same time, in the order they
+ * were scheduled. Tasks scheduled while triggering run in the same call if they are due.
+ * Background executions can be rejected to simulate a saturated pool.
+ */
+public class TestScheduler implements Scheduler {
+
+  private final PriorityQueue<ScheduledTask> tasks = new PriorityQueue<>();
+  private long nowMillis;
+  private long scheduledTasks;
+  private boolean rejectingExecutions;
+
+  @Override public void execute(Runnable task) {
+    if (rejectingExecutions) {
+      throw new RejectedExecutionException("Rejected by the test");
+    }
+    schedule(task, 0, false);
+  }
+
+  @Override public void post(Runnable task) {
+    schedule(task, 0, true);
+  }
+
+  @Override public void postDelayed(Runnable task, long delayMillis) {
+    schedule(task, delayMillis, true);
+  }
+
+  @Override public void removeCallbacks(Runnable task) {
+    Iterator<ScheduledTask> iterator = tasks.iterator();
+    while (iterator.hasNext()) {
+      ScheduledTask scheduledTask = iterator.next();
+      if (scheduledTask.onMainThread && scheduledTask.task == task) {
+        iterator.remove();
+      }
+    }
+  }
+
+  public void rejectExecutions(boolean rejectingExecutions) {
+    this.rejectingExecutions = rejectingExecutions;
+  }
+
+  public long getNowMillis() {
+    return nowMillis;
+  }
+
+  public int getPendingTasks() {
+    return tasks.size();
+  }
+
+  /**
+   * Runs every task due now without moving the clock.
+   */
+  public void triggerActions() {
+    advanceTimeTo(nowMillis);
+  }
+
+  public void advanceTimeBy(long delayMillis) {
+    advanceTimeTo(nowMillis + delayMillis);
+  }
+
+  public void advanceTimeTo(long timeMillis) {
+    if (timeMillis < nowMillis) {
+      throw new IllegalArgumentException(
+          "Can not move the clock back from " + nowMillis + " to " + timeMillis);
+    }
+    while (!tasks.isEmpty() && tasks.peek().timeMillis <= timeMillis) {
+      ScheduledTask scheduledTask = tasks.poll();
+      nowMillis = scheduledTask.timeMillis;
+      scheduledTask.task.run();
+    }
+    nowMillis = timeMillis;
+  }
+
+  private void schedule(Runnable task, long delayMillis, boolean onMainThread) {
+    long timeMillis = nowMillis + Math.max(0, delayMillis);
+    tasks.add(new ScheduledTask(task, timeMillis, scheduledTasks++, onMainThread));
+  }
+
+  private static class ScheduledTask implements Comparable<ScheduledTask> {
+
+    private final Runnable task;
+    private final long timeMillis;
+    private final long sequence;
+    private final boolean onMainThread;
+
+    ScheduledTask(Runnable task, long timeMillis, long sequence, boolean onMainThread) {
+      this.task = task;
+      this.timeMillis = timeMillis;
+      this.sequence = sequence;
+      this.onMainThread = onMainThread;
+    }
+
+    @Override public int compareTo(ScheduledTask other) {
+      if (timeMillis != other.timeMillis) {
+        return timeMillis < other.timeMillis ? -1 : 1;
+      }
+      return sequence < other.sequence ? -1 : sequence == other.sequence ? 0 : 1;
+    }
+  }
+}
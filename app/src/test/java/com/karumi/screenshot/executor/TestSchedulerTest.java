@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.executor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestSchedulerTest {
+
+  private final TestScheduler scheduler = new TestScheduler();
+  private final List<String> executedTasks = new ArrayList<>();
+
+  @Test public void doesNotRunAnyTaskUntilTheyAreTriggered() {
+    scheduler.execute(task("background"));
+    scheduler.post(task("main"));
+
+    assertTrue(executedTasks.isEmpty());
+    assertEquals(2, scheduler.getPendingTasks());
+  }
+
+  @Test public void runsTasksDueAtTheSameTimeInTheOrderTheyWereScheduled() {
+    scheduler.post(task("first"));
+    scheduler.execute(task("second"));
+    scheduler.postDelayed(task("third"), 0);
+
+    scheduler.triggerActions();
+
+    assertEquals(Arrays.asList("first", "second", "third"), executedTasks);
+  }
+
+  @Test public void runsDelayedTasksOnlyOnceTheyAreDue() {
+    scheduler.postDelayed(task("later"), 100);
+    scheduler.postDelayed(task("sooner"), 50);
+
+    scheduler.advanceTimeBy(99);
+
+    assertEquals(Arrays.asList("sooner"), executedTasks);
+    assertEquals(99, scheduler.getNowMillis());
+
+    scheduler.advanceTimeBy(1);
+
+    assertEquals(Arrays.asList("sooner", "later"), executedTasks);
+  }
+
+  @Test public void runsTasksScheduledByOtherTasksIfTheyAreDue() {
+    scheduler.execute(new Runnable() {
+      @Override public void run() {
+        scheduler.post(task("posted"));
+        scheduler.postDelayed(task("delayed"), 10);
+      }
+    });
+
+    scheduler.triggerActions();
+
+    assertEquals(Arrays.asList("posted"), executedTasks);
+    assertEquals(1, scheduler.getPendingTasks());
+  }
+
+  @Test public void doesNotRunRemovedCallbacks() {
+    Runnable removedTask = task("removed");
+    scheduler.post(removedTask);
+    scheduler.post(task("kept"));
+
+    scheduler.removeCallbacks(removedTask);
+    scheduler.triggerActions();
+
+    assertEquals(Arrays.asList("kept"), executedTasks);
+  }
+
+  private Runnable task(final String name) {
+    return new Runnable() {
+      @Override public void run() {
+        executedTasks.add(name);
+      }
+    };
+  }
+}
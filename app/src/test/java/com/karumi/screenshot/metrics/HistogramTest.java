@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HistogramTest {
+
+  private static final long LARGE_VALUE = 1L << 30;
+
+  @Test public void returnsZeroForEveryStatisticOfAnEmptyHistogram() {
+    HistogramSnapshot snapshot = new Histogram().snapshot();
+
+    assertEquals(0, snapshot.getCount());
+    assertEquals(0, snapshot.getMax());
+    assertEquals(0, snapshot.getMean(), 0);
+    assertEquals(0, snapshot.getValueAtPercentile(50));
+  }
+
+  @Test public void countsTheSmallValuesExactly() {
+    for (long value = 0; value < 128; value++) {
+      assertEquals(value, getBucketHighestValue(value));
+    }
+  }
+
+  @Test public void boundsTheRelativeErrorAtTheBucketEdges() {
+    for (int shift = 1; (128L << shift) - 1 <= Histogram.MAX_TRACKABLE_VALUE; shift++) {
+      for (long subBucket = 64; subBucket < 128; subBucket++) {
+        long lowestValue = subBucket << shift;
+        long highestValue = ((subBucket + 1) << shift) - 1;
+
+        assertEquals(highestValue, getBucketHighestValue(lowestValue));
+        assertEquals(highestValue, getBucketHighestValue(highestValue));
+        assertEquals(lowestValue - 1, getBucketHighestValue(lowestValue - 1));
+        assertTrue("Relative error above 1/64 for " + lowestValue,
+            (highestValue - lowestValue) * 64 <= lowestValue);
+      }
+    }
+  }
+
+  @Test public void countsTheValuesAboveTheTrackableMaximumInTheLastBucket() {
+    Histogram histogram = new Histogram();
+
+    histogram.record(Histogram.MAX_TRACKABLE_VALUE * 4);
+    HistogramSnapshot snapshot = histogram.snapshot();
+
+    assertEquals(1, snapshot.getCount());
+    assertEquals(Histogram.MAX_TRACKABLE_VALUE * 4, snapshot.getMax());
+    assertEquals(Histogram.MAX_TRACKABLE_VALUE, snapshot.getValueAtPercentile(100));
+  }
+
+  @Test public void recordsNegativeValuesAsZero() {
+    Histogram histogram = new Histogram();
+
+    histogram.record(-5);
+    HistogramSnapshot snapshot = histogram.snapshot();
+
+    assertEquals(1, snapshot.getCount());
+    assertEquals(0, snapshot.getMax());
+    assertEquals(0, snapshot.getValueAtPercentile(100));
+  }
+
+  @Test public void returnsThePercentilesOfTheRecordedValues() {
+    Histogram histogram = new Histogram();
+    for (long value = 1; value <= 10000; value++) {
+      histogram.record(value);
+    }
+
+    HistogramSnapshot snapshot = histogram.snapshot();
+
+    assertEquals(10000, snapshot.getCount());
+    assertEquals(5000.5, snapshot.getMean(), 0);
+    assertEquals(1, snapshot.getValueAtPercentile(0));
+    assertWithinTheRelativeError(5000, snapshot.getValueAtPercentile(50));
+    assertWithinTheRelativeError(9900, snapshot.getValueAtPercentile(99));
+    assertWithinTheRelativeError(9990, snapshot.getValueAtPercentile(99.9));
+    assertEquals(10000, snapshot.getValueAtPercentile(100));
+    assertEquals(10000, snapshot.getMax());
+  }
+
+  @Test public void doesNotChangeASnapshotWithTheValuesRecordedAfterIt() {
+    Histogram histogram = new Histogram();
+    histogram.record(10);
+    HistogramSnapshot snapshot = histogram.snapshot();
+
+    histogram.record(LARGE_VALUE);
+
+    assertEquals(1, snapshot.getCount());
+    assertEquals(10, snapshot.getMax());
+    assertEquals(2, histogram.getCount());
+  }
+
+  @Test public void countsEveryValueRecordedConcurrently() throws InterruptedException {
+    final Histogram histogram = new Histogram();
+    final int threadsCount = 8;
+    final int valuesPerThread = 10000;
+    final CountDownLatch start = new CountDownLatch(1);
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < threadsCount; i++) {
+      final long threadValue = i + 1;
+      Thread thread = new Thread(new Runnable() {
+        @Override public void run() {
+          awaitQuietly(start);
+          for (int j = 0; j < valuesPerThread; j++) {
+            histogram.record(threadValue);
+          }
+        }
+      });
+      thread.start();
+      threads.add(thread);
+    }
+
+    start.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    HistogramSnapshot snapshot = histogram.snapshot();
+
+    assertEquals(threadsCount * valuesPerThread, snapshot.getCount());
+    assertEquals(threadsCount, snapshot.getMax());
+    assertEquals((threadsCount + 1) / 2.0, snapshot.getMean(), 0);
+    assertEquals(threadsCount / 2, snapshot.getValueAtPercentile(50));
+  }
+
+  /**
+   * Records the value and one above the trackable maximum, so the median is the highest value of
+   * the value's bucket instead of the recorded maximum.
+   */
+  private static long getBucketHighestValue(long value) {
+    Histogram histogram = new Histogram();
+    histogram.record(value);
+    histogram.record(Histogram.MAX_TRACKABLE_VALUE * 4);
+    return histogram.snapshot().getValueAtPercentile(50);
+  }
+
+  private static void assertWithinTheRelativeError(long expected, long actual) {
+    assertTrue("Expected " + expected + " but was " + actual,
+        actual >= expected && (actual - expected) * 64 <= expected);
+  }
+
+  private static void awaitQuietly(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.metrics;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class MetricsRegistryTest {
+
+  private final MetricsRegistry metrics = new MetricsRegistry();
+
+  @Test public void returnsTheSameMetricForTheSameName() {
+    assertSame(metrics.histogram("load"), metrics.histogram("load"));
+    assertSame(metrics.counter("errors"), metrics.counter("errors"));
+  }
+
+  @Test public void exportsEveryMetricSortedByName() throws IOException {
+    metrics.histogram("load").record(200);
+    metrics.histogram("load").record(100);
+    metrics.histogram("quoted \"name\"");
+    metrics.counter("retries");
+    metrics.counter("errors").add(3);
+    StringWriter writer = new StringWriter();
+
+    metrics.export(writer);
+
+    assertEquals("{\"histograms\":{"
+        + "\"load\":{\"count\":2,\"mean\":150,\"p50\":100,\"p99\":200,\"p999\":200,\"max\":200},"
+        + "\"quoted \\\"name\\\"\":{\"count\":0,\"mean\":0,\"p50\":0,\"p99\":0,\"p999\":0,"
+        + "\"max\":0}},"
+        + "\"counters\":{\"errors\":3,\"retries\":0}}", writer.toString());
+  }
+
+  @Test public void sharesTheMetricsCreatedConcurrentlyWithTheSameName()
+      throws InterruptedException {
+    final int threadsCount = 8;
+    final int valuesPerThread = 1000;
+    final CountDownLatch start = new CountDownLatch(1);
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < threadsCount; i++) {
+      Thread thread = new Thread(new Runnable() {
+        @Override public void run() {
+          try {
+            start.await();
+          } catch (InterruptedException e) {
+            return;
+          }
+          for (int j = 0; j < valuesPerThread; j++) {
+            metrics.histogram("load").record(j);
+            metrics.counter("loads").increment();
+          }
+        }
+      });
+      thread.start();
+      threads.add(thread);
+    }
+
+    start.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    assertEquals(threadsCount * valuesPerThread, metrics.histogram("load").getCount());
+    assertEquals(threadsCount * valuesPerThread, metrics.counter("loads").get());
+  }
+}
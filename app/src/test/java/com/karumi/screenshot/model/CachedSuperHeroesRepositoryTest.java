@@ -0,0 +1,329 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static com.karumi.screenshot.model.FakeSuperHeroesRepository.createSuperHeroes;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class CachedSuperHeroesRepositoryTest {
+
+  private static final int MAX_CACHED_SUPER_HEROES = 3;
+  private static final long TIME_TO_LIVE_MILLIS = 60000;
+  private static final long EXPIRED = -1;
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  private final List<SuperHero> superHeroes = createSuperHeroes(10);
+  private final FakeSuperHeroesRepository repository =
+      new FakeSuperHeroesRepository(superHeroes);
+  private final QueueExecutor executor = new QueueExecutor();
+  private File cacheDirectory;
+
+  @Before public void setUp() throws IOException {
+    cacheDirectory = folder.newFolder("cache");
+  }
+
+  @Test public void servesRepeatedRequestsFromMemory() {
+    CachedSuperHeroesRepository cache = givenACache(TIME_TO_LIVE_MILLIS);
+
+    SuperHero first = cache.getByName("SuperHero - 1");
+    SuperHero second = cache.getByName("SuperHero - 1");
+
+    assertSame(first, second);
+    assertEquals(1, repository.getCalls());
+    assertEquals(1, cache.getMissCount());
+    assertEquals(1, cache.getHitCount());
+    assertEquals(0, cache.getDiskHitCount());
+  }
+
+  @Test public void servesEntriesFromDiskAfterARestart() {
+    givenACache(TIME_TO_LIVE_MILLIS).getSummariesPage(null, 2);
+    CachedSuperHeroesRepository cache = givenACache(TIME_TO_LIVE_MILLIS);
+
+    SuperHeroesPage page = cache.getSummariesPage(null, 2);
+
+    assertEquals(1, repository.getCalls());
+    assertEquals(1, cache.getDiskHitCount());
+    assertEquals("SuperHero - 1", page.getSuperHeroes().get(1).getName());
+    assertEquals("2", page.getNextCursor());
+  }
+
+  @Test public void evictsTheLeastRecentlyUsedEntriesBeyondTheMaximumSize() {
+    CachedSuperHeroesRepository cache = givenACache(TIME_TO_LIVE_MILLIS);
+    cache.getByName("SuperHero - 0");
+    cache.getByName("SuperHero - 1");
+    cache.getByName("SuperHero - 2");
+    cache.getByName("SuperHero - 0");
+
+    cache.getByName("SuperHero - 3");
+
+    assertEquals(1, cache.getEvictionCount());
+    cache.getByName("SuperHero - 0");
+    assertEquals(0, cache.getDiskHitCount());
+    cache.getByName("SuperHero - 1");
+    assertEquals(1, cache.getDiskHitCount());
+  }
+
+  @Test public void doesNotKeepEntriesLargerThanTheMaximumSizeInMemory() {
+    CachedSuperHeroesRepository cache = givenACache(TIME_TO_LIVE_MILLIS);
+    cache.getByName("SuperHero - 0");
+    cache.getByName("SuperHero - 1");
+
+    cache.getSummariesPage(null, MAX_CACHED_SUPER_HEROES + 1);
+
+    assertEquals(0, cache.getEvictionCount());
+    cache.getByName("SuperHero - 0");
+    cache.getByName("SuperHero - 1");
+    assertEquals(0, cache.getDiskHitCount());
+    SuperHeroesPage page = cache.getSummariesPage(null, MAX_CACHED_SUPER_HEROES + 1);
+    assertEquals(MAX_CACHED_SUPER_HEROES + 1, page.size());
+    assertEquals(1, cache.getDiskHitCount());
+    assertEquals(3, repository.getCalls());
+  }
+
+  @Test public void dropsAnEntryFromMemoryWhenItIsReplacedByAnOversizedOne() {
+    List<SuperHero> growingSuperHeroes = new ArrayList<>(superHeroes.subList(0, 2));
+    FakeSuperHeroesRepository growingRepository =
+        new FakeSuperHeroesRepository(growingSuperHeroes);
+    CachedSuperHeroesRepository cache = givenACache(growingRepository, EXPIRED);
+    cache.getSummaries();
+    growingSuperHeroes.addAll(superHeroes.subList(2, 10));
+
+    cache.getSummaries();
+    executor.runAll();
+
+    assertEquals(10, cache.getSummaries().size());
+    assertEquals(0, cache.getEvictionCount());
+  }
+
+  @Test public void readsInChunksThePagesLoadedAndTheCachedOnes() {
+    CachedSuperHeroesRepository cache = givenACache(TIME_TO_LIVE_MILLIS);
+    RecordingChunkReader loadedChunks = new RecordingChunkReader();
+    RecordingChunkReader cachedChunks = new RecordingChunkReader();
+
+    cache.readSummariesPage(null, 3, 2, loadedChunks);
+    SuperHeroesPage page = cache.readSummariesPage(null, 3, 2, cachedChunks);
+
+    assertEquals(1, repository.getCalls());
+    assertEquals(2, loadedChunks.chunks.size());
+    assertEquals(2, cachedChunks.chunks.size());
+    assertEquals(1, cachedChunks.chunks.get(1).size());
+    assertSame(page, cache.getSummariesPage(null, 3));
+  }
+
+  @Test public void servesStaleEntriesWhileTheyAreRevalidatedOnce() {
+    CachedSuperHeroesRepository cache = givenACache(EXPIRED);
+    SuperHero stale = cache.getByName("SuperHero - 1");
+
+    SuperHero first = cache.getByName("SuperHero - 1");
+    SuperHero second = cache.getByName("SuperHero - 1");
+
+    assertSame(stale, first);
+    assertSame(stale, second);
+    assertEquals(2, cache.getStaleHitCount());
+    assertEquals(1, executor.size());
+    executor.runAll();
+    assertEquals(2, repository.getCalls());
+  }
+
+  @Test public void keepsServingStaleEntriesIfTheRevalidationFails() {
+    CachedSuperHeroesRepository cache = givenACache(EXPIRED);
+    SuperHero stale = cache.getByName("SuperHero - 1");
+    cache.getByName("SuperHero - 1");
+    repository.failWith(new SuperHeroesRepositoryException("Offline"));
+
+    executor.runAll();
+
+    assertSame(stale, cache.getByName("SuperHero - 1"));
+    assertEquals(1, executor.size());
+  }
+
+  @Test public void keepsServingStaleEntriesIfTheRevalidationIsRejected() {
+    CachedSuperHeroesRepository cache = givenACache(EXPIRED);
+    SuperHero stale = cache.getByName("SuperHero - 1");
+    executor.rejectTasks(true);
+
+    SuperHero first = cache.getByName("SuperHero - 1");
+    executor.rejectTasks(false);
+    SuperHero second = cache.getByName("SuperHero - 1");
+
+    assertSame(stale, first);
+    assertSame(stale, second);
+    assertEquals(1, executor.size());
+  }
+
+  @Test public void patchesTheCachedPagesWithTheLiveChanges() {
+    CachedSuperHeroesRepository cache = givenACache(TIME_TO_LIVE_MILLIS);
+    cache.getSummariesPage(null, 3);
+
+    repository.publish(SuperHeroChange.updated(new SuperHero("SuperHero - 0", "photo", true, "")),
+        SuperHeroChange.removed("SuperHero - 1"));
+    SuperHeroesPage page = cache.getSummariesPage(null, 3);
+
+    assertEquals(1, repository.getCalls());
+    assertEquals(2, page.size());
+    assertEquals("photo", page.getSuperHeroes().get(0).getPhoto());
+    assertEquals("SuperHero - 2", page.getSuperHeroes().get(1).getName());
+  }
+
+  @Test public void appendsTheAddedSuperHeroesToTheCachedLastPage() {
+    CachedSuperHeroesRepository cache = givenACache(TIME_TO_LIVE_MILLIS);
+    cache.getSummariesPage(null, 2);
+    cache.getSummariesPage("9", 2);
+
+    repository.publish(SuperHeroChange.added(new SuperHero("SuperHero - 10", null, false, "")));
+
+    assertEquals(2, cache.getSummariesPage(null, 2).size());
+    SuperHeroesPage lastPage = cache.getSummariesPage("9", 2);
+    assertEquals(2, lastPage.size());
+    assertEquals("SuperHero - 10", lastPage.getSuperHeroes().get(1).getName());
+    assertEquals(2, repository.getCalls());
+  }
+
+  @Test public void patchesTheSuperHeroesCachedByName() {
+    CachedSuperHeroesRepository cache = givenACache(TIME_TO_LIVE_MILLIS);
+    cache.getByName("SuperHero - 1");
+
+    repository.publish(SuperHeroChange.removed("SuperHero - 1"));
+
+    assertNull(cache.getByName("SuperHero - 1"));
+    assertEquals(1, repository.getCalls());
+  }
+
+  @Test public void dropsTheCachedFilteredPagesOnLiveChanges() {
+    CachedSuperHeroesRepository cache = givenACache(TIME_TO_LIVE_MILLIS);
+    cache.getSummariesPage(SuperHeroesFilter.avengersOnly(), null, 2);
+
+    repository.publish(SuperHeroChange.updated(new SuperHero("SuperHero - 1", null, true, "")));
+    cache.getSummariesPage(SuperHeroesFilter.avengersOnly(), null, 2);
+
+    assertEquals(2, repository.getCalls());
+  }
+
+  @Test public void writesThePatchedEntriesToDisk() {
+    givenACache(TIME_TO_LIVE_MILLIS).getSummariesPage(null, 2);
+    repository.publish(SuperHeroChange.removed("SuperHero - 0"));
+    executor.runAll();
+    CachedSuperHeroesRepository cache = givenACache(TIME_TO_LIVE_MILLIS);
+
+    SuperHeroesPage page = cache.getSummariesPage(null, 2);
+
+    assertEquals(1, cache.getDiskHitCount());
+    assertEquals(1, page.size());
+    assertEquals("SuperHero - 1", page.getSuperHeroes().get(0).getName());
+  }
+
+  @Test public void ignoresTheDiskEntriesWrittenBeforeALiveChange() {
+    givenACache(TIME_TO_LIVE_MILLIS).getSummariesPage(null, 2);
+    CachedSuperHeroesRepository cache = givenACache(TIME_TO_LIVE_MILLIS);
+
+    repository.publish(SuperHeroChange.removed("SuperHero - 0"));
+    cache.getSummariesPage(null, 2);
+
+    assertEquals(0, cache.getDiskHitCount());
+    assertEquals(2, repository.getCalls());
+  }
+
+  @Test public void doesNotCacheFailedLoads() {
+    CachedSuperHeroesRepository cache = givenACache(TIME_TO_LIVE_MILLIS);
+    repository.failWith(new SuperHeroesRepositoryException("Offline"));
+
+    try {
+      cache.getByName("SuperHero - 1");
+      fail();
+    } catch (SuperHeroesRepositoryException e) {
+      assertEquals("Offline", e.getMessage());
+    }
+
+    repository.failWith(null);
+    assertEquals("SuperHero - 1", cache.getByName("SuperHero - 1").getName());
+    assertEquals(2, cache.getMissCount());
+  }
+
+  @Test public void forgetsEveryEntryOnceCleared() {
+    CachedSuperHeroesRepository cache = givenACache(TIME_TO_LIVE_MILLIS);
+    cache.getByName("SuperHero - 1");
+
+    cache.clear();
+    cache.getByName("SuperHero - 1");
+
+    assertEquals(2, repository.getCalls());
+    assertEquals(0, cache.getDiskHitCount());
+  }
+
+  private CachedSuperHeroesRepository givenACache(long timeToLiveMillis) {
+    return givenACache(repository, timeToLiveMillis);
+  }
+
+  private CachedSuperHeroesRepository givenACache(SuperHeroesRepository repository,
+      long timeToLiveMillis) {
+    return new CachedSuperHeroesRepository(repository, new SuperHeroesDiskCache(cacheDirectory),
+        executor, MAX_CACHED_SUPER_HEROES, timeToLiveMillis, timeToLiveMillis);
+  }
+
+  private static class RecordingChunkReader implements SuperHeroesChunkReader {
+
+    private final List<List<SuperHeroSummary>> chunks = new ArrayList<>();
+
+    @Override public void onChunkRead(List<SuperHeroSummary> superHeroes) {
+      chunks.add(superHeroes);
+    }
+  }
+
+  private static class QueueExecutor implements Executor {
+
+    private final List<Runnable> tasks = new ArrayList<>();
+    private boolean rejectTasks;
+
+    @Override public void execute(Runnable command) {
+      if (rejectTasks) {
+        throw new RejectedExecutionException();
+      }
+      tasks.add(command);
+    }
+
+    void rejectTasks(boolean rejectTasks) {
+      this.rejectTasks = rejectTasks;
+    }
+
+    int size() {
+      return tasks.size();
+    }
+
+    void runAll() {
+      List<Runnable> tasksToRun = new ArrayList<>(tasks);
+      tasks.clear();
+      for (Runnable task : tasksToRun) {
+        task.run();
+      }
+    }
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Repository over a fixed list of super heroes that counts its calls and fails on demand. Live
+ * changes published to it are pushed to its subscribers but do not change the list.
+ */
+public class FakeSuperHeroesRepository implements SuperHeroesRepository {
+
+  private final List<SuperHero> superHeroes;
+  private final SuperHeroesChangeFeed changeFeed = new SuperHeroesChangeFeed();
+  private RuntimeException error;
+  private int calls;
+
+  public FakeSuperHeroesRepository(List<SuperHero> superHeroes) {
+    this.superHeroes = superHeroes;
+  }
+
+  public static List<SuperHero> createSuperHeroes(int size) {
+    List<SuperHero> superHeroes = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      superHeroes.add(new SuperHero("SuperHero - " + i, null, i % 2 == 0, "Description - " + i));
+    }
+    return superHeroes;
+  }
+
+  public List<SuperHero> getSuperHeroes() {
+    return superHeroes;
+  }
+
+  public void failWith(RuntimeException error) {
+    this.error = error;
+  }
+
+  public int getCalls() {
+    return calls;
+  }
+
+  public void publish(SuperHeroChange... changes) {
+    changeFeed.publish(Arrays.asList(changes));
+  }
+
+  @Override public List<SuperHeroSummary> getSummaries() {
+    onCall();
+    return new ArrayList<SuperHeroSummary>(superHeroes);
+  }
+
+  @Override public SuperHeroesPage getSummariesPage(String cursor, int limit) {
+    onCall();
+    int from = cursor == null ? 0 : Integer.parseInt(cursor);
+    int to = Math.min(superHeroes.size(), from + limit);
+    List<SuperHeroSummary> page = new ArrayList<SuperHeroSummary>(superHeroes.subList(from, to));
+    return new SuperHeroesPage(page, to < superHeroes.size() ? String.valueOf(to) : null);
+  }
+
+  @Override public SuperHeroesPage readSummariesPage(String cursor, int limit, int chunkSize,
+      SuperHeroesChunkReader reader) {
+    SuperHeroesPage page = getSummariesPage(cursor, limit);
+    page.readInChunks(chunkSize, reader);
+    return page;
+  }
+
+  @Override public SuperHeroesPage getSummariesPage(SuperHeroesFilter filter, String cursor,
+      int limit) {
+    onCall();
+    List<SuperHeroSummary> page = new ArrayList<>();
+    int position = cursor == null ? 0 : Integer.parseInt(cursor);
+    while (position < superHeroes.size() && page.size() < limit) {
+      SuperHero superHero = superHeroes.get(position++);
+      if (filter.matches(superHero)) {
+        page.add(superHero);
+      }
+    }
+    return new SuperHeroesPage(page,
+        position < superHeroes.size() ? String.valueOf(position) : null);
+  }
+
+  @Override public SuperHero getByName(String name) {
+    onCall();
+    for (SuperHero superHero : superHeroes) {
+      if (superHero.getName().equals(name)) {
+        return superHero;
+      }
+    }
+    return null;
+  }
+
+  @Override public SuperHero getByNameIgnoringCase(String name) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override public SuperHeroesSubscription subscribe(SuperHeroesObserver observer) {
+    return changeFeed.subscribe(observer);
+  }
+
+  private void onCall() {
+    calls++;
+    if (error != null) {
+      throw error;
+    }
+  }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class SnapshotSuperHeroesCatalogueTest {
+
+  private static final int HEADER_SIZE = 20;
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  private final SuperHeroesSnapshotWriter writer = new SuperHeroesSnapshotWriter();
+  private final List<SuperHero> superHeroes = Arrays.asList(
+      new SuperHero("Wolverine", "https://photos/wolverine.jpg", false, "Adamantium claws"),
+      new SuperHero("Captain America", null, true, null),
+      new SuperHero("Scarlet Witch", "https://photos/witch.jpg", true, ""),
+      new SuperHero("Ni\u00f1a Mutante", null, false, "\u00c7a va \u2603"));
+
+  @Test public void readsTheSuperHeroesItWrote() throws IOException {
+    SnapshotSuperHeroesCatalogue catalogue = givenASnapshot(superHeroes);
+
+    assertEquals(superHeroes.size(), catalogue.size());
+    for (int i = 0; i < superHeroes.size(); i++) {
+      assertSameSuperHero(superHeroes.get(i), catalogue.get(i));
+      SuperHeroSummary summary = catalogue.getSummaries().get(i);
+      assertEquals(superHeroes.get(i).getName(), summary.getName());
+      assertEquals(superHeroes.get(i).getPhoto(), summary.getPhoto());
+      assertEquals(superHeroes.get(i).isAvenger(), summary.isAvenger());
+    }
+  }
+
+  @Test public void findsTheSuperHeroesByName() throws IOException {
+    SnapshotSuperHeroesCatalogue catalogue = givenASnapshot(superHeroes);
+
+    for (SuperHero superHero : superHeroes) {
+      assertSameSuperHero(superHero, catalogue.findByName(superHero.getName()));
+    }
+    assertSameSuperHero(superHeroes.get(1), catalogue.findByNameIgnoringCase("captain AMERICA"));
+    assertSameSuperHero(superHeroes.get(3), catalogue.findByNameIgnoringCase("NI\u00d1A MUTANTE"));
+    assertNull(catalogue.findByName("captain america"));
+    assertNull(catalogue.findByName("Zzz"));
+    assertNull(catalogue.findByName(null));
+  }
+
+  @Test public void readsLargeCataloguesThatItWrote() throws IOException {
+    List<SuperHero> superHeroes = FakeSuperHeroesRepository.createSuperHeroes(5000);
+
+    SnapshotSuperHeroesCatalogue catalogue = givenASnapshot(superHeroes);
+
+    assertEquals(5000, catalogue.size());
+    assertSameSuperHero(superHeroes.get(4999), catalogue.get(4999));
+    assertSameSuperHero(superHeroes.get(1234), catalogue.findByName("SuperHero - 1234"));
+  }
+
+  @Test public void readsEmptyCatalogues() throws IOException {
+    SnapshotSuperHeroesCatalogue catalogue = givenASnapshot(new ArrayList<SuperHero>());
+
+    assertEquals(0, catalogue.size());
+    assertNull(catalogue.findByName("Wolverine"));
+  }
+
+  @Test public void verifiesTheSnapshotsItWrote() throws IOException {
+    givenASnapshot(superHeroes).verify();
+    givenASnapshot(new ArrayList<SuperHero>()).verify();
+  }
+
+  @Test public void failsToVerifySnapshotsWithChangedContent() throws IOException {
+    File snapshot = givenASnapshotFile(superHeroes);
+    int firstNameOffset = SnapshotSuperHeroesCatalogue.getRecordsOffset(superHeroes.size()) + 1;
+    overwriteInt(snapshot, firstNameOffset + 4, 0x4c4f4c4f);
+    SnapshotSuperHeroesCatalogue catalogue = SnapshotSuperHeroesCatalogue.open(snapshot);
+
+    try {
+      catalogue.verify();
+      fail("Verified a corrupt snapshot");
+    } catch (IOException expected) {
+    }
+  }
+
+  @Test public void rejectsFilesThatAreNotSnapshots() throws IOException {
+    File snapshot = givenASnapshotFile(superHeroes);
+    overwriteInt(snapshot, 0, 0xcafebabe);
+
+    assertCanNotBeOpened(snapshot);
+  }
+
+  @Test public void rejectsTruncatedSnapshots() throws IOException {
+    File snapshot = givenASnapshotFile(superHeroes);
+    RandomAccessFile file = new RandomAccessFile(snapshot, "rw");
+    try {
+      file.setLength(file.length() - 1);
+    } finally {
+      file.close();
+    }
+
+    assertCanNotBeOpened(snapshot);
+  }
+
+  @Test public void rejectsRecordsWithOffsetsOutOfTheFile() throws IOException {
+    File snapshot = givenASnapshotFile(superHeroes);
+    overwriteInt(snapshot, HEADER_SIZE + 4 * 3, Integer.MAX_VALUE);
+    SnapshotSuperHeroesCatalogue catalogue = SnapshotSuperHeroesCatalogue.open(snapshot);
+
+    assertSameSuperHero(superHeroes.get(0), catalogue.get(0));
+    assertCorruptRecord(catalogue, 3);
+  }
+
+  @Test public void rejectsRecordsWithOffsetsInsideAnotherRecord() throws IOException {
+    File snapshot = givenASnapshotFile(superHeroes);
+    int secondOffset = SnapshotSuperHeroesCatalogue.getRecordsOffset(superHeroes.size()) + 1;
+    overwriteInt(snapshot, HEADER_SIZE + 4, secondOffset);
+    SnapshotSuperHeroesCatalogue catalogue = SnapshotSuperHeroesCatalogue.open(snapshot);
+
+    assertCorruptRecord(catalogue, 1);
+    assertSameSuperHero(superHeroes.get(3), catalogue.get(3));
+  }
+
+  @Test public void rejectsRecordsWithStringsLongerThanTheFile() throws IOException {
+    File snapshot = givenASnapshotFile(superHeroes);
+    int firstNameOffset = SnapshotSuperHeroesCatalogue.getRecordsOffset(superHeroes.size()) + 1;
+    overwriteInt(snapshot, firstNameOffset, 1 << 20);
+    SnapshotSuperHeroesCatalogue catalogue = SnapshotSuperHeroesCatalogue.open(snapshot);
+
+    assertCorruptRecord(catalogue, 0);
+    assertSameSuperHero(superHeroes.get(1), catalogue.get(1));
+  }
+
+  @Test public void rejectsIndexEntriesOutOfRange() throws IOException {
+    File snapshot = givenASnapshotFile(superHeroes);
+    overwriteInt(snapshot, HEADER_SIZE + 4 * superHeroes.size() * 2, superHeroes.size());
+    SnapshotSuperHeroesCatalogue catalogue = SnapshotSuperHeroesCatalogue.open(snapshot);
+
+    try {
+      catalogue.findByNameIgnoringCase("captain america");
+      fail("Searched a corrupt index");
+    } catch (IllegalStateException expected) {
+    }
+    assertSameSuperHero(superHeroes.get(0), catalogue.findByName("Wolverine"));
+  }
+
+  private SnapshotSuperHeroesCatalogue givenASnapshot(List<SuperHero> superHeroes)
+      throws IOException {
+    return SnapshotSuperHeroesCatalogue.open(givenASnapshotFile(superHeroes));
+  }
+
+  private File givenASnapshotFile(List<SuperHero> superHeroes) throws IOException {
+    File snapshot = new File(folder.getRoot(), "super_heroes.snapshot");
+    writer.write(superHeroes, snapshot);
+    return snapshot;
+  }
+
+  private static void overwriteInt(File snapshot, int position, int value) throws IOException {
+    RandomAccessFile file = new RandomAccessFile(snapshot, "rw");
+    try {
+      file.seek(position);
+      file.writeInt(value);
+    } finally {
+      file.close();
+    }
+  }
+
+  private static void assertCanNotBeOpened(File snapshot) {
+    try {
+      SnapshotSuperHeroesCatalogue.open(snapshot);
+      fail("Opened a corrupt snapshot");
+    } catch (IOException expected) {
+    }
+  }
+
+  private static void assertCorruptRecord(SnapshotSuperHeroesCatalogue catalogue, int index) {
+    try {
+      catalogue.get(index);
+      fail("Read a corrupt record");
+    } catch (IllegalStateException expected) {
+    }
+  }
+
+  private static void assertSameSuperHero(SuperHero expected, SuperHero actual) {
+    assertEquals(expected.getName(), actual.getName());
+    assertEquals(expected.getPhoto(), actual.getPhoto());
+    assertEquals(expected.isAvenger(), actual.isAvenger());
+    assertEquals(expected.getDescription(), actual.getDescription());
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SuperHeroesDiskCacheTest {
+
+  private static final long EXPIRES_AT_MILLIS = 1000;
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  private File cacheDirectory;
+  private long entrySize;
+
+  @Before public void setUp() throws IOException {
+    cacheDirectory = folder.newFolder("cache");
+    SuperHeroesDiskCache cache = new SuperHeroesDiskCache(cacheDirectory);
+    cache.put("key-0", givenAnEntry(0));
+    entrySize = cache.size();
+    cache.clear();
+  }
+
+  @Test public void deletesTheLeastRecentlyUsedEntriesBeyondTheMaximumSize() {
+    SuperHeroesDiskCache cache = new SuperHeroesDiskCache(cacheDirectory, 2 * entrySize);
+    cache.put("key-0", givenAnEntry(0));
+    cache.put("key-1", givenAnEntry(1));
+    cache.get("key-0");
+
+    cache.put("key-2", givenAnEntry(2));
+
+    assertNotNull(cache.get("key-0"));
+    assertNull(cache.get("key-1"));
+    assertNotNull(cache.get("key-2"));
+    assertEquals(2 * entrySize, cache.size());
+    assertEquals(2, cacheDirectory.listFiles().length);
+  }
+
+  @Test public void doesNotCountAReplacedEntryTwice() {
+    SuperHeroesDiskCache cache = new SuperHeroesDiskCache(cacheDirectory, 2 * entrySize);
+    cache.put("key-0", givenAnEntry(0));
+    cache.put("key-1", givenAnEntry(1));
+
+    cache.put("key-1", givenAnEntry(1));
+
+    assertEquals(2 * entrySize, cache.size());
+    assertNotNull(cache.get("key-0"));
+  }
+
+  @Test public void trimsTheEntriesLeftByAPreviousRunWhenOpened() {
+    SuperHeroesDiskCache previousCache = new SuperHeroesDiskCache(cacheDirectory);
+    for (int i = 0; i < 4; i++) {
+      previousCache.put("key-" + i, givenAnEntry(i));
+    }
+
+    SuperHeroesDiskCache cache = new SuperHeroesDiskCache(cacheDirectory, 2 * entrySize);
+
+    assertEquals(2 * entrySize, cache.size());
+    assertEquals(2, cacheDirectory.listFiles().length);
+  }
+
+  @Test public void deletesTemporaryFilesLeftByAPreviousRunWhenOpened() throws IOException {
+    File temporaryFile = new File(cacheDirectory, "entry.tmp");
+    assertTrue(temporaryFile.createNewFile());
+
+    new SuperHeroesDiskCache(cacheDirectory).size();
+
+    assertFalse(temporaryFile.exists());
+  }
+
+  private static SuperHeroesCacheEntry givenAnEntry(int index) {
+    SuperHeroSummary superHero = new SuperHeroSummary("SuperHero - " + index, null, false);
+    return new SuperHeroesCacheEntry(
+        new SuperHeroesPage(Collections.singletonList(superHero), null), EXPIRES_AT_MILLIS);
+  }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.model;
+
+import com.karumi.screenshot.search.RoaringBitmap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+import static com.karumi.screenshot.model.SuperHeroAttribute.AVENGER;
+import static com.karumi.screenshot.model.SuperHeroAttribute.HAS_PHOTO;
+import static com.karumi.screenshot.model.SuperHeroesFilter.is;
+import static com.karumi.screenshot.model.SuperHeroesFilter.not;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class SuperHeroesFilterTest {
+
+  private static final int CATALOGUE_SIZE = 70000;
+
+  private final SuperHeroesCatalogue catalogue = givenARandomCatalogue(CATALOGUE_SIZE);
+  private final SuperHeroesAttributeIndex index = new SuperHeroesAttributeIndex(catalogue);
+
+  @Test public void evaluatesToTheSuperHeroesItMatches() {
+    List<SuperHeroesFilter> filters = Arrays.asList(is(AVENGER), is(HAS_PHOTO), not(is(AVENGER)),
+        is(AVENGER).and(is(HAS_PHOTO)), is(AVENGER).and(not(is(HAS_PHOTO))),
+        not(is(AVENGER)).and(is(HAS_PHOTO)), is(AVENGER).or(not(is(HAS_PHOTO))),
+        not(is(AVENGER).or(is(HAS_PHOTO))), not(not(is(HAS_PHOTO))));
+
+    for (SuperHeroesFilter filter : filters) {
+      RoaringBitmap matches = filter.evaluate(index);
+      int expectedMatches = 0;
+      for (int i = 0; i < catalogue.size(); i++) {
+        boolean expected = filter.matches(catalogue.getSummary(i));
+        assertEquals(filter + " at " + i, expected, matches.contains(i));
+        expectedMatches += expected ? 1 : 0;
+      }
+      assertEquals(filter.toString(), expectedMatches, matches.getCardinality());
+      assertFalse(filter.toString(), matches.contains(catalogue.size()));
+    }
+  }
+
+  @Test public void doesNotModifyTheIndexBitmaps() {
+    int avengers = index.get(AVENGER).getCardinality();
+
+    is(AVENGER).and(not(is(HAS_PHOTO))).evaluate(index);
+    is(AVENGER).or(is(HAS_PHOTO)).evaluate(index);
+    not(is(AVENGER)).evaluate(index);
+
+    assertEquals(avengers, index.get(AVENGER).getCardinality());
+  }
+
+  @Test public void describesEqualFiltersTheSameWay() {
+    SuperHeroesFilter filter = is(AVENGER).and(not(is(HAS_PHOTO)));
+
+    assertEquals("(avenger and not has-photo)", filter.toString());
+    assertEquals(filter, is(AVENGER).and(not(is(HAS_PHOTO))));
+    assertEquals(filter.hashCode(), is(AVENGER).and(not(is(HAS_PHOTO))).hashCode());
+  }
+
+  /**
+   * Mixes runs of avengers, so some containers are dense bitmaps, with scattered ones, so others
+   * stay sparse arrays.
+   */
+  private static SuperHeroesCatalogue givenARandomCatalogue(int size) {
+    Random random = new Random(42);
+    List<SuperHero> superHeroes = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      boolean isAvenger = i < 1 << 16 ? random.nextInt(4) != 0 : random.nextInt(50) == 0;
+      String photo = random.nextBoolean() ? "https://i.annihil.us/" + i + ".jpg" : null;
+      superHeroes.add(new SuperHero("SuperHero - " + i, photo, isAvenger, "Description"));
+    }
+    return new InMemorySuperHeroesCatalogue(superHeroes);
+  }
+}
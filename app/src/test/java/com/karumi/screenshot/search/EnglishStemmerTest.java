@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.search;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class EnglishStemmerTest {
+
+  private final EnglishStemmer stemmer = new EnglishStemmer();
+
+  @Test public void mapsTheFormsOfAWordToTheSameStem() {
+    assertSameStem("fly", "flies", "flying");
+    assertSameStem("run", "runs", "running");
+    assertSameStem("power", "powers", "powered");
+    assertSameStem("hero", "heroes");
+    assertSameStem("box", "boxes");
+    assertSameStem("class", "classes");
+    assertSameStem("save", "saved", "saving", "saves");
+    assertSameStem("hope", "hoped", "hoping");
+    assertSameStem("stop", "stopped", "stopping");
+    assertSameStem("quick", "quickly");
+  }
+
+  @Test public void keepsWordsThatOnlyLookLikeSuffixedForms() {
+    assertEquals("status", stemmer.stem("status"));
+    assertEquals("genius", stemmer.stem("genius"));
+    assertEquals("kiss", stemmer.stem("kiss"));
+    assertEquals("thing", stemmer.stem("thing"));
+  }
+
+  @Test public void keepsShortWords() {
+    assertEquals("ed", stemmer.stem("ed"));
+    assertEquals("ies", stemmer.stem("ies"));
+    assertEquals("men", stemmer.stem("men"));
+  }
+
+  private void assertSameStem(String word, String... forms) {
+    String stem = stemmer.stem(word);
+    for (String form : forms) {
+      assertEquals(form, stem, stemmer.stem(form));
+    }
+  }
+}
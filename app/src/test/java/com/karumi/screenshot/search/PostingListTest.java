@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PostingListTest {
+
+  @Test public void readsTheDocumentsBackInOrder() {
+    PostingList postingList = new PostingList();
+    postingList.add(3, 1);
+    postingList.add(4, 7);
+    postingList.add(1000, 2);
+
+    PostingList.Cursor cursor = postingList.cursor();
+
+    assertNext(cursor, 3, 1);
+    assertNext(cursor, 4, 7);
+    assertNext(cursor, 1000, 2);
+    assertFalse(cursor.next());
+    assertEquals(3, postingList.getDocumentFrequency());
+  }
+
+  @Test public void encodesValuesAtEveryVarIntLengthBoundary() {
+    int[] values = { 0, 1, 127, 128, 16383, 16384, 2097151, 2097152, 268435455, 268435456,
+        Integer.MAX_VALUE };
+    PostingList postingList = new PostingList();
+    int documentId = -1;
+    for (int value : values) {
+      documentId += 1;
+      postingList.add(documentId, value);
+    }
+
+    PostingList.Cursor cursor = postingList.cursor();
+
+    for (int i = 0; i < values.length; i++) {
+      assertNext(cursor, i, values[i]);
+    }
+  }
+
+  @Test public void storesSmallGapsInOneByteEach() {
+    PostingList postingList = new PostingList();
+    for (int documentId = 0; documentId < 1000; documentId++) {
+      postingList.add(documentId, 1);
+    }
+
+    postingList.trimToSize();
+
+    assertEquals(2000, postingList.getSizeInBytes());
+  }
+
+  @Test public void roundTripsRandomDocuments() {
+    Random random = new Random(42);
+    PostingList postingList = new PostingList();
+    List<int[]> documents = new ArrayList<>();
+    int documentId = -1;
+    for (int i = 0; i < 10000; i++) {
+      documentId += 1 + random.nextInt(random.nextBoolean() ? 10 : 100000);
+      int termFrequency = 1 + random.nextInt(1000);
+      postingList.add(documentId, termFrequency);
+      documents.add(new int[] { documentId, termFrequency });
+    }
+    postingList.trimToSize();
+
+    PostingList.Cursor cursor = postingList.cursor();
+
+    for (int[] document : documents) {
+      assertNext(cursor, document[0], document[1]);
+    }
+    assertFalse(cursor.next());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void doesNotAcceptDocumentsOutOfOrder() {
+    PostingList postingList = new PostingList();
+    postingList.add(5, 1);
+    postingList.add(5, 1);
+  }
+
+  private static void assertNext(PostingList.Cursor cursor, int documentId, int termFrequency) {
+    assertTrue(cursor.next());
+    assertEquals(documentId, cursor.getDocumentId());
+    assertEquals(termFrequency, cursor.getTermFrequency());
+  }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.search;
+
+import java.util.BitSet;
+import java.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RoaringBitmapTest {
+
+  private static final int CONTAINER_SIZE = 1 << 16;
+  private static final int MAX_ARRAY_CONTAINER_SIZE = 4096;
+  private static final int BITMAP_CONTAINER_BYTES = CONTAINER_SIZE / 8;
+  private static final int RANDOM_OPERATIONS = 200;
+
+  @Test public void containsTheAddedValuesOnce() {
+    RoaringBitmap bitmap = bitmapOf(3, 70000, 3, 1 << 30);
+
+    assertTrue(bitmap.contains(3));
+    assertTrue(bitmap.contains(70000));
+    assertTrue(bitmap.contains(1 << 30));
+    assertFalse(bitmap.contains(4));
+    assertFalse(bitmap.contains(-3));
+    assertEquals(3, bitmap.getCardinality());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void doesNotAcceptNegativeValues() {
+    new RoaringBitmap().add(-1);
+  }
+
+  @Test public void keepsEveryValueWhenAContainerTurnsIntoABitmap() {
+    RoaringBitmap bitmap = new RoaringBitmap();
+    for (int value = 0; value <= 2 * MAX_ARRAY_CONTAINER_SIZE; value += 2) {
+      bitmap.add(value);
+    }
+
+    assertEquals(MAX_ARRAY_CONTAINER_SIZE + 1, bitmap.getCardinality());
+    assertTrue(bitmap.contains(2 * MAX_ARRAY_CONTAINER_SIZE));
+    assertFalse(bitmap.contains(2 * MAX_ARRAY_CONTAINER_SIZE - 1));
+    assertEquals(8192, bitmap.nextValue(8191));
+  }
+
+  @Test public void storesSparseContainersAsArrays() {
+    RoaringBitmap bitmap = new RoaringBitmap();
+    for (int value = 0; value < 1000; value++) {
+      bitmap.add(value * 3);
+    }
+
+    assertTrue(bitmap.getSizeInBytes() < BITMAP_CONTAINER_BYTES);
+  }
+
+  @Test public void createsRangesSpanningSeveralContainers() {
+    RoaringBitmap range = RoaringBitmap.range(CONTAINER_SIZE - 6, 3 * CONTAINER_SIZE + 5);
+
+    assertEquals(2 * CONTAINER_SIZE + 11, range.getCardinality());
+    assertFalse(range.contains(CONTAINER_SIZE - 7));
+    assertTrue(range.contains(CONTAINER_SIZE - 6));
+    assertTrue(range.contains(3 * CONTAINER_SIZE + 4));
+    assertFalse(range.contains(3 * CONTAINER_SIZE + 5));
+    assertEquals(CONTAINER_SIZE - 6, range.nextValue(0));
+  }
+
+  @Test public void createsEmptyAndShortRanges() {
+    assertTrue(RoaringBitmap.range(10, 10).isEmpty());
+    RoaringBitmap range = RoaringBitmap.range(10, 20);
+
+    assertEquals(10, range.getCardinality());
+    assertTrue(range.getSizeInBytes() < BITMAP_CONTAINER_BYTES);
+  }
+
+  @Test public void findsTheNextValueAcrossContainers() {
+    RoaringBitmap bitmap = bitmapOf(5, CONTAINER_SIZE - 1, 3 * CONTAINER_SIZE + 7);
+
+    assertEquals(5, bitmap.nextValue(-10));
+    assertEquals(5, bitmap.nextValue(5));
+    assertEquals(CONTAINER_SIZE - 1, bitmap.nextValue(6));
+    assertEquals(3 * CONTAINER_SIZE + 7, bitmap.nextValue(CONTAINER_SIZE));
+    assertEquals(-1, bitmap.nextValue(3 * CONTAINER_SIZE + 8));
+  }
+
+  @Test public void shrinksTheIntersectionOfDenseContainersIntoAnArray() {
+    RoaringBitmap evens = new RoaringBitmap();
+    RoaringBitmap multiplesOfThree = new RoaringBitmap();
+    for (int value = 0; value < CONTAINER_SIZE; value++) {
+      if (value % 2 == 0) {
+        evens.add(value);
+      }
+      if (value % 3 == 0 && value < 3 * MAX_ARRAY_CONTAINER_SIZE) {
+        multiplesOfThree.add(value);
+      }
+    }
+
+    RoaringBitmap intersection = evens.and(RoaringBitmap.range(0, 100).or(multiplesOfThree));
+
+    assertEquals(50 + 2048 - 17, intersection.getCardinality());
+    assertTrue(intersection.getSizeInBytes() < BITMAP_CONTAINER_BYTES);
+  }
+
+  @Test public void growsTheUnionOfArraysIntoABitmap() {
+    RoaringBitmap evens = new RoaringBitmap();
+    RoaringBitmap odds = new RoaringBitmap();
+    for (int value = 0; value < 2 * MAX_ARRAY_CONTAINER_SIZE; value += 2) {
+      evens.add(value);
+      odds.add(value + 1);
+    }
+
+    RoaringBitmap union = evens.or(odds);
+
+    assertEquals(2 * MAX_ARRAY_CONTAINER_SIZE, union.getCardinality());
+    assertEquals(union.getCardinality(), RoaringBitmap.range(0, 2 * MAX_ARRAY_CONTAINER_SIZE)
+        .and(union).getCardinality());
+  }
+
+  @Test public void doesNotModifyTheOperands() {
+    RoaringBitmap left = bitmapOf(1, 2, 3, CONTAINER_SIZE);
+    RoaringBitmap right = bitmapOf(2, 3, 4);
+
+    left.and(right);
+    left.or(right);
+    left.andNot(right);
+
+    assertEquals(4, left.getCardinality());
+    assertEquals(3, right.getCardinality());
+  }
+
+  @Test public void behavesLikeABitSetForRandomOperations() {
+    Random random = new Random(42);
+    for (int i = 0; i < RANDOM_OPERATIONS; i++) {
+      BitSet leftSet = randomSet(random);
+      BitSet rightSet = randomSet(random);
+      RoaringBitmap left = bitmapOf(leftSet);
+      RoaringBitmap right = bitmapOf(rightSet);
+
+      BitSet and = (BitSet) leftSet.clone();
+      and.and(rightSet);
+      BitSet or = (BitSet) leftSet.clone();
+      or.or(rightSet);
+      BitSet andNot = (BitSet) leftSet.clone();
+      andNot.andNot(rightSet);
+
+      assertSameValues(leftSet, left);
+      assertSameValues(and, left.and(right));
+      assertSameValues(or, left.or(right));
+      assertSameValues(andNot, left.andNot(right));
+    }
+  }
+
+  /**
+   * Fills three containers with a random density each, from empty to dense, including sizes
+   * around the array container limit.
+   */
+  private static BitSet randomSet(Random random) {
+    BitSet set = new BitSet();
+    for (int container = 0; container < 3; container++) {
+      int cardinality;
+      switch (random.nextInt(4)) {
+        case 0:
+          cardinality = 0;
+          break;
+        case 1:
+          cardinality = random.nextInt(200);
+          break;
+        case 2:
+          cardinality = MAX_ARRAY_CONTAINER_SIZE - 8 + random.nextInt(16);
+          break;
+        default:
+          cardinality = CONTAINER_SIZE / 2 + random.nextInt(CONTAINER_SIZE / 4);
+          break;
+      }
+      int base = container * CONTAINER_SIZE;
+      int added = 0;
+      while (added < cardinality) {
+        int value = base + random.nextInt(CONTAINER_SIZE);
+        if (!set.get(value)) {
+          set.set(value);
+          added++;
+        }
+      }
+    }
+    return set;
+  }
+
+  private static void assertSameValues(BitSet expected, RoaringBitmap actual) {
+    assertEquals(expected.cardinality(), actual.getCardinality());
+    int value = actual.nextValue(0);
+    for (int bit = expected.nextSetBit(0); bit >= 0; bit = expected.nextSetBit(bit + 1)) {
+      assertEquals(bit, value);
+      assertTrue(actual.contains(bit));
+      value = actual.nextValue(value + 1);
+    }
+    assertEquals(-1, value);
+  }
+
+  private static RoaringBitmap bitmapOf(int... values) {
+    RoaringBitmap bitmap = new RoaringBitmap();
+    for (int value : values) {
+      bitmap.add(value);
+    }
+    return bitmap;
+  }
+
+  private static RoaringBitmap bitmapOf(BitSet set) {
+    RoaringBitmap bitmap = new RoaringBitmap();
+    for (int bit = set.nextSetBit(0); bit >= 0; bit = set.nextSetBit(bit + 1)) {
+      bitmap.add(bit);
+    }
+    return bitmap;
+  }
+}
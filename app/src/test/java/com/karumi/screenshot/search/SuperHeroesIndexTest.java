@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.search;
+
+import java.util.List;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SuperHeroesIndexTest {
+
+  @Test public void findsDocumentsByStemmedTermsOfTheirDescription() {
+    SuperHeroesIndex index = new SuperHeroesIndex();
+    index.add(0, "Iron Man", "A genius inventor who built a flying suit");
+    index.add(1, "Hulk", "Smashes everything");
+
+    List<SearchHit> hits = index.search("flies", 10);
+
+    assertEquals(1, hits.size());
+    assertEquals(0, hits.get(0).getDocumentId());
+  }
+
+  @Test public void ranksMatchesInTheNameAboveMatchesInTheDescription() {
+    SuperHeroesIndex index = new SuperHeroesIndex();
+    index.add(0, "Captain America", "Fights next to Thor");
+    index.add(1, "Thor", "God of thunder");
+    index.add(2, "Hulk", "Green");
+
+    List<SearchHit> hits = index.search("thor", 10);
+
+    assertEquals(2, hits.size());
+    assertEquals(1, hits.get(0).getDocumentId());
+    assertEquals(0, hits.get(1).getDocumentId());
+  }
+
+  @Test public void ranksRareTermsAboveCommonOnes() {
+    SuperHeroesIndex index = new SuperHeroesIndex();
+    index.add(0, "Storm", "Mutant");
+    index.add(1, "Cyclops", "Mutant");
+    index.add(2, "Wolverine", "Mutant with claws");
+    index.add(3, "Beast", "Mutant");
+
+    List<SearchHit> hits = index.search("mutant claws", 10);
+
+    assertEquals(4, hits.size());
+    assertEquals(2, hits.get(0).getDocumentId());
+  }
+
+  @Test public void ranksShortDocumentsAboveLongOnesForTheSameTerm() {
+    SuperHeroesIndex index = new SuperHeroesIndex();
+    index.add(0, "Vision", "Android built by Ultron with a mind stone and a cape");
+    index.add(1, "Ultron", "Android");
+
+    List<SearchHit> hits = index.search("android", 10);
+
+    assertEquals(1, hits.get(0).getDocumentId());
+    assertTrue(hits.get(0).getScore() > hits.get(1).getScore());
+  }
+
+  @Test public void matchesTheBm25ScoreOfASingleTerm() {
+    SuperHeroesIndex index = new SuperHeroesIndex();
+    index.add(0, "Storm", "Controls weather");
+    index.add(1, "Thor", "Controls thunder and weather");
+    index.add(2, "Hulk", "Green");
+
+    List<SearchHit> hits = index.search("thunder", 10);
+
+    double idf = Math.log(1 + (3 - 1 + 0.5) / (1 + 0.5));
+    double averageLength = (5.0 + 6.0 + 4.0) / 3;
+    double lengthNormalization = 1 - 0.75 + 0.75 * 6 / averageLength;
+    double expectedScore = idf * 1 * (1.2 + 1) / (1 + 1.2 * lengthNormalization);
+    assertEquals(expectedScore, hits.get(0).getScore(), 1e-5);
+  }
+
+  @Test public void returnsAtMostTheRequestedNumberOfHitsInDocumentOrderForTies() {
+    SuperHeroesIndex index = new SuperHeroesIndex();
+    for (int i = 0; i < 20; i++) {
+      index.add(i, "Agent " + i, "Shield");
+    }
+
+    List<SearchHit> hits = index.search("shield", 5);
+
+    assertEquals(5, hits.size());
+    for (int i = 0; i < hits.size(); i++) {
+      assertEquals(i, hits.get(i).getDocumentId());
+    }
+  }
+
+  @Test public void returnsNoHitsForUnknownTermsOrEmptyIndexes() {
+    SuperHeroesIndex index = new SuperHeroesIndex();
+
+    assertTrue(index.search("thor", 10).isEmpty());
+
+    index.add(0, "Thor", "God of thunder");
+
+    assertTrue(index.search("loki", 10).isEmpty());
+    assertTrue(index.search("thor", 0).isEmpty());
+  }
+
+  @Test public void scoresEveryQueryFromScratch() {
+    SuperHeroesIndex index = new SuperHeroesIndex();
+    index.add(0, "Thor", "God of thunder");
+    index.add(1, "Loki", "God of mischief");
+
+    float firstScore = index.search("thor", 10).get(0).getScore();
+    float secondScore = index.search("thor", 10).get(0).getScore();
+
+    assertEquals(firstScore, secondScore, 0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void doesNotAcceptDocumentsOutOfOrder() {
+    SuperHeroesIndex index = new SuperHeroesIndex();
+    index.add(1, "Thor", "God of thunder");
+    index.add(0, "Loki", "God of mischief");
+  }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.search;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class TokenizerTest {
+
+  private final Tokenizer tokenizer = new Tokenizer();
+
+  @Test public void splitsOnAnythingThatIsNotALetterOrADigit() {
+    assertEquals(Arrays.asList("spider", "man", "2099"), tokenizer.tokenize("Spider-Man (2099)"));
+  }
+
+  @Test public void lowerCasesAndStemsTheTerms() {
+    assertEquals(Arrays.asList("fly", "hero"), tokenizer.tokenize("FLYING Heroes"));
+  }
+
+  @Test public void dropsStopWordsAndSingleCharacters() {
+    assertEquals(Arrays.asList("hulk", "smash"), tokenizer.tokenize("The Hulk is a smash, x"));
+  }
+
+  @Test public void returnsNoTermsForMissingText() {
+    assertEquals(Collections.<String>emptyList(), tokenizer.tokenize(null));
+    assertEquals(Collections.<String>emptyList(), tokenizer.tokenize(" -- "));
+  }
+
+  @Test public void keepsLettersOutsideOfAscii() {
+    assertEquals(Arrays.asList("caf\u00e9", "ni\u00f1o"),
+        tokenizer.tokenize("Caf\u00e9 ni\u00f1o"));
+  }
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.ui.diff;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class ListDiffTest {
+
+  private static final int RANDOM_DIFFS = 2000;
+  private static final int MAX_LIST_SIZE = 30;
+
+  @Test public void dispatchesNothingForEqualLists() {
+    List<Item> items = items("a1", "b1", "c1");
+
+    RecordingList recording = diff(items, items("a1", "b1", "c1"));
+
+    assertEquals(0, recording.updates);
+  }
+
+  @Test public void dispatchesInsertionsAndRemovals() {
+    RecordingList recording = diff(items("a1", "b1", "c1"), items("a1", "c1", "d1"));
+
+    assertEquals(1, recording.insertions);
+    assertEquals(1, recording.removals);
+    assertEquals(0, recording.moves);
+  }
+
+  @Test public void dispatchesChangesOfItemsWithTheSameIdentity() {
+    RecordingList recording = diff(items("a1", "b1", "c1"), items("a1", "b2", "c1"));
+
+    assertEquals(1, recording.changes);
+    assertEquals(1, recording.updates);
+  }
+
+  @Test public void movesOnlyTheItemsOutOfTheLongestCommonSubsequence() {
+    RecordingList recording = diff(items("a1", "b1", "c1", "d1", "e1"),
+        items("b1", "c1", "d1", "e1", "a1"));
+
+    assertEquals(1, recording.moves);
+    assertEquals(1, recording.updates);
+  }
+
+  @Test public void insertsEveryItemIntoAnEmptyList() {
+    RecordingList recording = diff(new ArrayList<Item>(), items("a1", "b1"));
+
+    assertEquals(2, recording.insertions);
+    recording.assertTransformedInto("", items("a1", "b1"));
+  }
+
+  @Test public void transformsRandomListsIntoEachOtherWithTheMinimumNumberOfUpdates() {
+    Random random = new Random(42);
+    for (int i = 0; i < RANDOM_DIFFS; i++) {
+      List<Item> oldItems = randomItems(random);
+      List<Item> newItems = randomUpdateOf(oldItems, random);
+
+      RecordingList recording = diff(oldItems, newItems);
+
+      String message = oldItems + " to " + newItems;
+      recording.assertTransformedInto(message, newItems);
+      assertEquals(message, countMissing(newItems, oldItems), recording.insertions);
+      assertEquals(message, countMissing(oldItems, newItems), recording.removals);
+      assertEquals(message, countMatched(oldItems, newItems)
+          - longestCommonSubsequence(oldItems, newItems), recording.moves);
+    }
+  }
+
+  private static RecordingList diff(List<Item> oldItems, List<Item> newItems) {
+    ListDiffResult result = ListDiff.calculate(oldItems, newItems, Item.DIFF_CALLBACK);
+    RecordingList recording = new RecordingList(oldItems);
+    result.dispatchUpdatesTo(recording);
+    return recording;
+  }
+
+  private static List<Item> items(String... values) {
+    List<Item> items = new ArrayList<>();
+    for (String value : values) {
+      items.add(new Item(value.substring(0, 1), value.charAt(1) - '0'));
+    }
+    return items;
+  }
+
+  private static List<Item> randomItems(Random random) {
+    List<Item> items = new ArrayList<>();
+    int size = random.nextInt(MAX_LIST_SIZE + 1);
+    for (int i = 0; i < size; i++) {
+      items.add(new Item("item-" + i, 0));
+    }
+    return items;
+  }
+
+  private static List<Item> randomUpdateOf(List<Item> oldItems, Random random) {
+    List<Item> newItems = new ArrayList<>();
+    for (Item item : oldItems) {
+      int operation = random.nextInt(10);
+      if (operation == 0) {
+        continue;
+      }
+      newItems.add(operation == 1 ? new Item(item.identity, item.version + 1) : item);
+    }
+    int moves = random.nextInt(4);
+    for (int i = 0; i < moves && newItems.size() > 1; i++) {
+      Item moved = newItems.remove(random.nextInt(newItems.size()));
+      newItems.add(random.nextInt(newItems.size() + 1), moved);
+    }
+    int insertions = random.nextInt(4);
+    for (int i = 0; i < insertions; i++) {
+      newItems.add(random.nextInt(newItems.size() + 1), new Item("new-" + i, 0));
+    }
+    if (random.nextInt(20) == 0) {
+      Collections.shuffle(newItems, random);
+    }
+    return newItems;
+  }
+
+  private static int countMissing(List<Item> items, List<Item> others) {
+    Set<String> identities = identities(others);
+    int missing = 0;
+    for (Item item : items) {
+      if (!identities.contains(item.identity)) {
+        missing++;
+      }
+    }
+    return missing;
+  }
+
+  private static int countMatched(List<Item> oldItems, List<Item> newItems) {
+    return oldItems.size() - countMissing(oldItems, newItems);
+  }
+
+  private static int longestCommonSubsequence(List<Item> oldItems, List<Item> newItems) {
+    int[][] lengths = new int[oldItems.size() + 1][newItems.size() + 1];
+    for (int x = oldItems.size() - 1; x >= 0; x--) {
+      for (int y = newItems.size() - 1; y >= 0; y--) {
+        lengths[x][y] = oldItems.get(x).identity.equals(newItems.get(y).identity)
+            ? lengths[x + 1][y + 1] + 1 : Math.max(lengths[x + 1][y], lengths[x][y + 1]);
+      }
+    }
+    return lengths[0][0];
+  }
+
+  private static Set<String> identities(List<Item> items) {
+    Set<String> identities = new HashSet<>();
+    for (Item item : items) {
+      identities.add(item.identity);
+    }
+    return identities;
+  }
+
+  private static class Item {
+
+    static final ListDiff.ItemCallback<Item> DIFF_CALLBACK = new ListDiff.ItemCallback<Item>() {
+      @Override public Object getIdentity(Item item) {
+        return item.identity;
+      }
+
+      @Override public boolean haveSameContent(Item oldItem, Item newItem) {
+        return oldItem.version == newItem.version;
+      }
+    };
+
+    private final String identity;
+    private final int version;
+
+    Item(String identity, int version) {
+      this.identity = identity;
+      this.version = version;
+    }
+
+    @Override public String toString() {
+      return identity + "@" + version;
+    }
+  }
+
+  /**
+   * Applies the dispatched updates to a copy of the old list the way a RecyclerView would.
+   * Inserted rows are empty until they are bound and changed rows are flagged to be bound again.
+   */
+  private static class RecordingList implements ListUpdateCallback {
+
+    private final List<Item> rows;
+    private final List<Boolean> changedRows;
+    private final Set<String> oldIdentities;
+    private int insertions;
+    private int removals;
+    private int moves;
+    private int changes;
+    private int updates;
+
+    RecordingList(List<Item> oldItems) {
+      this.rows = new ArrayList<>(oldItems);
+      this.changedRows = new ArrayList<>(Collections.nCopies(oldItems.size(), false));
+      this.oldIdentities = identities(oldItems);
+    }
+
+    @Override public void onInserted(int position, int count) {
+      for (int i = 0; i < count; i++) {
+        rows.add(position, null);
+        changedRows.add(position, false);
+      }
+      insertions += count;
+      updates++;
+    }
+
+    @Override public void onRemoved(int position, int count) {
+      for (int i = 0; i < count; i++) {
+        rows.remove(position);
+        changedRows.remove(position);
+      }
+      removals += count;
+      updates++;
+    }
+
+    @Override public void onMoved(int fromPosition, int toPosition) {
+      rows.add(toPosition, rows.remove(fromPosition));
+      changedRows.add(toPosition, changedRows.remove(fromPosition));
+      moves++;
+      updates++;
+    }
+
+    @Override public void onChanged(int position, int count) {
+      for (int i = 0; i < count; i++) {
+        assertFalse(changedRows.get(position + i));
+        changedRows.set(position + i, true);
+      }
+      changes += count;
+      updates++;
+    }
+
+    void assertTransformedInto(String message, List<Item> newItems) {
+      assertEquals(message, newItems.size(), rows.size());
+      for (int i = 0; i < newItems.size(); i++) {
+        Item expected = newItems.get(i);
+        Item row = rows.get(i);
+        if (row == null) {
+          assertFalse(message, oldIdentities.contains(expected.identity));
+          assertFalse(message, changedRows.get(i));
+          continue;
+        }
+        assertEquals(message, expected.identity, row.identity);
+        assertEquals(message, expected.version != row.version, changedRows.get(i));
+      }
+    }
+  }
+}
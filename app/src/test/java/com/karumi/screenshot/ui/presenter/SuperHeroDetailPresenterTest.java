@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.ui.presenter;
+
+import com.karumi.screenshot.executor.TestScheduler;
+import com.karumi.screenshot.metrics.MetricsRegistry;
+import com.karumi.screenshot.model.FakeSuperHeroesRepository;
+import com.karumi.screenshot.model.SuperHero;
+import com.karumi.screenshot.model.SuperHeroSummary;
+import com.karumi.screenshot.model.SuperHeroesRepositoryException;
+import com.karumi.screenshot.usecase.GetSuperHeroByName;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SuperHeroDetailPresenterTest {
+
+  private final TestScheduler scheduler = new TestScheduler();
+  private final SuperHero superHero = FakeSuperHeroesRepository.createSuperHeroes(1).get(0);
+  private final FakeSuperHeroesRepository repository =
+      new FakeSuperHeroesRepository(FakeSuperHeroesRepository.createSuperHeroes(1));
+  private final RecordingView view = new RecordingView();
+
+  @Test public void showsTheSuperHeroOnceLoaded() {
+    SuperHeroDetailPresenter presenter = givenAPresenter();
+
+    presenter.initialize();
+
+    assertNull(view.superHero);
+
+    scheduler.triggerActions();
+
+    assertEquals(superHero, view.superHero);
+    assertTrue(view.loadingHidden);
+  }
+
+  @Test public void showsAHandedOffSummaryWhileTheSuperHeroLoads() {
+    SuperHeroDetailPresenter presenter = givenAPresenter();
+    presenter.setHandedOffSuperHero(superHero.toSummary());
+
+    presenter.initialize();
+
+    assertEquals(superHero.toSummary(), view.superHeroSummary);
+    assertNull(view.superHero);
+
+    scheduler.triggerActions();
+
+    assertEquals(superHero, view.superHero);
+  }
+
+  @Test public void showsAnErrorIfTheSuperHeroCanNotBeLoaded() {
+    repository.failWith(new SuperHeroesRepositoryException("Network error"));
+    SuperHeroDetailPresenter presenter = givenAPresenter();
+
+    presenter.initialize();
+    scheduler.triggerActions();
+
+    assertTrue(view.loadingHidden);
+    assertTrue(view.errorShown);
+    assertNull(view.superHero);
+  }
+
+  @Test public void loadsTheSuperHeroAgainWhenRetryIsClicked() {
+    repository.failWith(new SuperHeroesRepositoryException("Network error"));
+    SuperHeroDetailPresenter presenter = givenAPresenter();
+    presenter.initialize();
+    scheduler.triggerActions();
+    repository.failWith(null);
+
+    presenter.onRetryClicked();
+
+    assertFalse(view.errorShown);
+    assertTrue(view.loadingShown);
+    scheduler.triggerActions();
+    assertEquals(superHero, view.superHero);
+    assertTrue(view.loadingHidden);
+  }
+
+  @Test public void ignoresRetriesIfNothingFailed() {
+    SuperHeroDetailPresenter presenter = givenAPresenter();
+    presenter.initialize();
+    scheduler.triggerActions();
+
+    presenter.onRetryClicked();
+    scheduler.triggerActions();
+
+    assertEquals(1, repository.getCalls());
+    assertFalse(view.loadingShown);
+  }
+
+  private SuperHeroDetailPresenter givenAPresenter() {
+    MetricsRegistry metrics = new MetricsRegistry();
+    SuperHeroDetailPresenter presenter =
+        new SuperHeroDetailPresenter(new GetSuperHeroByName(repository, scheduler, metrics),
+            metrics);
+    presenter.setView(view);
+    presenter.setName(superHero.getName());
+    return presenter;
+  }
+
+  private static class RecordingView implements SuperHeroDetailPresenter.View {
+
+    private SuperHeroSummary superHeroSummary;
+    private SuperHero superHero;
+    private boolean loadingShown;
+    private boolean loadingHidden;
+    private boolean errorShown;
+
+    @Override public void showLoading() {
+      loadingShown = true;
+      loadingHidden = false;
+    }
+
+    @Override public void hideLoading() {
+      loadingShown = false;
+      loadingHidden = true;
+    }
+
+    @Override public void showError() {
+      errorShown = true;
+    }
+
+    @Override public void hideError() {
+      errorShown = false;
+    }
+
+    @Override public void showSuperHeroSummary(SuperHeroSummary superHero) {
+      superHeroSummary = superHero;
+    }
+
+    @Override public void showSuperHero(SuperHero superHero) {
+      this.superHero = superHero;
+    }
+  }
+}
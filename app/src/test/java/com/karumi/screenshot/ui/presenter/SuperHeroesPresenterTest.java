@@ -0,0 +1,588 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.ui.presenter;
+
+import com.karumi.screenshot.executor.TestScheduler;
+import com.karumi.screenshot.metrics.MetricsRegistry;
+import com.karumi.screenshot.model.CachedSuperHeroesRepository;
+import com.karumi.screenshot.model.FakeSuperHeroesRepository;
+import com.karumi.screenshot.model.InMemorySuperHeroesCatalogue;
+import com.karumi.screenshot.model.SuperHero;
+import com.karumi.screenshot.model.SuperHeroChange;
+import com.karumi.screenshot.model.SuperHeroSummary;
+import com.karumi.screenshot.model.SuperHeroesDiskCache;
+import com.karumi.screenshot.model.SuperHeroesFilter;
+import com.karumi.screenshot.model.SuperHeroesRepository;
+import com.karumi.screenshot.model.SuperHeroesRepositoryException;
+import com.karumi.screenshot.usecase.GetFilteredSuperHeroesPage;
+import com.karumi.screenshot.usecase.GetSuperHeroes;
+import com.karumi.screenshot.usecase.GetSuperHeroesPage;
+import com.karumi.screenshot.usecase.ObserveSuperHeroes;
+import com.karumi.screenshot.usecase.SearchSuperHeroes;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SuperHeroesPresenterTest {
+
+  private static final long LIVE_CHANGES_DELIVERY_MILLIS = TimeUnit.SECONDS.toMillis(1);
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  private final TestScheduler scheduler = new TestScheduler();
+  private final TestScheduler liveChangesScheduler = new TestScheduler();
+  private final RecordingView view = new RecordingView();
+
+  @Test public void showsTheFirstPageAndHidesTheLoading() {
+    SuperHeroesPresenter presenter = givenThereAreSomeSuperHeroes(12);
+
+    initialize(presenter);
+
+    assertEquals(12, view.pages.get(0).size());
+    assertTrue(view.loadingHidden);
+    assertFalse(view.emptyCaseShown);
+  }
+
+  @Test public void prefetchesTheNextPage() {
+    SuperHeroesPresenter presenter = givenThereAreSomeSuperHeroes(30);
+
+    initialize(presenter);
+
+    assertEquals(20, view.pages.get(0).size());
+    assertEquals(10, view.pages.get(1).size());
+  }
+
+  @Test public void showsTheEmptyCaseIfThereAreNoSuperHeroes() {
+    SuperHeroesPresenter presenter = givenThereAreSomeSuperHeroes(0);
+
+    initialize(presenter);
+
+    assertTrue(view.loadingHidden);
+    assertTrue(view.emptyCaseShown);
+    assertTrue(view.pages.isEmpty());
+  }
+
+  @Test public void showsAnErrorIfTheSuperHeroesCanNotBeLoaded() {
+    FakeSuperHeroesRepository repository = givenARepository(12);
+    repository.failWith(new SuperHeroesRepositoryException("Network error"));
+    SuperHeroesPresenter presenter = givenAPresenter(repository);
+
+    initialize(presenter);
+
+    assertTrue(view.loadingHidden);
+    assertTrue(view.errorShown);
+    assertFalse(view.emptyCaseShown);
+    assertTrue(view.pages.isEmpty());
+  }
+
+  @Test public void loadsTheSuperHeroesAgainWhenRetryIsClicked() {
+    FakeSuperHeroesRepository repository = givenARepository(12);
+    repository.failWith(new SuperHeroesRepositoryException("Network error"));
+    SuperHeroesPresenter presenter = givenAPresenter(repository);
+    initialize(presenter);
+    repository.failWith(null);
+
+    presenter.onRetryClicked();
+
+    assertFalse(view.errorShown);
+    assertTrue(view.loadingShown);
+    scheduler.triggerActions();
+    assertEquals(12, view.pages.get(0).size());
+    assertFalse(view.emptyCaseShown);
+  }
+
+  @Test public void showsTheErrorAgainIfTheRetryFails() {
+    FakeSuperHeroesRepository repository = givenARepository(12);
+    repository.failWith(new SuperHeroesRepositoryException("Network error"));
+    SuperHeroesPresenter presenter = givenAPresenter(repository);
+    initialize(presenter);
+
+    presenter.onRetryClicked();
+    scheduler.triggerActions();
+
+    assertTrue(view.errorShown);
+    assertEquals(2, repository.getCalls());
+  }
+
+  @Test public void ignoresRetriesIfNothingFailed() {
+    FakeSuperHeroesRepository repository = givenARepository(12);
+    SuperHeroesPresenter presenter = givenAPresenter(repository);
+    initialize(presenter);
+    int calls = repository.getCalls();
+
+    presenter.onRetryClicked();
+    scheduler.triggerActions();
+
+    assertEquals(calls, repository.getCalls());
+    assertFalse(view.loadingShown);
+  }
+
+  @Test public void removesThePagesFarFromTheVisibleOnesWhileScrolling() {
+    SuperHeroesPresenter presenter = givenThereAreSomeSuperHeroes(200);
+    initialize(presenter);
+
+    scrollTo(presenter, 120);
+
+    assertFalse(view.pages.containsKey(0));
+    assertFalse(view.pages.containsKey(1));
+    assertFalse(view.pages.containsKey(2));
+    assertTrue(view.pages.containsKey(4));
+    assertTrue(view.pages.containsKey(7));
+    assertEquals(4, view.pages.size());
+  }
+
+  @Test public void loadsAgainARemovedPageWhenItBecomesVisible() {
+    FakeSuperHeroesRepository repository = givenARepository(200);
+    SuperHeroesPresenter presenter = givenAPresenter(repository);
+    initialize(presenter);
+    scrollTo(presenter, 120);
+    int calls = repository.getCalls();
+
+    presenter.onSuperHeroesScrolled(0, 9);
+    scheduler.triggerActions();
+
+    assertEquals(20, view.pages.get(0).size());
+    assertEquals("SuperHero - 0", view.pages.get(0).get(0).getName());
+    assertEquals(20, view.pages.get(1).size());
+    assertEquals(calls + 2, repository.getCalls());
+    assertFalse(view.pages.containsKey(6));
+  }
+
+  @Test public void showsTheLiveChangesOfAPageLoadedAgainAfterItWasRemoved() {
+    FakeSuperHeroesRepository repository = givenARepository(200);
+    SuperHeroesPresenter presenter = givenAPresenter(repository);
+    initialize(presenter);
+    scrollTo(presenter, 120);
+
+    presenter.onSuperHeroesScrolled(0, 9);
+    repository.publish(SuperHeroChange.removed("SuperHero - 3"));
+    scheduler.triggerActions();
+    deliverLiveChanges();
+
+    assertEquals(19, view.pages.get(0).size());
+    assertEquals("SuperHero - 4", view.pages.get(0).get(3).getName());
+  }
+
+  @Test public void keepsTheLiveChangesOfACachedPageLoadedAgainAfterItWasRemoved()
+      throws IOException {
+    FakeSuperHeroesRepository repository = givenARepository(200);
+    CachedSuperHeroesRepository cache = givenACache(repository);
+    SuperHeroesPresenter presenter = givenAPresenter(cache, repository.getSuperHeroes());
+    initialize(presenter);
+    repository.publish(SuperHeroChange.removed("SuperHero - 3"));
+    deliverLiveChanges();
+    scrollTo(presenter, 120);
+    int calls = repository.getCalls();
+
+    presenter.onSuperHeroesScrolled(0, 9);
+    scheduler.triggerActions();
+
+    assertEquals(calls, repository.getCalls());
+    assertEquals(19, view.pages.get(0).size());
+    assertEquals("SuperHero - 4", view.pages.get(0).get(3).getName());
+  }
+
+  @Test public void showsOnlyTheSuperHeroesMatchingTheFilter() {
+    SuperHeroesPresenter presenter = givenThereAreSomeSuperHeroes(12);
+    presenter.setFilter(SuperHeroesFilter.avengersOnly());
+
+    initialize(presenter);
+
+    assertEquals(6, view.pages.get(0).size());
+    assertOnlyAvengersAreShown();
+  }
+
+  @Test public void loadsTheListAgainFromItsFirstPageWhenTheFilterChanges() {
+    SuperHeroesPresenter presenter = givenThereAreSomeSuperHeroes(50);
+    initialize(presenter);
+    presenter.onSuperHeroesScrolled(20, 39);
+    scheduler.triggerActions();
+
+    presenter.setFilter(SuperHeroesFilter.avengersOnly());
+
+    assertTrue(view.cleared);
+    assertTrue(view.loadingShown);
+    scheduler.triggerActions();
+    assertEquals(20, view.pages.get(0).size());
+    assertEquals(5, view.pages.get(1).size());
+    assertEquals(2, view.pages.size());
+    assertOnlyAvengersAreShown();
+  }
+
+  @Test public void ignoresThePagesLoadingWhenTheFilterChanges() {
+    SuperHeroesPresenter presenter = givenThereAreSomeSuperHeroes(30);
+    presenter.setView(view);
+    presenter.initialize();
+
+    presenter.setFilter(SuperHeroesFilter.avengersOnly());
+    scheduler.triggerActions();
+
+    assertEquals(15, view.pages.get(0).size());
+    assertEquals(1, view.pages.size());
+    assertOnlyAvengersAreShown();
+  }
+
+  @Test public void showsEverySuperHeroAgainOnceTheFilterIsCleared() {
+    SuperHeroesPresenter presenter = givenThereAreSomeSuperHeroes(12);
+    presenter.setFilter(SuperHeroesFilter.avengersOnly());
+    initialize(presenter);
+
+    presenter.setFilter(null);
+    scheduler.triggerActions();
+
+    assertEquals(12, view.pages.get(0).size());
+  }
+
+  @Test public void doesNotLoadTheListAgainIfTheFilterDoesNotChange() {
+    FakeSuperHeroesRepository repository = givenARepository(12);
+    SuperHeroesPresenter presenter = givenAPresenter(repository);
+    presenter.setFilter(SuperHeroesFilter.avengersOnly());
+    initialize(presenter);
+    int calls = repository.getCalls();
+
+    presenter.setFilter(SuperHeroesFilter.avengersOnly());
+    scheduler.triggerActions();
+
+    assertEquals(calls, repository.getCalls());
+    assertFalse(view.cleared);
+  }
+
+  @Test public void showsTheSuperHeroesMatchingTheQuery() {
+    SuperHeroesPresenter presenter = givenThereAreSomeSuperHeroes(30);
+    initialize(presenter);
+
+    presenter.search("17");
+
+    assertTrue(view.cleared);
+    assertTrue(view.loadingShown);
+    scheduler.triggerActions();
+    assertEquals(1, view.pages.size());
+    assertEquals("SuperHero - 17", view.pages.get(0).get(0).getName());
+    assertEquals(1, view.pages.get(0).size());
+  }
+
+  @Test public void showsOnlyTheSearchResultsMatchingTheFilter() {
+    SuperHeroesPresenter presenter = givenThereAreSomeSuperHeroes(30);
+    presenter.setFilter(SuperHeroesFilter.avengersOnly());
+    initialize(presenter);
+
+    presenter.search("17");
+    scheduler.triggerActions();
+
+    assertTrue(view.emptyCaseShown);
+    assertTrue(view.pages.isEmpty());
+  }
+
+  @Test public void showsTheWholeListAgainOnceTheQueryIsCleared() {
+    SuperHeroesPresenter presenter = givenThereAreSomeSuperHeroes(30);
+    initialize(presenter);
+    presenter.search("17");
+    scheduler.triggerActions();
+
+    presenter.search(" ");
+    scheduler.triggerActions();
+
+    assertFalse(view.emptyCaseShown);
+    assertEquals(20, view.pages.get(0).size());
+    assertEquals(10, view.pages.get(1).size());
+  }
+
+  @Test public void doesNotRenderAnythingOnceDestroyed() {
+    SuperHeroesPresenter presenter = givenThereAreSomeSuperHeroes(12);
+    presenter.setView(view);
+    presenter.initialize();
+
+    presenter.destroy();
+    scheduler.triggerActions();
+
+    assertFalse(view.loadingHidden);
+    assertTrue(view.pages.isEmpty());
+  }
+
+  @Test public void updatesASuperHeroOnScreenWithoutReloadingTheList() {
+    FakeSuperHeroesRepository repository = givenARepository(12);
+    SuperHeroesPresenter presenter = givenAPresenter(repository);
+    initialize(presenter);
+    int repositoryCalls = repository.getCalls();
+
+    SuperHero superHero = new SuperHero("SuperHero - 3", "photo", true, "Description");
+    repository.publish(SuperHeroChange.updated(superHero));
+    deliverLiveChanges();
+
+    assertEquals(12, view.pages.get(0).size());
+    assertEquals(superHero.toSummary(), view.pages.get(0).get(3));
+    assertEquals(repositoryCalls, repository.getCalls());
+  }
+
+  @Test public void removesASuperHeroFromTheScreen() {
+    FakeSuperHeroesRepository repository = givenARepository(12);
+    SuperHeroesPresenter presenter = givenAPresenter(repository);
+    initialize(presenter);
+
+    repository.publish(SuperHeroChange.removed("SuperHero - 3"));
+    deliverLiveChanges();
+
+    assertEquals(11, view.pages.get(0).size());
+    assertEquals("SuperHero - 4", view.pages.get(0).get(3).getName());
+  }
+
+  @Test public void addsNewSuperHeroesAtTheEndOfTheList() {
+    FakeSuperHeroesRepository repository = givenARepository(12);
+    SuperHeroesPresenter presenter = givenAPresenter(repository);
+    initialize(presenter);
+
+    SuperHero superHero = new SuperHero("New SuperHero", null, false, "Description");
+    repository.publish(SuperHeroChange.added(superHero));
+    deliverLiveChanges();
+
+    assertEquals(13, view.pages.get(0).size());
+    assertEquals(superHero.toSummary(), view.pages.get(0).get(12));
+  }
+
+  @Test public void addsNewSuperHeroesPublishedWhileTheLastPageIsLoading() {
+    FakeSuperHeroesRepository repository = givenARepository(60);
+    SuperHeroesPresenter presenter = givenAPresenter(repository);
+    initialize(presenter);
+
+    presenter.onSuperHeroesScrolled(40, 49);
+    SuperHero superHero = new SuperHero("New SuperHero", null, false, "Description");
+    repository.publish(SuperHeroChange.added(superHero));
+    deliverLiveChanges();
+    scheduler.triggerActions();
+
+    assertEquals(20, view.pages.get(1).size());
+    assertEquals(21, view.pages.get(2).size());
+    assertEquals(superHero.toSummary(), view.pages.get(2).get(20));
+  }
+
+  @Test public void appliesLiveChangesPublishedWhileAPageIsLoading() {
+    FakeSuperHeroesRepository repository = givenARepository(60);
+    SuperHeroesPresenter presenter = givenAPresenter(repository);
+    initialize(presenter);
+
+    presenter.onSuperHeroesScrolled(40, 49);
+    SuperHero superHero = new SuperHero("SuperHero - 45", "photo", false, "Description");
+    repository.publish(SuperHeroChange.updated(superHero));
+    deliverLiveChanges();
+    scheduler.triggerActions();
+
+    assertEquals(superHero.toSummary(), view.pages.get(2).get(5));
+  }
+
+  @Test public void forgetsLiveChangesOnceNoPageIsLoading() {
+    FakeSuperHeroesRepository repository = givenARepository(60);
+    SuperHeroesPresenter presenter = givenAPresenter(repository);
+    initialize(presenter);
+
+    repository.publish(SuperHeroChange.removed("SuperHero - 45"));
+    deliverLiveChanges();
+    presenter.onSuperHeroesScrolled(40, 49);
+    scheduler.triggerActions();
+
+    assertEquals(20, view.pages.get(2).size());
+    assertEquals("SuperHero - 45", view.pages.get(2).get(5).getName());
+  }
+
+  @Test public void updatesInPlaceASuperHeroRemovedAndAddedAgainInTheSameBatch() {
+    FakeSuperHeroesRepository repository = givenARepository(12);
+    SuperHeroesPresenter presenter = givenAPresenter(repository);
+    initialize(presenter);
+
+    SuperHero superHero = new SuperHero("SuperHero - 3", "photo", true, "Description");
+    repository.publish(SuperHeroChange.removed("SuperHero - 3"),
+        SuperHeroChange.added(superHero));
+    deliverLiveChanges();
+
+    assertEquals(12, view.pages.get(0).size());
+    assertEquals(superHero.toSummary(), view.pages.get(0).get(3));
+  }
+
+  @Test public void doesNotDuplicateASuperHeroAddedWhileItIsListedInAnotherPage() {
+    FakeSuperHeroesRepository repository = givenARepository(30);
+    SuperHeroesPresenter presenter = givenAPresenter(repository);
+    initialize(presenter);
+
+    SuperHero superHero = new SuperHero("SuperHero - 3", "photo", true, "Description");
+    repository.publish(SuperHeroChange.added(superHero));
+    deliverLiveChanges();
+
+    assertEquals(superHero.toSummary(), view.pages.get(0).get(3));
+    assertEquals(10, view.pages.get(1).size());
+  }
+
+  @Test public void showsTheEmptyCaseOnceEverySuperHeroIsRemoved() {
+    FakeSuperHeroesRepository repository = givenARepository(1);
+    SuperHeroesPresenter presenter = givenAPresenter(repository);
+    initialize(presenter);
+
+    repository.publish(SuperHeroChange.removed("SuperHero - 0"));
+    deliverLiveChanges();
+
+    assertTrue(view.emptyCaseShown);
+  }
+
+  @Test public void hidesTheEmptyCaseWhenASuperHeroIsAdded() {
+    FakeSuperHeroesRepository repository = givenARepository(0);
+    SuperHeroesPresenter presenter = givenAPresenter(repository);
+    initialize(presenter);
+
+    repository.publish(
+        SuperHeroChange.added(new SuperHero("New SuperHero", null, false, "Description")));
+    deliverLiveChanges();
+
+    assertFalse(view.emptyCaseShown);
+    assertEquals(1, view.pages.get(0).size());
+  }
+
+  @Test public void stopsApplyingLiveChangesOnceDestroyed() {
+    FakeSuperHeroesRepository repository = givenARepository(12);
+    SuperHeroesPresenter presenter = givenAPresenter(repository);
+    initialize(presenter);
+    presenter.destroy();
+
+    repository.publish(SuperHeroChange.removed("SuperHero - 3"));
+    deliverLiveChanges();
+
+    assertEquals(12, view.pages.get(0).size());
+  }
+
+  private void assertOnlyAvengersAreShown() {
+    for (List<SuperHeroSummary> page : view.pages.values()) {
+      for (SuperHeroSummary superHero : page) {
+        assertTrue(superHero.getName(), superHero.isAvenger());
+      }
+    }
+  }
+
+  /**
+   * Scrolls ten rows at a time, like a user would, until the given position is the first one
+   * visible.
+   */
+  private void scrollTo(SuperHeroesPresenter presenter, int firstVisiblePosition) {
+    for (int position = 0; position <= firstVisiblePosition; position += 10) {
+      presenter.onSuperHeroesScrolled(position, position + 9);
+      scheduler.triggerActions();
+    }
+  }
+
+  private void deliverLiveChanges() {
+    liveChangesScheduler.advanceTimeBy(LIVE_CHANGES_DELIVERY_MILLIS);
+  }
+
+  private void initialize(SuperHeroesPresenter presenter) {
+    presenter.setView(view);
+    presenter.initialize();
+    scheduler.triggerActions();
+  }
+
+  private SuperHeroesPresenter givenThereAreSomeSuperHeroes(int numberOfSuperHeroes) {
+    return givenAPresenter(givenARepository(numberOfSuperHeroes));
+  }
+
+  private FakeSuperHeroesRepository givenARepository(int numberOfSuperHeroes) {
+    return new FakeSuperHeroesRepository(
+        FakeSuperHeroesRepository.createSuperHeroes(numberOfSuperHeroes));
+  }
+
+  private CachedSuperHeroesRepository givenACache(SuperHeroesRepository repository)
+      throws IOException {
+    Executor executor = new Executor() {
+      @Override public void execute(Runnable command) {
+        scheduler.execute(command);
+      }
+    };
+    return new CachedSuperHeroesRepository(repository,
+        new SuperHeroesDiskCache(folder.newFolder("cache")), executor);
+  }
+
+  private SuperHeroesPresenter givenAPresenter(FakeSuperHeroesRepository repository) {
+    return givenAPresenter(repository, repository.getSuperHeroes());
+  }
+
+  private SuperHeroesPresenter givenAPresenter(SuperHeroesRepository repository,
+      List<SuperHero> superHeroes) {
+    MetricsRegistry metrics = new MetricsRegistry();
+    return new SuperHeroesPresenter(new GetSuperHeroes(repository, scheduler, metrics),
+        new GetSuperHeroesPage(repository, scheduler),
+        new GetFilteredSuperHeroesPage(repository, scheduler),
+        new ObserveSuperHeroes(repository, liveChangesScheduler, metrics),
+        new SearchSuperHeroes(new InMemorySuperHeroesCatalogue(superHeroes),
+            scheduler), metrics);
+  }
+
+  private static class RecordingView implements SuperHeroesPresenter.View {
+
+    private final Map<Integer, List<SuperHeroSummary>> pages = new TreeMap<>();
+    private boolean loadingShown;
+    private boolean loadingHidden;
+    private boolean emptyCaseShown;
+    private boolean errorShown;
+    private boolean cleared;
+
+    @Override public void showLoading() {
+      loadingShown = true;
+      loadingHidden = false;
+    }
+
+    @Override public void hideLoading() {
+      loadingShown = false;
+      loadingHidden = true;
+    }
+
+    @Override public void showError() {
+      errorShown = true;
+    }
+
+    @Override public void hideError() {
+      errorShown = false;
+    }
+
+    @Override public void showEmptyCase() {
+      emptyCaseShown = true;
+    }
+
+    @Override public void hideEmptyCase() {
+      emptyCaseShown = false;
+    }
+
+    @Override public void showSuperHeroesPage(int pageIndex, List<SuperHeroSummary> superHeroes) {
+      pages.put(pageIndex, superHeroes);
+    }
+
+    @Override public void removeSuperHeroesPage(int pageIndex) {
+      pages.remove(pageIndex);
+    }
+
+    @Override public void clearSuperHeroes() {
+      pages.clear();
+      cleared = true;
+    }
+
+    @Override public void openSuperHeroScreen(SuperHeroSummary superHero) {
+    }
+  }
+}
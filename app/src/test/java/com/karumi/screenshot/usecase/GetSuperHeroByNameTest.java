@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.usecase;
+
+import com.karumi.screenshot.executor.TestScheduler;
+import com.karumi.screenshot.metrics.MetricsRegistry;
+import com.karumi.screenshot.model.FakeSuperHeroesRepository;
+import com.karumi.screenshot.model.SuperHero;
+import com.karumi.screenshot.model.SuperHeroesRepositoryException;
+import java.util.List;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class GetSuperHeroByNameTest {
+
+  private final TestScheduler scheduler = new TestScheduler();
+
+  @Test public void deliversTheSuperHeroWithTheGivenName() {
+    List<SuperHero> superHeroes = FakeSuperHeroesRepository.createSuperHeroes(3);
+    FakeSuperHeroesRepository repository = new FakeSuperHeroesRepository(superHeroes);
+    RecordingCallback callback = new RecordingCallback();
+
+    givenGetSuperHeroByName(repository).get(superHeroes.get(1).getName(), callback);
+    scheduler.triggerActions();
+
+    assertEquals(superHeroes.get(1), callback.superHero);
+  }
+
+  @Test public void loadsTheSuperHeroOnceForConcurrentCallsWithTheSameName() {
+    List<SuperHero> superHeroes = FakeSuperHeroesRepository.createSuperHeroes(3);
+    FakeSuperHeroesRepository repository = new FakeSuperHeroesRepository(superHeroes);
+    GetSuperHeroByName getSuperHeroByName = givenGetSuperHeroByName(repository);
+    String name = superHeroes.get(0).getName();
+
+    getSuperHeroByName.get(name, new RecordingCallback());
+    getSuperHeroByName.get(name, new RecordingCallback());
+    getSuperHeroByName.get(superHeroes.get(2).getName(), new RecordingCallback());
+    scheduler.triggerActions();
+
+    assertEquals(2, repository.getCalls());
+  }
+
+  @Test public void deliversTheRepositoryErrors() {
+    List<SuperHero> superHeroes = FakeSuperHeroesRepository.createSuperHeroes(3);
+    FakeSuperHeroesRepository repository = new FakeSuperHeroesRepository(superHeroes);
+    SuperHeroesRepositoryException error = new SuperHeroesRepositoryException("Network error");
+    repository.failWith(error);
+    RecordingCallback callback = new RecordingCallback();
+
+    givenGetSuperHeroByName(repository).get(superHeroes.get(0).getName(), callback);
+    scheduler.triggerActions();
+
+    assertSame(error, callback.error);
+    assertNull(callback.superHero);
+  }
+
+  @Test public void loadsTheSuperHeroAgainAfterARejectedLoad() {
+    List<SuperHero> superHeroes = FakeSuperHeroesRepository.createSuperHeroes(3);
+    GetSuperHeroByName getSuperHeroByName =
+        givenGetSuperHeroByName(new FakeSuperHeroesRepository(superHeroes));
+    String name = superHeroes.get(0).getName();
+    RecordingCallback rejectedCallback = new RecordingCallback();
+    RecordingCallback callback = new RecordingCallback();
+
+    scheduler.rejectExecutions(true);
+    getSuperHeroByName.get(name, rejectedCallback);
+    scheduler.rejectExecutions(false);
+    getSuperHeroByName.get(name, callback);
+    scheduler.triggerActions();
+
+    assertNotNull(rejectedCallback.error);
+    assertEquals(superHeroes.get(0), callback.superHero);
+  }
+
+  private GetSuperHeroByName givenGetSuperHeroByName(FakeSuperHeroesRepository repository) {
+    return new GetSuperHeroByName(repository, scheduler, new MetricsRegistry());
+  }
+
+  private static class RecordingCallback implements GetSuperHeroByName.Callback {
+
+    private SuperHero superHero;
+    private SuperHeroesRepositoryException error;
+
+    @Override public void onSuperHeroLoaded(SuperHero superHero) {
+      this.superHero = superHero;
+    }
+
+    @Override public void onError(SuperHeroesRepositoryException error) {
+      this.error = error;
+    }
+  }
+}
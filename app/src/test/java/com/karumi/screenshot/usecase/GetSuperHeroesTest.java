@@ -0,0 +1,307 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.usecase;
+
+import com.karumi.screenshot.executor.TestScheduler;
+import com.karumi.screenshot.metrics.MetricsRegistry;
+import com.karumi.screenshot.model.FakeSuperHeroesRepository;
+import com.karumi.screenshot.model.SuperHero;
+import com.karumi.screenshot.model.SuperHeroSummary;
+import com.karumi.screenshot.model.SuperHeroesChunkReader;
+import com.karumi.screenshot.model.SuperHeroesPage;
+import com.karumi.screenshot.model.SuperHeroesRepositoryException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class GetSuperHeroesTest {
+
+  private final TestScheduler scheduler = new TestScheduler();
+
+  @Test public void doesNotDeliverTheSuperHeroesUntilTheSchedulerRuns() {
+    GetSuperHeroes getSuperHeroes = givenThereAreSomeSuperHeroes(3);
+    RecordingCallback callback = new RecordingCallback();
+
+    Cancellable call = getSuperHeroes.getAll(callback);
+
+    assertNull(callback.superHeroes);
+    assertFalse(call.isFinished());
+  }
+
+  @Test public void deliversTheSuperHeroesOnceTheSchedulerRuns() {
+    GetSuperHeroes getSuperHeroes = givenThereAreSomeSuperHeroes(3);
+    RecordingCallback callback = new RecordingCallback();
+
+    Cancellable call = getSuperHeroes.getAll(callback);
+    scheduler.triggerActions();
+
+    assertEquals(3, callback.superHeroes.size());
+    assertTrue(call.isFinished());
+  }
+
+  @Test public void loadsTheSuperHeroesOnceForConcurrentCalls() {
+    FakeSuperHeroesRepository repository = givenARepository(3);
+    GetSuperHeroes getSuperHeroes = givenGetSuperHeroes(repository);
+    RecordingCallback firstCallback = new RecordingCallback();
+    RecordingCallback secondCallback = new RecordingCallback();
+
+    getSuperHeroes.getAll(firstCallback);
+    getSuperHeroes.getAll(secondCallback);
+    scheduler.triggerActions();
+
+    assertEquals(1, repository.getCalls());
+    assertSame(firstCallback.superHeroes, secondCallback.superHeroes);
+  }
+
+  @Test public void doesNotLoadTheSuperHeroesIfTheCallIsCancelledBeforeItStarts() {
+    FakeSuperHeroesRepository repository = givenARepository(3);
+    GetSuperHeroes getSuperHeroes = givenGetSuperHeroes(repository);
+    RecordingCallback callback = new RecordingCallback();
+
+    getSuperHeroes.getAll(callback).cancel();
+    scheduler.triggerActions();
+
+    assertEquals(0, repository.getCalls());
+    assertNull(callback.superHeroes);
+  }
+
+  @Test public void deliversTheRepositoryErrors() {
+    FakeSuperHeroesRepository repository = givenARepository(3);
+    SuperHeroesRepositoryException error = new SuperHeroesRepositoryException("Network error");
+    repository.failWith(error);
+    GetSuperHeroes getSuperHeroes = givenGetSuperHeroes(repository);
+    RecordingCallback callback = new RecordingCallback();
+
+    getSuperHeroes.getAll(callback);
+    scheduler.triggerActions();
+
+    assertSame(error, callback.error);
+    assertNull(callback.superHeroes);
+  }
+
+  @Test public void deliversUnexpectedFailuresToEveryCoalescedCall() {
+    FakeSuperHeroesRepository repository = givenARepository(3);
+    IllegalStateException failure = new IllegalStateException("Corrupted catalogue");
+    repository.failWith(failure);
+    GetSuperHeroes getSuperHeroes = givenGetSuperHeroes(repository);
+    RecordingCallback firstCallback = new RecordingCallback();
+    RecordingCallback secondCallback = new RecordingCallback();
+
+    getSuperHeroes.getAll(firstCallback);
+    getSuperHeroes.getAll(secondCallback);
+    scheduler.triggerActions();
+
+    assertSame(failure, firstCallback.error.getCause());
+    assertSame(firstCallback.error, secondCallback.error);
+  }
+
+  @Test public void startsANewLoadAfterAnUnexpectedFailure() {
+    FakeSuperHeroesRepository repository = givenARepository(3);
+    GetSuperHeroes getSuperHeroes = givenGetSuperHeroes(repository);
+    repository.failWith(new IllegalStateException("Corrupted catalogue"));
+    getSuperHeroes.getAll(new RecordingCallback());
+    scheduler.triggerActions();
+    RecordingCallback callback = new RecordingCallback();
+
+    repository.failWith(null);
+    getSuperHeroes.getAll(callback);
+    scheduler.triggerActions();
+
+    assertEquals(2, repository.getCalls());
+    assertEquals(3, callback.superHeroes.size());
+  }
+
+  @Test public void startsANewLoadForCallsAddedWhileAnErrorIsDelivered() {
+    final FakeSuperHeroesRepository repository = givenARepository(3);
+    repository.failWith(new SuperHeroesRepositoryException("Network error"));
+    TestScheduler scheduler = new ImmediatePostScheduler();
+    final GetSuperHeroes getSuperHeroes =
+        new GetSuperHeroes(repository, scheduler, new MetricsRegistry());
+    final RecordingCallback retryCallback = new RecordingCallback();
+
+    getSuperHeroes.getAll(new RecordingCallback() {
+      @Override public void onError(SuperHeroesRepositoryException error) {
+        repository.failWith(null);
+        getSuperHeroes.getAll(retryCallback);
+      }
+    });
+    scheduler.triggerActions();
+
+    assertEquals(2, repository.getCalls());
+    assertEquals(3, retryCallback.superHeroes.size());
+  }
+
+  @Test public void deliversStreamFailuresAsErrors() {
+    FakeSuperHeroesRepository repository = givenARepository(10);
+    repository.failWith(new IllegalStateException("Corrupted catalogue"));
+    RecordingStreamCallback callback = new RecordingStreamCallback();
+
+    givenGetSuperHeroes(repository).stream(null, 20, 4, callback);
+    scheduler.triggerActions();
+
+    assertNotNull(callback.error);
+    assertFalse(callback.completed);
+  }
+
+  @Test public void deliversAnErrorIfTheLoadIsRejected() {
+    GetSuperHeroes getSuperHeroes = givenThereAreSomeSuperHeroes(3);
+    RecordingCallback callback = new RecordingCallback();
+    scheduler.rejectExecutions(true);
+
+    Cancellable call = getSuperHeroes.getAll(callback);
+    scheduler.triggerActions();
+
+    assertNotNull(callback.error);
+    assertTrue(call.isFinished());
+  }
+
+  @Test public void startsANewLoadAfterARejectedOne() {
+    FakeSuperHeroesRepository repository = givenARepository(3);
+    GetSuperHeroes getSuperHeroes = givenGetSuperHeroes(repository);
+    scheduler.rejectExecutions(true);
+    getSuperHeroes.getAll(new RecordingCallback());
+    scheduler.triggerActions();
+    RecordingCallback callback = new RecordingCallback();
+
+    scheduler.rejectExecutions(false);
+    getSuperHeroes.getAll(callback);
+    scheduler.triggerActions();
+
+    assertEquals(1, repository.getCalls());
+    assertEquals(3, callback.superHeroes.size());
+  }
+
+  @Test public void streamsTheSuperHeroesInChunksReadInOneRepositoryCall() {
+    FakeSuperHeroesRepository repository = givenARepository(10);
+    GetSuperHeroes getSuperHeroes = givenGetSuperHeroes(repository);
+    RecordingStreamCallback callback = new RecordingStreamCallback();
+
+    getSuperHeroes.stream(null, 20, 4, callback);
+    scheduler.triggerActions();
+
+    assertEquals(1, repository.getCalls());
+
+    assertEquals(3, callback.chunks.size());
+    assertEquals(4, callback.chunks.get(0).size());
+    assertEquals(2, callback.chunks.get(2).size());
+    assertTrue(callback.completed);
+    assertNull(callback.nextCursor);
+  }
+
+  @Test public void postsEveryChunkAsSoonAsTheRepositoryReadsIt() {
+    final RecordingStreamCallback callback = new RecordingStreamCallback();
+    final List<Integer> chunksDeliveredBeforeEveryRead = new ArrayList<>();
+    FakeSuperHeroesRepository repository =
+        new FakeSuperHeroesRepository(FakeSuperHeroesRepository.createSuperHeroes(10)) {
+          @Override public SuperHeroesPage readSummariesPage(String cursor, int limit,
+              int chunkSize, final SuperHeroesChunkReader reader) {
+            return super.readSummariesPage(cursor, limit, chunkSize, new SuperHeroesChunkReader() {
+              @Override public void onChunkRead(List<SuperHeroSummary> superHeroes) {
+                chunksDeliveredBeforeEveryRead.add(callback.chunks.size());
+                reader.onChunkRead(superHeroes);
+              }
+            });
+          }
+        };
+    TestScheduler scheduler = new ImmediatePostScheduler();
+
+    new GetSuperHeroes(repository, scheduler, new MetricsRegistry()).stream(null, 20, 4, callback);
+    scheduler.triggerActions();
+
+    assertEquals(Arrays.asList(0, 1, 2), chunksDeliveredBeforeEveryRead);
+    assertEquals(3, callback.chunks.size());
+    assertTrue(callback.completed);
+  }
+
+  @Test public void stopsStreamingAtTheLimit() {
+    GetSuperHeroes getSuperHeroes = givenThereAreSomeSuperHeroes(10);
+    RecordingStreamCallback callback = new RecordingStreamCallback();
+
+    getSuperHeroes.stream(null, 8, 4, callback);
+    scheduler.triggerActions();
+
+    assertEquals(2, callback.chunks.size());
+    assertEquals("8", callback.nextCursor);
+  }
+
+  private GetSuperHeroes givenThereAreSomeSuperHeroes(int numberOfSuperHeroes) {
+    return givenGetSuperHeroes(givenARepository(numberOfSuperHeroes));
+  }
+
+  private FakeSuperHeroesRepository givenARepository(int numberOfSuperHeroes) {
+    List<SuperHero> superHeroes = FakeSuperHeroesRepository.createSuperHeroes(numberOfSuperHeroes);
+    return new FakeSuperHeroesRepository(superHeroes);
+  }
+
+  private GetSuperHeroes givenGetSuperHeroes(FakeSuperHeroesRepository repository) {
+    return new GetSuperHeroes(repository, scheduler, new MetricsRegistry());
+  }
+
+  /**
+   * Runs the posts on the worker thread right away, like a main thread that handles them before
+   * the worker is done with the flight.
+   */
+  private static class ImmediatePostScheduler extends TestScheduler {
+
+    @Override public void post(Runnable task) {
+      task.run();
+    }
+  }
+
+  private static class RecordingCallback implements GetSuperHeroes.Callback {
+
+    private List<SuperHeroSummary> superHeroes;
+    private SuperHeroesRepositoryException error;
+
+    @Override public void onSuperHeroesLoaded(List<SuperHeroSummary> superHeroes) {
+      this.superHeroes = superHeroes;
+    }
+
+    @Override public void onError(SuperHeroesRepositoryException error) {
+      this.error = error;
+    }
+  }
+
+  private static class RecordingStreamCallback implements GetSuperHeroes.StreamCallback {
+
+    private final List<List<SuperHeroSummary>> chunks = new ArrayList<>();
+    private boolean completed;
+    private String nextCursor;
+    private SuperHeroesRepositoryException error;
+
+    @Override public void onSuperHeroesChunkLoaded(List<SuperHeroSummary> superHeroes) {
+      chunks.add(superHeroes);
+    }
+
+    @Override public void onSuperHeroesStreamCompleted(String nextCursor) {
+      this.completed = true;
+      this.nextCursor = nextCursor;
+    }
+
+    @Override public void onError(SuperHeroesRepositoryException error) {
+      this.error = error;
+    }
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.usecase;
+
+import com.karumi.screenshot.executor.TestScheduler;
+import com.karumi.screenshot.metrics.MetricsRegistry;
+import com.karumi.screenshot.model.FakeSuperHeroesRepository;
+import com.karumi.screenshot.model.SuperHero;
+import com.karumi.screenshot.model.SuperHeroChange;
+import com.karumi.screenshot.model.SuperHeroesObserver;
+import com.karumi.screenshot.model.SuperHeroesSubscription;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ObserveSuperHeroesTest {
+
+  private final TestScheduler scheduler = new TestScheduler();
+  private final FakeSuperHeroesRepository repository =
+      new FakeSuperHeroesRepository(new ArrayList<SuperHero>());
+  private final ObserveSuperHeroes observeSuperHeroes =
+      new ObserveSuperHeroes(repository, scheduler, new MetricsRegistry());
+  private final RecordingCallback callback = new RecordingCallback();
+
+  @Test public void doesNotDeliverAnyChangeBeforeTheCoalescingWindowCloses() {
+    observeSuperHeroes.observe(callback);
+
+    repository.publish(SuperHeroChange.added(givenASuperHero("Iron Man", true)));
+    scheduler.advanceTimeBy(ObserveSuperHeroes.COALESCING_WINDOW_MILLIS - 1);
+
+    assertTrue(callback.batches.isEmpty());
+  }
+
+  @Test public void deliversABurstOfChangesAsOneBatchWithOneChangePerSuperHero() {
+    observeSuperHeroes.observe(callback);
+    SuperHero latestIronMan = givenASuperHero("Iron Man", false);
+
+    repository.publish(SuperHeroChange.updated(givenASuperHero("Iron Man", true)));
+    repository.publish(SuperHeroChange.removed("Hulk"));
+    repository.publish(SuperHeroChange.updated(latestIronMan));
+    scheduler.advanceTimeBy(ObserveSuperHeroes.COALESCING_WINDOW_MILLIS);
+
+    assertEquals(1, callback.batches.size());
+    assertEquals(Arrays.asList(SuperHeroChange.updated(latestIronMan),
+        SuperHeroChange.removed("Hulk")), callback.batches.get(0));
+  }
+
+  @Test public void keepsAddedSuperHeroesAsAddedWhenTheyAreUpdatedInTheSameBurst() {
+    observeSuperHeroes.observe(callback);
+    SuperHero updatedThor = givenASuperHero("Thor", false);
+
+    repository.publish(SuperHeroChange.added(givenASuperHero("Thor", true)),
+        SuperHeroChange.updated(updatedThor));
+    scheduler.advanceTimeBy(ObserveSuperHeroes.COALESCING_WINDOW_MILLIS);
+
+    assertEquals(Arrays.asList(SuperHeroChange.added(updatedThor)), callback.batches.get(0));
+  }
+
+  @Test public void keepsTheRemovalOfASuperHeroAddedInTheSameBurst() {
+    observeSuperHeroes.observe(callback);
+
+    repository.publish(SuperHeroChange.added(givenASuperHero("Thor", true)));
+    repository.publish(SuperHeroChange.removed("Thor"));
+    scheduler.advanceTimeBy(ObserveSuperHeroes.COALESCING_WINDOW_MILLIS);
+
+    assertEquals(Arrays.asList(SuperHeroChange.removed("Thor")), callback.batches.get(0));
+  }
+
+  @Test public void deliversChangesPublishedAfterABatchInTheNextOne() {
+    observeSuperHeroes.observe(callback);
+
+    repository.publish(SuperHeroChange.removed("Hulk"));
+    scheduler.advanceTimeBy(ObserveSuperHeroes.COALESCING_WINDOW_MILLIS);
+    repository.publish(SuperHeroChange.removed("Thor"));
+    scheduler.advanceTimeBy(ObserveSuperHeroes.COALESCING_WINDOW_MILLIS);
+
+    assertEquals(2, callback.batches.size());
+    assertEquals(Arrays.asList(SuperHeroChange.removed("Thor")), callback.batches.get(1));
+  }
+
+  @Test public void keepsAtMostOneBatchWaitingForTheMainThread() {
+    observeSuperHeroes.observe(callback);
+
+    for (int i = 0; i < 1000; i++) {
+      repository.publish(SuperHeroChange.updated(givenASuperHero("Iron Man", i % 2 == 0)));
+    }
+
+    assertEquals(1, scheduler.getPendingTasks());
+  }
+
+  @Test public void doesNotDeliverAnyChangeOnceCancelled() {
+    Cancellable observation = observeSuperHeroes.observe(callback);
+    repository.publish(SuperHeroChange.removed("Hulk"));
+
+    observation.cancel();
+    repository.publish(SuperHeroChange.removed("Thor"));
+    scheduler.advanceTimeBy(ObserveSuperHeroes.COALESCING_WINDOW_MILLIS);
+
+    assertTrue(callback.batches.isEmpty());
+    assertEquals(0, scheduler.getPendingTasks());
+    assertTrue(observation.isFinished());
+  }
+
+  @Test public void cancelsObservationsOfRepositoriesWithoutSubscriptions() {
+    FakeSuperHeroesRepository repository = new FakeSuperHeroesRepository(
+        new ArrayList<SuperHero>()) {
+      @Override public SuperHeroesSubscription subscribe(SuperHeroesObserver observer) {
+        return null;
+      }
+    };
+    Cancellable observation =
+        new ObserveSuperHeroes(repository, scheduler, new MetricsRegistry()).observe(callback);
+
+    observation.cancel();
+
+    assertTrue(observation.isFinished());
+  }
+
+  private static SuperHero givenASuperHero(String name, boolean isAvenger) {
+    return new SuperHero(name, null, isAvenger, "Description");
+  }
+
+  private static class RecordingCallback implements ObserveSuperHeroes.Callback {
+
+    private final List<List<SuperHeroChange>> batches = new ArrayList<>();
+
+    @Override public void onSuperHeroesChanged(List<SuperHeroChange> changes) {
+      batches.add(changes);
+    }
+  }
+}
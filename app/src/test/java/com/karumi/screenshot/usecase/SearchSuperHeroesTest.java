@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.usecase;
+
+import com.karumi.screenshot.executor.TestScheduler;
+import com.karumi.screenshot.model.FakeSuperHeroesRepository;
+import com.karumi.screenshot.model.InMemorySuperHeroesCatalogue;
+import com.karumi.screenshot.model.SuperHero;
+import com.karumi.screenshot.model.SuperHeroSummary;
+import com.karumi.screenshot.model.SuperHeroesRepositoryException;
+import java.util.List;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SearchSuperHeroesTest {
+
+  private final TestScheduler scheduler = new TestScheduler();
+
+  @Test public void findsTheSuperHeroesMatchingTheQuery() {
+    SearchSuperHeroes searchSuperHeroes = givenSearchSuperHeroes(new FailingCatalogue(30, 0));
+    RecordingCallback callback = new RecordingCallback();
+
+    searchSuperHeroes.search("17", callback);
+    scheduler.triggerActions();
+
+    assertEquals(1, callback.superHeroes.size());
+    assertEquals("SuperHero - 17", callback.superHeroes.get(0).getName());
+    assertTrue(searchSuperHeroes.isIndexCompleted());
+  }
+
+  @Test public void buildsTheIndexAgainIfItCouldNotBeBuilt() {
+    SearchSuperHeroes searchSuperHeroes = givenSearchSuperHeroes(new FailingCatalogue(30, 1));
+    searchSuperHeroes.search("17", new RecordingCallback());
+    scheduler.triggerActions();
+    assertFalse(searchSuperHeroes.isIndexCompleted());
+    RecordingCallback callback = new RecordingCallback();
+
+    searchSuperHeroes.search("17", callback);
+    scheduler.triggerActions();
+
+    assertTrue(searchSuperHeroes.isIndexCompleted());
+    assertEquals(1, callback.superHeroes.size());
+    assertEquals("SuperHero - 17", callback.superHeroes.get(0).getName());
+  }
+
+  private SearchSuperHeroes givenSearchSuperHeroes(FailingCatalogue catalogue) {
+    return new SearchSuperHeroes(catalogue, scheduler);
+  }
+
+  /**
+   * Catalogue that fails halfway through the given number of index builds.
+   */
+  private static class FailingCatalogue extends InMemorySuperHeroesCatalogue {
+
+    private int failingBuilds;
+
+    FailingCatalogue(int size, int failingBuilds) {
+      super(FakeSuperHeroesRepository.createSuperHeroes(size));
+      this.failingBuilds = failingBuilds;
+    }
+
+    @Override public SuperHero get(int index) {
+      if (index == size() / 2 && failingBuilds > 0) {
+        failingBuilds--;
+        throw new IllegalStateException("Corrupted catalogue");
+      }
+      return super.get(index);
+    }
+  }
+
+  private static class RecordingCallback implements SearchSuperHeroes.Callback {
+
+    private List<SuperHeroSummary> superHeroes;
+
+    @Override public void onSuperHeroesFound(String query, List<SuperHeroSummary> superHeroes) {
+      this.superHeroes = superHeroes;
+    }
+
+    @Override public void onError(SuperHeroesRepositoryException exception) {
+    }
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.benchmark;
+
+import com.karumi.screenshot.ui.diff.ListDiff;
+import com.karumi.screenshot.ui.diff.ListDiffResult;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Cost of the adapter diff between two versions of a list, from a handful of edits to a full
+ * shuffle, which is the worst case of the algorithm.
+ */
+@State(Scope.Benchmark) @BenchmarkMode(Mode.AverageTime) @OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ListDiffBenchmark {
+
+  private static final long SEED = 42;
+  private static final int EDITS = 10;
+
+  private static final ListDiff.ItemCallback<String> ITEM_CALLBACK =
+      new ListDiff.ItemCallback<String>() {
+        @Override public Object getIdentity(String item) {
+          return item;
+        }
+
+        @Override public boolean haveSameContent(String oldItem, String newItem) {
+          return oldItem.equals(newItem);
+        }
+      };
+
+  @Param({ "100", "10000" }) public int size;
+  @Param({ "unchanged", "few-edits", "appended", "reversed", "shuffled" }) public String change;
+
+  private List<String> oldList;
+  private List<String> newList;
+
+  @Setup public void setUp() {
+    Random random = new Random(SEED);
+    oldList = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      oldList.add("Super Hero " + i);
+    }
+    newList = new ArrayList<>(oldList);
+    switch (change) {
+      case "unchanged":
+        break;
+      case "few-edits":
+        for (int i = 0; i < EDITS; i++) {
+          newList.remove(random.nextInt(newList.size()));
+          newList.add(random.nextInt(newList.size()), "New Super Hero " + i);
+        }
+        break;
+      case "appended":
+        for (int i = 0; i < size / 10; i++) {
+          newList.add("New Super Hero " + i);
+        }
+        break;
+      case "reversed":
+        Collections.reverse(newList);
+        break;
+      case "shuffled":
+        Collections.shuffle(newList, random);
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown change " + change);
+    }
+  }
+
+  @Benchmark public ListDiffResult calculate() {
+    return ListDiff.calculate(oldList, newList, ITEM_CALLBACK);
+  }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.benchmark;
+
+import com.karumi.screenshot.executor.Scheduler;
+import com.karumi.screenshot.metrics.MetricsRegistry;
+import com.karumi.screenshot.model.SuperHero;
+import com.karumi.screenshot.model.SuperHeroChange;
+import com.karumi.screenshot.model.SuperHeroSummary;
+import com.karumi.screenshot.model.SuperHeroesCatalogue;
+import com.karumi.screenshot.model.SuperHeroesChangeFeed;
+import com.karumi.screenshot.model.SuperHeroesRepository;
+import com.karumi.screenshot.ui.presenter.SuperHeroDetailPresenter;
+import com.karumi.screenshot.ui.presenter.SuperHeroesPresenter;
+import com.karumi.screenshot.usecase.GetFilteredSuperHeroesPage;
+import com.karumi.screenshot.usecase.GetSuperHeroByName;
+import com.karumi.screenshot.usecase.GetSuperHeroes;
+import com.karumi.screenshot.usecase.GetSuperHeroesPage;
+import com.karumi.screenshot.usecase.ObserveSuperHeroes;
+import com.karumi.screenshot.usecase.SearchSuperHeroes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Presenter callback paths with the use cases running inline, so every call measures the whole
+ * path from the presenter down to the repository and back to the view. Live changes are
+ * delivered without waiting for the coalescing window, so every published batch is applied.
+ */
+@State(Scope.Benchmark) @BenchmarkMode(Mode.AverageTime) @OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PresenterBenchmark {
+
+  private static final int VISIBLE_SUPER_HEROES = 10;
+  private static final int LIVE_CHANGES_PER_BATCH = 10;
+
+  @Param({ "12", "1000", "100000" }) public int catalogueSize;
+
+  private GetSuperHeroes getSuperHeroes;
+  private GetSuperHeroesPage getSuperHeroesPage;
+  private GetFilteredSuperHeroesPage getFilteredSuperHeroesPage;
+  private GetSuperHeroByName getSuperHeroByName;
+  private ObserveSuperHeroes observeSuperHeroes;
+  private SearchSuperHeroes searchSuperHeroes;
+  private MetricsRegistry metrics;
+  private SuperHeroesChangeFeed changeFeed;
+  private List<List<SuperHeroChange>> liveChangeBatches;
+  private SuperHeroesPresenter livePresenter;
+  private CountingView liveView;
+  private String[] names;
+  private int next;
+  private int nextLiveChangeBatch;
+
+  @Setup public void setUp() {
+    SuperHeroesCatalogue catalogue = SuperHeroesFixtures.createCatalogue(catalogueSize);
+    changeFeed = new SuperHeroesChangeFeed();
+    SuperHeroesRepository repository = SuperHeroesFixtures.createRepository(catalogue, changeFeed);
+    Scheduler scheduler = SuperHeroesFixtures.directScheduler();
+    metrics = new MetricsRegistry();
+    getSuperHeroes = new GetSuperHeroes(repository, scheduler, metrics);
+    getSuperHeroesPage = new GetSuperHeroesPage(repository, scheduler);
+    getFilteredSuperHeroesPage = new GetFilteredSuperHeroesPage(repository, scheduler);
+    getSuperHeroByName = new GetSuperHeroByName(repository, scheduler, metrics);
+    observeSuperHeroes = new ObserveSuperHeroes(repository, scheduler, metrics);
+    searchSuperHeroes = new SearchSuperHeroes(catalogue, scheduler);
+    names = new String[catalogue.size()];
+    for (int i = 0; i < names.length; i++) {
+      names[i] = catalogue.get(i).getName();
+    }
+    liveChangeBatches = createLiveChangeBatches(catalogue);
+    liveView = new CountingView();
+    livePresenter = createSuperHeroesPresenter(liveView);
+    livePresenter.initialize();
+  }
+
+  @TearDown public void tearDown() {
+    livePresenter.destroy();
+  }
+
+  @Benchmark public int initializeSuperHeroes() {
+    CountingView view = new CountingView();
+    SuperHeroesPresenter presenter = createSuperHeroesPresenter(view);
+    presenter.initialize();
+    presenter.destroy();
+    return view.shownSuperHeroes;
+  }
+
+  @Benchmark public int scrollSuperHeroes() {
+    CountingView view = new CountingView();
+    SuperHeroesPresenter presenter = createSuperHeroesPresenter(view);
+    presenter.initialize();
+    for (int first = 0; first < catalogueSize; first += VISIBLE_SUPER_HEROES) {
+      presenter.onSuperHeroesScrolled(first, first + VISIBLE_SUPER_HEROES - 1);
+    }
+    presenter.destroy();
+    return view.shownSuperHeroes;
+  }
+
+  /**
+   * Publishes a batch of updates of the super heroes on screen, toggling whether they are
+   * avengers, and returns how many super heroes the presenter shows again to apply it.
+   */
+  @Benchmark public int applyLiveChanges() {
+    int shownSuperHeroes = liveView.shownSuperHeroes;
+    nextLiveChangeBatch = (nextLiveChangeBatch + 1) % liveChangeBatches.size();
+    changeFeed.publish(liveChangeBatches.get(nextLiveChangeBatch));
+    return liveView.shownSuperHeroes - shownSuperHeroes;
+  }
+
+  @Benchmark public int initializeSuperHeroDetail() {
+    CountingView view = new CountingView();
+    SuperHeroDetailPresenter presenter = new SuperHeroDetailPresenter(getSuperHeroByName, metrics);
+    presenter.setView(view);
+    next = (next + 7919) % names.length;
+    presenter.setName(names[next]);
+    presenter.initialize();
+    presenter.destroy();
+    return view.shownSuperHeroes;
+  }
+
+  private SuperHeroesPresenter createSuperHeroesPresenter(CountingView view) {
+    SuperHeroesPresenter presenter = new SuperHeroesPresenter(getSuperHeroes, getSuperHeroesPage,
+        getFilteredSuperHeroesPage, observeSuperHeroes, searchSuperHeroes, metrics);
+    presenter.setView(view);
+    return presenter;
+  }
+
+  private static List<List<SuperHeroChange>> createLiveChangeBatches(
+      SuperHeroesCatalogue catalogue) {
+    List<List<SuperHeroChange>> batches = new ArrayList<>();
+    for (int toggle = 0; toggle < 2; toggle++) {
+      List<SuperHeroChange> batch = new ArrayList<>();
+      for (int i = 0; i < LIVE_CHANGES_PER_BATCH && i < catalogue.size(); i++) {
+        SuperHero superHero = catalogue.get(i);
+        boolean isAvenger = superHero.isAvenger() != (toggle == 0);
+        batch.add(SuperHeroChange.updated(new SuperHero(superHero.getName(),
+            superHero.getPhoto(), isAvenger, superHero.getDescription())));
+      }
+      batches.add(batch);
+    }
+    return batches;
+  }
+
+  private static class CountingView
+      implements SuperHeroesPresenter.View, SuperHeroDetailPresenter.View {
+
+    private int shownSuperHeroes;
+
+    @Override public void showLoading() {
+    }
+
+    @Override public void hideLoading() {
+    }
+
+    @Override public void showError() {
+    }
+
+    @Override public void hideError() {
+    }
+
+    @Override public void showEmptyCase() {
+    }
+
+    @Override public void hideEmptyCase() {
+    }
+
+    @Override public void showSuperHeroesPage(int pageIndex, List<SuperHeroSummary> superHeroes) {
+      shownSuperHeroes += superHeroes.size();
+    }
+
+    @Override public void removeSuperHeroesPage(int pageIndex) {
+    }
+
+    @Override public void clearSuperHeroes() {
+    }
+
+    @Override public void openSuperHeroScreen(SuperHeroSummary superHero) {
+    }
+
+    @Override public void showSuperHeroSummary(SuperHeroSummary superHero) {
+      shownSuperHeroes++;
+    }
+
+    @Override public void showSuperHero(SuperHero superHero) {
+      shownSuperHeroes++;
+    }
+  }
+}
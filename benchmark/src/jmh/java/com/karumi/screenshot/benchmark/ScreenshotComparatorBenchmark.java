@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.benchmark;
+
+import com.karumi.screenshot.compare.ComparisonOptions;
+import com.karumi.screenshot.compare.ComparisonResult;
+import com.karumi.screenshot.compare.Image;
+import com.karumi.screenshot.compare.ScreenshotComparator;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Ellipse2D;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Verifies a set of full screen baselines against screenshots that are identical, that only
+ * differ in anti-aliasing or that have a real change, on one core and on all of them.
+ */
+@State(Scope.Benchmark) @BenchmarkMode(Mode.AverageTime) @OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ScreenshotComparatorBenchmark {
+
+  private static final int WIDTH = 1080;
+  private static final int HEIGHT = 1920;
+  private static final int DISTINCT_SCREENSHOTS = 4;
+  private static final int ROWS = 12;
+
+  @Param({ "100" }) public int baselines;
+  @Param({ "identical", "anti-aliasing", "changed" }) public String change;
+  @Param({ "1", "0" }) public int parallelism;
+  @Param({ "true", "false" }) public boolean failFast;
+
+  private Image[] baselineImages;
+  private Image[] actualImages;
+  private ForkJoinPool pool;
+  private ScreenshotComparator comparator;
+
+  @Setup public void setUp() {
+    baselineImages = new Image[DISTINCT_SCREENSHOTS];
+    actualImages = new Image[DISTINCT_SCREENSHOTS];
+    for (int i = 0; i < DISTINCT_SCREENSHOTS; i++) {
+      baselineImages[i] = render(i, 0, false);
+      float offset = "anti-aliasing".equals(change) ? 0.25f : 0;
+      actualImages[i] = render(i, offset, "changed".equals(change));
+    }
+    pool = parallelism == 0 ? new ForkJoinPool() : new ForkJoinPool(parallelism);
+    comparator =
+        new ScreenshotComparator(new ComparisonOptions.Builder().failFast(failFast).build(), pool);
+  }
+
+  @TearDown public void tearDown() {
+    pool.shutdown();
+  }
+
+  @Benchmark public int compareBaselines() {
+    int failures = 0;
+    for (int i = 0; i < baselines; i++) {
+      ComparisonResult result = comparator.compare(baselineImages[i % DISTINCT_SCREENSHOTS],
+          actualImages[i % DISTINCT_SCREENSHOTS]);
+      if (!result.isPassed()) {
+        failures++;
+      }
+    }
+    return failures;
+  }
+
+  /**
+   * Draws a list of rows with a photo, a name and a badge, the layout of the main screen.
+   */
+  private static Image render(int seed, float textOffset, boolean changed) {
+    BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+    Graphics2D graphics = image.createGraphics();
+    graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+        RenderingHints.VALUE_ANTIALIAS_ON);
+    graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
+        RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+    graphics.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS,
+        RenderingHints.VALUE_FRACTIONALMETRICS_ON);
+    graphics.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL,
+        RenderingHints.VALUE_STROKE_PURE);
+    graphics.setColor(Color.WHITE);
+    graphics.fillRect(0, 0, WIDTH, HEIGHT);
+    graphics.setFont(new Font(Font.SANS_SERIF, Font.BOLD, 48));
+    Random random = new Random(seed);
+    int rowHeight = HEIGHT / ROWS;
+    for (int row = 0; row < ROWS; row++) {
+      int top = row * rowHeight;
+      graphics.setColor(new Color(random.nextInt(0xffffff)));
+      graphics.fillRect(0, top, WIDTH, rowHeight - 4);
+      graphics.setColor(Color.WHITE);
+      graphics.drawString("Super Hero " + random.nextInt(1000), 40 + textOffset,
+          top + rowHeight - 40 + textOffset);
+      if (random.nextBoolean()) {
+        graphics.fill(new Ellipse2D.Float(WIDTH - 120 + textOffset, top + 20 + textOffset, 80, 80));
+      }
+    }
+    if (changed) {
+      graphics.setColor(Color.RED);
+      graphics.fillRect(WIDTH / 2, HEIGHT / 2, 40, 40);
+    }
+    graphics.dispose();
+    return new Image(WIDTH, HEIGHT, image.getRGB(0, 0, WIDTH, HEIGHT, null, 0, WIDTH));
+  }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.benchmark;
+
+import com.karumi.screenshot.executor.AndroidScheduler;
+import com.karumi.screenshot.executor.Scheduler;
+import com.karumi.screenshot.model.FakeSuperHeroes;
+import com.karumi.screenshot.model.InMemorySuperHeroesCatalogue;
+import com.karumi.screenshot.model.InMemorySuperHeroesRepository;
+import com.karumi.screenshot.model.SuperHero;
+import com.karumi.screenshot.model.SuperHeroesCatalogue;
+import com.karumi.screenshot.model.SuperHeroesChangeFeed;
+import com.karumi.screenshot.model.SuperHeroesRepository;
+import com.karumi.screenshot.model.network.FixedLatencyModel;
+import com.karumi.screenshot.model.network.SimulatedNetwork;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.Executor;
+
+/**
+ * Deterministic catalogues of any size. The first super heroes are the ones the app ships with,
+ * the rest get generated names and descriptions from a small vocabulary so that searches match
+ * a realistic share of them.
+ */
+final class SuperHeroesFixtures {
+
+  static final String[] WORDS = {
+      "avenger", "shield", "hammer", "thunder", "armor", "genius", "billionaire", "soldier",
+      "serum", "spider", "radioactive", "mutant", "telepathy", "laboratory", "scientist",
+      "gamma", "rage", "archer", "assassin", "spy", "god", "asgard", "kingdom", "wakanda",
+      "vibranium", "claws", "healing", "magic", "sorcerer", "dimension", "cosmic", "infinity",
+      "stone", "galaxy", "guardian", "tree", "raccoon", "weapon", "suit", "flying", "strength",
+      "speed", "villain", "hero", "team", "city", "street", "night", "justice", "war"
+  };
+
+  private static final long SEED = 42;
+  private static final int DESCRIPTION_WORDS = 40;
+
+  private static final Executor DIRECT_EXECUTOR = new Executor() {
+    @Override public void execute(Runnable command) {
+      command.run();
+    }
+  };
+  private static final Scheduler DIRECT_SCHEDULER = new AndroidScheduler(DIRECT_EXECUTOR);
+
+  private SuperHeroesFixtures() {
+  }
+
+  static List<SuperHero> create(int size) {
+    List<SuperHero> superHeroes = new ArrayList<>(size);
+    List<SuperHero> fakeSuperHeroes = FakeSuperHeroes.create();
+    for (int i = 0; i < size && i < fakeSuperHeroes.size(); i++) {
+      superHeroes.add(fakeSuperHeroes.get(i));
+    }
+    Random random = new Random(SEED);
+    for (int i = superHeroes.size(); i < size; i++) {
+      String name = String.format(Locale.US, "%s %s %06d", capitalize(nextWord(random)),
+          capitalize(nextWord(random)), i);
+      String photo = "https://example.com/super-heroes/" + i + ".jpg";
+      superHeroes.add(new SuperHero(name, photo, random.nextInt(4) == 0,
+          createDescription(random)));
+    }
+    return superHeroes;
+  }
+
+  static SuperHeroesCatalogue createCatalogue(int size) {
+    return new InMemorySuperHeroesCatalogue(create(size));
+  }
+
+  /**
+   * A repository without simulated latency, so that only the repository work is measured.
+   */
+  static SuperHeroesRepository createRepository(SuperHeroesCatalogue catalogue) {
+    return createRepository(catalogue, new SuperHeroesChangeFeed());
+  }
+
+  static SuperHeroesRepository createRepository(SuperHeroesCatalogue catalogue,
+      SuperHeroesChangeFeed changeFeed) {
+    return new InMemorySuperHeroesRepository(catalogue,
+        new SimulatedNetwork(new FixedLatencyModel(0)), changeFeed);
+  }
+
+  static Executor directExecutor() {
+    return DIRECT_EXECUTOR;
+  }
+
+  /**
+   * Runs the use cases work and their callbacks inline on the calling thread.
+   */
+  static Scheduler directScheduler() {
+    return DIRECT_SCHEDULER;
+  }
+
+  private static String createDescription(Random random) {
+    StringBuilder description = new StringBuilder();
+    for (int i = 0; i < DESCRIPTION_WORDS; i++) {
+      if (i > 0) {
+        description.append(' ');
+      }
+      description.append(nextWord(random));
+    }
+    return description.append('.').toString();
+  }
+
+  private static String nextWord(Random random) {
+    return WORDS[random.nextInt(WORDS.length)];
+  }
+
+  private static String capitalize(String word) {
+    return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+  }
+}
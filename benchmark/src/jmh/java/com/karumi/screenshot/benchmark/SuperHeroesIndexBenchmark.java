@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.benchmark;
+
+import com.karumi.screenshot.model.SuperHero;
+import com.karumi.screenshot.model.SuperHeroesCatalogue;
+import com.karumi.screenshot.search.SearchHit;
+import com.karumi.screenshot.search.SuperHeroesIndex;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Build time and query latency of the full-text index. The memory allocated by a build is
+ * reported by the gc profiler as {@code gc.alloc.rate.norm} of {@link #buildIndex()}.
+ */
+@State(Scope.Benchmark) @BenchmarkMode(Mode.AverageTime) @OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SuperHeroesIndexBenchmark {
+
+  private static final int MAX_RESULTS = 50;
+
+  @Param({ "1000", "100000" }) public int catalogueSize;
+
+  private SuperHeroesCatalogue catalogue;
+  private SuperHeroesIndex index;
+  private String[] queries;
+  private int next;
+
+  @Setup public void setUp() {
+    catalogue = SuperHeroesFixtures.createCatalogue(catalogueSize);
+    index = createIndex(catalogue);
+    String[] words = SuperHeroesFixtures.WORDS;
+    queries = new String[words.length];
+    for (int i = 0; i < words.length; i++) {
+      queries[i] = words[i] + " " + words[(i * 7 + 3) % words.length];
+    }
+  }
+
+  @Benchmark @OutputTimeUnit(TimeUnit.MILLISECONDS) public SuperHeroesIndex buildIndex() {
+    return createIndex(catalogue);
+  }
+
+  @Benchmark public List<SearchHit> searchOneTerm() {
+    return index.search(SuperHeroesFixtures.WORDS[nextQuery()], MAX_RESULTS);
+  }
+
+  @Benchmark public List<SearchHit> searchTwoTerms() {
+    return index.search(queries[nextQuery()], MAX_RESULTS);
+  }
+
+  private int nextQuery() {
+    next = (next + 1) % queries.length;
+    return next;
+  }
+
+  private static SuperHeroesIndex createIndex(SuperHeroesCatalogue catalogue) {
+    SuperHeroesIndex index = new SuperHeroesIndex();
+    int size = catalogue.size();
+    for (int i = 0; i < size; i++) {
+      SuperHero superHero = catalogue.get(i);
+      index.add(i, superHero.getName(), superHero.getDescription());
+    }
+    index.trimToSize();
+    return index;
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.benchmark;
+
+import com.karumi.screenshot.model.SnapshotSuperHeroesCatalogue;
+import com.karumi.screenshot.model.SuperHero;
+import com.karumi.screenshot.model.SuperHeroSummary;
+import com.karumi.screenshot.model.SuperHeroesCatalogue;
+import com.karumi.screenshot.model.SuperHeroesFilter;
+import com.karumi.screenshot.model.SuperHeroesPage;
+import com.karumi.screenshot.model.SuperHeroesRepository;
+import com.karumi.screenshot.model.SuperHeroesSnapshotWriter;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Repository reads over the in-memory and the memory mapped catalogues. Lookups should take the
+ * same time whatever the size of the catalogue.
+ */
+@State(Scope.Benchmark) @BenchmarkMode(Mode.AverageTime) @OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SuperHeroesRepositoryBenchmark {
+
+  private static final int PAGE_SIZE = 20;
+
+  @Param({ "12", "1000", "100000" }) public int catalogueSize;
+  @Param({ "in-memory", "snapshot" }) public String catalogue;
+
+  private File snapshot;
+  private SuperHeroesRepository repository;
+  private SuperHeroesFilter filter;
+  private String[] names;
+  private String[] upperCaseNames;
+  private int next;
+
+  @Setup public void setUp() throws IOException {
+    List<SuperHero> superHeroes = SuperHeroesFixtures.create(catalogueSize);
+    SuperHeroesCatalogue superHeroesCatalogue;
+    if ("snapshot".equals(catalogue)) {
+      snapshot = File.createTempFile("super_heroes", ".snapshot");
+      new SuperHeroesSnapshotWriter().write(superHeroes, snapshot);
+      superHeroesCatalogue = SnapshotSuperHeroesCatalogue.open(snapshot);
+    } else {
+      superHeroesCatalogue = SuperHeroesFixtures.createCatalogue(catalogueSize);
+    }
+    repository = SuperHeroesFixtures.createRepository(superHeroesCatalogue);
+    filter = SuperHeroesFilter.avengersOnly();
+    names = new String[superHeroes.size()];
+    upperCaseNames = new String[superHeroes.size()];
+    for (int i = 0; i < names.length; i++) {
+      names[i] = superHeroes.get(i).getName();
+      upperCaseNames[i] = names[i].toUpperCase(Locale.US);
+    }
+  }
+
+  @TearDown public void tearDown() {
+    if (snapshot != null) {
+      snapshot.delete();
+    }
+  }
+
+  @Benchmark public List<SuperHeroSummary> getSummaries() {
+    return repository.getSummaries();
+  }
+
+  @Benchmark public SuperHero getByName() {
+    return repository.getByName(names[nextIndex()]);
+  }
+
+  @Benchmark public SuperHero getByNameIgnoringCase() {
+    return repository.getByNameIgnoringCase(upperCaseNames[nextIndex()]);
+  }
+
+  @Benchmark public SuperHero getByNameMiss() {
+    return repository.getByName(upperCaseNames[nextIndex()] + "?");
+  }
+
+  @Benchmark public SuperHeroesPage getSummariesPage() {
+    int from = nextIndex() / PAGE_SIZE * PAGE_SIZE;
+    return repository.getSummariesPage(String.valueOf(from), PAGE_SIZE);
+  }
+
+  @Benchmark public SuperHeroesPage getFilteredSummariesPage() {
+    int from = nextIndex() / PAGE_SIZE * PAGE_SIZE;
+    return repository.getSummariesPage(filter, String.valueOf(from), PAGE_SIZE);
+  }
+
+  private int nextIndex() {
+    next = (next + 7919) % names.length;
+    return next;
+  }
+}
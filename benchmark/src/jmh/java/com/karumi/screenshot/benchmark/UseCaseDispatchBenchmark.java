@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.benchmark;
+
+import com.karumi.screenshot.executor.AndroidScheduler;
+import com.karumi.screenshot.executor.Scheduler;
+import com.karumi.screenshot.executor.ThreadExecutor;
+import com.karumi.screenshot.metrics.MetricsRegistry;
+import com.karumi.screenshot.model.SuperHero;
+import com.karumi.screenshot.model.SuperHeroSummary;
+import com.karumi.screenshot.model.SuperHeroesCatalogue;
+import com.karumi.screenshot.model.SuperHeroesRepository;
+import com.karumi.screenshot.model.SuperHeroesRepositoryException;
+import com.karumi.screenshot.usecase.GetSuperHeroByName;
+import com.karumi.screenshot.usecase.GetSuperHeroes;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Round trip of a use case call, from the call to its callback. Compares running the work
+ * inline, on the shared bounded pool and on a new thread per call.
+ */
+@State(Scope.Benchmark) @BenchmarkMode(Mode.AverageTime) @OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UseCaseDispatchBenchmark {
+
+  @Param({ "12", "100000" }) public int catalogueSize;
+  @Param({ "direct", "thread-executor", "thread-per-call" }) public String executor;
+
+  private GetSuperHeroes getSuperHeroes;
+  private GetSuperHeroByName getSuperHeroByName;
+  private String[] names;
+  private int next;
+
+  @Setup public void setUp() {
+    SuperHeroesCatalogue catalogue = SuperHeroesFixtures.createCatalogue(catalogueSize);
+    SuperHeroesRepository repository = SuperHeroesFixtures.createRepository(catalogue);
+    Scheduler scheduler = new AndroidScheduler(createExecutor(executor));
+    MetricsRegistry metrics = new MetricsRegistry();
+    getSuperHeroes = new GetSuperHeroes(repository, scheduler, metrics);
+    getSuperHeroByName = new GetSuperHeroByName(repository, scheduler, metrics);
+    names = new String[catalogue.size()];
+    for (int i = 0; i < names.length; i++) {
+      names[i] = catalogue.get(i).getName();
+    }
+  }
+
+  @Benchmark public Object getAll() throws InterruptedException {
+    AwaitingCallback callback = new AwaitingCallback();
+    getSuperHeroes.getAll(callback);
+    return callback.await();
+  }
+
+  @Benchmark public Object getByName() throws InterruptedException {
+    AwaitingCallback callback = new AwaitingCallback();
+    next = (next + 7919) % names.length;
+    getSuperHeroByName.get(names[next], callback);
+    return callback.await();
+  }
+
+  private static Executor createExecutor(String name) {
+    switch (name) {
+      case "direct":
+        return SuperHeroesFixtures.directExecutor();
+      case "thread-executor":
+        return new ThreadExecutor();
+      case "thread-per-call":
+        return new Executor() {
+          @Override public void execute(Runnable command) {
+            new Thread(command).start();
+          }
+        };
+      default:
+        throw new IllegalArgumentException("Unknown executor " + name);
+    }
+  }
+
+  private static class AwaitingCallback
+      implements GetSuperHeroes.Callback, GetSuperHeroByName.Callback {
+
+    private final CountDownLatch latch = new CountDownLatch(1);
+    private volatile Object result;
+
+    @Override public void onSuperHeroesLoaded(List<SuperHeroSummary> superHeroes) {
+      complete(superHeroes);
+    }
+
+    @Override public void onSuperHeroLoaded(SuperHero superHero) {
+      complete(superHero);
+    }
+
+    @Override public void onError(SuperHeroesRepositoryException exception) {
+      complete(exception);
+    }
+
+    Object await() throws InterruptedException {
+      latch.await();
+      return result;
+    }
+
+    private void complete(Object result) {
+      this.result = result;
+      latch.countDown();
+    }
+  }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.os;
+
+/**
+ * Benchmark stand-in for the framework class that runs every post inline on the posting thread,
+ * so the measured paths do not include a thread hop. Delayed posts ignore their delay.
+ */
+public class Handler {
+
+  public Handler(Looper looper) {
+  }
+
+  public final boolean post(Runnable runnable) {
+    runnable.run();
+    return true;
+  }
+
+  public final boolean postDelayed(Runnable runnable, long delayMillis) {
+    return post(runnable);
+  }
+
+  public final void removeCallbacks(Runnable runnable) {
+  }
+}
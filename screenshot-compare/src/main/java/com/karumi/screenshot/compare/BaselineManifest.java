@@ -0,0 +1,220 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.compare;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Describes a baseline by the hash of its PNG file and the hashes of its tiles in row order.
+ * Manifests are plain text so that changes to a baseline are readable in a diff; runs of the
+ * same tile, like the background of a screen, take a single {@code <hash>*<count>} line.
+ */
+public class BaselineManifest {
+
+  private static final String HEADER = "screenshot-baseline 1";
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+  private static final int HASH_BYTES = 16;
+  private static final char RUN_SEPARATOR = '*';
+
+  private final String sourceHash;
+  private final int width;
+  private final int height;
+  private final int tileSize;
+  private final List<String> tileHashes;
+
+  BaselineManifest(String sourceHash, int width, int height, int tileSize,
+      List<String> tileHashes) {
+    this.sourceHash = sourceHash;
+    this.width = width;
+    this.height = height;
+    this.tileSize = tileSize;
+    this.tileHashes = Collections.unmodifiableList(tileHashes);
+  }
+
+  static BaselineManifest create(String sourceHash, Image image, int tileSize) {
+    int columns = (image.getWidth() + tileSize - 1) / tileSize;
+    int rows = (image.getHeight() + tileSize - 1) / tileSize;
+    List<String> tileHashes = new ArrayList<>(columns * rows);
+    for (int row = 0; row < rows; row++) {
+      for (int column = 0; column < columns; column++) {
+        tileHashes.add(hashTile(image, column * tileSize, row * tileSize, tileSize));
+      }
+    }
+    return new BaselineManifest(sourceHash, image.getWidth(), image.getHeight(), tileSize,
+        tileHashes);
+  }
+
+  static BaselineManifest read(File file) throws IOException {
+    BufferedReader reader =
+        new BufferedReader(new InputStreamReader(new FileInputStream(file), UTF_8));
+    try {
+      if (!HEADER.equals(reader.readLine())) {
+        throw new IOException("Unsupported baseline manifest " + file);
+      }
+      String sourceHash = readField(reader, "source")[0];
+      String[] size = readField(reader, "size");
+      List<String> tileHashes = new ArrayList<>();
+      String line;
+      while ((line = reader.readLine()) != null) {
+        int separator = line.indexOf(RUN_SEPARATOR);
+        if (separator == -1) {
+          tileHashes.add(line);
+          continue;
+        }
+        String tileHash = line.substring(0, separator);
+        int count = Integer.parseInt(line.substring(separator + 1));
+        for (int i = 0; i < count; i++) {
+          tileHashes.add(tileHash);
+        }
+      }
+      return new BaselineManifest(sourceHash, Integer.parseInt(size[0]),
+          Integer.parseInt(size[1]), Integer.parseInt(size[2]), tileHashes);
+    } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+      throw new IOException("Corrupted baseline manifest " + file, e);
+    } finally {
+      reader.close();
+    }
+  }
+
+  void write(File file) throws IOException {
+    File tmpFile = new File(file.getPath() + ".tmp");
+    Writer writer = new OutputStreamWriter(new FileOutputStream(tmpFile), UTF_8);
+    try {
+      writer.write(HEADER + "\n");
+      writer.write("source " + sourceHash + "\n");
+      writer.write("size " + width + " " + height + " " + tileSize + "\n");
+      int i = 0;
+      while (i < tileHashes.size()) {
+        String tileHash = tileHashes.get(i);
+        int count = 1;
+        while (i + count < tileHashes.size() && tileHashes.get(i + count).equals(tileHash)) {
+          count++;
+        }
+        writer.write(count == 1 ? tileHash + "\n" : tileHash + RUN_SEPARATOR + count + "\n");
+        i += count;
+      }
+    } finally {
+      writer.close();
+    }
+    if (!tmpFile.renameTo(file)) {
+      tmpFile.delete();
+      throw new IOException("Could not write " + file);
+    }
+  }
+
+  public String getSourceHash() {
+    return sourceHash;
+  }
+
+  public int getWidth() {
+    return width;
+  }
+
+  public int getHeight() {
+    return height;
+  }
+
+  public int getTileSize() {
+    return tileSize;
+  }
+
+  public List<String> getTileHashes() {
+    return tileHashes;
+  }
+
+  public boolean hasSameTiles(BaselineManifest other) {
+    return width == other.width && height == other.height && tileSize == other.tileSize
+        && tileHashes.equals(other.tileHashes);
+  }
+
+  static String hashFile(File file) throws IOException {
+    MessageDigest digest = newDigest();
+    InputStream input = new FileInputStream(file);
+    try {
+      byte[] buffer = new byte[8192];
+      int read;
+      while ((read = input.read(buffer)) != -1) {
+        digest.update(buffer, 0, read);
+      }
+    } finally {
+      input.close();
+    }
+    return toHex(digest.digest(), digest.getDigestLength());
+  }
+
+  /**
+   * Hashes the size and the pixels of a tile, so that edge tiles with the same pixels but a
+   * different size do not collide. Tile hashes keep the first 128 bits of SHA-256, plenty for
+   * the number of tiles of a screenshot suite.
+   */
+  static String hashTile(Image image, int tileX, int tileY, int tileSize) {
+    int tileWidth = Math.min(tileSize, image.getWidth() - tileX);
+    int tileHeight = Math.min(tileSize, image.getHeight() - tileY);
+    MessageDigest digest = newDigest();
+    ByteBuffer row = ByteBuffer.allocate(4 * Math.max(2, tileWidth));
+    row.putInt(tileWidth).putInt(tileHeight);
+    digest.update(row.array(), 0, 8);
+    int[] pixels = image.getPixels();
+    for (int y = tileY; y < tileY + tileHeight; y++) {
+      row.clear();
+      row.asIntBuffer().put(pixels, y * image.getWidth() + tileX, tileWidth);
+      digest.update(row.array(), 0, 4 * tileWidth);
+    }
+    return toHex(digest.digest(), HASH_BYTES);
+  }
+
+  private static String[] readField(BufferedReader reader, String name) throws IOException {
+    String line = reader.readLine();
+    if (line == null || !line.startsWith(name + " ")) {
+      throw new IOException("Missing " + name + " in baseline manifest");
+    }
+    return line.substring(name.length() + 1).split(" ");
+  }
+
+  private static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+  private static String toHex(byte[] bytes, int length) {
+    char[] hex = new char[length * 2];
+    for (int i = 0; i < length; i++) {
+      hex[2 * i] = HEX_DIGITS[(bytes[i] >> 4) & 0xf];
+      hex[2 * i + 1] = HEX_DIGITS[bytes[i] & 0xf];
+    }
+    return new String(hex);
+  }
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.compare;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Content addressed store of screenshot baselines. Every baseline is split in tiles that are
+ * stored once per distinct content under their hash, plus a manifest listing them. Screenshots
+ * that share most of their pixels share most of their tiles.
+ *
+ * <pre>
+ * manifests/&lt;name&gt;.manifest
+ * tiles/&lt;first two hash digits&gt;/&lt;hash&gt;
+ * </pre>
+ */
+public class BaselineStore {
+
+  public static final int DEFAULT_TILE_SIZE = 32;
+
+  private static final String MANIFESTS_DIRECTORY = "manifests";
+  private static final String TILES_DIRECTORY = "tiles";
+  private static final String MANIFEST_EXTENSION = ".manifest";
+
+  private final File manifestsDirectory;
+  private final File tilesDirectory;
+  private final int tileSize;
+
+  public BaselineStore(File directory) {
+    this(directory, DEFAULT_TILE_SIZE);
+  }
+
+  public BaselineStore(File directory, int tileSize) {
+    this.manifestsDirectory = new File(directory, MANIFESTS_DIRECTORY);
+    this.tilesDirectory = new File(directory, TILES_DIRECTORY);
+    this.tileSize = tileSize;
+  }
+
+  /**
+   * Records a PNG as the baseline with the given name, writing only the tiles the store does not
+   * have yet.
+   */
+  public BaselineManifest record(String name, File png) throws IOException {
+    Image image = Image.read(png);
+    BaselineManifest manifest =
+        BaselineManifest.create(BaselineManifest.hashFile(png), image, tileSize);
+    List<String> tileHashes = manifest.getTileHashes();
+    int columns = (image.getWidth() + tileSize - 1) / tileSize;
+    for (int i = 0; i < tileHashes.size(); i++) {
+      File tileFile = getTileFile(tileHashes.get(i));
+      if (!tileFile.exists()) {
+        writeTile(image, i % columns * tileSize, i / columns * tileSize, tileFile);
+      }
+    }
+    mkdirs(manifestsDirectory);
+    manifest.write(getManifestFile(name));
+    return manifest;
+  }
+
+  public BaselineManifest getManifest(String name) throws IOException {
+    File manifestFile = getManifestFile(name);
+    return manifestFile.exists() ? BaselineManifest.read(manifestFile) : null;
+  }
+
+  public List<String> getNames() {
+    String[] files = manifestsDirectory.list(new FilenameFilter() {
+      @Override public boolean accept(File directory, String name) {
+        return name.endsWith(MANIFEST_EXTENSION);
+      }
+    });
+    List<String> names = new ArrayList<>();
+    if (files != null) {
+      Arrays.sort(files);
+      for (String file : files) {
+        names.add(file.substring(0, file.length() - MANIFEST_EXTENSION.length()));
+      }
+    }
+    return names;
+  }
+
+  /**
+   * Rebuilds the full baseline image from its tiles.
+   */
+  public Image load(BaselineManifest manifest) throws IOException {
+    int width = manifest.getWidth();
+    int manifestTileSize = manifest.getTileSize();
+    int columns = (width + manifestTileSize - 1) / manifestTileSize;
+    int[] pixels = new int[width * manifest.getHeight()];
+    List<String> tileHashes = manifest.getTileHashes();
+    for (int i = 0; i < tileHashes.size(); i++) {
+      readTile(getTileFile(tileHashes.get(i)), pixels, width,
+          i % columns * manifestTileSize, i / columns * manifestTileSize);
+    }
+    return new Image(width, manifest.getHeight(), pixels);
+  }
+
+  /**
+   * Verifies a screenshot against the baseline with the given name. Identical files pass
+   * without decoding anything, identical tile hashes pass without decoding the baseline and
+   * only the remaining screenshots are compared pixel by pixel.
+   */
+  public VerificationResult verify(String name, File png, ScreenshotComparator comparator)
+      throws IOException {
+    BaselineManifest baseline = getManifest(name);
+    if (baseline == null) {
+      return new VerificationResult(VerificationResult.Status.MISSING_BASELINE, null);
+    }
+    String sourceHash = BaselineManifest.hashFile(png);
+    if (sourceHash.equals(baseline.getSourceHash())) {
+      return new VerificationResult(VerificationResult.Status.SAME_FILE, null);
+    }
+    Image image = Image.read(png);
+    BaselineManifest actual = BaselineManifest.create(sourceHash, image, baseline.getTileSize());
+    if (actual.hasSameTiles(baseline)) {
+      return new VerificationResult(VerificationResult.Status.SAME_PIXELS, null);
+    }
+    ComparisonResult comparison = comparator.compare(load(baseline), image);
+    return new VerificationResult(comparison.isPassed() ? VerificationResult.Status.SIMILAR
+        : VerificationResult.Status.DIFFERENT, comparison);
+  }
+
+  /**
+   * Deletes the tiles no manifest refers to anymore and returns how many were deleted.
+   */
+  public int prune() throws IOException {
+    Set<String> referencedTiles = new HashSet<>();
+    for (String name : getNames()) {
+      referencedTiles.addAll(getManifest(name).getTileHashes());
+    }
+    int deletedTiles = 0;
+    File[] shards = tilesDirectory.listFiles();
+    if (shards == null) {
+      return 0;
+    }
+    for (File shard : shards) {
+      File[] tiles = shard.listFiles();
+      if (tiles == null) {
+        continue;
+      }
+      for (File tile : tiles) {
+        if (!referencedTiles.contains(tile.getName()) && tile.delete()) {
+          deletedTiles++;
+        }
+      }
+    }
+    return deletedTiles;
+  }
+
+  private void writeTile(Image image, int tileX, int tileY, File tileFile) throws IOException {
+    int tileWidth = Math.min(tileSize, image.getWidth() - tileX);
+    int tileHeight = Math.min(tileSize, image.getHeight() - tileY);
+    mkdirs(tileFile.getParentFile());
+    File tmpFile = new File(tileFile.getPath() + ".tmp");
+    DataOutputStream output = new DataOutputStream(
+        new BufferedOutputStream(new DeflaterOutputStream(new FileOutputStream(tmpFile))));
+    try {
+      output.writeShort(tileWidth);
+      output.writeShort(tileHeight);
+      for (int y = tileY; y < tileY + tileHeight; y++) {
+        for (int x = tileX; x < tileX + tileWidth; x++) {
+          output.writeInt(image.getPixel(x, y));
+        }
+      }
+    } finally {
+      output.close();
+    }
+    if (!tmpFile.renameTo(tileFile)) {
+      tmpFile.delete();
+      throw new IOException("Could not write " + tileFile);
+    }
+  }
+
+  private static void readTile(File tileFile, int[] pixels, int width, int tileX, int tileY)
+      throws IOException {
+    DataInputStream input = new DataInputStream(
+        new BufferedInputStream(new InflaterInputStream(new FileInputStream(tileFile))));
+    try {
+      int tileWidth = input.readUnsignedShort();
+      int tileHeight = input.readUnsignedShort();
+      for (int y = tileY; y < tileY + tileHeight; y++) {
+        for (int x = tileX; x < tileX + tileWidth; x++) {
+          pixels[y * width + x] = input.readInt();
+        }
+      }
+    } finally {
+      input.close();
+    }
+  }
+
+  private File getManifestFile(String name) {
+    return new File(manifestsDirectory, name + MANIFEST_EXTENSION);
+  }
+
+  private File getTileFile(String hash) {
+    return new File(new File(tilesDirectory, hash.substring(0, 2)), hash);
+  }
+
+  private static void mkdirs(File directory) throws IOException {
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new IOException("Could not create " + directory);
+    }
+  }
+}
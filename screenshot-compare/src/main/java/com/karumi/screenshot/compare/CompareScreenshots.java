@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.compare;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Compares every PNG in a baseline directory with the one with the same name in another
+ * directory. Exits with 1 if any of them is missing or differs.
+ */
+public final class CompareScreenshots {
+
+  private static final String USAGE = "Usage: CompareScreenshots [--tile-size=64] "
+      + "[--threshold=0.1] [--max-different-pixels=0] [--no-anti-aliasing] [--all-tiles] "
+      + "<baseline directory> <actual directory>";
+
+  private CompareScreenshots() {
+  }
+
+  public static void main(String[] args) throws IOException {
+    ComparisonOptions.Builder options = new ComparisonOptions.Builder();
+    File baselineDirectory = null;
+    File actualDirectory = null;
+    for (String arg : args) {
+      if (arg.startsWith("--tile-size=")) {
+        options.tileSize(Integer.parseInt(getValue(arg)));
+      } else if (arg.startsWith("--threshold=")) {
+        options.pixelThreshold(Double.parseDouble(getValue(arg)));
+      } else if (arg.startsWith("--max-different-pixels=")) {
+        options.maxDifferentPixelRatio(Double.parseDouble(getValue(arg)));
+      } else if (arg.equals("--no-anti-aliasing")) {
+        options.ignoreAntiAliasing(false);
+      } else if (arg.equals("--all-tiles")) {
+        options.failFast(false);
+      } else if (baselineDirectory == null) {
+        baselineDirectory = new File(arg);
+      } else if (actualDirectory == null) {
+        actualDirectory = new File(arg);
+      } else {
+        exitWithUsage();
+      }
+    }
+    if (baselineDirectory == null || actualDirectory == null
+        || !baselineDirectory.isDirectory() || !actualDirectory.isDirectory()) {
+      exitWithUsage();
+    }
+    System.exit(compare(new ScreenshotComparator(options.build()), baselineDirectory,
+        actualDirectory) ? 0 : 1);
+  }
+
+  private static boolean compare(ScreenshotComparator comparator, File baselineDirectory,
+      File actualDirectory) throws IOException {
+    File[] baselines = baselineDirectory.listFiles(new FilenameFilter() {
+      @Override public boolean accept(File directory, String name) {
+        return name.toLowerCase(Locale.US).endsWith(".png");
+      }
+    });
+    Arrays.sort(baselines);
+    int failures = 0;
+    for (File baseline : baselines) {
+      File actual = new File(actualDirectory, baseline.getName());
+      if (!actual.isFile()) {
+        failures++;
+        System.out.println("MISSING " + baseline.getName());
+        continue;
+      }
+      ComparisonResult result = comparator.compare(Image.read(baseline), Image.read(actual));
+      if (result.isPassed()) {
+        System.out.println("PASSED  " + baseline.getName());
+        continue;
+      }
+      failures++;
+      if (!result.isSameSize()) {
+        System.out.println("FAILED  " + baseline.getName() + ": sizes differ");
+        continue;
+      }
+      System.out.println("FAILED  " + baseline.getName() + ":");
+      for (TileDelta tileDelta : result.getFailedTiles()) {
+        System.out.println(String.format(Locale.US,
+            "        tile %dx%d at (%d, %d): %d different pixels, max delta %.3f",
+            tileDelta.getWidth(), tileDelta.getHeight(), tileDelta.getX(), tileDelta.getY(),
+            tileDelta.getDifferentPixels(), tileDelta.getMaxDelta()));
+      }
+    }
+    System.out.println(baselines.length + " screenshots compared, " + failures + " failed");
+    return failures == 0;
+  }
+
+  private static String getValue(String arg) {
+    return arg.substring(arg.indexOf('=') + 1);
+  }
+
+  private static void exitWithUsage() {
+    System.err.println(USAGE);
+    System.exit(2);
+  }
+}
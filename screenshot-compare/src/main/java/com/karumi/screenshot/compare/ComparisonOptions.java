@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.compare;
+
+public class ComparisonOptions {
+
+  private final int tileSize;
+  private final double pixelThreshold;
+  private final double maxDifferentPixelRatio;
+  private final boolean ignoreAntiAliasing;
+  private final boolean failFast;
+
+  private ComparisonOptions(Builder builder) {
+    this.tileSize = builder.tileSize;
+    this.pixelThreshold = builder.pixelThreshold;
+    this.maxDifferentPixelRatio = builder.maxDifferentPixelRatio;
+    this.ignoreAntiAliasing = builder.ignoreAntiAliasing;
+    this.failFast = builder.failFast;
+  }
+
+  public static ComparisonOptions defaults() {
+    return new Builder().build();
+  }
+
+  public int getTileSize() {
+    return tileSize;
+  }
+
+  /**
+   * Perceptual distance, from 0 to 1, above which two pixels are considered different.
+   */
+  public double getPixelThreshold() {
+    return pixelThreshold;
+  }
+
+  /**
+   * Share of different pixels a tile tolerates before it fails.
+   */
+  public double getMaxDifferentPixelRatio() {
+    return maxDifferentPixelRatio;
+  }
+
+  public boolean isIgnoreAntiAliasing() {
+    return ignoreAntiAliasing;
+  }
+
+  /**
+   * Whether to stop comparing the remaining tiles once one of them fails.
+   */
+  public boolean isFailFast() {
+    return failFast;
+  }
+
+  public static class Builder {
+
+    private int tileSize = 64;
+    private double pixelThreshold = 0.1;
+    private double maxDifferentPixelRatio = 0;
+    private boolean ignoreAntiAliasing = true;
+    private boolean failFast = true;
+
+    public Builder tileSize(int tileSize) {
+      if (tileSize <= 0) {
+        throw new IllegalArgumentException("Invalid tile size " + tileSize);
+      }
+      this.tileSize = tileSize;
+      return this;
+    }
+
+    public Builder pixelThreshold(double pixelThreshold) {
+      if (pixelThreshold < 0 || pixelThreshold > 1) {
+        throw new IllegalArgumentException("Invalid pixel threshold " + pixelThreshold);
+      }
+      this.pixelThreshold = pixelThreshold;
+      return this;
+    }
+
+    public Builder maxDifferentPixelRatio(double maxDifferentPixelRatio) {
+      if (maxDifferentPixelRatio < 0 || maxDifferentPixelRatio > 1) {
+        throw new IllegalArgumentException(
+            "Invalid different pixel ratio " + maxDifferentPixelRatio);
+      }
+      this.maxDifferentPixelRatio = maxDifferentPixelRatio;
+      return this;
+    }
+
+    public Builder ignoreAntiAliasing(boolean ignoreAntiAliasing) {
+      this.ignoreAntiAliasing = ignoreAntiAliasing;
+      return this;
+    }
+
+    public Builder failFast(boolean failFast) {
+      this.failFast = failFast;
+      return this;
+    }
+
+    public ComparisonOptions build() {
+      return new ComparisonOptions(this);
+    }
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.compare;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class ComparisonResult {
+
+  private final boolean sameSize;
+  private final int totalTiles;
+  private final List<TileDelta> tileDeltas;
+
+  ComparisonResult(boolean sameSize, int totalTiles, List<TileDelta> tileDeltas) {
+    this.sameSize = sameSize;
+    this.totalTiles = totalTiles;
+    this.tileDeltas = Collections.unmodifiableList(tileDeltas);
+  }
+
+  public boolean isPassed() {
+    return sameSize && getFailedTiles().isEmpty();
+  }
+
+  public boolean isSameSize() {
+    return sameSize;
+  }
+
+  public int getTotalTiles() {
+    return totalTiles;
+  }
+
+  /**
+   * Deltas of the compared tiles in row order. Tiles skipped after a failure in fail fast mode
+   * are not part of it.
+   */
+  public List<TileDelta> getTileDeltas() {
+    return tileDeltas;
+  }
+
+  public List<TileDelta> getFailedTiles() {
+    List<TileDelta> failedTiles = new ArrayList<>();
+    for (TileDelta tileDelta : tileDeltas) {
+      if (!tileDelta.isPassed()) {
+        failedTiles.add(tileDelta);
+      }
+    }
+    return failedTiles;
+  }
+}
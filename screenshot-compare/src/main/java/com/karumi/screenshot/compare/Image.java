@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.compare;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import javax.imageio.ImageIO;
+
+/**
+ * Pixels of a screenshot as ARGB ints, row by row.
+ */
+public class Image {
+
+  private final int width;
+  private final int height;
+  private final int[] pixels;
+
+  public Image(int width, int height, int[] pixels) {
+    if (pixels.length != width * height) {
+      throw new IllegalArgumentException(
+          "Expected " + width * height + " pixels but got " + pixels.length);
+    }
+    this.width = width;
+    this.height = height;
+    this.pixels = pixels;
+  }
+
+  public static Image read(File file) throws IOException {
+    BufferedImage image = ImageIO.read(file);
+    if (image == null) {
+      throw new IOException("Unsupported image " + file);
+    }
+    int width = image.getWidth();
+    int height = image.getHeight();
+    return new Image(width, height, image.getRGB(0, 0, width, height, null, 0, width));
+  }
+
+  public int getWidth() {
+    return width;
+  }
+
+  public int getHeight() {
+    return height;
+  }
+
+  int getPixel(int x, int y) {
+    return pixels[y * width + x];
+  }
+
+  int[] getPixels() {
+    return pixels;
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.compare;
+
+/**
+ * Perceptual color distance in the YIQ color space, as described in "Measuring perceived color
+ * difference using YIQ NTSC transmission color space in mobile applications" by Kotsarenko and
+ * Ramos, plus the anti-aliasing detection from "Anti-aliased pixel and intensity slope detector"
+ * by Vysniauskas. Both are the ones pixelmatch uses.
+ */
+final class PerceptualDelta {
+
+  static final double MAX_DELTA = 35215;
+
+  private PerceptualDelta() {
+  }
+
+  /**
+   * Squared, weighted YIQ distance between two pixels after blending them over white. It goes
+   * from 0 to {@link #MAX_DELTA}.
+   */
+  static double colorDelta(int pixel1, int pixel2) {
+    if (pixel1 == pixel2) {
+      return 0;
+    }
+    double r1 = blendRed(pixel1);
+    double g1 = blendGreen(pixel1);
+    double b1 = blendBlue(pixel1);
+    double r2 = blendRed(pixel2);
+    double g2 = blendGreen(pixel2);
+    double b2 = blendBlue(pixel2);
+    double y = brightness(r1, g1, b1) - brightness(r2, g2, b2);
+    double i = inPhase(r1, g1, b1) - inPhase(r2, g2, b2);
+    double q = quadrature(r1, g1, b1) - quadrature(r2, g2, b2);
+    return 0.5053 * y * y + 0.299 * i * i + 0.1957 * q * q;
+  }
+
+  /**
+   * Whether the pixel at x, y of {@code image} looks like an anti-aliased edge pixel: its
+   * neighbours get both darker and brighter and the darkest or the brightest of them lies on a
+   * flat area in both images.
+   */
+  static boolean isAntiAliased(Image image, int x, int y, Image otherImage) {
+    int x0 = Math.max(x - 1, 0);
+    int y0 = Math.max(y - 1, 0);
+    int x2 = Math.min(x + 1, image.getWidth() - 1);
+    int y2 = Math.min(y + 1, image.getHeight() - 1);
+    int pixel = image.getPixel(x, y);
+    double pixelBrightness = blendedBrightness(pixel);
+    int equalNeighbours = x == x0 || x == x2 || y == y0 || y == y2 ? 1 : 0;
+    double min = 0;
+    double max = 0;
+    int minX = 0;
+    int minY = 0;
+    int maxX = 0;
+    int maxY = 0;
+    for (int neighbourX = x0; neighbourX <= x2; neighbourX++) {
+      for (int neighbourY = y0; neighbourY <= y2; neighbourY++) {
+        if (neighbourX == x && neighbourY == y) {
+          continue;
+        }
+        int neighbour = image.getPixel(neighbourX, neighbourY);
+        double delta = neighbour == pixel ? 0 : pixelBrightness - blendedBrightness(neighbour);
+        if (delta == 0) {
+          equalNeighbours++;
+          if (equalNeighbours > 2) {
+            return false;
+          }
+        } else if (delta < min) {
+          min = delta;
+          minX = neighbourX;
+          minY = neighbourY;
+        } else if (delta > max) {
+          max = delta;
+          maxX = neighbourX;
+          maxY = neighbourY;
+        }
+      }
+    }
+    if (min == 0 || max == 0) {
+      return false;
+    }
+    return (hasManySiblings(image, minX, minY) && hasManySiblings(otherImage, minX, minY))
+        || (hasManySiblings(image, maxX, maxY) && hasManySiblings(otherImage, maxX, maxY));
+  }
+
+  private static boolean hasManySiblings(Image image, int x, int y) {
+    int x0 = Math.max(x - 1, 0);
+    int y0 = Math.max(y - 1, 0);
+    int x2 = Math.min(x + 1, image.getWidth() - 1);
+    int y2 = Math.min(y + 1, image.getHeight() - 1);
+    int pixel = image.getPixel(x, y);
+    int equalNeighbours = x == x0 || x == x2 || y == y0 || y == y2 ? 1 : 0;
+    for (int neighbourX = x0; neighbourX <= x2; neighbourX++) {
+      for (int neighbourY = y0; neighbourY <= y2; neighbourY++) {
+        if (neighbourX == x && neighbourY == y) {
+          continue;
+        }
+        if (image.getPixel(neighbourX, neighbourY) == pixel) {
+          equalNeighbours++;
+          if (equalNeighbours > 2) {
+            return true;
+          }
+        }
+      }
+    }
+    return false;
+  }
+
+  private static double blendedBrightness(int pixel) {
+    return brightness(blendRed(pixel), blendGreen(pixel), blendBlue(pixel));
+  }
+
+  private static double blendRed(int pixel) {
+    return blend((pixel >> 16) & 0xff, pixel >>> 24);
+  }
+
+  private static double blendGreen(int pixel) {
+    return blend((pixel >> 8) & 0xff, pixel >>> 24);
+  }
+
+  private static double blendBlue(int pixel) {
+    return blend(pixel & 0xff, pixel >>> 24);
+  }
+
+  private static double blend(int color, int alpha) {
+    return 255 + (color - 255) * alpha / 255.0;
+  }
+
+  private static double brightness(double r, double g, double b) {
+    return r * 0.29889531 + g * 0.58662247 + b * 0.11448223;
+  }
+
+  private static double inPhase(double r, double g, double b) {
+    return r * 0.59597799 - g * 0.27417610 - b * 0.32180189;
+  }
+
+  private static double quadrature(double r, double g, double b) {
+    return r * 0.21147017 - g * 0.52261711 + b * 0.31114694;
+  }
+}
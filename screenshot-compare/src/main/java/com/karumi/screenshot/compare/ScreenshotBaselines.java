@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.compare;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Locale;
+import javax.imageio.ImageIO;
+
+/**
+ * Command line access to a {@link BaselineStore}:
+ *
+ * <pre>
+ * record  &lt;store&gt; &lt;png directory&gt;  records every PNG as a baseline
+ * verify  &lt;store&gt; &lt;png directory&gt;  verifies every PNG against its baseline
+ * extract &lt;store&gt; &lt;png directory&gt;  rebuilds every baseline as a PNG
+ * prune   &lt;store&gt;                  deletes the tiles no baseline uses
+ * </pre>
+ */
+public final class ScreenshotBaselines {
+
+  private static final String PNG_EXTENSION = ".png";
+  private static final String USAGE =
+      "Usage: ScreenshotBaselines record|verify|extract <store> <png directory>\n"
+          + "       ScreenshotBaselines prune <store>";
+
+  private ScreenshotBaselines() {
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length == 2 && args[0].equals("prune")) {
+      int deletedTiles = new BaselineStore(new File(args[1])).prune();
+      System.out.println(deletedTiles + " unused tiles deleted");
+      return;
+    }
+    if (args.length != 3) {
+      exitWithUsage();
+    }
+    BaselineStore store = new BaselineStore(new File(args[1]));
+    File pngDirectory = new File(args[2]);
+    switch (args[0]) {
+      case "record":
+        record(store, pngDirectory);
+        break;
+      case "verify":
+        System.exit(verify(store, pngDirectory) ? 0 : 1);
+        break;
+      case "extract":
+        extract(store, pngDirectory);
+        break;
+      default:
+        exitWithUsage();
+    }
+  }
+
+  private static void record(BaselineStore store, File pngDirectory) throws IOException {
+    File[] pngs = listPngs(pngDirectory);
+    int tiles = 0;
+    for (File png : pngs) {
+      tiles += store.record(getName(png), png).getTileHashes().size();
+    }
+    System.out.println("Recorded " + pngs.length + " baselines, " + tiles + " tiles");
+  }
+
+  private static boolean verify(BaselineStore store, File pngDirectory) throws IOException {
+    ScreenshotComparator comparator = new ScreenshotComparator(ComparisonOptions.defaults());
+    File[] pngs = listPngs(pngDirectory);
+    int failures = 0;
+    for (File png : pngs) {
+      VerificationResult result = store.verify(getName(png), png, comparator);
+      System.out.println(String.format(Locale.US, "%-16s %s", result.getStatus(),
+          png.getName()));
+      if (!result.isPassed()) {
+        failures++;
+      }
+    }
+    System.out.println(pngs.length + " screenshots verified, " + failures + " failed");
+    return failures == 0;
+  }
+
+  private static void extract(BaselineStore store, File pngDirectory) throws IOException {
+    if (!pngDirectory.isDirectory() && !pngDirectory.mkdirs()) {
+      throw new IOException("Could not create " + pngDirectory);
+    }
+    for (String name : store.getNames()) {
+      Image image = store.load(store.getManifest(name));
+      BufferedImage bufferedImage =
+          new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_ARGB);
+      bufferedImage.setRGB(0, 0, image.getWidth(), image.getHeight(), image.getPixels(), 0,
+          image.getWidth());
+      ImageIO.write(bufferedImage, "png", new File(pngDirectory, name + PNG_EXTENSION));
+    }
+  }
+
+  private static File[] listPngs(File directory) throws IOException {
+    File[] pngs = directory.listFiles(new FilenameFilter() {
+      @Override public boolean accept(File directory, String name) {
+        return name.toLowerCase(Locale.US).endsWith(PNG_EXTENSION);
+      }
+    });
+    if (pngs == null) {
+      throw new IOException("Could not list " + directory);
+    }
+    Arrays.sort(pngs);
+    return pngs;
+  }
+
+  private static String getName(File png) {
+    String fileName = png.getName();
+    return fileName.substring(0, fileName.length() - PNG_EXTENSION.length());
+  }
+
+  private static void exitWithUsage() {
+    System.err.println(USAGE);
+    System.exit(2);
+  }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.compare;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Compares screenshots tile by tile, spreading the tiles across the cores of a
+ * {@link ForkJoinPool}. Pixels are compared by perceived color distance instead of by value, so
+ * that anti-aliasing and rendering noise do not fail a screenshot.
+ */
+public class ScreenshotComparator {
+
+  private static final int TILES_PER_TASK = 4;
+
+  private final ComparisonOptions options;
+  private final ForkJoinPool pool;
+
+  public ScreenshotComparator(ComparisonOptions options) {
+    this(options, new ForkJoinPool());
+  }
+
+  public ScreenshotComparator(ComparisonOptions options, ForkJoinPool pool) {
+    this.options = options;
+    this.pool = pool;
+  }
+
+  public ComparisonResult compare(Image baseline, Image actual) {
+    if (baseline.getWidth() != actual.getWidth() || baseline.getHeight() != actual.getHeight()) {
+      return new ComparisonResult(false, 0, Collections.<TileDelta>emptyList());
+    }
+    int tileSize = options.getTileSize();
+    int columns = (baseline.getWidth() + tileSize - 1) / tileSize;
+    int rows = (baseline.getHeight() + tileSize - 1) / tileSize;
+    TileDelta[] tileDeltas = new TileDelta[columns * rows];
+    pool.invoke(new CompareTiles(baseline, actual, columns, tileDeltas, 0, tileDeltas.length,
+        new AtomicBoolean()));
+    List<TileDelta> comparedTiles = new ArrayList<>(tileDeltas.length);
+    for (TileDelta tileDelta : tileDeltas) {
+      if (tileDelta != null) {
+        comparedTiles.add(tileDelta);
+      }
+    }
+    return new ComparisonResult(true, tileDeltas.length, comparedTiles);
+  }
+
+  private TileDelta compareTile(Image baseline, Image actual, int tileX, int tileY) {
+    int tileSize = options.getTileSize();
+    int width = Math.min(tileSize, baseline.getWidth() - tileX);
+    int height = Math.min(tileSize, baseline.getHeight() - tileY);
+    double threshold = PerceptualDelta.MAX_DELTA * options.getPixelThreshold()
+        * options.getPixelThreshold();
+    int differentPixels = 0;
+    int antiAliasedPixels = 0;
+    double maxDelta = 0;
+    for (int y = tileY; y < tileY + height; y++) {
+      for (int x = tileX; x < tileX + width; x++) {
+        double delta = PerceptualDelta.colorDelta(baseline.getPixel(x, y), actual.getPixel(x, y));
+        if (delta <= threshold) {
+          maxDelta = Math.max(maxDelta, delta);
+          continue;
+        }
+        if (options.isIgnoreAntiAliasing()
+            && (PerceptualDelta.isAntiAliased(baseline, x, y, actual)
+            || PerceptualDelta.isAntiAliased(actual, x, y, baseline))) {
+          antiAliasedPixels++;
+        } else {
+          differentPixels++;
+          maxDelta = Math.max(maxDelta, delta);
+        }
+      }
+    }
+    boolean passed = differentPixels <= options.getMaxDifferentPixelRatio() * width * height;
+    return new TileDelta(tileX, tileY, width, height, differentPixels, antiAliasedPixels,
+        Math.sqrt(maxDelta / PerceptualDelta.MAX_DELTA), passed);
+  }
+
+  private class CompareTiles extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Image baseline;
+    private final Image actual;
+    private final int columns;
+    private final TileDelta[] tileDeltas;
+    private final int from;
+    private final int to;
+    private final AtomicBoolean failed;
+
+    CompareTiles(Image baseline, Image actual, int columns, TileDelta[] tileDeltas, int from,
+        int to, AtomicBoolean failed) {
+      this.baseline = baseline;
+      this.actual = actual;
+      this.columns = columns;
+      this.tileDeltas = tileDeltas;
+      this.from = from;
+      this.to = to;
+      this.failed = failed;
+    }
+
+    @Override protected void compute() {
+      if (to - from > TILES_PER_TASK) {
+        int middle = (from + to) >>> 1;
+        invokeAll(new CompareTiles(baseline, actual, columns, tileDeltas, from, middle, failed),
+            new CompareTiles(baseline, actual, columns, tileDeltas, middle, to, failed));
+        return;
+      }
+      int tileSize = options.getTileSize();
+      for (int tile = from; tile < to; tile++) {
+        if (options.isFailFast() && failed.get()) {
+          return;
+        }
+        TileDelta tileDelta =
+            compareTile(baseline, actual, tile % columns * tileSize, tile / columns * tileSize);
+        tileDeltas[tile] = tileDelta;
+        if (!tileDelta.isPassed()) {
+          failed.set(true);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.compare;
+
+public class TileDelta {
+
+  private final int x;
+  private final int y;
+  private final int width;
+  private final int height;
+  private final int differentPixels;
+  private final int antiAliasedPixels;
+  private final double maxDelta;
+  private final boolean passed;
+
+  TileDelta(int x, int y, int width, int height, int differentPixels, int antiAliasedPixels,
+      double maxDelta, boolean passed) {
+    this.x = x;
+    this.y = y;
+    this.width = width;
+    this.height = height;
+    this.differentPixels = differentPixels;
+    this.antiAliasedPixels = antiAliasedPixels;
+    this.maxDelta = maxDelta;
+    this.passed = passed;
+  }
+
+  public int getX() {
+    return x;
+  }
+
+  public int getY() {
+    return y;
+  }
+
+  public int getWidth() {
+    return width;
+  }
+
+  public int getHeight() {
+    return height;
+  }
+
+  /**
+   * Pixels above the threshold that are not anti-aliasing noise.
+   */
+  public int getDifferentPixels() {
+    return differentPixels;
+  }
+
+  public int getAntiAliasedPixels() {
+    return antiAliasedPixels;
+  }
+
+  /**
+   * Largest perceptual distance found in the tile, from 0 to 1, on the same scale as
+   * {@link ComparisonOptions#getPixelThreshold()}.
+   */
+  public double getMaxDelta() {
+    return maxDelta;
+  }
+
+  public boolean isPassed() {
+    return passed;
+  }
+
+  @Override public String toString() {
+    return "TileDelta{x=" + x + ", y=" + y + ", width=" + width + ", height=" + height
+        + ", differentPixels=" + differentPixels + ", antiAliasedPixels=" + antiAliasedPixels
+        + ", maxDelta=" + maxDelta + ", passed=" + passed + '}';
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.compare;
+
+public class VerificationResult {
+
+  public enum Status {
+    /** The screenshot file is byte for byte the recorded one. Nothing was decoded. */
+    SAME_FILE,
+    /** Every tile hash matches. The baseline was not decoded. */
+    SAME_PIXELS,
+    /** Some tiles differ but the perceptual comparison passed. */
+    SIMILAR,
+    DIFFERENT,
+    MISSING_BASELINE
+  }
+
+  private final Status status;
+  private final ComparisonResult comparison;
+
+  VerificationResult(Status status, ComparisonResult comparison) {
+    this.status = status;
+    this.comparison = comparison;
+  }
+
+  public Status getStatus() {
+    return status;
+  }
+
+  public boolean isPassed() {
+    return status == Status.SAME_FILE || status == Status.SAME_PIXELS
+        || status == Status.SIMILAR;
+  }
+
+  /**
+   * Result of the perceptual comparison, or null if the hashes made it unnecessary.
+   */
+  public ComparisonResult getComparison() {
+    return comparison;
+  }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.compare;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static com.karumi.screenshot.compare.TestImages.BLACK;
+import static com.karumi.screenshot.compare.TestImages.WHITE;
+import static com.karumi.screenshot.compare.TestImages.filled;
+import static com.karumi.screenshot.compare.TestImages.gray;
+import static com.karumi.screenshot.compare.TestImages.withSquare;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BaselineManifestTest {
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test public void hashesTheTilesInRowOrderIncludingTheEdgeTiles() {
+    Image image = withSquare(filled(10, 7, WHITE), 8, 4, 2, BLACK);
+
+    BaselineManifest manifest = BaselineManifest.create("source", image, 4);
+
+    List<String> tileHashes = manifest.getTileHashes();
+    assertEquals(6, tileHashes.size());
+    assertEquals(BaselineManifest.hashTile(image, 8, 4, 4), tileHashes.get(5));
+    assertEquals(tileHashes.get(0), tileHashes.get(1));
+    assertEquals(tileHashes.get(3), tileHashes.get(4));
+    assertNotEquals(tileHashes.get(0), tileHashes.get(2));
+    assertNotEquals(tileHashes.get(0), tileHashes.get(3));
+    assertNotEquals(tileHashes.get(4), tileHashes.get(5));
+  }
+
+  @Test public void doesNotMixUpEdgeTilesWithTheSamePixelsButADifferentSize() {
+    Image image = filled(6, 6, WHITE);
+
+    assertNotEquals(BaselineManifest.hashTile(image, 0, 0, 4),
+        BaselineManifest.hashTile(image, 0, 0, 2));
+    assertNotEquals(BaselineManifest.hashTile(image, 4, 0, 4),
+        BaselineManifest.hashTile(image, 0, 4, 4));
+    assertEquals(32, BaselineManifest.hashTile(image, 0, 0, 4).length());
+  }
+
+  @Test public void readsTheManifestItWrote() throws IOException {
+    BaselineManifest manifest = BaselineManifest.create("source", gray(70, 45, 3), 16);
+    File file = new File(folder.getRoot(), "gray.manifest");
+
+    manifest.write(file);
+    BaselineManifest readManifest = BaselineManifest.read(file);
+
+    assertEquals("source", readManifest.getSourceHash());
+    assertEquals(70, readManifest.getWidth());
+    assertEquals(45, readManifest.getHeight());
+    assertEquals(16, readManifest.getTileSize());
+    assertEquals(manifest.getTileHashes(), readManifest.getTileHashes());
+    assertTrue(readManifest.hasSameTiles(manifest));
+    assertFalse(new File(file.getPath() + ".tmp").exists());
+  }
+
+  @Test public void writesRunsOfTheSameTileInOneLine() throws IOException {
+    Image image = withSquare(filled(128, 32, WHITE), 64, 0, 1, BLACK);
+    BaselineManifest manifest = BaselineManifest.create("source", image, 16);
+    File file = new File(folder.getRoot(), "runs.manifest");
+
+    manifest.write(file);
+
+    List<String> tileHashes = manifest.getTileHashes();
+    String white = tileHashes.get(0);
+    String dotted = tileHashes.get(4);
+    assertEquals(Arrays.asList("screenshot-baseline 1", "source source", "size 128 32 16",
+        white + "*4", dotted, white + "*11"), Files.readAllLines(file.toPath(), UTF_8));
+    assertEquals(tileHashes, BaselineManifest.read(file).getTileHashes());
+  }
+
+  @Test public void comparesTheTilesButNotTheSourceOfTwoManifests() {
+    Image image = gray(40, 40, 5);
+    BaselineManifest manifest = BaselineManifest.create("one", image, 16);
+
+    assertTrue(manifest.hasSameTiles(BaselineManifest.create("other", image, 16)));
+    assertFalse(manifest.hasSameTiles(BaselineManifest.create("one", image, 8)));
+    assertFalse(manifest.hasSameTiles(
+        BaselineManifest.create("one", withSquare(image, 39, 39, 1, BLACK), 16)));
+  }
+
+  @Test(expected = IOException.class)
+  public void rejectsFilesThatAreNotManifests() throws IOException {
+    BaselineManifest.read(write("baseline 2\nsource a\nsize 1 1 1\n"));
+  }
+
+  @Test(expected = IOException.class)
+  public void rejectsManifestsWithoutSize() throws IOException {
+    BaselineManifest.read(write("screenshot-baseline 1\nsource a\n"));
+  }
+
+  @Test(expected = IOException.class)
+  public void rejectsCorruptedRuns() throws IOException {
+    BaselineManifest.read(write("screenshot-baseline 1\nsource a\nsize 1 1 1\nabc*x\n"));
+  }
+
+  @Test public void hashesTheBytesOfTheFile() throws IOException {
+    File file = write("screenshot");
+
+    assertEquals(64, BaselineManifest.hashFile(file).length());
+    assertEquals(BaselineManifest.hashFile(file), BaselineManifest.hashFile(write("screenshot")));
+    assertNotEquals(BaselineManifest.hashFile(file), BaselineManifest.hashFile(write("other")));
+  }
+
+  private File write(String content) throws IOException {
+    File file = folder.newFile();
+    OutputStream output = new FileOutputStream(file);
+    try {
+      output.write(content.getBytes(UTF_8));
+    } finally {
+      output.close();
+    }
+    return file;
+  }
+}
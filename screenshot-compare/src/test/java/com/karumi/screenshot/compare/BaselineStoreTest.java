@@ -0,0 +1,188 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.compare;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static com.karumi.screenshot.compare.TestImages.BLACK;
+import static com.karumi.screenshot.compare.TestImages.WHITE;
+import static com.karumi.screenshot.compare.TestImages.filled;
+import static com.karumi.screenshot.compare.TestImages.gray;
+import static com.karumi.screenshot.compare.TestImages.jittered;
+import static com.karumi.screenshot.compare.TestImages.withSquare;
+import static com.karumi.screenshot.compare.TestImages.writePng;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BaselineStoreTest {
+
+  private static final int TILE_SIZE = 16;
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  private final ForkJoinPool pool = new ForkJoinPool(2);
+  private final ScreenshotComparator comparator =
+      new ScreenshotComparator(ComparisonOptions.defaults(), pool);
+  private BaselineStore store;
+
+  @Before public void setUp() throws IOException {
+    store = new BaselineStore(folder.newFolder("store"), TILE_SIZE);
+  }
+
+  @After public void tearDown() {
+    pool.shutdown();
+  }
+
+  @Test public void loadsThePixelsOfTheRecordedScreenshots() throws IOException {
+    Image image = gray(75, 50, 1);
+
+    BaselineManifest manifest = store.record("gray", png("gray", image));
+
+    assertPixels(image, store.load(manifest));
+    assertPixels(image, store.load(store.getManifest("gray")));
+  }
+
+  @Test public void loadsTheEdgeTilesOfScreenshotsThatDoNotFitInWholeTiles() throws IOException {
+    Image image = withSquare(gray(33, 17, 2), 32, 16, 1, BLACK);
+
+    BaselineManifest manifest = store.record("edges", png("edges", image));
+
+    assertEquals(6, manifest.getTileHashes().size());
+    assertPixels(image, store.load(manifest));
+  }
+
+  @Test public void storesTheTilesSharedByScreenshotsOnce() throws IOException {
+    Image background = filled(64, 64, WHITE);
+
+    store.record("background", png("background", background));
+    store.record("dot", png("dot", withSquare(background, 20, 20, 1, BLACK)));
+
+    assertEquals(2, countTiles());
+    assertEquals(Arrays.asList("background", "dot"), store.getNames());
+  }
+
+  @Test public void returnsNoManifestForUnknownNames() throws IOException {
+    assertNull(store.getManifest("unknown"));
+    assertTrue(store.getNames().isEmpty());
+  }
+
+  @Test public void passesTheRecordedFileWithoutDecodingIt() throws IOException {
+    File png = png("gray", gray(40, 40, 1));
+    store.record("gray", png);
+
+    VerificationResult result = store.verify("gray", png, comparator);
+
+    assertEquals(VerificationResult.Status.SAME_FILE, result.getStatus());
+    assertTrue(result.isPassed());
+    assertNull(result.getComparison());
+  }
+
+  @Test public void passesFilesWithTheSamePixelsWithoutComparingThem() throws IOException {
+    Image image = gray(40, 40, 1);
+    store.record("gray", png("gray", image));
+
+    VerificationResult result = store.verify("gray",
+        writePng(image, new File(folder.getRoot(), "rgb.png"), BufferedImage.TYPE_INT_RGB),
+        comparator);
+
+    assertEquals(VerificationResult.Status.SAME_PIXELS, result.getStatus());
+    assertTrue(result.isPassed());
+    assertNull(result.getComparison());
+  }
+
+  @Test public void passesSimilarScreenshotsAfterComparingThem() throws IOException {
+    Image image = gray(40, 40, 1);
+    store.record("gray", png("gray", image));
+
+    VerificationResult result = store.verify("gray", png("jittered", jittered(image, 2, 2)),
+        comparator);
+
+    assertEquals(VerificationResult.Status.SIMILAR, result.getStatus());
+    assertTrue(result.isPassed());
+    assertTrue(result.getComparison().isPassed());
+  }
+
+  @Test public void failsDifferentScreenshots() throws IOException {
+    Image image = filled(40, 40, WHITE);
+    store.record("white", png("white", image));
+
+    VerificationResult result = store.verify("white",
+        png("square", withSquare(image, 10, 10, 10, BLACK)), comparator);
+
+    assertEquals(VerificationResult.Status.DIFFERENT, result.getStatus());
+    assertFalse(result.isPassed());
+    assertFalse(result.getComparison().isPassed());
+  }
+
+  @Test public void reportsScreenshotsWithoutBaseline() throws IOException {
+    VerificationResult result = store.verify("unknown", png("gray", gray(8, 8, 1)), comparator);
+
+    assertEquals(VerificationResult.Status.MISSING_BASELINE, result.getStatus());
+    assertFalse(result.isPassed());
+  }
+
+  @Test public void prunesOnlyTheTilesNoManifestRefersTo() throws IOException {
+    Image background = filled(64, 64, WHITE);
+    Image dot = withSquare(background, 20, 20, 1, BLACK);
+    store.record("screen", png("background", background));
+    store.record("screen", png("dot", dot));
+
+    int prunedTiles = store.prune();
+
+    assertEquals(0, prunedTiles);
+    assertEquals(2, countTiles());
+    store.record("screen", png("square", withSquare(background, 0, 0, 2, BLACK)));
+    assertEquals(1, store.prune());
+    assertEquals(2, countTiles());
+    assertPixels(withSquare(background, 0, 0, 2, BLACK), store.load(store.getManifest("screen")));
+  }
+
+  @Test public void prunesNothingInAnEmptyStore() throws IOException {
+    assertEquals(0, store.prune());
+  }
+
+  private File png(String name, Image image) throws IOException {
+    return writePng(image, new File(folder.getRoot(), name + ".png"));
+  }
+
+  private int countTiles() {
+    int tiles = 0;
+    File[] shards = new File(new File(folder.getRoot(), "store"), "tiles").listFiles();
+    for (File shard : shards) {
+      tiles += shard.listFiles().length;
+    }
+    return tiles;
+  }
+
+  private static void assertPixels(Image expected, Image actual) {
+    assertEquals(expected.getWidth(), actual.getWidth());
+    assertEquals(expected.getHeight(), actual.getHeight());
+    assertArrayEquals(expected.getPixels(), actual.getPixels());
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.compare;
+
+import org.junit.Test;
+
+import static com.karumi.screenshot.compare.TestImages.BLACK;
+import static com.karumi.screenshot.compare.TestImages.WHITE;
+import static com.karumi.screenshot.compare.TestImages.filled;
+import static com.karumi.screenshot.compare.TestImages.gray;
+import static com.karumi.screenshot.compare.TestImages.withRectangle;
+import static com.karumi.screenshot.compare.TestImages.withSquare;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PerceptualDeltaTest {
+
+  @Test public void doesNotFindAnyDistanceBetweenEqualPixels() {
+    assertEquals(0, PerceptualDelta.colorDelta(0xff336699, 0xff336699), 0);
+  }
+
+  @Test public void measuresTheSameDistanceInBothDirections() {
+    assertEquals(PerceptualDelta.colorDelta(0xff336699, 0xffcc3300),
+        PerceptualDelta.colorDelta(0xffcc3300, 0xff336699), 0);
+  }
+
+  @Test public void keepsEveryDistanceUnderTheMaximum() {
+    int[] colors = { BLACK, WHITE, 0xffff0000, 0xff00ff00, 0xff0000ff, 0xffffff00, 0xff00ffff,
+        0xffff00ff };
+    for (int color1 : colors) {
+      for (int color2 : colors) {
+        double delta = PerceptualDelta.colorDelta(color1, color2);
+        assertTrue(delta >= 0);
+        assertTrue(delta <= PerceptualDelta.MAX_DELTA);
+      }
+    }
+    assertTrue(PerceptualDelta.colorDelta(BLACK, WHITE) > 0.9 * PerceptualDelta.MAX_DELTA);
+  }
+
+  @Test public void blendsTransparentPixelsOverWhite() {
+    assertEquals(0, PerceptualDelta.colorDelta(0x00000000, WHITE), 1e-9);
+    assertEquals(PerceptualDelta.colorDelta(gray(127), WHITE),
+        PerceptualDelta.colorDelta(0x80000000, WHITE), 1e-9);
+  }
+
+  @Test public void detectsThePixelsOfAnAntiAliasedEdge() {
+    Image image = withRectangle(withRectangle(filled(10, 10, WHITE), 0, 0, 5, 10, BLACK), 5, 0,
+        1, 10, gray(128));
+
+    for (int y = 0; y < 10; y++) {
+      assertTrue(PerceptualDelta.isAntiAliased(image, 5, y, image));
+    }
+  }
+
+  @Test public void doesNotTakePixelsOfFlatAreasAsAntiAliased() {
+    Image image = withRectangle(filled(10, 10, WHITE), 0, 0, 5, 10, BLACK);
+
+    assertFalse(PerceptualDelta.isAntiAliased(image, 2, 5, image));
+    assertFalse(PerceptualDelta.isAntiAliased(image, 4, 5, image));
+    assertFalse(PerceptualDelta.isAntiAliased(image, 5, 5, image));
+  }
+
+  @Test public void doesNotTakeIsolatedDotsAsAntiAliased() {
+    Image image = withSquare(filled(10, 10, WHITE), 5, 5, 1, BLACK);
+
+    assertFalse(PerceptualDelta.isAntiAliased(image, 5, 5, image));
+  }
+
+  @Test public void requiresTheFlatNeighbourhoodInBothImages() {
+    Image edge = withRectangle(withRectangle(filled(10, 10, WHITE), 0, 0, 5, 10, BLACK), 5, 0,
+        1, 10, gray(128));
+    Image noise = gray(10, 10, 7);
+
+    assertFalse(PerceptualDelta.isAntiAliased(edge, 5, 5, noise));
+  }
+
+  @Test public void checksThePixelsInTheCornersOfTheImage() {
+    Image image = withSquare(filled(3, 3, WHITE), 1, 1, 2, BLACK);
+    Image corner = withSquare(image, 0, 0, 1, gray(128));
+
+    assertTrue(PerceptualDelta.isAntiAliased(corner, 0, 0, corner));
+    assertFalse(PerceptualDelta.isAntiAliased(corner, 2, 2, corner));
+  }
+}
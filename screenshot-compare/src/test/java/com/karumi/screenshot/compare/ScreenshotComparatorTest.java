@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.compare;
+
+import java.util.concurrent.ForkJoinPool;
+import org.junit.After;
+import org.junit.Test;
+
+import static com.karumi.screenshot.compare.TestImages.BLACK;
+import static com.karumi.screenshot.compare.TestImages.WHITE;
+import static com.karumi.screenshot.compare.TestImages.filled;
+import static com.karumi.screenshot.compare.TestImages.gray;
+import static com.karumi.screenshot.compare.TestImages.jittered;
+import static com.karumi.screenshot.compare.TestImages.withRectangle;
+import static com.karumi.screenshot.compare.TestImages.withSquare;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ScreenshotComparatorTest {
+
+  private final ForkJoinPool pool = new ForkJoinPool(2);
+
+  @After public void tearDown() {
+    pool.shutdown();
+  }
+
+  @Test public void passesIdenticalScreenshots() {
+    Image baseline = gray(200, 150, 1);
+
+    ComparisonResult result = compare(baseline, gray(200, 150, 1), options().failFast(false));
+
+    assertTrue(result.isPassed());
+    assertEquals(12, result.getTotalTiles());
+    assertEquals(12, result.getTileDeltas().size());
+    for (TileDelta tileDelta : result.getTileDeltas()) {
+      assertEquals(0, tileDelta.getDifferentPixels());
+      assertEquals(0, tileDelta.getMaxDelta(), 0);
+    }
+  }
+
+  @Test public void passesScreenshotsWithRenderingNoise() {
+    Image baseline = gray(200, 150, 1);
+
+    ComparisonResult result =
+        compare(baseline, jittered(baseline, 3, 2), options().failFast(false));
+
+    assertTrue(result.isPassed());
+    for (TileDelta tileDelta : result.getTileDeltas()) {
+      assertTrue(tileDelta.getMaxDelta() > 0);
+      assertTrue(tileDelta.getMaxDelta() <= 0.1);
+    }
+  }
+
+  @Test public void failsOnlyTheTilesOfAPaintedSquare() {
+    Image baseline = filled(256, 256, WHITE);
+    Image actual = withSquare(baseline, 70, 10, 20, BLACK);
+
+    ComparisonResult result = compare(baseline, actual, options().failFast(false));
+
+    assertFalse(result.isPassed());
+    assertEquals(16, result.getTileDeltas().size());
+    assertEquals(1, result.getFailedTiles().size());
+    TileDelta failedTile = result.getFailedTiles().get(0);
+    assertEquals(64, failedTile.getX());
+    assertEquals(0, failedTile.getY());
+    assertEquals(400, failedTile.getDifferentPixels());
+    assertEquals(1, failedTile.getMaxDelta(), 0.05);
+  }
+
+  @Test public void failsTheScreenshotsOfDifferentSizesWithoutComparingThem() {
+    ComparisonResult result =
+        compare(filled(100, 100, WHITE), filled(100, 101, WHITE), options());
+
+    assertFalse(result.isPassed());
+    assertFalse(result.isSameSize());
+    assertEquals(0, result.getTotalTiles());
+    assertTrue(result.getTileDeltas().isEmpty());
+  }
+
+  @Test public void splitsTheEdgesOfTheScreenshotsInSmallerTiles() {
+    Image baseline = filled(100, 70, WHITE);
+
+    ComparisonResult result = compare(baseline, baseline, options().failFast(false));
+
+    assertEquals(4, result.getTotalTiles());
+    assertTile(result.getTileDeltas().get(0), 0, 0, 64, 64);
+    assertTile(result.getTileDeltas().get(1), 64, 0, 36, 64);
+    assertTile(result.getTileDeltas().get(2), 0, 64, 64, 6);
+    assertTile(result.getTileDeltas().get(3), 64, 64, 36, 6);
+  }
+
+  @Test public void comparesThePixelsOfTheEdgeTiles() {
+    Image baseline = filled(100, 70, WHITE);
+    Image actual = withSquare(baseline, 99, 69, 1, BLACK);
+
+    ComparisonResult result = compare(baseline, actual, options().failFast(false));
+
+    assertEquals(1, result.getFailedTiles().size());
+    assertTile(result.getFailedTiles().get(0), 64, 64, 36, 6);
+  }
+
+  @Test public void stopsComparingTilesOnceOneFailsInFailFastMode() {
+    Image baseline = filled(160, 160, WHITE);
+    Image actual = filled(160, 160, BLACK);
+    ComparisonOptions.Builder options = options().tileSize(8);
+
+    ComparisonResult failFastResult = compare(baseline, actual, options.failFast(true));
+    ComparisonResult fullResult = compare(baseline, actual, options.failFast(false));
+
+    assertFalse(failFastResult.isPassed());
+    assertEquals(400, failFastResult.getTotalTiles());
+    assertTrue(failFastResult.getTileDeltas().size() < failFastResult.getTotalTiles());
+    assertEquals(400, fullResult.getTileDeltas().size());
+    assertEquals(400, fullResult.getFailedTiles().size());
+  }
+
+  @Test public void toleratesTheConfiguredShareOfDifferentPixels() {
+    Image baseline = filled(10, 10, WHITE);
+    Image actual = withSquare(baseline, 0, 0, 1, BLACK);
+
+    assertTrue(compare(baseline, actual, options().maxDifferentPixelRatio(0.01)).isPassed());
+    assertFalse(compare(baseline, actual, options().maxDifferentPixelRatio(0.009)).isPassed());
+  }
+
+  @Test public void ignoresAntiAliasedEdgesOnlyWhenConfigured() {
+    Image edge = withRectangle(filled(10, 10, WHITE), 0, 0, 5, 10, BLACK);
+    Image baseline = withRectangle(edge, 5, 0, 1, 10, gray(128));
+    Image actual = withRectangle(edge, 5, 0, 1, 10, gray(100));
+
+    ComparisonResult ignoring = compare(baseline, actual, options().ignoreAntiAliasing(true));
+    ComparisonResult notIgnoring = compare(baseline, actual, options().ignoreAntiAliasing(false));
+
+    assertTrue(ignoring.isPassed());
+    assertEquals(10, ignoring.getTileDeltas().get(0).getAntiAliasedPixels());
+    assertFalse(notIgnoring.isPassed());
+    assertEquals(10, notIgnoring.getTileDeltas().get(0).getDifferentPixels());
+  }
+
+  private ComparisonResult compare(Image baseline, Image actual,
+      ComparisonOptions.Builder options) {
+    return new ScreenshotComparator(options.build(), pool).compare(baseline, actual);
+  }
+
+  private static ComparisonOptions.Builder options() {
+    return new ComparisonOptions.Builder();
+  }
+
+  private static void assertTile(TileDelta tileDelta, int x, int y, int width, int height) {
+    assertEquals(x, tileDelta.getX());
+    assertEquals(y, tileDelta.getY());
+    assertEquals(width, tileDelta.getWidth());
+    assertEquals(height, tileDelta.getHeight());
+  }
+}
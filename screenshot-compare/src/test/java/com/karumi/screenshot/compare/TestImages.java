@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2017 Karumi.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.karumi.screenshot.compare;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import javax.imageio.ImageIO;
+
+final class TestImages {
+
+  static final int WHITE = 0xffffffff;
+  static final int BLACK = 0xff000000;
+
+  private TestImages() {
+  }
+
+  static Image filled(int width, int height, int color) {
+    int[] pixels = new int[width * height];
+    Arrays.fill(pixels, color);
+    return new Image(width, height, pixels);
+  }
+
+  static Image gray(int width, int height, int seed) {
+    Random random = new Random(seed);
+    int[] pixels = new int[width * height];
+    for (int i = 0; i < pixels.length; i++) {
+      pixels[i] = gray(random.nextInt(256));
+    }
+    return new Image(width, height, pixels);
+  }
+
+  static Image jittered(Image image, int maxJitter, int seed) {
+    Random random = new Random(seed);
+    int[] pixels = image.getPixels().clone();
+    for (int i = 0; i < pixels.length; i++) {
+      int jitter = random.nextInt(2 * maxJitter + 1) - maxJitter;
+      pixels[i] = gray(Math.max(0, Math.min(255, (pixels[i] & 0xff) + jitter)));
+    }
+    return new Image(image.getWidth(), image.getHeight(), pixels);
+  }
+
+  static Image withSquare(Image image, int x, int y, int size, int color) {
+    return withRectangle(image, x, y, size, size, color);
+  }
+
+  static Image withRectangle(Image image, int x, int y, int width, int height, int color) {
+    int[] pixels = image.getPixels().clone();
+    for (int row = y; row < y + height; row++) {
+      Arrays.fill(pixels, row * image.getWidth() + x, row * image.getWidth() + x + width, color);
+    }
+    return new Image(image.getWidth(), image.getHeight(), pixels);
+  }
+
+  static File writePng(Image image, File file) throws IOException {
+    return writePng(image, file, BufferedImage.TYPE_INT_ARGB);
+  }
+
+  /**
+   * Writes the image as a PNG of the given {@link BufferedImage} type, so that the same pixels
+   * can be stored in files with different bytes.
+   */
+  static File writePng(Image image, File file, int type) throws IOException {
+    int width = image.getWidth();
+    BufferedImage bufferedImage = new BufferedImage(width, image.getHeight(), type);
+    bufferedImage.setRGB(0, 0, width, image.getHeight(), image.getPixels(), 0, width);
+    if (!ImageIO.write(bufferedImage, "png", file)) {
+      throw new IOException("Could not write " + file);
+    }
+    return file;
+  }
+
+  static int gray(int level) {
+    return 0xff000000 | level << 16 | level << 8 | level;
+  }
+}